@@ -14,6 +14,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.data.DataLoadProgress;
+import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchWarmer;
 
 /**
  * Application Loader(Spring Boot) for the GoEuro Java Developer Test(Bus Route Challenge).
@@ -33,6 +35,9 @@ public class ApplicationLoader implements CommandLineRunner {
     @Autowired
     private BusRouteDataCacheManager cacheManager;
 
+    @Autowired
+    private DirectBusRouteSearchWarmer searchWarmer;
+
     /**
      * This will be used during the integration tests since there is no direct
      * way to send the command line arguments in Spring Boot at this moment. This
@@ -42,6 +47,13 @@ public class ApplicationLoader implements CommandLineRunner {
     @Value("${bus-route-data-file-path}")
     private String busRouteDataFilePath;
 
+    /**
+     * Additional named data sets to be loaded along with the default one, as comma separated 'name=path' pairs.
+     * (e.g. --bus-route.datasets=eu=/data/eu-routes,us=/data/us-routes)
+     */
+    @Value("${bus-route.datasets:}")
+    private String[] additionalDataSets;
+
     /**
      * @param args
      */
@@ -63,5 +75,28 @@ public class ApplicationLoader implements CommandLineRunner {
     public void run(String... args) throws IOException {
         /* Verify, Validate the given input file path and initialize the data cache */
         cacheManager.validateDataFileAndInitializeCache(busRouteDataFilePath);
+
+        /* Same for each of the additional data sets, the application/server fails to start if any of them is not valid */
+        for (String additionalDataSet : additionalDataSets) {
+            final String[] nameAndPath = additionalDataSet.trim().split("=", 2);
+            if (nameAndPath.length != 2) {
+                throw new IllegalArgumentException(
+                        String.format("Data set '%s' should be given as 'name=path'.", additionalDataSet));
+            }
+            cacheManager.validateDataFileAndInitializeCache(nameAndPath[0].trim(), nameAndPath[1].trim());
+        }
+
+        /* Warm up the search path before the instance reports itself as ready */
+        final DataLoadProgress loadProgress = cacheManager.getLoadProgress();
+        try {
+            loadProgress.startWarmingUp();
+            searchWarmer.warmUp();
+            cacheManager.resetHotness();    /* The hot tiers should follow the real traffic, not the warmup queries */
+        } catch (IOException | RuntimeException e) {
+            loadProgress.markFailed();
+            throw e;
+        }
+
+        loadProgress.markReady();
     }
 }
@@ -0,0 +1,167 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchHttpHandler;
+import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Lean Application Loader for the containers which need to serve the direct route search as soon as possible.
+ * The beans are wired explicitly(no Spring context, classpath scanning or auto-configuration) and the search is served
+ * by the JDK HTTP server(@see com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchHttpHandler).
+ *
+ * Serves /api/direct along with /health and /readiness(the data is loaded before the server starts). The actuator
+ * end points, the other search APIs, the admission control, the warmup and the hot tier refresh are left to the
+ * Spring Boot mode(@see com.goeuro.hiring.devtest.busroute.ApplicationLoader).
+ *
+ * Nothing is generated or loaded reflectively at the start, hence the loaded classes can be archived with the
+ * class-data sharing(AppCDS) from a flat classpath(mvn -Plean package, see README).
+ *
+ * Usage: LeanApplicationLoader DATA_FILE [--server.port=8088] [--bus-route.lean.worker-threads=0] [--bus-route.datasets=name=path,...]
+ *                              [--bus-route.lean.exit-after-start=false]
+ *   --bus-route.lean.worker-threads    Request threads, 0 uses two per core.
+ *   --bus-route.lean.exit-after-start  Send a search request to itself and stop right after the start, to record the
+ *                                      classes loaded for the start and the request path into the AppCDS archive.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class LeanApplicationLoader {
+
+    static {
+        /* The Spring Boot logging defaults(INFO, console) without Spring Boot, unless a configuration is given */
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", "logback-lean.xml");
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeanApplicationLoader.class.getName());
+
+    private static final int DEFAULT_PORT = 8088;   /* Same as the server.port of application.properties */
+
+    private LeanApplicationLoader() {
+    }
+
+    /**
+     * @param args
+     * @throws IOException if any of the data files is not valid or the port is not available
+     */
+    public static void main(String[] args) throws IOException {
+        final long startTime = System.nanoTime();
+
+        if (args.length < 1 || args[0].startsWith("--")) {
+            LOGGER.error("Required number arguments are not provided. Args Count is: {}", args.length);
+            throw new IllegalArgumentException("This application requires bus route data file path as an argument.");
+        }
+        final Map<String, String> options = parseOptions(args);
+
+        /* Same wiring as the Spring context, with the defaults of the properties */
+        final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+        final DirectBusRouteSearchService searchService = new DirectBusRouteSearchService(cacheManager);
+
+        cacheManager.validateDataFileAndInitializeCache(args[0]);
+        for (String additionalDataSet : options.getOrDefault("bus-route.datasets", "").split(",")) {
+            if (additionalDataSet.trim().isEmpty()) {
+                continue;
+            }
+            final String[] nameAndPath = additionalDataSet.trim().split("=", 2);
+            if (nameAndPath.length != 2) {
+                throw new IllegalArgumentException(
+                        String.format("Data set '%s' should be given as 'name=path'.", additionalDataSet));
+            }
+            cacheManager.validateDataFileAndInitializeCache(nameAndPath[0].trim(), nameAndPath[1].trim());
+        }
+        cacheManager.getLoadProgress().markReady();
+
+        final int port = Integer.parseInt(options.getOrDefault("server.port", String.valueOf(DEFAULT_PORT)));
+        final int configuredWorkerThreads = Integer.parseInt(options.getOrDefault("bus-route.lean.worker-threads", "0"));
+        final int workerThreads = (configuredWorkerThreads > 0)
+                ? configuredWorkerThreads : Runtime.getRuntime().availableProcessors() * 2;
+
+        final ExecutorService workers = Executors.newFixedThreadPool(workerThreads);
+        final HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/api/direct", new DirectBusRouteSearchHttpHandler(cacheManager, searchService));
+        server.createContext("/health", LeanApplicationLoader::writeUp);
+        server.createContext("/readiness", LeanApplicationLoader::writeUp);
+        server.setExecutor(workers);
+        server.start();
+
+        LOGGER.info("Lean bus route service is started on port {} with {} worker threads in {} ms.",
+                server.getAddress().getPort(),
+                workerThreads,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        if (Boolean.parseBoolean(options.getOrDefault("bus-route.lean.exit-after-start", "false"))) {
+            sendTrainingRequest(server.getAddress().getPort());
+            server.stop(0);
+            workers.shutdown();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            workers.shutdown();
+        }, "lean-server-shutdown"));
+    }
+
+    /**
+     * @param port
+     * @throws IOException
+     */
+    private static void sendTrainingRequest(final int port) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection)
+                new URL("http://localhost:" + port + "/api/direct?dep_sid=0&arr_sid=0").openConnection();
+        try (InputStream responseBody = connection.getInputStream()) {
+            while (responseBody.read() >= 0) {
+                /* Drain the response */
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void writeUp(final HttpExchange exchange) throws IOException {
+        final byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    /**
+     * @param args
+     * @return Option name(without the leading '--') -> Value
+     */
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        return options;
+    }
+
+}
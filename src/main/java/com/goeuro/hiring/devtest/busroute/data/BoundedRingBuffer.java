@@ -0,0 +1,101 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer connecting the stages of the data file load pipeline.
+ * Any number of producers and consumers(bounded MPMC queue with a sequence per slot).
+ *
+ * A producer claims the next slot only once the consumers have released it(slot sequence == position)
+ * and a consumer takes it only once the producer has published it(slot sequence == position + 1),
+ * hence no slot is ever read half written and no lock is taken. offer/poll never block, the caller decides
+ * how to wait when the buffer is full or empty(backpressure).
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class BoundedRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    /**
+     * @param capacity Rounded up to the next power of two
+     */
+    BoundedRingBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int slot = 0; slot < size; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    /**
+     * @param element
+     * @return false if the buffer is full
+     */
+    boolean offer(final E element) {
+        long position = producerPosition.get();
+
+        while (true) {
+            final int slot = (int) (position & mask);
+            final long difference = sequences.get(slot) - position;
+
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.lazySet(slot, position + 1);     /* Ordered after the element, publishes it */
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false;   /* Slot is not yet released by the consumer of the previous lap */
+            } else {
+                position = producerPosition.get();  /* Claimed by another producer */
+            }
+        }
+    }
+
+    /**
+     * @return Next element or null if the buffer is empty
+     */
+    E poll() {
+        long position = consumerPosition.get();
+
+        while (true) {
+            final int slot = (int) (position & mask);
+            final long difference = sequences.get(slot) - (position + 1);
+
+            if (difference == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    final E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.lazySet(slot, position + mask + 1);   /* Released for the producer of the next lap */
+                    return element;
+                }
+                position = consumerPosition.get();
+            } else if (difference < 0) {
+                return null;    /* Slot is not yet published */
+            } else {
+                position = consumerPosition.get();  /* Taken by another consumer */
+            }
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+}
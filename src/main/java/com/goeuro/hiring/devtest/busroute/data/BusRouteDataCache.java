@@ -3,21 +3,23 @@
  */
 package com.goeuro.hiring.devtest.busroute.data;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-
-import org.springframework.stereotype.Component;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * In-memory data cache to store the stations with its connected stations.
- * It also contains basic set of APIs to query the data cache.
+ * Immutable in-memory data cache to store the routes with its stations.
+ * It also contains basic set of APIs to query the data cache, which are lock-free and safe to be called concurrently.
  * 
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
-@Component
 public class BusRouteDataCache {
 
     /**
@@ -28,6 +30,7 @@ public class BusRouteDataCache {
      *      (1) "Quickly answer if two given stations are connected by a bus route"
      *      (2) The input data file
      *           - Loaded during the application/server start only and any changes to this file will requires a restart.
+     *             (A new data cache is built and published as a whole if it is reloaded, the published data cache is never modified)
      *           - Changes weekly (which is not too often)
      *
      * GOAL:
@@ -59,103 +62,725 @@ public class BusRouteDataCache {
      *                 will be stored in a list.
      *               - Search Time Complexity is similar to OPTION (1).
      *
-     * OPTION (2) is being used in this implementation to store the data in-memory
+     * OPTION (3): Map<STATION, List<ROUTES>> + Compressed Station Sequence per Route
+     * -------------------------------------------------------------------------------
+     *               - Each station is mapped to an ordinal(in the order they are seen first) and
+     *                 the sorted list of routes(posting list) it belongs to, along with its position(offset) in each of them.
+     *                 The routes and the positions are stored as two flat columns aligned with each other.
+     *               - The station sequence of each route is stored once, delta + varint encoded
+     *                 (@see com.goeuro.hiring.devtest.busroute.data.CompressedRouteStore).
+     *               - Search Time Complexity is O(1) + O(R1 + R2) where R1 & R2 are the number of routes of each station
+     *                  - (1) Intersect the posting lists of the Departure and Arrival Stations
+     *                    (merge for the similar sizes, galloping in O(R1 * log(R2 / R1)) for a hub station, @see PostingLists)
+     *                  - (2) Compare the positions of the stations in each common route to check the direction(O(1) per route).
+     *                        The same comparison answers the reverse direction and gives the starting point of
+     *                        the walks along the routes(reachable/upstream stations, connectivity matrix).
+     *
+     *      - OPTION (2) explodes every route into (N * (N - 1) / 2) station pairs, which can go up to
+     *        50 Billion entries for the worst case input and doesn't fit into the memory.
+     *      - This option stores each station occurrence once and the hot data fits into the CPU caches.
+     *      - The query traffic is skewed to the hub stations, which have the longest posting lists. The connectivity among
+     *        the most looked up stations(sampled) is precomputed into a small bit matrix(@see HotStationTier), refreshed periodically.
+     *      - Station IDs are resolved to the ordinals by a minimal perfect hash function built at the load time
+     *        (@see StationPerfectHash), which takes about half the memory of a hash table.
+     *      - The departure schedules of the routes(optional, @see RouteSchedules) are sorted arrays per route, hence the next
+     *        departures of the common routes are a binary search each, on top of the same intersection.
+     *      - The upstream stations are collected from the posting list of the arrival station into a bit set over the
+     *        ranks of the Station IDs(@see StationIdOrder) and paged with a bit set walk, nothing is stored per station pair.
+     *
+     * OPTION (3) is being used in this implementation to store the data in-memory
+     */
+    private final StationPerfectHash stationIndex;      /* Station ID -> Station Ordinal(minimal perfect hash) */
+
+    private final int[] stationIds;                     /* Station Ordinal -> Station ID */
+
+    private final int[] stationRouteOffsets;            /* Station Ordinal -> Start of its posting list in stationRoutes */
+
+    private final int[] stationRoutes;                  /* Posting lists(Route Ordinals in ascending order) of all the stations */
+
+    private final int[] stationRoutePositions;          /* Position of the station in each route of its posting list(aligned with stationRoutes) */
+
+    private final long[] departureStations;             /* Bit set of the Station Ordinals which are not the last station of all its routes */
+
+    private final int[] routeIds;                       /* Route Ordinal -> Route ID */
+
+    private final CompressedRouteStore routeStations;   /* Route Ordinal -> Station Ordinals in the travel order */
+
+    private final RouteSchedules routeSchedules;        /* Route Ordinal -> Departure times(minutes of the week), empty if not given */
+
+    private final StationIdOrder stationIdOrder;        /* Station Ordinal <-> Rank in the order of the Station IDs */
+
+    private final StationIdBitmap stationIdBitmap;              /* Station IDs of all the stations, null if the IDs are sparse */
+
+    private final StationIdBitmap departureStationIdBitmap;     /* Station IDs of the departure stations, null if the IDs are sparse */
+
+    /* Sampled lookup counters per station, null if the hotness is not tracked */
+    private volatile StationHotness stationHotness;
+
+    /* Connectivity among the hottest stations, replaced as a whole by the periodic refresh(@see #refreshHotTier(int)) */
+    private volatile HotStationTier hotTier = HotStationTier.EMPTY;
+
+    /**
+     * Use @see com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheBuilder to create the data cache.
+     * All the data fields are final and never modified after the construction, hence it can be read by any number of
+     * threads without synchronization once it is published. Only the hotness counters and the hot tier(derived from
+     * the data, never changes an answer) are updated afterwards, through the volatile references.
      */
-    private Map<Integer, Map<Integer, List<Integer>>> dataCache = new HashMap<>();
+    BusRouteDataCache(final StationPerfectHash stationIndex,
+                      final int[] stationIds,
+                      final int[] stationRouteOffsets,
+                      final int[] stationRoutes,
+                      final int[] stationRoutePositions,
+                      final long[] departureStations,
+                      final int[] routeIds,
+                      final CompressedRouteStore routeStations,
+                      final RouteSchedules routeSchedules) {
+        this.stationIndex = stationIndex;
+        this.stationIds = stationIds;
+        this.stationRouteOffsets = stationRouteOffsets;
+        this.stationRoutes = stationRoutes;
+        this.stationRoutePositions = stationRoutePositions;
+        this.departureStations = departureStations;
+        this.routeIds = routeIds;
+        this.routeStations = routeStations;
+        this.routeSchedules = routeSchedules;
+        this.stationIdOrder = new StationIdOrder(stationIds);
+        this.stationIdBitmap = StationIdBitmap.build(stationIds, null);
+        this.departureStationIdBitmap = StationIdBitmap.build(stationIds, departureStations);
+    }
 
     /**
-     * Update the cache with the given station ID along with its connected stations and route Id.
+     * Checks if the departure station is present in the cache
      * 
-     * @param routeId
-     * @param stationId
-     * @param connectedStationIds
+     * @param departureStationId
+     * @return true if it is present.
      */
-    public void updateCache(final Integer routeId,
-                            final Integer stationId,
-                            final List<Integer> connectedStationIds) {
+    public boolean isDepartureStationIdExists(final int departureStationId) {
+        return isDepartureStation(stationIndex.getOrdinal(departureStationId));
+    }
 
-        /* Fetch the connected stations for the given origin station ID. */
-        final Map<Integer, List<Integer>> connecteStationsInfo = getConnectedStationsInfo(stationId);
+    /**
+     * Quick check of the station IDs before any lookup, to reject the queries with unknown stations early.
+     * It is a bit test per station if the Station IDs are dense(@see StationIdBitmap), the station index is looked up otherwise.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return false if the departure station isn't connected to any station or the arrival station doesn't exist,
+     *         i.e. the stations can't be connected. true doesn't mean that they are connected.
+     */
+    public boolean areStationsKnown(final int departureStationId,
+                                    final int arrivalStationId) {
+        if (departureStationIdBitmap != null) {
+            return departureStationIdBitmap.contains(departureStationId) && stationIdBitmap.contains(arrivalStationId);
+        }
 
-        /* Add the new connected stations for the given origin station ID along with route ID */
-        connectedStationIds.stream().forEach(connectedStationId -> updateConnectedStationInfo(connectedStationId, routeId, connecteStationsInfo));
+        return isDepartureStationIdExists(departureStationId)
+                && stationIndex.getOrdinal(arrivalStationId) != StationIndex.NOT_FOUND;
     }
 
     /**
-     * Fetch the existing connected station information for the ginen station ID.
-     * 
-     * @param stationId
-     * @return
+     * Checks if the arrival station comes after the departure station in at least one of the routes.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if arrival station is directly connected from the departure station
+     */
+    public boolean isArrivalStationIdConnected(final int departureStationId,
+                                               final int arrivalStationId) {
+        return isConnected(stationIndex.getOrdinal(departureStationId), stationIndex.getOrdinal(arrivalStationId));
+    }
+
+    /**
+     * Checks if the arrival station comes before the departure station in at least one of the routes,
+     * i.e. the stations are directly connected if the route is travelled in the opposite direction.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if departure station is directly connected from the arrival station
      */
-    private Map<Integer, List<Integer>> getConnectedStationsInfo(final Integer stationId) {
+    public boolean isArrivalStationIdConnectedInReverse(final int departureStationId,
+                                                        final int arrivalStationId) {
+        return isConnected(stationIndex.getOrdinal(arrivalStationId), stationIndex.getOrdinal(departureStationId));
+    }
+
+    /**
+     * @param departureStationOrdinal
+     * @param arrivalStationOrdinal
+     * @return true if the arrival station comes after the departure station in at least one of the common routes
+     */
+    private boolean isConnected(final int departureStationOrdinal,
+                                final int arrivalStationOrdinal) {
+
+        if (!isDepartureStation(departureStationOrdinal)
+                || arrivalStationOrdinal == StationIndex.NOT_FOUND
+                || departureStationOrdinal == arrivalStationOrdinal) {
+            return false;
+        }
+
+        /* Both the stations are hot, the connectivity is precomputed */
+        final HotStationTier currentHotTier = hotTier;
+        final int departureHotOrdinal = currentHotTier.getHotOrdinal(departureStationOrdinal);
+        final int arrivalHotOrdinal = (departureHotOrdinal == StationIndex.NOT_FOUND)
+                ? StationIndex.NOT_FOUND : currentHotTier.getHotOrdinal(arrivalStationOrdinal);
+
+        final StationHotness currentStationHotness = stationHotness;
+        if (currentStationHotness != null) {
+            currentStationHotness.sample(departureStationOrdinal, arrivalStationOrdinal, arrivalHotOrdinal != StationIndex.NOT_FOUND);
+        }
+
+        if (arrivalHotOrdinal != StationIndex.NOT_FOUND) {
+            return currentHotTier.isConnected(departureHotOrdinal, arrivalHotOrdinal);
+        }
+
+        final int departureEnd = stationRouteOffsets[departureStationOrdinal + 1];
+        final int arrivalEnd = stationRouteOffsets[arrivalStationOrdinal + 1];
+
+        /* Intersect the posting lists and compare the positions in the common routes, till the first route in the right direction */
+        long positions = PostingLists.findFirstCommon(
+                stationRoutes, stationRouteOffsets[departureStationOrdinal], departureEnd,
+                stationRoutes, stationRouteOffsets[arrivalStationOrdinal], arrivalEnd);
+
+        while (positions != PostingLists.NOT_FOUND) {
+            final int departureIndex = PostingLists.getFirstIndex(positions);
+            final int arrivalIndex = PostingLists.getSecondIndex(positions);
 
-        if (!dataCache.containsKey(stationId)) {
-            dataCache.put(stationId, new HashMap<>());
+            if (stationRoutePositions[departureIndex] < stationRoutePositions[arrivalIndex]) {
+                return true;
+            }
+
+            positions = PostingLists.findFirstCommon(
+                    stationRoutes, departureIndex + 1, departureEnd,
+                    stationRoutes, arrivalIndex + 1, arrivalEnd);
         }
 
-        return dataCache.get(stationId);
+        return false;
     }
 
     /**
-     * Update the cache with the given station ID along with its connected stations and route Id.
+     * Returns the list of connected routes for the given departure and arrival station IDs.
      *
-     * @param connectedStationId
-     * @param routeId
-     * @param connectedStationsInfo
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return List of route IDs
      */
-    private void updateConnectedStationInfo(final Integer connectedStationId,
-                                            final Integer routeId,
-                                            final Map<Integer, List<Integer>> connectedStationsInfo) {
+    public List<Integer> getConnectedRoutedIds(final int departureStationId,
+                                               final int arrivalStationId) {
+
+        final int departureStationOrdinal = stationIndex.getOrdinal(departureStationId);
+        final int arrivalStationOrdinal = stationIndex.getOrdinal(arrivalStationId);
 
-        if (!connectedStationsInfo.containsKey(connectedStationId)) {
-            connectedStationsInfo.put(connectedStationId, new ArrayList<>());
+        if (!isDepartureStation(departureStationOrdinal)
+                || arrivalStationOrdinal == StationIndex.NOT_FOUND
+                || departureStationOrdinal == arrivalStationOrdinal) {
+            return Collections.emptyList(); /* No direct route connects the given stations. */
         }
 
-        connectedStationsInfo.get(connectedStationId).add(routeId);
+        final List<Integer> connectedRouteIds = new ArrayList<>();
+
+        final int departureEnd = stationRouteOffsets[departureStationOrdinal + 1];
+        final int arrivalEnd = stationRouteOffsets[arrivalStationOrdinal + 1];
+
+        long positions = PostingLists.findFirstCommon(
+                stationRoutes, stationRouteOffsets[departureStationOrdinal], departureEnd,
+                stationRoutes, stationRouteOffsets[arrivalStationOrdinal], arrivalEnd);
+
+        while (positions != PostingLists.NOT_FOUND) {
+            final int departureIndex = PostingLists.getFirstIndex(positions);
+            final int arrivalIndex = PostingLists.getSecondIndex(positions);
+            if (stationRoutePositions[departureIndex] < stationRoutePositions[arrivalIndex]) {
+                connectedRouteIds.add(routeIds[stationRoutes[departureIndex]]);
+            }
+
+            positions = PostingLists.findFirstCommon(
+                    stationRoutes, departureIndex + 1, departureEnd,
+                    stationRoutes, arrivalIndex + 1, arrivalEnd);
+        }
+
+        return connectedRouteIds;
     }
 
     /**
-     * Checks if the departure station is present in the cache
-     * 
+     * Finds the next departures, at or after the given time of the week, of all the routes in which the arrival station
+     * comes after the departure station. The routes are found the same way as the direct connectivity check and the
+     * next departures of each route are a binary search over its schedule. Nothing is allocated, the next departures are
+     * written into the given arrays, sorted by the wait(the week wraps around). The routes without a schedule are skipped.
+     *
      * @param departureStationId
-     * @return true if it is present.
+     * @param arrivalStationId
+     * @param minuteOfWeek       Time to depart at or after(@see com.goeuro.hiring.devtest.busroute.utils.Constants#MINUTES_PER_WEEK)
+     * @param departureTimes     Departure times of the next departures, its length is the maximum number of departures
+     * @param departureRouteIds  Route IDs of the next departures(same length as the departure times)
+     * @return Number of next departures written into the arrays
      */
-    public boolean isDepartureStationIdExists(final Integer departureStationId) {
-        return dataCache.containsKey(departureStationId);
+    public int findNextDepartures(final int departureStationId,
+                                  final int arrivalStationId,
+                                  final int minuteOfWeek,
+                                  final int[] departureTimes,
+                                  final int[] departureRouteIds) {
+
+        final int departureStationOrdinal = stationIndex.getOrdinal(departureStationId);
+        final int arrivalStationOrdinal = stationIndex.getOrdinal(arrivalStationId);
+
+        if (routeSchedules.isEmpty()
+                || !isDepartureStation(departureStationOrdinal)
+                || arrivalStationOrdinal == StationIndex.NOT_FOUND
+                || departureStationOrdinal == arrivalStationOrdinal) {
+            return 0; /* No direct route connects the given stations or none of the routes has a schedule. */
+        }
+
+        int departuresCount = 0;
+
+        final int departureEnd = stationRouteOffsets[departureStationOrdinal + 1];
+        final int arrivalEnd = stationRouteOffsets[arrivalStationOrdinal + 1];
+
+        long positions = PostingLists.findFirstCommon(
+                stationRoutes, stationRouteOffsets[departureStationOrdinal], departureEnd,
+                stationRoutes, stationRouteOffsets[arrivalStationOrdinal], arrivalEnd);
+
+        while (positions != PostingLists.NOT_FOUND) {
+            final int departureIndex = PostingLists.getFirstIndex(positions);
+            final int arrivalIndex = PostingLists.getSecondIndex(positions);
+            if (stationRoutePositions[departureIndex] < stationRoutePositions[arrivalIndex]) {
+                final int routeOrdinal = stationRoutes[departureIndex];
+                departuresCount = routeSchedules.addNextDepartures(routeOrdinal, routeIds[routeOrdinal], minuteOfWeek,
+                        departureTimes, departureRouteIds, departuresCount);
+            }
+
+            positions = PostingLists.findFirstCommon(
+                    stationRoutes, departureIndex + 1, departureEnd,
+                    stationRoutes, arrivalIndex + 1, arrivalEnd);
+        }
+
+        return departuresCount;
     }
 
     /**
-     * Checks if the arrival station is added to the connection details of the departure station in the cache
+     * Returns all the departure station IDs present in the cache.
+     *
+     * @return Set of departure station IDs
+     */
+    public Set<Integer> getDepartureStationIds() {
+        final Set<Integer> departureStationIds = new HashSet<>();
+
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            if (isDepartureStation(stationOrdinal)) {
+                departureStationIds.add(stationIds[stationOrdinal]);
+            }
+        }
+
+        return departureStationIds;
+    }
+
+    /**
+     * Returns the stations which are directly connected from the given departure station ID.
      *
      * @param departureStationId
-     * @param arrivalStationId
-     * @return true if arrival station is present in the value of departure station key
+     * @return Set of arrival station IDs
      */
-    public boolean isArrivalStationIdConnected(final Integer departureStationId,
-                                               final Integer arrivalStationId) {
-        if (dataCache.containsKey(departureStationId)) {
-            return dataCache.get(departureStationId).containsKey(arrivalStationId);
+    public Set<Integer> getConnectedStationIds(final int departureStationId) {
+        final int departureStationOrdinal = stationIndex.getOrdinal(departureStationId);
+        if (!isDepartureStation(departureStationOrdinal)) {
+            return Collections.emptySet(); /* Departure station doesn't exists in any of the routes. */
         }
 
-        return false;
+        final Set<Integer> connectedStationIds = new HashSet<>();
+        for (int index = stationRouteOffsets[departureStationOrdinal]; index < stationRouteOffsets[departureStationOrdinal + 1]; index++) {
+            final int[] routeStationOrdinals = routeStations.decode(stationRoutes[index]);
+
+            for (int position = stationRoutePositions[index] + 1; position < routeStationOrdinals.length; position++) {
+                connectedStationIds.add(stationIds[routeStationOrdinals[position]]);
+            }
+        }
+
+        return connectedStationIds;
     }
 
     /**
-     * Returns the list of connected routes for the given departure and arrival station IDs.
+     * Visit all the stations after the given departure station in each of its routes, route by route.
+     * Same station is visited once per route which connects it.
      *
      * @param departureStationId
+     * @param visitor
+     * @throws IOException if the visitor fails
+     */
+    public void forEachConnectedStation(final int departureStationId,
+                                        final ConnectedStationVisitor visitor) throws IOException {
+        visitConnectedStations(departureStationId, visitor, false);
+    }
+
+    /**
+     * Visit each station which is directly connected from the given departure station once,
+     * along with the first route which connects it.
+     *
+     * @param departureStationId
+     * @param visitor
+     * @throws IOException if the visitor fails
+     */
+    public void forEachDistinctConnectedStation(final int departureStationId,
+                                                final ConnectedStationVisitor visitor) throws IOException {
+        visitConnectedStations(departureStationId, visitor, true);
+    }
+
+    /**
+     * @param departureStationId
+     * @param visitor
+     * @param distinct           Skip the stations which are already visited through another route
+     * @throws IOException
+     */
+    private void visitConnectedStations(final int departureStationId,
+                                        final ConnectedStationVisitor visitor,
+                                        final boolean distinct) throws IOException {
+
+        final int departureStationOrdinal = stationIndex.getOrdinal(departureStationId);
+        if (!isDepartureStation(departureStationOrdinal)) {
+            return; /* Departure station doesn't exists in any of the routes. */
+        }
+
+        /* Bounded by the number of stations(not by the number of connections) and only required for distinct visits */
+        final long[] visitedStations = distinct ? new long[(stationIds.length + 63) >>> 6] : null;
+        final int[] routeStationOrdinals = new int[routeStations.getMaxRouteLength()];
+
+        for (int index = stationRouteOffsets[departureStationOrdinal]; index < stationRouteOffsets[departureStationOrdinal + 1]; index++) {
+            final int routeOrdinal = stationRoutes[index];
+            final int routeLength = routeStations.decode(routeOrdinal, routeStationOrdinals);
+
+            for (int position = stationRoutePositions[index] + 1; position < routeLength; position++) {
+                final int stationOrdinal = routeStationOrdinals[position];
+
+                if (distinct) {
+                    if ((visitedStations[stationOrdinal >>> 6] & (1L << stationOrdinal)) != 0) {
+                        continue;
+                    }
+                    visitedStations[stationOrdinal >>> 6] |= 1L << stationOrdinal;
+                }
+
+                visitor.visit(routeIds[routeOrdinal], stationIds[stationOrdinal]);
+            }
+        }
+    }
+
+    /**
+     * Returns the stations from which the given arrival station can be reached directly(reverse lookup).
+     *
      * @param arrivalStationId
-     * @return List of route IDs
+     * @return Unique departure station IDs in the ascending order
+     */
+    public int[] getUpstreamStationIds(final int arrivalStationId) {
+        return getUpstreamStations(arrivalStationId, Long.MIN_VALUE, 0, Integer.MAX_VALUE).getStationIds();
+    }
+
+    /**
+     * Returns a page of the stations from which the given arrival station can be reached directly(reverse lookup).
+     * The posting list of a station doesn't depend on the direction, hence the same index serves this lookup:
+     * the stations before the arrival station in each of its routes are the upstream stations. They are marked in
+     * a bit set over the ranks of the Station IDs, so the page is taken in the ID order without sorting. The work is
+     * bounded by the routes of the arrival station and the memory by the number of stations, whatever the page.
+     *
+     * @param arrivalStationId
+     * @param afterStationId   Keyset cursor, only the stations with a greater ID are paged(Long.MIN_VALUE from the first one)
+     * @param offset           Number of stations to be skipped after the cursor
+     * @param limit            Maximum number of stations in the page
+     * @return Page of the unique departure station IDs in the ascending order
+     */
+    public UpstreamStationsPage getUpstreamStations(final int arrivalStationId,
+                                                    final long afterStationId,
+                                                    final int offset,
+                                                    final int limit) {
+        final int arrivalStationOrdinal = stationIndex.getOrdinal(arrivalStationId);
+        if (arrivalStationOrdinal == StationIndex.NOT_FOUND) {
+            return UpstreamStationsPage.EMPTY; /* Arrival station doesn't exists in any of the routes. */
+        }
+
+        /* Bounded by the number of stations(not by the number of connections), same as the distinct visits */
+        final long[] upstreamRanks = new long[(stationIds.length + 63) >>> 6];
+        final int[] routeStationOrdinals = new int[routeStations.getMaxRouteLength()];
+
+        for (int index = stationRouteOffsets[arrivalStationOrdinal]; index < stationRouteOffsets[arrivalStationOrdinal + 1]; index++) {
+            if (stationRoutePositions[index] == 0) {
+                continue;   /* First station of the route */
+            }
+
+            routeStations.decode(stationRoutes[index], routeStationOrdinals);
+            for (int position = 0; position < stationRoutePositions[index]; position++) {
+                final int rank = stationIdOrder.getRank(routeStationOrdinals[position]);
+                upstreamRanks[rank >>> 6] |= 1L << rank;
+            }
+        }
+
+        int total = 0;
+        for (long word : upstreamRanks) {
+            total += Long.bitCount(word);
+        }
+
+        final int[] page = new int[Math.min(Math.max(limit, 0), total)];
+        int pageSize = 0;
+        long skipped = 0;
+        int rank = nextSetBit(upstreamRanks, stationIdOrder.getRankAfter(afterStationId));
+        for (; rank >= 0 && pageSize < page.length; rank = nextSetBit(upstreamRanks, rank + 1)) {
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page[pageSize++] = stationIdOrder.getStationId(rank);
+            }
+        }
+
+        return new UpstreamStationsPage((pageSize == page.length) ? page : Arrays.copyOf(page, pageSize), total, rank >= 0);
+    }
+
+    /**
+     * @param words
+     * @param from
+     * @return Index of the first set bit from the given one or -1
+     */
+    private static int nextSetBit(final long[] words, final int from) {
+        int wordIndex = from >>> 6;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+
+        long word = words[wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Computes the direct connectivity of all the given departure stations to all the given arrival stations at once(many-to-many).
+     *
+     * The arrival stations are indexed once. For each departure station, its routes are walked from the departure station
+     * and each downstream station is looked up in the arrival index, so the cost per departure station doesn't depend on
+     * the number of arrival stations. The departure stations are split across the common fork-join pool.
+     *
+     * @param departureStationIds Rows of the matrix
+     * @param arrivalStationIds   Columns of the matrix
+     * @return Matrix with a bit per (departure station, arrival station) pair
+     */
+    public ConnectivityMatrix getConnectivityMatrix(final int[] departureStationIds,
+                                                    final int[] arrivalStationIds) {
+
+        final ConnectivityMatrix connectivityMatrix = new ConnectivityMatrix(departureStationIds.length, arrivalStationIds.length);
+
+        /* Index the requested arrival stations by their ordinals: Station Ordinal -> Arrival Index */
+        final int[] arrivalStationOrdinals = Arrays.stream(arrivalStationIds)
+                .map(stationIndex::getOrdinal)
+                .filter(stationOrdinal -> stationOrdinal != StationIndex.NOT_FOUND)
+                .distinct()
+                .toArray();
+        final StationIndex arrivalIndex = new StationIndex(arrivalStationOrdinals);
+
+        /* Same arrival station can be requested in more than one column, hence the columns are chained per arrival index */
+        final int[] firstColumns = new int[arrivalStationOrdinals.length];
+        final int[] nextColumns = new int[arrivalStationIds.length];
+        Arrays.fill(firstColumns, -1);
+
+        for (int column = arrivalStationIds.length - 1; column >= 0; column--) {
+            final int stationOrdinal = stationIndex.getOrdinal(arrivalStationIds[column]);
+            nextColumns[column] = -1;
+
+            if (stationOrdinal != StationIndex.NOT_FOUND) {
+                final int arrivalIndexOrdinal = arrivalIndex.getOrdinal(stationOrdinal);
+                nextColumns[column] = firstColumns[arrivalIndexOrdinal];
+                firstColumns[arrivalIndexOrdinal] = column;
+            }
+        }
+
+        if (arrivalStationOrdinals.length > 0) {
+            ForkJoinPool.commonPool().invoke(new ConnectivityMatrixTask(departureStationIds,
+                    arrivalIndex, firstColumns, nextColumns, connectivityMatrix,
+                    0, departureStationIds.length,
+                    Math.max(1, departureStationIds.length / (ForkJoinPool.getCommonPoolParallelism() * 4))));
+        }
+
+        return connectivityMatrix;
+    }
+
+    /**
+     * Start counting the lookups per station(sampled), for the hot tier.
+     * Called once before the data cache is published.
+     *
+     * @param samplingInterval Count 1 out of N lookups
      */
-    public List<Integer> getConnectedRoutedIds(final Integer departureStationId,
-                                               final Integer arrivalStationId) {
-        if (dataCache.containsKey(departureStationId)
-                && dataCache.get(departureStationId).containsKey(arrivalStationId)) {
+    void trackHotness(final int samplingInterval) {
+        stationHotness = new StationHotness(stationIds.length, samplingInterval);
+    }
+
+    /**
+     * Drop the lookups counted so far along with the hot tier selected from them, e.g. the ones of the warmup workload,
+     * so that the hot tier follows the real traffic only.
+     */
+    void resetHotness() {
+        final StationHotness currentStationHotness = stationHotness;
+        if (currentStationHotness != null) {
+            stationHotness = new StationHotness(stationIds.length, currentStationHotness.getSamplingInterval());
+            hotTier = HotStationTier.EMPTY;
+        }
+    }
+
+    /**
+     * Promote the most looked up stations since the last refresh to the hot tier and publish it, in place of the
+     * previous tier. Meant to be called periodically by a single background thread, the lookups are never blocked.
+     *
+     * @param maxHotStations Maximum number of stations in the hot tier
+     * @return Number of stations in the new hot tier(0 if the hotness is not tracked)
+     */
+    int refreshHotTier(final int maxHotStations) {
+        final StationHotness currentStationHotness = stationHotness;
+        if (currentStationHotness == null) {
+            return 0;
+        }
 
-            return dataCache.get(departureStationId).get(arrivalStationId);
+        final int[] hotStationOrdinals = currentStationHotness.selectHottest(maxHotStations);
+        final int[] hotStationIds = new int[hotStationOrdinals.length];
+        for (int hotOrdinal = 0; hotOrdinal < hotStationOrdinals.length; hotOrdinal++) {
+            hotStationIds[hotOrdinal] = stationIds[hotStationOrdinals[hotOrdinal]];
         }
 
-        return Collections.emptyList(); /* No direct route connects the given stations. */
+        hotTier = new HotStationTier(hotStationOrdinals, getConnectivityMatrix(hotStationIds, hotStationIds));
+        return hotStationOrdinals.length;
+    }
+
+    /**
+     * @return Sampled lookup counters or null if the hotness is not tracked
+     */
+    StationHotness getStationHotness() {
+        return stationHotness;
+    }
+
+    /**
+     * @return Current hot tier(empty till the first refresh)
+     */
+    HotStationTier getHotTier() {
+        return hotTier;
+    }
+
+    /**
+     * @return Number of unique stations across all the routes
+     */
+    public int getStationsCount() {
+        return stationIds.length;
+    }
+
+    /**
+     * @return Number of routes
+     */
+    public int getRoutesCount() {
+        return routeIds.length;
+    }
+
+    /**
+     * @return Number of departure times across all the route schedules(0 if the data file has no schedules)
+     */
+    public int getDepartureTimesCount() {
+        return routeSchedules.getDepartureTimesCount();
+    }
+
+    /**
+     * Approximate heap retained by this data cache. Only the array payloads are counted,
+     * the object headers are negligible compared to them.
+     *
+     * @return Size of the data cache in bytes
+     */
+    public long getSizeInBytes() {
+        return stationIndex.getSizeInBytes()
+                + (long) stationIds.length * Integer.BYTES
+                + (long) stationRouteOffsets.length * Integer.BYTES
+                + (long) stationRoutes.length * Integer.BYTES
+                + (long) stationRoutePositions.length * Integer.BYTES
+                + (long) departureStations.length * Long.BYTES
+                + (long) routeIds.length * Integer.BYTES
+                + routeStations.getSizeInBytes()
+                + routeSchedules.getSizeInBytes()
+                + stationIdOrder.getSizeInBytes()
+                + Optional.ofNullable(stationIdBitmap).map(StationIdBitmap::getSizeInBytes).orElse(0L)
+                + Optional.ofNullable(departureStationIdBitmap).map(StationIdBitmap::getSizeInBytes).orElse(0L)
+                + Optional.ofNullable(stationHotness).map(StationHotness::getSizeInBytes).orElse(0L)
+                + hotTier.getSizeInBytes();
+    }
+
+    /**
+     * @param stationOrdinal
+     * @return true if the station is connected to at least one station
+     */
+    private boolean isDepartureStation(final int stationOrdinal) {
+        return stationOrdinal != StationIndex.NOT_FOUND
+                && (stationOrdinal >>> 6) < departureStations.length
+                && (departureStations[stationOrdinal >>> 6] & (1L << stationOrdinal)) != 0;
+    }
+
+    /**
+     * Fills the rows of the connectivity matrix for a range of departure stations.
+     * The range is split in half till it is within the threshold. Each row is written by one task only.
+     */
+    private final class ConnectivityMatrixTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] departureStationIds;
+        private final StationIndex arrivalIndex;
+        private final int[] firstColumns;
+        private final int[] nextColumns;
+        private final ConnectivityMatrix connectivityMatrix;
+        private final int fromRow;
+        private final int toRow;
+        private final int threshold;
+
+        private ConnectivityMatrixTask(final int[] departureStationIds,
+                                       final StationIndex arrivalIndex,
+                                       final int[] firstColumns,
+                                       final int[] nextColumns,
+                                       final ConnectivityMatrix connectivityMatrix,
+                                       final int fromRow,
+                                       final int toRow,
+                                       final int threshold) {
+            this.departureStationIds = departureStationIds;
+            this.arrivalIndex = arrivalIndex;
+            this.firstColumns = firstColumns;
+            this.nextColumns = nextColumns;
+            this.connectivityMatrix = connectivityMatrix;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > threshold) {
+                final int middleRow = (fromRow + toRow) >>> 1;
+                invokeAll(new ConnectivityMatrixTask(departureStationIds, arrivalIndex, firstColumns, nextColumns,
+                                connectivityMatrix, fromRow, middleRow, threshold),
+                        new ConnectivityMatrixTask(departureStationIds, arrivalIndex, firstColumns, nextColumns,
+                                connectivityMatrix, middleRow, toRow, threshold));
+                return;
+            }
+
+            final int[] routeStationOrdinals = new int[routeStations.getMaxRouteLength()];
+
+            for (int row = fromRow; row < toRow; row++) {
+                final int departureStationOrdinal = stationIndex.getOrdinal(departureStationIds[row]);
+                if (!isDepartureStation(departureStationOrdinal)) {
+                    continue; /* Not connected to any of the stations */
+                }
+
+                for (int index = stationRouteOffsets[departureStationOrdinal]; index < stationRouteOffsets[departureStationOrdinal + 1]; index++) {
+                    final int routeLength = routeStations.decode(stationRoutes[index], routeStationOrdinals);
+
+                    for (int position = stationRoutePositions[index] + 1; position < routeLength; position++) {
+                        final int arrivalIndexOrdinal = arrivalIndex.getOrdinal(routeStationOrdinals[position]);
+                        if (arrivalIndexOrdinal == StationIndex.NOT_FOUND) {
+                            continue; /* Not requested */
+                        }
+
+                        for (int column = firstColumns[arrivalIndexOrdinal]; column >= 0; column = nextColumns[column]) {
+                            connectivityMatrix.set(row, column);
+                        }
+                    }
+                }
+            }
+        }
     }
 
 }
@@ -0,0 +1,248 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Collects the routes while the data file is being loaded and
+ * builds the immutable @see com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache out of it.
+ * It is not thread safe and meant to be used by the loading thread only.
+ *
+ * If the expected number of routes and stations are known upfront(header and the first block of the data file),
+ * all the structures are sized once and never grow while the routes are added.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class BusRouteDataCacheBuilder {
+
+    private static final int DEFAULT_EXPECTED_ROUTES = 16;
+    private static final int DEFAULT_EXPECTED_STATIONS = 16;
+
+    private final StationIndex stationOrdinals;             /* Station ID -> Station Ordinal */
+
+    private int[] stationIds;                               /* Station Ordinal -> Station ID */
+    private int stationsCount = 0;
+
+    private final BitSet departureStations;                 /* Station Ordinals which are not the last station of all its routes */
+
+    private int[] routeIds;                                 /* Route Ordinal -> Route ID */
+    private int routesCount = 0;
+
+    private final CompressedRouteStoreBuilder routeStations;
+
+    private int[] routeDepartureOffsets;                    /* Route Ordinal -> Start of its departure times, null till a route with a schedule is added */
+    private int[] departureTimes = new int[0];              /* Departure times of all the routes, sorted per route */
+    private int departureTimesCount = 0;
+
+    public BusRouteDataCacheBuilder() {
+        this(DEFAULT_EXPECTED_ROUTES, DEFAULT_EXPECTED_STATIONS, DEFAULT_EXPECTED_ROUTES);
+    }
+
+    /**
+     * @param expectedRoutes             Number of routes to be added
+     * @param expectedStations           Number of unique stations across all the routes
+     * @param expectedStationOccurrences Number of stations across all the routes(including the repeated ones)
+     */
+    public BusRouteDataCacheBuilder(final int expectedRoutes,
+                                    final int expectedStations,
+                                    final long expectedStationOccurrences) {
+
+        /* Sized to hold the expected stations without growing */
+        this.stationOrdinals = new StationIndex(expectedStations);
+        this.stationIds = new int[Math.max(expectedStations, 1)];
+        this.departureStations = new BitSet(Math.max(expectedStations, 1));
+        this.routeIds = new int[Math.max(expectedRoutes, 1)];
+        this.routeStations = new CompressedRouteStoreBuilder(expectedRoutes, expectedStationOccurrences);
+    }
+
+    /**
+     * Add the given route along with its stations(in the travel order).
+     *
+     * @param routeId
+     * @param routeStationIds
+     * @return this builder
+     */
+    public BusRouteDataCacheBuilder addRoute(final Integer routeId,
+                                             final List<Integer> routeStationIds) {
+        return addRoute(routeId, routeStationIds.stream().mapToInt(Integer::intValue).toArray(), 0, routeStationIds.size());
+    }
+
+    /**
+     * Add the given route along with its stations(in the travel order), taken from a range of the given array.
+     *
+     * @param routeId
+     * @param stationIds
+     * @param from       Start of the route stations(inclusive)
+     * @param to         End of the route stations(exclusive)
+     * @return this builder
+     */
+    public BusRouteDataCacheBuilder addRoute(final int routeId,
+                                             final int[] stationIds,
+                                             final int from,
+                                             final int to) {
+        return addRoute(routeId, stationIds, from, to, stationIds, to, to);
+    }
+
+    /**
+     * Add the given route along with its stations(in the travel order) and its departure schedule, taken from the ranges
+     * of the given arrays. The departure times can be in any order, they are sorted and the repeated ones are dropped.
+     *
+     * @param routeId
+     * @param stationIds
+     * @param from           Start of the route stations(inclusive)
+     * @param to             End of the route stations(exclusive)
+     * @param departureTimes Departure times as minutes of the week(@see com.goeuro.hiring.devtest.busroute.utils.Constants#MINUTES_PER_WEEK)
+     * @param departuresFrom Start of the departure times(inclusive)
+     * @param departuresTo   End of the departure times(exclusive), same as the start if the route has no schedule
+     * @return this builder
+     */
+    public BusRouteDataCacheBuilder addRoute(final int routeId,
+                                             final int[] stationIds,
+                                             final int from,
+                                             final int to,
+                                             final int[] departureTimes,
+                                             final int departuresFrom,
+                                             final int departuresTo) {
+
+        if (routesCount == routeIds.length) {
+            routeIds = Arrays.copyOf(routeIds, routesCount * 2);
+        }
+        routeIds[routesCount++] = routeId;
+        addDepartureTimes(departureTimes, departuresFrom, departuresTo);
+
+        final int[] routeStationOrdinals = new int[to - from];
+        for (int index = 0; index < routeStationOrdinals.length; index++) {
+            final int stationOrdinal = getOrAddStationOrdinal(stationIds[from + index]);
+
+            /* Every station except the last one is connected to the next stations in this route */
+            if (index < routeStationOrdinals.length - 1) {
+                departureStations.set(stationOrdinal);
+            }
+
+            routeStationOrdinals[index] = stationOrdinal;
+        }
+
+        routeStations.append(routeStationOrdinals);
+
+        return this;
+    }
+
+    /**
+     * Append the departure times of the route just added. Nothing is allocated for the schedules till the first route
+     * with a schedule, so the data files in the basic format don't pay for them.
+     *
+     * @param times
+     * @param from
+     * @param to
+     */
+    private void addDepartureTimes(final int[] times, final int from, final int to) {
+        if (routeDepartureOffsets == null) {
+            if (from == to) {
+                return;
+            }
+            routeDepartureOffsets = new int[routeIds.length + 1];   /* The routes so far have no departure times */
+        }
+        if (routesCount >= routeDepartureOffsets.length) {
+            routeDepartureOffsets = Arrays.copyOf(routeDepartureOffsets, routeIds.length + 1);
+        }
+        if (departureTimesCount + (to - from) > departureTimes.length) {
+            departureTimes = Arrays.copyOf(departureTimes, Math.max(departureTimesCount + (to - from), departureTimes.length * 2));
+        }
+
+        final int start = departureTimesCount;
+        System.arraycopy(times, from, departureTimes, start, to - from);
+        Arrays.sort(departureTimes, start, start + (to - from));
+
+        departureTimesCount = start;
+        for (int index = start; index < start + (to - from); index++) {
+            if (departureTimesCount == start || departureTimes[departureTimesCount - 1] != departureTimes[index]) {
+                departureTimes[departureTimesCount++] = departureTimes[index];
+            }
+        }
+
+        routeDepartureOffsets[routesCount] = departureTimesCount;
+    }
+
+    /**
+     * Fetch the existing ordinal of the given station ID or assign the next ordinal to it.
+     *
+     * @param stationId
+     * @return
+     */
+    private int getOrAddStationOrdinal(final int stationId) {
+        final int stationOrdinal = stationOrdinals.getOrAddOrdinal(stationId);
+
+        if (stationOrdinal == stationsCount) {
+            if (stationsCount == stationIds.length) {
+                stationIds = Arrays.copyOf(stationIds, stationsCount * 2);
+            }
+            stationIds[stationsCount++] = stationId;
+        }
+
+        return stationOrdinal;
+    }
+
+    /**
+     * @return Number of unique stations across the routes added so far
+     */
+    int getStationsCount() {
+        return stationsCount;
+    }
+
+    /**
+     * Flatten the collected routes into primitive arrays.
+     * The posting lists are built from the stored station sequences in two passes(count, then fill),
+     * so that each of them takes the exact size.
+     *
+     * @return Immutable data cache with all the added routes
+     */
+    public BusRouteDataCache build() {
+        final int[] stationIdsArray = Arrays.copyOf(stationIds, stationsCount);
+        final CompressedRouteStore compressedRouteStore = routeStations.build();
+        final int[] routeStationOrdinals = new int[compressedRouteStore.getMaxRouteLength()];
+
+        /* Posting lists of all the stations are stored one after the other */
+        final int[] stationRouteOffsets = new int[stationsCount + 1];
+        for (int routeOrdinal = 0; routeOrdinal < routesCount; routeOrdinal++) {
+            final int routeLength = compressedRouteStore.decode(routeOrdinal, routeStationOrdinals);
+            for (int position = 0; position < routeLength; position++) {
+                stationRouteOffsets[routeStationOrdinals[position] + 1]++;
+            }
+        }
+        for (int stationOrdinal = 0; stationOrdinal < stationsCount; stationOrdinal++) {
+            stationRouteOffsets[stationOrdinal + 1] += stationRouteOffsets[stationOrdinal];
+        }
+
+        /* Routes are visited in the ascending order of the ordinals, hence the posting lists are always sorted.
+         * The position of the station in each route is stored alongside, for the direction checks */
+        final int[] stationRoutesArray = new int[stationRouteOffsets[stationsCount]];
+        final int[] stationRoutePositionsArray = new int[stationRoutesArray.length];
+        final int[] nextIndexes = Arrays.copyOf(stationRouteOffsets, stationsCount);
+        for (int routeOrdinal = 0; routeOrdinal < routesCount; routeOrdinal++) {
+            final int routeLength = compressedRouteStore.decode(routeOrdinal, routeStationOrdinals);
+            for (int position = 0; position < routeLength; position++) {
+                final int index = nextIndexes[routeStationOrdinals[position]]++;
+                stationRoutesArray[index] = routeOrdinal;
+                stationRoutePositionsArray[index] = position;
+            }
+        }
+
+        return new BusRouteDataCache(
+                new StationPerfectHash(stationIdsArray),
+                stationIdsArray,
+                stationRouteOffsets,
+                stationRoutesArray,
+                stationRoutePositionsArray,
+                departureStations.toLongArray(),
+                Arrays.copyOf(routeIds, routesCount),
+                compressedRouteStore,
+                (routeDepartureOffsets == null) ? RouteSchedules.EMPTY
+                        : new RouteSchedules(Arrays.copyOf(routeDepartureOffsets, routesCount + 1),
+                                             Arrays.copyOf(departureTimes, departureTimesCount)));
+    }
+
+}
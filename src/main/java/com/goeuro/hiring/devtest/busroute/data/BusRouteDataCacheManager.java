@@ -8,21 +8,33 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 import com.goeuro.hiring.devtest.busroute.utils.Constants;
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.DataSetNotFoundException;
 import com.goeuro.hiring.devtest.busroute.utils.exceptions.FileContentInvalidErrorType;
 import com.goeuro.hiring.devtest.busroute.utils.exceptions.InvalidDataFileException;
 
@@ -30,77 +42,271 @@ import com.goeuro.hiring.devtest.busroute.utils.exceptions.InvalidDataFileExcept
 /**
  * This class checks the sanity of the given input file and manages its content in the in-memory data cache
  *
+ * Several named data sets(e.g. one per region) can be loaded side by side, each with its own data cache and version.
+ * The data set loaded without a name is the "default" one. The size of each data set is exported in the actuator
+ * metrics end point under "bus-route.dataset.<name>.*".
+ *
+ * Each load publishes a new generation of the data set. The latest generation and the configured number of previous
+ * generations are retained, so that the requests pinned to a version keep reading the same data across the reloads.
+ * The older generations are retired and reclaimed once the requests reading them are drained.
+ *
+ * The lookups of the latest generations are counted per station(sampled) and the most looked up stations are
+ * promoted to a hot tier periodically(@see com.goeuro.hiring.devtest.busroute.data.HotStationTier). The share of
+ * the traffic served by the hot tier is exported under "bus-route.dataset.<name>.hotness.*".
+ *
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
 @Component
-public class BusRouteDataCacheManager {
+public class BusRouteDataCacheManager implements PublicMetrics {
+
+    public static final String DEFAULT_DATA_SET = "default";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BusRouteDataCacheManager.class.getName());
 
-    private static final Pattern WHITE_SPACE_REGEX_PATTERN = Pattern.compile("\\s+");   /* To separate routes & stations */
+    private static final Pattern DATA_SET_NAME_REGEX_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");  /* Safe to be used in the metric names */
+
+    /* Data set name -> Retained generations, the latest first. Replaced as a whole(copy on write) once a data set is loaded.
+     * Volatile to publish it safely to the request threads */
+    private volatile Map<String, List<BusRouteDataSet>> dataSets = Collections.singletonMap(DEFAULT_DATA_SET,
+            Collections.singletonList(new BusRouteDataSet(DEFAULT_DATA_SET, 0, null, new BusRouteDataCacheBuilder().build())));
+
+    /* Generations which are retired, but still being read by the requests */
+    private final Set<BusRouteDataSet> drainingDataSets = ConcurrentHashMap.newKeySet();
+
+    /* Number of previous generations retained per data set along with the latest one */
+    @Value("${bus-route.datasets.retained-generations:2}")
+    private int retainedGenerations = 2;
+
+    private final DataLoadProgress loadProgress = new DataLoadProgress();
+
+    @Value("${bus-route.load-progress.log-interval-millis:0}")
+    private long progressLogIntervalMillis;
+
+    /* Data file limits. Initialized with the defaults for the instances which are not created by Spring */
+    @Value("${bus-route.limits.max-routes:" + Constants.MAX_ROUTES + "}")
+    private int maxRoutes = Constants.MAX_ROUTES;
+
+    @Value("${bus-route.limits.max-stations-per-route:" + Constants.MAX_STATIONS_PER_ROUTE + "}")
+    private int maxStationsPerRoute = Constants.MAX_STATIONS_PER_ROUTE;
+
+    @Value("${bus-route.limits.max-overall-unique-stations:" + Constants.MAX_OVERALL_UNIQUE_STATIONS + "}")
+    private int maxOverallUniqueStations = Constants.MAX_OVERALL_UNIQUE_STATIONS;
+
+    /* Load pipeline. 0 parser threads to leave a core each for the reader and the indexer */
+    @Value("${bus-route.load.parser-threads:0}")
+    private int parserThreads = 0;
+
+    @Value("${bus-route.load.block-size-bytes:" + DataLoadPipeline.DEFAULT_BLOCK_SIZE + "}")
+    private int blockSizeBytes = DataLoadPipeline.DEFAULT_BLOCK_SIZE;
+
+    /* Station hotness tracking and the hot tier. Off for the instances which are not created by Spring(no refresh thread) */
+    @Value("${bus-route.hotness.enabled:true}")
+    private boolean hotnessEnabled;
 
-    @Autowired
-    private BusRouteDataCache dataCache;
+    @Value("${bus-route.hotness.sampling-interval:64}")
+    private int hotnessSamplingInterval = 64;
+
+    @Value("${bus-route.hotness.max-hot-stations:256}")
+    private int maxHotStations = 256;
+
+    @Value("${bus-route.hotness.refresh-interval-millis:10000}")
+    private long hotTierRefreshIntervalMillis = 10000;
+
+    private ScheduledExecutorService hotTierRefreshExecutor;
+
+    /**
+     * Refresh the hot tier of the latest generation of each data set at a fixed interval.
+     */
+    @PostConstruct
+    public void startHotTierRefresh() {
+        if (!hotnessEnabled || hotTierRefreshIntervalMillis <= 0) {
+            return;
+        }
+
+        hotTierRefreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "hot-tier-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        hotTierRefreshExecutor.scheduleWithFixedDelay(this::refreshHotTiers,
+                hotTierRefreshIntervalMillis, hotTierRefreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopHotTierRefresh() {
+        if (hotTierRefreshExecutor != null) {
+            hotTierRefreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Drop the station lookups counted so far(and the hot tiers selected from them) of all the data sets.
+     * Called once the warmup is completed, the synthesized or recorded warmup queries are not the real traffic.
+     * Synchronized with the refresh, so that a refresh in progress can't publish a hot tier of the dropped lookups.
+     */
+    public synchronized void resetHotness() {
+        for (BusRouteDataSet dataSet : getDataSets()) {
+            dataSet.getDataCache().resetHotness();
+        }
+    }
+
+    /**
+     * Promote the most looked up stations of each data set since the last refresh to its hot tier.
+     * The previous generations keep their hot tiers, they are not looked up much once a new generation is published.
+     */
+    synchronized void refreshHotTiers() {
+        for (BusRouteDataSet dataSet : getDataSets()) {
+            try {
+                final int hotStations = dataSet.getDataCache().refreshHotTier(maxHotStations);
+                final StationHotness stationHotness = dataSet.getDataCache().getStationHotness();
+
+                if (stationHotness != null) {
+                    LOGGER.debug("Hot tier of the data set '{}' is refreshed with {} stations. It served {}% of the sampled lookups in the last interval.",
+                            dataSet.getName(), hotStations, Math.round(stationHotness.getLastIntervalHotTierShare() * 100));
+                }
+            } catch (RuntimeException e) {
+                /* The next refresh is attempted anyway, the current tier keeps serving */
+                LOGGER.warn("Hot tier of the data set '{}' could not be refreshed.", dataSet.getName(), e);
+            }
+        }
+    }
 
     /**
      * The following tasks is being performed in sequence
      * (1) Verify the given data file path
      * (2) Validate the content against the specification
-     * (3) Initialize the in-memory data cache
+     * (3) Initialize the in-memory data cache of the default data set
      *
      * @param dataFilePath
      * @throws IOException
      */
     public void validateDataFileAndInitializeCache(final String dataFilePath)
         throws IOException {
+        validateDataFileAndInitializeCache(DEFAULT_DATA_SET, dataFilePath);
+    }
+
+    /**
+     * Same as {@link #validateDataFileAndInitializeCache(String)}, but loads the data file into the given data set.
+     * The other data sets are not affected. A failed load keeps the previous version of the data set.
+     *
+     * @param dataSetName
+     * @param dataFilePath
+     * @throws IOException
+     */
+    public void validateDataFileAndInitializeCache(final String dataSetName,
+                                                   final String dataFilePath)
+        throws IOException {
 
-        /* Checks to verify if the file is available/readable */
-        verifyDataFilePath(dataFilePath);
+        if (dataSetName == null || !DATA_SET_NAME_REGEX_PATTERN.matcher(dataSetName).matches()) {
+            throw new IllegalArgumentException(String.format("Data set name '%s' is not valid. "
+                    + "Only letters, digits, '_' and '-' are allowed.", dataSetName));
+        }
 
-        /* Input data file will be read from disk only once and kept in the memory for further use.
-         * The input file with 100K routes with 1000 stations per route can fit into the memory */
-        final List<String> lines = Files.lines(Paths.get(dataFilePath)).map(line -> line.trim()).collect(Collectors.toList());
+        final ScheduledExecutorService progressLogExecutor = startProgressLog();
+
+        try {
+            /* Checks to verify if the file is available/readable */
+            verifyDataFilePath(dataFilePath);
+
+            /* Input data file is read from disk only once. It is parsed and indexed while it is read, by the stages of
+             * the load pipeline(@see com.goeuro.hiring.devtest.busroute.data.DataLoadPipeline), hence the file content
+             * is never held in the memory as a whole.
+             * gzip/zstd compressed files are decompressed on the fly(@see com.goeuro.hiring.devtest.busroute.data.DataFileReader) */
+            loadProgress.startReading(dataSetName, Files.size(Paths.get(dataFilePath)));
+            final DataLoadPipeline loadPipeline = new DataLoadPipeline(Paths.get(dataFilePath), loadProgress,
+                    getParserThreads(), blockSizeBytes, maxRoutes, maxOverallUniqueStations);
+            loadPipeline.run();
+            loadProgress.completeReading();
+
+            /* Checks to validate if the file has content as per the specification */
+            validateDataFileContent(loadPipeline);
+
+            /* Build the in-memory cache out of the indexed routes */
+            initializeDataCache(dataSetName, dataFilePath, loadPipeline.getDataCacheBuilder());
+        } catch (IOException | RuntimeException e) {
+            loadProgress.markFailed();
+            throw e;
+        } finally {
+            if (progressLogExecutor != null) {
+                progressLogExecutor.shutdownNow();
+            }
+            LOGGER.info("Data file load progress: {}", loadProgress);
+        }
+    }
 
-        /* Checks to validate if the file has content as per the specification */
-        validateDataFileContent(lines);
+    /**
+     * @return Configured number of parser threads or all the cores except the ones for the reader and the indexer
+     */
+    private int getParserThreads() {
+        return (parserThreads > 0) ? parserThreads : Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    }
 
-        /* Parse the file content and load it to the in-memory cache */
-        initializeDataCache(lines);
+    /**
+     * Logs the load progress at a fixed interval, so that a long but healthy load can be told apart from a hung one.
+     *
+     * @return Executor to be stopped once the load is completed or null if the progress log is disabled
+     */
+    private ScheduledExecutorService startProgressLog() {
+        if (progressLogIntervalMillis <= 0) {
+            return null;
+        }
+
+        final ScheduledExecutorService progressLogExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "data-load-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progressLogExecutor.scheduleAtFixedRate(() -> LOGGER.info("Data file load progress: {}", loadProgress),
+                progressLogIntervalMillis, progressLogIntervalMillis, TimeUnit.MILLISECONDS);
+
+        return progressLogExecutor;
     }
 
     /**
-     * @param lines List of lines present in the input data file
+     * The checks are done in the order of their priority, the first failed check is reported.
+     *
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private void validateDataFileContent(final List<String> lines) {
+    private void validateDataFileContent(final DataLoadPipeline loadPipeline) {
 
-        final long totalRoutesGiven = lines.stream().findFirst().map(Long::valueOf).get(); /* Total routes specified in header */
+        final long totalRoutesGiven = Optional.ofNullable(loadPipeline.getHeaderLine()).map(Long::valueOf).get(); /* Total routes specified in header */
+        loadProgress.startValidation(totalRoutesGiven);
 
         /* Route Specific Validations */
-        validateRoutesCountMismatch(lines, totalRoutesGiven);       /* Total routes specified in header line vs Actual routes available check */
-        validateDuplicateRouteIds(lines, totalRoutesGiven);         /* Duplicate route IDs check */
-        validateMaxRoutesExceeded(totalRoutesGiven);                /* Maximum number of routes allowed check */
+        loadProgress.setValidationStep("routes count");
+        validateRoutesCountMismatch(loadPipeline, totalRoutesGiven);    /* Total routes specified in header line vs Actual routes available check */
+        loadProgress.setValidationStep("duplicate route IDs");
+        validateDuplicateRouteIds(loadPipeline, totalRoutesGiven);      /* Duplicate route IDs check */
+        loadProgress.setValidationStep("maximum routes");
+        validateMaxRoutesExceeded(totalRoutesGiven);                    /* Maximum number of routes allowed check */
 
         /* Station Specific Validations */
-        validateMaxUniqueStationsOverallExceeded(lines);            /* Maximum unique stations allowed across all routes check  */
+        loadProgress.setValidationStep("maximum unique stations");
+        validateMaxUniqueStationsOverallExceeded(loadPipeline);         /* Maximum unique stations allowed across all routes check  */
 
         /* Stations associated with Routes Validations */
-        validateInsufficientStationsPerRoute(lines);                /* Route information with sufficient stations check */
-        validateRoutesWithDuplicateStations(lines);                 /* Duplicate station IDs in the same route check */
-        validateMaxStationsPerRouteExceeded(lines);                 /* Max stations allowed per route check */
+        loadProgress.setValidationStep("insufficient stations per route");
+        validateInsufficientStationsPerRoute(loadPipeline);             /* Route information with sufficient stations check */
+        loadProgress.setValidationStep("duplicate stations per route");
+        validateRoutesWithDuplicateStations(loadPipeline);              /* Duplicate station IDs in the same route check */
+        loadProgress.setValidationStep("maximum stations per route");
+        validateMaxStationsPerRouteExceeded(loadPipeline);              /* Max stations allowed per route check */
+
+        /* Route Schedule Validations(extended data file format only) */
+        loadProgress.setValidationStep("departure times");
+        validateDepartureTimes(loadPipeline);                           /* Departure times within a week check */
     }
 
     /**
      * Check if there is any mismatch in the given total routes in the header and the actual routes present.
      * 
-     * @param lines            List of lines present in the input data file
+     * @param loadPipeline     Load pipeline which read the input data file
      * @param totalRoutesGiven Total routes specified in the header line
      * @return
      */
-    private void validateRoutesCountMismatch(final List<String> lines,
+    private void validateRoutesCountMismatch(final DataLoadPipeline loadPipeline,
                                              final long totalRoutesGiven) {
-        final long totalRoutesActual = lines.stream().filter(line -> !StringUtils.isEmpty(line)).skip(1).count();
-
-        if (totalRoutesActual != totalRoutesGiven) {
+        if (loadPipeline.getRoutesCount() != totalRoutesGiven) {
             throw new InvalidDataFileException(FileContentInvalidErrorType.ROUTES_COUNT_MISMATCH);
         }
     }
@@ -108,65 +314,62 @@ public class BusRouteDataCacheManager {
     /**
      * Check if duplicate route IDs are present.
      * 
-     * @param lines             List of lines present in the input data file
+     * @param loadPipeline      Load pipeline which read the input data file
      * @param totalRoutesGiven  Total routes specified in the header line
      */
-    private void validateDuplicateRouteIds(final List<String> lines,
+    private void validateDuplicateRouteIds(final DataLoadPipeline loadPipeline,
                                            final long totalRoutesGiven) {
-        final Set<Integer> uniqueRouteIds = lines.stream()
-                .filter(line -> !StringUtils.isEmpty(line))
-                .skip(1)
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.split(line)[0])
-                .map(Integer::valueOf)
-                .collect(Collectors.toSet());
-
-        if (uniqueRouteIds.size() != totalRoutesGiven) {
+        if (loadPipeline.getFirstMalformedRouteId() != null) {
+            throw newMalformedNumberException(loadPipeline.getFirstMalformedRouteId());
+        }
+
+        if (loadPipeline.getUniqueRouteIdsCount() != totalRoutesGiven) {
             throw new InvalidDataFileException(FileContentInvalidErrorType.DUPLICATE_ROUTE_IDS_FOUND);
         }
     }
 
+    /**
+     * @param token Route/Station ID token which isn't a valid integer
+     * @return Same exception as parsing the token with Integer.valueOf(the malformed route was skipped while indexing,
+     * hence it is thrown explicitly whatever the token)
+     */
+    private static NumberFormatException newMalformedNumberException(final String token) {
+        return new NumberFormatException("For input string: \"" + token + "\"");
+    }
+
     /**
      * Check if the total number of given routes exceeds the allowed limit.
      * 
      * @param totalRoutesGiven  Total routes specified in the header line
      */
     private void validateMaxRoutesExceeded(final long totalRoutesGiven) {
-        if (totalRoutesGiven > Constants.MAX_ROUTES) {
-            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_ROUTES_EXCEEDED);
+        if (totalRoutesGiven > maxRoutes) {
+            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_ROUTES_EXCEEDED, maxRoutes);
         }
     }
 
     /**
      * Check if total number of given unique stations across all the routes exceed the allowed limit.
      * 
-     * @param lines List of lines present in the input data file
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private void validateMaxUniqueStationsOverallExceeded(final List<String> lines) {
-        final Set<Integer> uniqueStationIds = lines.stream()
-                .filter(line -> !StringUtils.isEmpty(line))
-                .skip(1)
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.splitAsStream(line).skip(1).map(Integer::valueOf).collect(Collectors.toList()))
-                .flatMap(x -> x.stream())
-                .collect(Collectors.toSet());
-
-        if (uniqueStationIds.size() > Constants.MAX_OVERALL_UNIQUE_STATIONS) {
-            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_UNIQUE_STATIONS_OVERALL_EXCEEDED);
+    private void validateMaxUniqueStationsOverallExceeded(final DataLoadPipeline loadPipeline) {
+        if (loadPipeline.getFirstMalformedStationId() != null) {
+            throw newMalformedNumberException(loadPipeline.getFirstMalformedStationId());
+        }
+
+        if (loadPipeline.getUniqueStationsCount() > maxOverallUniqueStations) {
+            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_UNIQUE_STATIONS_OVERALL_EXCEEDED, maxOverallUniqueStations);
         }
     }
 
     /**
      * Check if any route information doesn't contain the enough stations
      *
-     * @param lines List of lines present in the input data file
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private void validateInsufficientStationsPerRoute(final List<String> lines) {
-        boolean routeInfoFormatIncorrect = lines.stream()
-                .filter(line -> !StringUtils.isEmpty(line))
-                .skip(1)
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.splitAsStream(line).map(Integer::valueOf).collect(Collectors.toList()))
-                .anyMatch(routeInfo -> (routeInfo.size() < 3));
-
-        if (routeInfoFormatIncorrect) {
+    private void validateInsufficientStationsPerRoute(final DataLoadPipeline loadPipeline) {
+        if (loadPipeline.getMinStationsPerRoute() < 2) {
             throw new InvalidDataFileException(FileContentInvalidErrorType.INSUFFICIENT_STATIONS_PER_ROUTE);
         }
     }
@@ -174,16 +377,10 @@ public class BusRouteDataCacheManager {
     /**
      *  Check if any duplicate stations are provided in the same route.
      *
-     * @param lines List of lines present in the input data file
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private void validateRoutesWithDuplicateStations(final List<String> lines) {
-        boolean duplicateStationIdsPresent = lines.stream()
-                .filter(line -> !StringUtils.isEmpty(line))
-                .skip(1)
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.splitAsStream(line).skip(1).map(Integer::valueOf).collect(Collectors.toList()))
-                .anyMatch(stationIds -> (stationIds.size() != (new HashSet<Integer>(stationIds)).size()));
-
-        if (duplicateStationIdsPresent) {
+    private void validateRoutesWithDuplicateStations(final DataLoadPipeline loadPipeline) {
+        if (loadPipeline.isDuplicateStationIdsFound()) {
             throw new InvalidDataFileException(FileContentInvalidErrorType.DUPLICATE_STATIONS_FOUND_IN_SINGLE_ROUTE);
         }
     }
@@ -191,83 +388,85 @@ public class BusRouteDataCacheManager {
     /**
      * Check if total number of given stations in one or more routes exceeds the allowed limit.
      *
-     * @param lines List of lines present in the input data file
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private void validateMaxStationsPerRouteExceeded(final List<String> lines) {
-        boolean maxStationsPerRouteExceeds = lines.stream()
-                .filter(line -> !StringUtils.isEmpty(line))
-                .skip(1)
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.splitAsStream(line).skip(1).map(Integer::valueOf).collect(Collectors.toList()))
-                .anyMatch(routeInfo -> (routeInfo.size() > Constants.MAX_STATIONS_PER_ROUTE));
-
-        if (maxStationsPerRouteExceeds) {
-            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_STATIONS_PER_ROUTE_EXCEEDED);
+    private void validateMaxStationsPerRouteExceeded(final DataLoadPipeline loadPipeline) {
+        if (loadPipeline.getMaxStationsPerRoute() > maxStationsPerRoute) {
+            throw new InvalidDataFileException(FileContentInvalidErrorType.MAX_STATIONS_PER_ROUTE_EXCEEDED, maxStationsPerRoute);
         }
     }
 
     /**
-     * @param lines List of lines present in the input data file
-     */
-    private void initializeDataCache(final List<String> lines) {
-        lines.stream()
-                .map(line -> WHITE_SPACE_REGEX_PATTERN.split(line))
-                .map(BusRouteDataCacheManager::convertAndCollectIntRouteInfo)
-                .forEach(routeInfo -> populateDataCahce(routeInfo, dataCache));
-    }
-
-    /**
-     * Convert each element given in the route information line into Integer and collect it into a list
+     * Check if any departure time of the route schedules is not a minute of the week.
      *
-     * @param routeElements Array of elements present in the route information line
-     * @return List of Integers parsed from route information line
+     * @param loadPipeline Load pipeline which read the input data file
      */
-    private static List<Integer> convertAndCollectIntRouteInfo(final String[] routeElements) {
-        return Arrays.stream(routeElements)
-                .map(Integer::valueOf)
-                .collect(Collectors.toList());
+    private void validateDepartureTimes(final DataLoadPipeline loadPipeline) {
+        if (loadPipeline.isInvalidDepartureTimeFound()) {
+            throw new InvalidDataFileException(FileContentInvalidErrorType.INVALID_DEPARTURE_TIME, Constants.MINUTES_PER_WEEK - 1);
+        }
     }
 
     /**
-     * Populate the Data Cache with the stations and its connections.
-     *
-     * @param routeInfo Route ID + Stations List
-     * @param dataCache
+     * @param dataSetName      Data set to be replaced with the new data cache
+     * @param dataFilePath
+     * @param dataCacheBuilder Builder with all the routes of the input data file(already validated)
      */
-    private static void populateDataCahce(final List<Integer> routeInfo,
-                                          final BusRouteDataCache dataCache) {
-
-        /* Fetch the route ID from the first element of the route information line */
-        final Integer routeId = Integer.valueOf(routeInfo.get(0));
+    private void initializeDataCache(final String dataSetName,
+                                     final String dataFilePath,
+                                     final BusRouteDataCacheBuilder dataCacheBuilder) {
+        loadProgress.startIndexing();
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+        if (hotnessEnabled) {
+            dataCache.trackHotness(hotnessSamplingInterval);
+        }
 
-        /* Fetch the station IDs from second element onwards till the end of the line */
-        final List<Integer> routeStationIds = routeInfo.subList(1, routeInfo.size());
+        /* Publish the fully built data cache to the request threads */
+        final BusRouteDataSet dataSet = publishDataSet(dataSetName, dataFilePath, dataCache);
+        loadProgress.completeIndexing();
 
-        /* Using IntStream to have the index which requires to fetch the directly connected stations for an iterated station */
-        IntStream.range(0, routeStationIds.size()).forEach(
-                index -> updateConnectedStationsForEachStationInCache(index, routeStationIds, routeId, dataCache)
-                );
+        LOGGER.info("Data cache is initialized with {} routes, {} stations and {} departure times. {}",
+                dataSet.getDataCache().getRoutesCount(), dataSet.getDataCache().getStationsCount(),
+                dataSet.getDataCache().getDepartureTimesCount(), dataSet);
     }
 
     /**
-     * For each station, the connected stations will be determined and updated in the data cache along with the route ID.
+     * Publish the new data cache as the latest generation of the given data set with the next version.
+     * The generations beyond the retained ones are retired.
+     * Synchronized since the data sets can be loaded concurrently, the readers are never blocked.
      *
-     * @param index
-     * @param routeStationIds
-     * @param routeId
+     * @param dataSetName
+     * @param dataFilePath
      * @param dataCache
+     * @return Published data set
      */
-    private static void updateConnectedStationsForEachStationInCache(final int index,
-                                                                     final List<Integer> routeStationIds,
-                                                                     final Integer routeId,
-                                                                     final BusRouteDataCache dataCache) {
+    private synchronized BusRouteDataSet publishDataSet(final String dataSetName,
+                                                        final String dataFilePath,
+                                                        final BusRouteDataCache dataCache) {
+        final List<BusRouteDataSet> previousGenerations = dataSets.getOrDefault(dataSetName, Collections.emptyList());
+        final BusRouteDataSet dataSet = new BusRouteDataSet(dataSetName,
+                previousGenerations.isEmpty() ? 1 : previousGenerations.get(0).getVersion() + 1, dataFilePath, dataCache);
+
+        final List<BusRouteDataSet> generations = new ArrayList<>();
+        generations.add(dataSet);
+        for (BusRouteDataSet previousGeneration : previousGenerations) {
+            /* The empty generation(version 0) is never retained, nothing could be pinned to it */
+            if (generations.size() <= retainedGenerations && previousGeneration.getVersion() > 0) {
+                generations.add(previousGeneration);
+            } else {
+                drainingDataSets.add(previousGeneration);
+                previousGeneration.retire();
+            }
+        }
 
-        final Integer currentStationId = routeStationIds.get(index);
+        final Map<String, List<BusRouteDataSet>> newDataSets = new TreeMap<>(dataSets);
+        newDataSets.put(dataSetName, Collections.unmodifiableList(generations));
+        dataSets = Collections.unmodifiableMap(newDataSets);
 
-        /* Fetch the connected stations for the current station */
-        final List<Integer> connectedStationIds = routeStationIds.subList(index + 1, routeStationIds.size());
+        drainingDataSets.removeIf(BusRouteDataSet::isReclaimed);
 
-        /* Update all the extracted information into the data cache */
-        dataCache.updateCache(routeId, currentStationId, connectedStationIds);
+        return dataSet;
     }
 
     /**
@@ -301,11 +500,138 @@ public class BusRouteDataCacheManager {
     }
 
     /**
-     * @return
+     * @return Progress of the data file load
+     */
+    public DataLoadProgress getLoadProgress() {
+        return loadProgress;
+    }
+
+    /**
+     * @return Latest published data cache of the default data set.
+     *         Callers should fetch it once per request to read a consistent data set.
      */
     public BusRouteDataCache getDataCache() {
-        return dataCache;
+        return getDataSet(DEFAULT_DATA_SET).getDataCache();
     }
 
-}
+    /**
+     * @param dataSetName
+     * @return Latest published data cache of the given data set
+     * @throws DataSetNotFoundException if the data set is not loaded
+     */
+    public BusRouteDataCache getDataCache(final String dataSetName) {
+        return getDataSet(dataSetName).getDataCache();
+    }
 
+    /**
+     * @param dataSetName
+     * @return Latest published generation of the given data set
+     * @throws DataSetNotFoundException if the data set is not loaded
+     */
+    public BusRouteDataSet getDataSet(final String dataSetName) {
+        final List<BusRouteDataSet> generations = dataSets.get(dataSetName);
+
+        if (generations == null) {
+            throw new DataSetNotFoundException(dataSetName);
+        }
+
+        return generations.get(0);
+    }
+
+    /**
+     * Take a reference to the given generation(or the latest one) of the given data set, so that it isn't reclaimed
+     * while the request is reading it. The reference should be released once the request is completed.
+     *
+     * @param dataSetName
+     * @param version     Version of the data set or null for the latest one
+     * @return Acquired generation of the data set
+     * @throws DataSetNotFoundException if the data set is not loaded or the given version is not retained
+     */
+    public BusRouteDataSet acquireDataSet(final String dataSetName, final Long version) {
+        while (true) {
+            final BusRouteDataSet dataSet = (version == null)
+                    ? getDataSet(dataSetName)
+                    : getRetainedGenerations(dataSetName).stream()
+                            .filter(generation -> generation.getVersion() == version)
+                            .findFirst()
+                            .orElseThrow(() -> new DataSetNotFoundException(dataSetName, version));
+
+            if (dataSet.tryAcquire()) {
+                return dataSet;
+            }
+            /* Reclaimed after a concurrent load, look up again */
+        }
+    }
+
+    /**
+     * @param dataSetName
+     * @return Retained generations of the given data set, the latest first
+     * @throws DataSetNotFoundException if the data set is not loaded
+     */
+    public List<BusRouteDataSet> getRetainedGenerations(final String dataSetName) {
+        final List<BusRouteDataSet> generations = dataSets.get(dataSetName);
+
+        if (generations == null) {
+            throw new DataSetNotFoundException(dataSetName);
+        }
+
+        return generations;
+    }
+
+    /**
+     * @return Latest published generation of all the data sets, in the order of their names
+     */
+    public Collection<BusRouteDataSet> getDataSets() {
+        return dataSets.values().stream()
+                .map(generations -> generations.get(0))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+
+        drainingDataSets.removeIf(BusRouteDataSet::isReclaimed);
+
+        for (List<BusRouteDataSet> generations : dataSets.values()) {
+            final BusRouteDataSet dataSet = generations.get(0);
+            final List<BusRouteDataSet> drainingGenerations = drainingDataSets.stream()
+                    .filter(generation -> generation.getName().equals(dataSet.getName()))
+                    .collect(Collectors.toList());
+
+            /* Memory of all the generations which are not reclaimed yet */
+            final long memoryBytes = generations.stream().mapToLong(generation -> generation.getDataCache().getSizeInBytes()).sum()
+                    + drainingGenerations.stream().mapToLong(generation -> generation.getDataCache().getSizeInBytes()).sum();
+
+            final String prefix = "bus-route.dataset." + dataSet.getName() + ".";
+            metrics.add(new Metric<>(prefix + "version", dataSet.getVersion()));
+            metrics.add(new Metric<>(prefix + "routes", dataSet.getDataCache().getRoutesCount()));
+            metrics.add(new Metric<>(prefix + "stations", dataSet.getDataCache().getStationsCount()));
+            metrics.add(new Metric<>(prefix + "memory-bytes", memoryBytes));
+            metrics.add(new Metric<>(prefix + "retained-generations", generations.size()));
+            metrics.add(new Metric<>(prefix + "draining-generations", drainingGenerations.size()));
+
+            /* Share of the traffic served by the hot tier */
+            final StationHotness stationHotness = dataSet.getDataCache().getStationHotness();
+            if (stationHotness != null) {
+                metrics.add(new Metric<>(prefix + "hotness.sampled-lookups", stationHotness.getSampledLookups()));
+                metrics.add(new Metric<>(prefix + "hotness.hot-tier-lookups", stationHotness.getHotTierLookups()));
+                metrics.add(new Metric<>(prefix + "hotness.hot-tier-share", stationHotness.getHotTierShare()));
+                metrics.add(new Metric<>(prefix + "hotness.hot-tier-share-last-interval", stationHotness.getLastIntervalHotTierShare()));
+                metrics.add(new Metric<>(prefix + "hotness.hot-tier-stations", dataSet.getDataCache().getHotTier().getStationsCount()));
+            }
+        }
+
+        /* Pipeline stages of the last load */
+        for (LoadStageStats stage : loadProgress.getStages()) {
+            final String prefix = "bus-route.load.stage." + stage.getName() + ".";
+            metrics.add(new Metric<>(prefix + "throughput-bytes-per-second", stage.getThroughputBytesPerSecond()));
+            metrics.add(new Metric<>(prefix + "busy-millis", stage.getBusyMillis()));
+            metrics.add(new Metric<>(prefix + "input-wait-millis", stage.getInputWaitMillis()));
+            metrics.add(new Metric<>(prefix + "output-wait-millis", stage.getOutputWaitMillis()));
+        }
+
+        return metrics;
+    }
+
+}
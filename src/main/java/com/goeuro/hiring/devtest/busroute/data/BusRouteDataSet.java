@@ -0,0 +1,117 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named data set(e.g. a region) with its own data cache, served side by side with the other data sets.
+ * Immutable. Each successful load of a data set publishes a new instance(generation) with the next version.
+ *
+ * The generations are reference counted. The cache manager holds one reference while the generation is retained,
+ * and each request holds one while it is reading it(@see BusRouteDataCacheManager#acquireDataSet(String, Long)).
+ * Once the manager retires the generation and the last reader releases it, it is reclaimed: it can't be acquired anymore
+ * and its data cache is left to the garbage collector.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class BusRouteDataSet {
+
+    private final String name;
+
+    private final long version;             /* 0 until the first data file is loaded, incremented on each load */
+
+    private final String dataFilePath;
+
+    private final BusRouteDataCache dataCache;
+
+    private final AtomicInteger references = new AtomicInteger(1);     /* Held by the cache manager */
+
+    private volatile boolean retired;
+
+    /**
+     * @param name
+     * @param version
+     * @param dataFilePath Data file the data cache is loaded from or null if it is empty
+     * @param dataCache
+     */
+    BusRouteDataSet(final String name,
+                    final long version,
+                    final String dataFilePath,
+                    final BusRouteDataCache dataCache) {
+        this.name = name;
+        this.version = version;
+        this.dataFilePath = dataFilePath;
+        this.dataCache = dataCache;
+    }
+
+    /**
+     * Take a reference unless the generation is already reclaimed.
+     *
+     * @return true if the reference is taken, it should be released by {@link #release()}
+     */
+    boolean tryAcquire() {
+        for (int current = references.get(); current > 0; current = references.get()) {
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Release a reference taken by {@link #tryAcquire()}.
+     */
+    public void release() {
+        if (references.decrementAndGet() < 0) {
+            throw new IllegalStateException(String.format("Data set '%s' version %d is released more than acquired.", name, version));
+        }
+    }
+
+    /**
+     * Release the reference held by the cache manager, once the generation is no longer retained.
+     */
+    void retire() {
+        retired = true;
+        release();
+    }
+
+    /**
+     * @return true if the generation is retired by the cache manager and all its readers are drained
+     */
+    public boolean isReclaimed() {
+        return references.get() <= 0;
+    }
+
+    /**
+     * @return Number of requests reading this generation
+     */
+    public int getReadersCount() {
+        return Math.max(0, retired ? references.get() : references.get() - 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getDataFilePath() {
+        return dataFilePath;
+    }
+
+    public BusRouteDataCache getDataCache() {
+        return dataCache;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("data set=%s, version=%d, routes=%d, stations=%d, size=%d bytes, readers=%d",
+                name, version, dataCache.getRoutesCount(), dataCache.getStationsCount(), dataCache.getSizeInBytes(), getReadersCount());
+    }
+
+}
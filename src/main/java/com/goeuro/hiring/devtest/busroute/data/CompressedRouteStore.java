@@ -0,0 +1,131 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+
+/**
+ * Immutable store of the station sequences of all the routes in a compact byte array.
+ *
+ * Each route is encoded as the differences between the consecutive station ordinals (delta),
+ * zig-zag encoded (to handle the negative differences) and written as variable length integers(varint).
+ * Since the station ordinals are assigned in the order the stations are first seen, the new stations of a route
+ * are consecutive ordinals and most of the stations take a single byte.
+ *
+ * The routes are decoded on demand, while walking through the sequence.
+ *
+ * @see com.goeuro.hiring.devtest.busroute.data.CompressedRouteStoreBuilder
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class CompressedRouteStore {
+
+    private final byte[] data;
+
+    private final int[] routeOffsets;   /* Start offset of each route in the data array */
+    private final int[] routeLengths;   /* Number of stations in each route */
+    private final int maxRouteLength;
+
+    /**
+     * @param data         Encoded station sequences of all the routes
+     * @param routeOffsets
+     * @param routeLengths
+     */
+    CompressedRouteStore(final byte[] data,
+                         final int[] routeOffsets,
+                         final int[] routeLengths) {
+        this.data = data;
+        this.routeOffsets = routeOffsets;
+        this.routeLengths = routeLengths;
+        this.maxRouteLength = Arrays.stream(routeLengths).max().orElse(0);
+    }
+
+    /**
+     * Decode the station sequence of the given route.
+     *
+     * @param routeOrdinal
+     * @return Station ordinals of the route in the travel order
+     */
+    int[] decode(final int routeOrdinal) {
+        final int[] stationOrdinals = new int[routeLengths[routeOrdinal]];
+        decode(routeOrdinal, stationOrdinals);
+        return stationOrdinals;
+    }
+
+    /**
+     * Decode the station sequence of the given route into the given buffer.
+     * Used to avoid an allocation per route while walking through many routes.
+     *
+     * @param routeOrdinal
+     * @param stationOrdinals Buffer which can hold at least the maximum route length
+     * @return Number of stations decoded into the buffer
+     */
+    int decode(final int routeOrdinal, final int[] stationOrdinals) {
+        final int routeLength = routeLengths[routeOrdinal];
+
+        int position = routeOffsets[routeOrdinal];
+        int stationOrdinal = 0;
+
+        for (int index = 0; index < routeLength; index++) {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[position++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+
+            stationOrdinal += zigZagDecode(value);
+            stationOrdinals[index] = stationOrdinal;
+        }
+
+        return routeLength;
+    }
+
+    /**
+     * @return Number of stations in the longest route
+     */
+    int getMaxRouteLength() {
+        return maxRouteLength;
+    }
+
+    /**
+     * @param routeOrdinal
+     * @return Number of stations in the given route
+     */
+    int getRouteLength(final int routeOrdinal) {
+        return routeLengths[routeOrdinal];
+    }
+
+    /**
+     * @return Number of routes present in the store
+     */
+    int getRoutesCount() {
+        return routeLengths.length;
+    }
+
+    /**
+     * @return Size of the encoded station sequences
+     */
+    int getDataSizeInBytes() {
+        return data.length;
+    }
+
+    /**
+     * @return Approximate heap retained by the store(array payloads only)
+     */
+    long getSizeInBytes() {
+        return data.length + (long) routeOffsets.length * Integer.BYTES + (long) routeLengths.length * Integer.BYTES;
+    }
+
+    static int zigZagEncode(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int zigZagDecode(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+
+/**
+ * Append-only builder of the @see com.goeuro.hiring.devtest.busroute.data.CompressedRouteStore
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class CompressedRouteStoreBuilder {
+
+    private byte[] data;
+    private int dataSize = 0;
+
+    private int[] routeOffsets;
+    private int[] routeLengths;
+    private int routesCount = 0;
+
+    CompressedRouteStoreBuilder() {
+        this(16, 1024);
+    }
+
+    /**
+     * @param expectedRoutes             Number of routes to be appended
+     * @param expectedStationOccurrences Number of stations across all the routes.
+     *                                   Most of the stations take a single byte, hence it is used as the initial data size.
+     */
+    CompressedRouteStoreBuilder(final int expectedRoutes, final long expectedStationOccurrences) {
+        this.data = new byte[(int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, expectedStationOccurrences))];
+        this.routeOffsets = new int[Math.max(expectedRoutes, 1)];
+        this.routeLengths = new int[Math.max(expectedRoutes, 1)];
+    }
+
+    /**
+     * Append the given station sequence as a new route.
+     *
+     * @param stationOrdinals
+     * @return Route ordinal of the appended route
+     */
+    int append(final int[] stationOrdinals) {
+        /* Exact encoded size, so that a presized data array is not grown for the worst case varint size */
+        int encodedSize = 0;
+        int previousStationOrdinal = 0;
+        for (int stationOrdinal : stationOrdinals) {
+            encodedSize += varintSize(CompressedRouteStore.zigZagEncode(stationOrdinal - previousStationOrdinal));
+            previousStationOrdinal = stationOrdinal;
+        }
+        ensureDataCapacity(dataSize + encodedSize);
+
+        if (routesCount == routeOffsets.length) {
+            routeOffsets = Arrays.copyOf(routeOffsets, routesCount * 2);
+            routeLengths = Arrays.copyOf(routeLengths, routesCount * 2);
+        }
+
+        routeOffsets[routesCount] = dataSize;
+        routeLengths[routesCount] = stationOrdinals.length;
+
+        previousStationOrdinal = 0;
+        for (int stationOrdinal : stationOrdinals) {
+            writeVarint(CompressedRouteStore.zigZagEncode(stationOrdinal - previousStationOrdinal));
+            previousStationOrdinal = stationOrdinal;
+        }
+
+        return routesCount++;
+    }
+
+    /**
+     * @return Immutable store with the appended routes, trimmed to the exact size
+     */
+    CompressedRouteStore build() {
+        return new CompressedRouteStore(
+                Arrays.copyOf(data, dataSize),
+                Arrays.copyOf(routeOffsets, routesCount),
+                Arrays.copyOf(routeLengths, routesCount));
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[dataSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[dataSize++] = (byte) value;
+    }
+
+    private static int varintSize(final int value) {
+        return (value & ~0x7F) == 0 ? 1 : (value & ~0x3FFF) == 0 ? 2 : (value & ~0x1FFFFF) == 0 ? 3 : (value & ~0xFFFFFFF) == 0 ? 4 : 5;
+    }
+
+    private void ensureDataCapacity(final int requiredCapacity) {
+        if (requiredCapacity > data.length) {
+            data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(requiredCapacity, data.length * 2L)));
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.io.IOException;
+
+/**
+ * Callback to receive the connected stations one by one while walking through the data cache,
+ * so that the callers can write them out without collecting them first.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@FunctionalInterface
+public interface ConnectedStationVisitor {
+
+    /**
+     * @param routeId   Route which connects the station
+     * @param stationId Connected station ID
+     * @throws IOException if the visitor is writing the stations out
+     */
+    void visit(int routeId, int stationId) throws IOException;
+
+}
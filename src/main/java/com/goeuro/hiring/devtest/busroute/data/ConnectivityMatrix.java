@@ -0,0 +1,97 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Direct connectivity of N departure stations(rows) to M arrival stations(columns) as a packed bit set.
+ *
+ * Each row is stored in whole 64 bit words, so that the rows can be filled concurrently without sharing a word.
+ * Bit (row, column) is set if the departure station of the row is directly connected to the arrival station of the column.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class ConnectivityMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final int wordsPerRow;
+
+    private final long[] words;
+
+    /**
+     * @param rows    Number of departure stations
+     * @param columns Number of arrival stations
+     */
+    ConnectivityMatrix(final int rows, final int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.wordsPerRow = (columns + 63) >>> 6;
+        this.words = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * Only called while the matrix is being computed, before it is handed over to the caller.
+     *
+     * @param row
+     * @param column
+     */
+    void set(final int row, final int column) {
+        words[row * wordsPerRow + (column >>> 6)] |= 1L << column;
+    }
+
+    /**
+     * @param row
+     * @param column
+     * @return true if the departure station of the row is directly connected to the arrival station of the column
+     */
+    public boolean isConnected(final int row, final int column) {
+        return (words[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    /**
+     * @return Number of connected (row, column) pairs
+     */
+    public int getConnectionsCount() {
+        int connectionsCount = 0;
+        for (long word : words) {
+            connectionsCount += Long.bitCount(word);
+        }
+        return connectionsCount;
+    }
+
+    /**
+     * @return Number of bytes used by each row in {@link #toByteArray()}
+     */
+    public int getRowSizeInBytes() {
+        return wordsPerRow * Long.BYTES;
+    }
+
+    /**
+     * Bit (row, column) is the bit (column % 8) of the byte (row * getRowSizeInBytes() + column / 8),
+     * the same layout as java.util.BitSet#toByteArray() for each row.
+     *
+     * @return Packed bit set of all the rows one after the other
+     */
+    public byte[] toByteArray() {
+        final byte[] bytes = new byte[words.length * Long.BYTES];
+
+        for (int index = 0; index < words.length; index++) {
+            final long word = words[index];
+            for (int shift = 0; shift < Long.BYTES; shift++) {
+                bytes[index * Long.BYTES + shift] = (byte) (word >>> (shift * 8));
+            }
+        }
+
+        return bytes;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+}
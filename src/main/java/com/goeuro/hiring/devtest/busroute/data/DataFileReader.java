@@ -0,0 +1,136 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+/**
+ * Opens the data file as it is or compressed(gzip/zstd), detected by the magic bytes of the file.
+ *
+ * The compressed data file is decompressed in memory while it is read. It is read by the reader stage of
+ * the load pipeline(@see com.goeuro.hiring.devtest.busroute.data.DataLoadPipeline), hence the decompression
+ * runs on the reader thread and overlaps with the parsing, and no decompressed copy is written to the disk.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class DataFileReader {
+
+    /**
+     * Compression formats of the data file
+     */
+    enum Compression {
+        NONE(new byte[0]),
+        GZIP(new byte[] {(byte) 0x1F, (byte) 0x8B}),
+        ZSTD(new byte[] {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD});
+
+        private final byte[] magicBytes;
+
+        Compression(final byte[] magicBytes) {
+            this.magicBytes = magicBytes;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataFileReader() {
+    }
+
+    /**
+     * @param dataFile
+     * @return Compression format found from the leading bytes of the given file
+     * @throws IOException
+     */
+    static Compression detectCompression(final Path dataFile) throws IOException {
+        final byte[] leadingBytes = new byte[4];
+        int leadingBytesCount = 0;
+
+        try (InputStream inputStream = Files.newInputStream(dataFile)) {
+            for (int count = 0; count >= 0 && leadingBytesCount < leadingBytes.length; leadingBytesCount += count) {
+                count = inputStream.read(leadingBytes, leadingBytesCount, leadingBytes.length - leadingBytesCount);
+                if (count < 0) {
+                    break;
+                }
+            }
+        }
+
+        for (Compression compression : Compression.values()) {
+            if (compression != Compression.NONE
+                    && leadingBytesCount >= compression.magicBytes.length
+                    && Arrays.equals(Arrays.copyOf(leadingBytes, compression.magicBytes.length), compression.magicBytes)) {
+                return compression;
+            }
+        }
+
+        return Compression.NONE;
+    }
+
+    /**
+     * Open the given data file for reading its(decompressed) content. The bytes read from the file
+     * (compressed bytes if it is compressed) are reported to the given load progress.
+     *
+     * @param dataFile
+     * @param loadProgress
+     * @return Stream of the data file content, to be closed by the caller
+     * @throws IOException if the file can't be read or the compression header is invalid
+     */
+    static InputStream open(final Path dataFile, final DataLoadProgress loadProgress) throws IOException {
+        final Compression compression = detectCompression(dataFile);
+        final InputStream inputStream = new ProgressInputStream(Files.newInputStream(dataFile), loadProgress);
+
+        try {
+            switch (compression) {
+                case GZIP:
+                    return new GZIPInputStream(inputStream, BUFFER_SIZE);
+                case ZSTD:
+                    return new BufferedInputStream(new ZstdInputStream(inputStream), BUFFER_SIZE);
+                default:
+                    return inputStream;
+            }
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reports the bytes read from the underlying(compressed) stream to the load progress.
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+
+        private final DataLoadProgress loadProgress;
+
+        private ProgressInputStream(final InputStream inputStream, final DataLoadProgress loadProgress) {
+            super(inputStream);
+            this.loadProgress = loadProgress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value >= 0) {
+                loadProgress.addBytesRead(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                loadProgress.addBytesRead(count);
+            }
+            return count;
+        }
+    }
+
+}
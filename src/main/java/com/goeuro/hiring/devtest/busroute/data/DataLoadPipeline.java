@@ -0,0 +1,838 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import com.goeuro.hiring.devtest.busroute.utils.Constants;
+
+/**
+ * Staged load pipeline of the data file. The stages run on separate threads and are connected by
+ * bounded lock-free ring buffers(@see com.goeuro.hiring.devtest.busroute.data.BoundedRingBuffer):
+ *
+ *      (1) Reader  : Reads(and decompresses) the data file into large blocks cut at the line boundaries.
+ *      (2) Parsers : Parse the blocks into primitive route records(flags, route ID, counts, station IDs, departure times...)
+ *                    and flag the records which break the per route rules. Any number of threads.
+ *      (3) Indexer : Runs on the loading thread. Adds the route records to the data cache builder in the file order
+ *                    and collects the facts needed for the validations.
+ *
+ * A stage waits(spin, yield, then park) when its input ring buffer is empty or its output ring buffer is full,
+ * hence the slowest stage throttles the others and the memory held by the blocks in flight is bounded.
+ * The throughput and the waits of each stage are recorded(@see com.goeuro.hiring.devtest.busroute.data.LoadStageStats).
+ *
+ * The data file content is validated only once it is fully read, in the same order as before, from the collected facts
+ * (@see com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager). The routes are indexed meanwhile and
+ * the builder is thrown away if the validation fails. Indexing is stopped early once the routes or the unique stations
+ * are above the limits, since the validation is going to fail anyway.
+ *
+ * A route line can optionally carry the departure schedule of the route(extended data file format), after a '|' token:
+ *
+ *      ROUTE-ID STATION-ID STATION-ID ... | DEPARTURE-TIME DEPARTURE-TIME ...
+ *
+ * The departure times are minutes of the week(@see com.goeuro.hiring.devtest.busroute.utils.Constants#MINUTES_PER_WEEK),
+ * in any order. The routes without the separator have no schedule, hence the basic data file format loads as before.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class DataLoadPipeline {
+
+    static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int RING_BUFFER_CAPACITY = 16;     /* Blocks in flight between the stages */
+
+    private static final int SPIN_WAITS = 64;               /* Waits before yielding the CPU */
+    private static final int YIELD_WAITS = 128;             /* Waits before parking the thread */
+    private static final long PARK_NANOS = 50_000;
+
+    /* Route record flags */
+    private static final int MALFORMED_ROUTE_ID = 1;
+    private static final int MALFORMED_STATION_ID = 2;
+    private static final int DUPLICATE_STATION_IDS = 4;
+    private static final int INVALID_DEPARTURE_TIME = 8;
+
+    private static final int RECORD_HEADER_SIZE = 4;         /* Flags, Route ID, Stations count, Departure times count */
+
+    private static final byte SCHEDULE_SEPARATOR = '|';      /* Separates the stations and the departure times of a route */
+
+    private static final long MALFORMED_NUMBER = Long.MIN_VALUE;
+
+    private final Path dataFile;
+    private final DataLoadProgress loadProgress;
+    private final int parserThreads;
+    private final int blockSize;
+    private final int maxRoutes;
+    private final int maxOverallUniqueStations;
+
+    private final BoundedRingBuffer<DataBlock> blocks = new BoundedRingBuffer<>(RING_BUFFER_CAPACITY);
+    private final BoundedRingBuffer<RouteRecords> routeRecords = new BoundedRingBuffer<>(RING_BUFFER_CAPACITY);
+
+    private final LoadStageStats readerStats;
+    private final LoadStageStats parserStats;
+    private final LoadStageStats indexerStats;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean aborted;
+    private volatile long totalBlocks = -1;                  /* Known once the reader reaches the end of the file */
+
+    /* Indexer state, accessed only by the loading thread */
+    private String headerLine;
+    private long routesCount = 0;
+    private int[] routeIds = new int[16];
+    private int routeIdsCount = 0;
+    private String firstMalformedRouteId;
+    private String firstMalformedStationId;
+    private int minStationsPerRoute = Integer.MAX_VALUE;
+    private int maxStationsPerRoute = 0;
+    private boolean duplicateStationIdsFound = false;
+    private boolean invalidDepartureTimeFound = false;
+    private int uniqueStationsCount = 0;
+    private BusRouteDataCacheBuilder dataCacheBuilder;   /* Null once indexing is stopped */
+
+    /**
+     * @param dataFile
+     * @param loadProgress
+     * @param parserThreads             Number of parser threads
+     * @param blockSize                 Initial size of the blocks, grown for a longer line
+     * @param maxRoutes                 Routes limit, indexing is stopped above it
+     * @param maxOverallUniqueStations  Unique stations limit, indexing is stopped above it
+     */
+    DataLoadPipeline(final Path dataFile,
+                     final DataLoadProgress loadProgress,
+                     final int parserThreads,
+                     final int blockSize,
+                     final int maxRoutes,
+                     final int maxOverallUniqueStations) {
+        this.dataFile = dataFile;
+        this.loadProgress = loadProgress;
+        this.parserThreads = Math.max(1, parserThreads);
+        this.blockSize = Math.max(1, blockSize);
+        this.maxRoutes = maxRoutes;
+        this.maxOverallUniqueStations = maxOverallUniqueStations;
+
+        this.readerStats = new LoadStageStats("reader", 1);
+        this.parserStats = new LoadStageStats("parser", this.parserThreads);
+        this.indexerStats = new LoadStageStats("indexer", 1);
+    }
+
+    /**
+     * Run all the stages till the data file is fully read and indexed.
+     * The indexer stage runs on the calling thread.
+     *
+     * @throws IOException if the data file can't be read
+     */
+    void run() throws IOException {
+        loadProgress.setStages(Arrays.asList(readerStats, parserStats, indexerStats));
+
+        final List<Thread> threads = new ArrayList<>();
+        threads.add(startThread("data-load-reader", this::read));
+        for (int parser = 0; parser < parserThreads; parser++) {
+            threads.add(startThread("data-load-parser-" + parser, new RouteParser()::parse));
+        }
+
+        boolean completed = false;
+        try {
+            index();
+            completed = true;
+        } catch (RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        } finally {
+            aborted = !completed || aborted;    /* Stops the other stages if the indexer is failed */
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();  /* Done with the last block already, join to have the final stage stats */
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private static Thread startThread(final String name, final Runnable runnable) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Reader stage. Fill the blocks and cut them after the last line break, the partial line is carried to the next block.
+     */
+    private void read() {
+        try (InputStream inputStream = DataFileReader.open(dataFile, loadProgress)) {
+            byte[] buffer = new byte[blockSize];
+            int filled = 0;
+            long sequence = 0;
+            boolean endOfFile = false;
+            long startTime = System.nanoTime();
+
+            while (!endOfFile) {
+                while (filled < buffer.length) {
+                    final int count = inputStream.read(buffer, filled, buffer.length - filled);
+                    if (count < 0) {
+                        endOfFile = true;
+                        break;
+                    }
+                    filled += count;
+                }
+
+                final int blockLength = endOfFile ? filled : lastLineBreak(buffer, filled) + 1;
+                if (blockLength == 0) {
+                    if (!endOfFile) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);  /* Line longer than the block */
+                    }
+                    continue;
+                }
+
+                final byte[] nextBuffer = new byte[Math.max(blockSize, (filled - blockLength) * 2)];
+                System.arraycopy(buffer, blockLength, nextBuffer, 0, filled - blockLength);
+                readerStats.addBlock(blockLength, System.nanoTime() - startTime);
+
+                if (!put(blocks, new DataBlock(sequence++, buffer, blockLength), readerStats)) {
+                    return;
+                }
+
+                filled -= blockLength;
+                buffer = nextBuffer;
+                startTime = System.nanoTime();
+            }
+
+            totalBlocks = sequence;
+            for (int parser = 0; parser < parserThreads; parser++) {
+                if (!put(blocks, DataBlock.END, readerStats)) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * @param buffer
+     * @param length
+     * @return Index of the last line break or -1
+     */
+    private static int lastLineBreak(final byte[] buffer, final int length) {
+        for (int index = length - 1; index >= 0; index--) {
+            if (buffer[index] == '\n' || buffer[index] == '\r') {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indexer stage. Index the route records in the order of the blocks, the blocks parsed ahead are held till their turn.
+     * The blocks held are bounded by the ring buffers, hence the reordering can't grow unbounded.
+     */
+    private void index() throws IOException {
+        final Map<Long, RouteRecords> parsedAhead = new HashMap<>();
+        long nextSequence = 0;
+        int waits = 0;
+        long waitStartTime = 0;
+
+        while (nextSequence != totalBlocks) {
+            RouteRecords records = parsedAhead.remove(nextSequence);
+
+            if (records == null) {
+                records = routeRecords.poll();
+                if (records == null) {
+                    if (aborted) {
+                        throwFailure();
+                    }
+                    if (waits == 0) {
+                        waitStartTime = System.nanoTime();
+                    }
+                    idle(++waits);
+                    continue;
+                }
+                if (records.sequence != nextSequence) {
+                    parsedAhead.put(records.sequence, records);
+                    continue;
+                }
+            }
+
+            if (waits > 0) {
+                indexerStats.addInputWait(System.nanoTime() - waitStartTime);
+                waits = 0;
+            }
+
+            final long startTime = System.nanoTime();
+            index(records);
+            indexerStats.addBlock(records.blockLength, System.nanoTime() - startTime);
+            nextSequence++;
+        }
+
+        if (waits > 0) {
+            indexerStats.addInputWait(System.nanoTime() - waitStartTime);
+        }
+        if (aborted) {
+            throwFailure();
+        }
+    }
+
+    /**
+     * @param records Route records of the next block
+     */
+    private void index(final RouteRecords records) {
+        if (records.sequence == 0) {
+            headerLine = records.headerLine;
+            final long totalRoutes = parseNumber(headerLine);
+
+            if (totalRoutes != MALFORMED_NUMBER) {
+                loadProgress.setTotalRoutes(totalRoutes);
+            }
+            dataCacheBuilder = newDataCacheBuilder(
+                    (totalRoutes == MALFORMED_NUMBER) ? 0 : (int) Math.max(0, Math.min(totalRoutes, maxRoutes)), records);
+        }
+
+        if (firstMalformedRouteId == null) {
+            firstMalformedRouteId = records.firstMalformedRouteId;
+        }
+        if (firstMalformedStationId == null) {
+            firstMalformedStationId = records.firstMalformedStationId;
+        }
+
+        final int[] data = records.data;
+        int index = 0;
+        while (index < records.size) {
+            final int flags = data[index];
+            final int routeId = data[index + 1];
+            final int stationsCount = data[index + 2];
+            final int departureTimesCount = data[index + 3];
+            final int from = index + RECORD_HEADER_SIZE;
+            final int to = from + stationsCount;
+            index = to + departureTimesCount;
+
+            routesCount++;
+            if ((flags & MALFORMED_ROUTE_ID) == 0) {
+                addRouteId(routeId);
+            }
+            if ((flags & (MALFORMED_ROUTE_ID | MALFORMED_STATION_ID)) != 0) {
+                continue;   /* Fails the validation, can't be indexed */
+            }
+
+            minStationsPerRoute = Math.min(minStationsPerRoute, stationsCount);
+            maxStationsPerRoute = Math.max(maxStationsPerRoute, stationsCount);
+            duplicateStationIdsFound |= (flags & DUPLICATE_STATION_IDS) != 0;
+            invalidDepartureTimeFound |= (flags & INVALID_DEPARTURE_TIME) != 0;
+
+            if (routesCount > maxRoutes) {
+                stopIndexing();
+            }
+            if (dataCacheBuilder != null) {
+                dataCacheBuilder.addRoute(routeId, data, from, to, data, to, index);
+                uniqueStationsCount = dataCacheBuilder.getStationsCount();
+                loadProgress.addRouteParsed();
+
+                if (uniqueStationsCount > maxOverallUniqueStations) {
+                    stopIndexing();
+                }
+            }
+        }
+    }
+
+    /**
+     * Size the builder from the header route count and the station counts of the first block, scaled up to all the routes.
+     * The sizes are exact when the first block holds all the routes, otherwise the builder grows from the estimates.
+     * Repeated stations are rarer in the later blocks, hence the unique stations are capped by the limit.
+     *
+     * @param expectedRoutes Route count of the header line, within the limit
+     * @param records        Route records of the first block
+     * @return Builder sized for the expected routes and stations
+     */
+    private BusRouteDataCacheBuilder newDataCacheBuilder(final int expectedRoutes, final RouteRecords records) {
+        if (records.routesCount == 0) {
+            return new BusRouteDataCacheBuilder(expectedRoutes, 0, 0);
+        }
+
+        final double routesScale = Math.max(1.0, (double) expectedRoutes / records.routesCount);
+        return new BusRouteDataCacheBuilder(expectedRoutes,
+                (int) Math.min(maxOverallUniqueStations, (long) (records.uniqueStationsCount * routesScale)),
+                (long) (records.stationsCount * routesScale));
+    }
+
+    /**
+     * Above the limits, the validation is going to fail and the builder is not required anymore.
+     */
+    private void stopIndexing() {
+        dataCacheBuilder = null;
+    }
+
+    private void addRouteId(final int routeId) {
+        if (routeIdsCount == routeIds.length) {
+            routeIds = Arrays.copyOf(routeIds, routeIdsCount * 2);
+        }
+        routeIds[routeIdsCount++] = routeId;
+    }
+
+    /**
+     * Put the given element into the ring buffer, waiting while it is full.
+     *
+     * @param ringBuffer
+     * @param element
+     * @param stageStats Stats of the producing stage
+     * @return false if the pipeline is aborted
+     */
+    private <E> boolean put(final BoundedRingBuffer<E> ringBuffer, final E element, final LoadStageStats stageStats) {
+        if (ringBuffer.offer(element)) {
+            return true;
+        }
+
+        final long waitStartTime = System.nanoTime();
+        try {
+            for (int waits = 1; !ringBuffer.offer(element); waits++) {
+                if (aborted) {
+                    return false;
+                }
+                idle(waits);
+            }
+            return true;
+        } finally {
+            stageStats.addOutputWait(System.nanoTime() - waitStartTime);
+        }
+    }
+
+    /**
+     * Take the next element from the ring buffer, waiting while it is empty.
+     *
+     * @param ringBuffer
+     * @param stageStats Stats of the consuming stage
+     * @return Next element or null if the pipeline is aborted
+     */
+    private <E> E take(final BoundedRingBuffer<E> ringBuffer, final LoadStageStats stageStats) {
+        E element = ringBuffer.poll();
+        if (element != null) {
+            return element;
+        }
+
+        final long waitStartTime = System.nanoTime();
+        try {
+            for (int waits = 1; (element = ringBuffer.poll()) == null; waits++) {
+                if (aborted) {
+                    return null;
+                }
+                idle(waits);
+            }
+            return element;
+        } finally {
+            stageStats.addInputWait(System.nanoTime() - waitStartTime);
+        }
+    }
+
+    /**
+     * Spin first(the other stage is usually just behind), then yield and finally park, to not burn a core on a long wait.
+     *
+     * @param waits Waits so far
+     */
+    private static void idle(final int waits) {
+        if (waits < SPIN_WAITS) {
+            return;
+        }
+        if (waits < SPIN_WAITS + YIELD_WAITS) {
+            Thread.yield();
+            return;
+        }
+        LockSupport.parkNanos(PARK_NANOS);
+    }
+
+    /**
+     * Record the first failure and stop all the stages.
+     *
+     * @param throwable
+     */
+    private void fail(final Throwable throwable) {
+        failure.compareAndSet(null, throwable);
+        aborted = true;
+    }
+
+    private void throwFailure() throws IOException {
+        final Throwable throwable = failure.get();
+
+        if (throwable instanceof IOException) {
+            throw (IOException) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        throw new IllegalStateException("Data file load pipeline is aborted.", throwable);
+    }
+
+    /**
+     * Parse an integer the same way as Integer.valueOf/Long.valueOf(ASCII digits with an optional sign).
+     *
+     * @param bytes
+     * @param from
+     * @param to
+     * @return Parsed value or MALFORMED_NUMBER if it is not a valid integer
+     */
+    private static long parseInteger(final byte[] bytes, final int from, final int to) {
+        int position = from;
+        final boolean negative = bytes[position] == '-';
+        if (negative || bytes[position] == '+') {
+            position++;
+        }
+        if (position == to) {
+            return MALFORMED_NUMBER;
+        }
+
+        long value = 0;
+        for (; position < to; position++) {
+            final int digit = bytes[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return MALFORMED_NUMBER;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return MALFORMED_NUMBER;
+            }
+        }
+
+        value = negative ? -value : value;
+        return (value > Integer.MAX_VALUE) ? MALFORMED_NUMBER : value;
+    }
+
+    /**
+     * @param number
+     * @return Parsed long value or MALFORMED_NUMBER
+     */
+    private static long parseNumber(final String number) {
+        try {
+            return (number == null) ? MALFORMED_NUMBER : Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return MALFORMED_NUMBER;
+        }
+    }
+
+    /**
+     * @param value
+     * @return true for the characters which separate the route ID and the stations(same as the regex \s)
+     */
+    private static boolean isWhiteSpace(final byte value) {
+        return value == ' ' || value == '\t' || value == 0x0B || value == '\f';
+    }
+
+    /**
+     * Parser stage. One instance per parser thread, so that the scratch array is not shared.
+     */
+    private final class RouteParser {
+
+        private int[] sortedStationIds = new int[64];
+
+        private void parse() {
+            try {
+                while (true) {
+                    final DataBlock block = take(blocks, parserStats);
+                    if (block == null || block == DataBlock.END) {
+                        return;
+                    }
+
+                    final long startTime = System.nanoTime();
+                    final RouteRecords records = parse(block);
+                    parserStats.addBlock(block.length, System.nanoTime() - startTime);
+
+                    if (!put(routeRecords, records, parserStats)) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Split the block into lines(same as BufferedReader, \n, \r or \r\n), trim them(same as String.trim)
+         * and parse the non empty lines. The first line of the file is the header.
+         *
+         * @param block
+         * @return Route records of the block
+         */
+        private RouteRecords parse(final DataBlock block) {
+            final byte[] bytes = block.bytes;
+            final RouteRecords records = new RouteRecords(block.sequence, block.length);
+
+            int position = 0;
+            boolean headerLine = (block.sequence == 0);
+            while (position < block.length) {
+                int lineEnd = position;
+                while (lineEnd < block.length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r') {
+                    lineEnd++;
+                }
+
+                int start = position;
+                int end = lineEnd;
+                while (start < end && (bytes[start] & 0xFF) <= ' ') {
+                    start++;
+                }
+                while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+                    end--;
+                }
+
+                if (headerLine) {
+                    records.headerLine = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+                    headerLine = false;
+                } else if (start < end) {
+                    parseRoute(bytes, start, end, records);
+                }
+
+                /* \r\n leaves an empty line in between, which is skipped */
+                position = lineEnd + 1;
+            }
+
+            if (block.sequence == 0) {
+                records.uniqueStationsCount = countUniqueStations(records);
+            }
+            return records;
+        }
+
+        /**
+         * @param records
+         * @return Number of unique station IDs across the route records
+         */
+        private int countUniqueStations(final RouteRecords records) {
+            final StationIndex stationIndex = new StationIndex((int) Math.min(Integer.MAX_VALUE, records.stationsCount));
+            int uniqueStationsCount = 0;
+
+            int index = 0;
+            while (index < records.size) {
+                final int from = index + RECORD_HEADER_SIZE;
+                final int to = from + records.data[index + 2];
+                for (int position = from; position < to; position++) {
+                    if (stationIndex.getOrAddOrdinal(records.data[position]) == uniqueStationsCount) {
+                        uniqueStationsCount++;
+                    }
+                }
+                index = to + records.data[index + 3];
+            }
+            return uniqueStationsCount;
+        }
+
+        /**
+         * Append the route record of the given(trimmed, non empty) line.
+         * The departure times(if any) follow the station IDs in the record.
+         */
+        private void parseRoute(final byte[] bytes, final int start, final int end, final RouteRecords records) {
+            records.ensureCapacity(RECORD_HEADER_SIZE + (end - start + 1) / 2);
+
+            final int recordIndex = records.size;
+            records.size += RECORD_HEADER_SIZE;
+            int flags = 0;
+            int routeId = 0;
+            int tokens = 0;
+            int departureTimesIndex = -1;   /* Start of the departure times in the record, once the separator is seen */
+
+            int position = start;
+            while (position < end) {
+                while (isWhiteSpace(bytes[position])) {
+                    position++;     /* The line is trimmed, a token always follows */
+                }
+                int tokenEnd = position;
+                while (tokenEnd < end && !isWhiteSpace(bytes[tokenEnd])) {
+                    tokenEnd++;
+                }
+
+                final long value = parseInteger(bytes, position, tokenEnd);
+                if (departureTimesIndex < 0 && tokens > 0 && tokenEnd - position == 1 && bytes[position] == SCHEDULE_SEPARATOR) {
+                    departureTimesIndex = records.size;
+                } else if (departureTimesIndex >= 0) {
+                    if (value == MALFORMED_NUMBER || value < 0 || value >= Constants.MINUTES_PER_WEEK) {
+                        flags |= INVALID_DEPARTURE_TIME;
+                    } else {
+                        records.data[records.size++] = (int) value;
+                    }
+                } else if (value == MALFORMED_NUMBER) {
+                    final String token = new String(bytes, position, tokenEnd - position, StandardCharsets.ISO_8859_1);
+                    if (tokens == 0) {
+                        flags |= MALFORMED_ROUTE_ID;
+                        records.firstMalformedRouteId = (records.firstMalformedRouteId == null) ? token : records.firstMalformedRouteId;
+                    } else {
+                        flags |= MALFORMED_STATION_ID;
+                        records.firstMalformedStationId = (records.firstMalformedStationId == null) ? token : records.firstMalformedStationId;
+                    }
+                } else if (tokens == 0) {
+                    routeId = (int) value;
+                } else {
+                    records.data[records.size++] = (int) value;
+                }
+
+                tokens++;
+                position = tokenEnd;
+            }
+
+            final int stationsEnd = (departureTimesIndex < 0) ? records.size : departureTimesIndex;
+            final int stationsCount = stationsEnd - recordIndex - RECORD_HEADER_SIZE;
+            if (hasDuplicates(records.data, recordIndex + RECORD_HEADER_SIZE, stationsEnd)) {
+                flags |= DUPLICATE_STATION_IDS;
+            }
+
+            records.data[recordIndex] = flags;
+            records.data[recordIndex + 1] = routeId;
+            records.data[recordIndex + 2] = stationsCount;
+            records.data[recordIndex + 3] = records.size - stationsEnd;
+            records.routesCount++;
+            records.stationsCount += stationsCount;
+        }
+
+        private boolean hasDuplicates(final int[] stationIds, final int from, final int to) {
+            final int length = to - from;
+            if (length > sortedStationIds.length) {
+                sortedStationIds = new int[Math.max(length, sortedStationIds.length * 2)];
+            }
+
+            System.arraycopy(stationIds, from, sortedStationIds, 0, length);
+            Arrays.sort(sortedStationIds, 0, length);
+            for (int index = 1; index < length; index++) {
+                if (sortedStationIds[index] == sortedStationIds[index - 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Block of the data file with complete lines only.
+     */
+    private static final class DataBlock {
+
+        private static final DataBlock END = new DataBlock(-1, new byte[0], 0);    /* One per parser, stops it */
+
+        private final long sequence;
+        private final byte[] bytes;
+        private final int length;
+
+        private DataBlock(final long sequence, final byte[] bytes, final int length) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Route records parsed from a block, flattened into a single array.
+     */
+    private static final class RouteRecords {
+
+        private final long sequence;
+        private final int blockLength;
+
+        private String headerLine;
+        private int[] data;
+        private int size = 0;
+        private int routesCount = 0;
+        private long stationsCount = 0;         /* Station tokens across the routes */
+        private int uniqueStationsCount = 0;    /* Unique station IDs, counted for the first block only(builder sizing) */
+        private String firstMalformedRouteId;
+        private String firstMalformedStationId;
+
+        private RouteRecords(final long sequence, final int blockLength) {
+            this.sequence = sequence;
+            this.blockLength = blockLength;
+            this.data = new int[Math.max(16, blockLength / 4)];  /* At least 2 bytes per number, mostly more */
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (size + additional > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + additional, data.length * 2));
+            }
+        }
+    }
+
+    /**
+     * @return Header line(trimmed) or null if the data file is empty
+     */
+    String getHeaderLine() {
+        return headerLine;
+    }
+
+    /**
+     * @return Number of non empty lines after the header line
+     */
+    long getRoutesCount() {
+        return routesCount;
+    }
+
+    /**
+     * @return First route ID which is not a valid integer or null
+     */
+    String getFirstMalformedRouteId() {
+        return firstMalformedRouteId;
+    }
+
+    /**
+     * @return First station ID which is not a valid integer or null
+     */
+    String getFirstMalformedStationId() {
+        return firstMalformedStationId;
+    }
+
+    /**
+     * @return Number of unique valid route IDs
+     */
+    int getUniqueRouteIdsCount() {
+        final int[] sortedRouteIds = Arrays.copyOf(routeIds, routeIdsCount);
+        Arrays.sort(sortedRouteIds);
+
+        int uniqueRouteIdsCount = Math.min(1, sortedRouteIds.length);
+        for (int index = 1; index < sortedRouteIds.length; index++) {
+            if (sortedRouteIds[index] != sortedRouteIds[index - 1]) {
+                uniqueRouteIdsCount++;
+            }
+        }
+        return uniqueRouteIdsCount;
+    }
+
+    /**
+     * @return Number of unique stations across the indexed routes(above the limit if indexing is stopped for it)
+     */
+    int getUniqueStationsCount() {
+        return uniqueStationsCount;
+    }
+
+    /**
+     * @return Minimum stations in a route or Integer.MAX_VALUE if there are no routes
+     */
+    int getMinStationsPerRoute() {
+        return minStationsPerRoute;
+    }
+
+    int getMaxStationsPerRoute() {
+        return maxStationsPerRoute;
+    }
+
+    boolean isDuplicateStationIdsFound() {
+        return duplicateStationIdsFound;
+    }
+
+    /**
+     * @return true if any departure time is not a valid integer or not a minute of the week
+     */
+    boolean isInvalidDepartureTimeFound() {
+        return invalidDepartureTimeFound;
+    }
+
+    /**
+     * @return Builder with all the routes or null if indexing is stopped
+     */
+    BusRouteDataCacheBuilder getDataCacheBuilder() {
+        return dataCacheBuilder;
+    }
+
+}
@@ -0,0 +1,280 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Progress of the data file load during the application/server start.
+ * It is updated by the loading thread only(bytes read by the reader thread of the load pipeline only)
+ * and read by the readiness end point and the progress log, hence the fields are volatile and not atomic.
+ * The data sets are loaded one after the other and the progress shows the one being loaded(or the last one loaded).
+ *
+ * The heap allocated by the loading thread is accounted per phase(if the JVM supports the thread allocation counters),
+ * to find the phase responsible for an allocation regression without a heap dump. The reading, parsing and indexing
+ * overlap in the READING phase(@see com.goeuro.hiring.devtest.busroute.data.DataLoadPipeline), the allocations of
+ * the reader and the parser threads are not accounted. The throughput of each pipeline stage is reported instead.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class DataLoadProgress {
+
+    /**
+     * Load phases in the order they happen. The instance is ready to serve the requests in READY phase only.
+     */
+    public enum Phase {
+        NOT_STARTED, READING, VALIDATING, INDEXING, WARMING_UP, READY, FAILED
+    }
+
+    private volatile Phase phase = Phase.NOT_STARTED;
+    private volatile String dataSetName = "";
+    private volatile String validationStep = "";
+    private volatile long startTime;
+    private volatile long endTime;
+
+    private volatile long totalBytes;
+    private volatile long bytesRead;
+    private volatile long totalRoutes;
+    private volatile long routesParsed;
+    private volatile int indexBuildPercentage;
+    private volatile List<LoadStageStats> stages = Collections.emptyList();
+
+    private final AtomicLongArray allocatedBytesPerPhase = new AtomicLongArray(Phase.values().length);
+    private long phaseStartAllocatedBytes;  /* Accessed only by the loading thread */
+
+    /**
+     * @param dataSetName Data set being loaded
+     * @param totalBytes  Size of the data file
+     */
+    void startReading(final String dataSetName, final long totalBytes) {
+        this.dataSetName = dataSetName;
+        this.startTime = System.nanoTime();
+        this.endTime = 0;
+        this.totalBytes = totalBytes;
+        this.bytesRead = 0;
+        this.routesParsed = 0;
+        this.indexBuildPercentage = 0;
+        this.stages = Collections.emptyList();
+        for (int index = 0; index < allocatedBytesPerPhase.length(); index++) {
+            allocatedBytesPerPhase.set(index, 0);
+        }
+        this.phaseStartAllocatedBytes = getCurrentThreadAllocatedBytes();
+        this.phase = Phase.READING;
+    }
+
+    /**
+     * @param bytes Bytes read from the data file
+     */
+    void addBytesRead(final long bytes) {
+        bytesRead += bytes;    /* Single writer */
+    }
+
+    /**
+     * All the bytes are read, even if the file is grown meanwhile.
+     */
+    void completeReading() {
+        bytesRead = totalBytes;
+    }
+
+    /**
+     * @param totalRoutes Total routes specified in the header line, known as soon as the header line is parsed
+     */
+    void setTotalRoutes(final long totalRoutes) {
+        this.totalRoutes = totalRoutes;
+    }
+
+    /**
+     * @param stages Stages of the load pipeline, updated while the data file is read
+     */
+    void setStages(final List<LoadStageStats> stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * @param totalRoutes Total routes specified in the header line
+     */
+    void startValidation(final long totalRoutes) {
+        this.totalRoutes = totalRoutes;
+        enterPhase(Phase.VALIDATING);
+    }
+
+    /**
+     * @param validationStep Human readable name of the running validation
+     */
+    void setValidationStep(final String validationStep) {
+        this.validationStep = validationStep;
+    }
+
+    void startIndexing() {
+        this.validationStep = "completed";
+        enterPhase(Phase.INDEXING);
+    }
+
+    /**
+     * Record a route which is parsed and added to the index.
+     * The last percent is reached only once the index is built.
+     */
+    void addRouteParsed() {
+        final long parsed = ++routesParsed;    /* Single writer */
+        indexBuildPercentage = (int) Math.min(99, parsed * 100 / Math.max(1, totalRoutes));
+    }
+
+    void completeIndexing() {
+        accountAllocatedBytes();
+        indexBuildPercentage = 100;
+    }
+
+    /**
+     * Marks the beginning of the search service warmup, once the data cache is published.
+     */
+    public void startWarmingUp() {
+        enterPhase(Phase.WARMING_UP);
+    }
+
+    /**
+     * Marks the instance as ready to serve the requests.
+     */
+    public void markReady() {
+        endTime = System.nanoTime();
+        enterPhase(Phase.READY);
+    }
+
+    /**
+     * Marks the load as failed. The instance never becomes ready.
+     */
+    public void markFailed() {
+        endTime = System.nanoTime();
+        enterPhase(Phase.FAILED);
+    }
+
+    /**
+     * Account the heap allocated since the previous phase change to the current phase and move to the next phase.
+     * Called by the loading thread only.
+     *
+     * @param nextPhase
+     */
+    private void enterPhase(final Phase nextPhase) {
+        accountAllocatedBytes();
+        phase = nextPhase;
+    }
+
+    /**
+     * Account the heap allocated since the previous call to the current phase.
+     */
+    private void accountAllocatedBytes() {
+        final long allocatedBytes = getCurrentThreadAllocatedBytes();
+        if (phase != Phase.NOT_STARTED) {
+            allocatedBytesPerPhase.addAndGet(phase.ordinal(), allocatedBytes - phaseStartAllocatedBytes);
+        }
+        phaseStartAllocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return Heap allocated by the current thread so far or 0 if it is not supported by the JVM
+     */
+    private static long getCurrentThreadAllocatedBytes() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                return Math.max(0, allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()));
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return Heap allocated by the loading thread in each of the completed phases
+     */
+    public Map<Phase, Long> getAllocatedBytesPerPhase() {
+        final Map<Phase, Long> allocatedBytes = new EnumMap<>(Phase.class);
+        for (Phase completedPhase : Phase.values()) {
+            if (allocatedBytesPerPhase.get(completedPhase.ordinal()) > 0) {
+                allocatedBytes.put(completedPhase, allocatedBytesPerPhase.get(completedPhase.ordinal()));
+            }
+        }
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Stages of the load pipeline of the data set being loaded(or the last one loaded)
+     */
+    List<LoadStageStats> getStages() {
+        return stages;
+    }
+
+    /**
+     * @return Name of the pipeline stage with the lowest throughput, which limits the load time
+     */
+    private String getBottleneckStage() {
+        return stages.stream()
+                .filter(stage -> stage.getThroughputBytesPerSecond() > 0)
+                .min(Comparator.comparingLong(LoadStageStats::getThroughputBytesPerSecond))
+                .map(LoadStageStats::getName)
+                .orElse("");
+    }
+
+    /**
+     * @return true if the data is loaded and the search service is warmed up
+     */
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return Current state of all the progress counters, in a stable order
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("phase", phase);
+        progress.put("dataSet", dataSetName);
+        progress.put("bytesRead", bytesRead);
+        progress.put("totalBytes", totalBytes);
+        progress.put("validationStep", validationStep);
+        progress.put("routesParsed", routesParsed);
+        progress.put("totalRoutes", totalRoutes);
+        progress.put("indexBuildPercentage", indexBuildPercentage);
+        progress.put("elapsedMillis", getElapsedMillis());
+        progress.put("allocatedBytes", getAllocatedBytesPerPhase());
+
+        final Map<String, Object> stagesProgress = new LinkedHashMap<>();
+        stages.forEach(stage -> stagesProgress.put(stage.getName(), stage.toMap()));
+        progress.put("stages", stagesProgress);
+        progress.put("bottleneckStage", getBottleneckStage());
+        return progress;
+    }
+
+    /**
+     * @return Time taken so far or till the instance became ready/failed
+     */
+    private long getElapsedMillis() {
+        if (phase == Phase.NOT_STARTED) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(((endTime == 0) ? System.nanoTime() : endTime) - startTime);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("phase=%s, data set=%s, bytes read=%d/%d, validation step=%s, routes parsed=%d/%d, index built=%d%%, allocated bytes=%s, stages=%s, bottleneck=%s",
+                phase, dataSetName, bytesRead, totalBytes, validationStep, routesParsed, totalRoutes, indexBuildPercentage, getAllocatedBytesPerPhase(),
+                stages, getBottleneckStage());
+    }
+
+}
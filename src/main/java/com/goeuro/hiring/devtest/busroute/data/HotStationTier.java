@@ -0,0 +1,69 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Faster representation of the connectivity among the hottest stations of a data cache(@see StationHotness).
+ *
+ * The direct connectivity of every (hot station, hot station) pair is computed up front into a bit matrix,
+ * hence a lookup between two hot stations is a bit test instead of the posting list intersection, whose cost
+ * grows with the number of routes of the stations(the hub stations have the longest posting lists).
+ * The matrix is contiguous and small(256 hot stations take 8 KB), hence it stays in the CPU caches.
+ *
+ * Immutable, a new tier replaces the previous one as a whole.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class HotStationTier {
+
+    static final HotStationTier EMPTY = new HotStationTier(new int[0], new ConnectivityMatrix(0, 0));
+
+    private final int[] stationOrdinals;                /* Hot Ordinal -> Station Ordinal */
+    private final StationIndex hotIndex;                /* Station Ordinal -> Hot Ordinal */
+    private final ConnectivityMatrix connectivity;      /* (Hot Ordinal, Hot Ordinal) -> Directly connected */
+
+    /**
+     * @param stationOrdinals Station Ordinals of the hot stations
+     * @param connectivity    Connectivity of the hot stations, rows and columns in the same order as the stations
+     */
+    HotStationTier(final int[] stationOrdinals, final ConnectivityMatrix connectivity) {
+        this.stationOrdinals = stationOrdinals;
+        this.hotIndex = new StationIndex(stationOrdinals);
+        this.connectivity = connectivity;
+    }
+
+    /**
+     * @param stationOrdinal
+     * @return Hot Ordinal of the station or StationIndex.NOT_FOUND if it isn't in the hot tier
+     */
+    int getHotOrdinal(final int stationOrdinal) {
+        return hotIndex.getOrdinal(stationOrdinal);
+    }
+
+    /**
+     * @param departureHotOrdinal
+     * @param arrivalHotOrdinal
+     * @return true if the arrival station comes after the departure station in at least one of the routes
+     */
+    boolean isConnected(final int departureHotOrdinal, final int arrivalHotOrdinal) {
+        return connectivity.isConnected(departureHotOrdinal, arrivalHotOrdinal);
+    }
+
+    /**
+     * @return Number of stations in the hot tier
+     */
+    int getStationsCount() {
+        return stationOrdinals.length;
+    }
+
+    /**
+     * @return Approximate heap retained by the tier(array payloads only)
+     */
+    long getSizeInBytes() {
+        return (long) stationOrdinals.length * Integer.BYTES
+                + hotIndex.getSizeInBytes()
+                + (long) connectivity.getRowSizeInBytes() * connectivity.getRows();
+    }
+
+}
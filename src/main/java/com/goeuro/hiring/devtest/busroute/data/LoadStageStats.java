@@ -0,0 +1,105 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of a stage of the data file load pipeline(@see com.goeuro.hiring.devtest.busroute.data.DataLoadPipeline).
+ *
+ * The time of each stage thread is split into busy(doing the work), input wait(the upstream stage is slower) and
+ * output wait(the downstream stage is slower, backpressure). The stage with the lowest throughput per busy time
+ * limits the load time, the other stages are waiting for it.
+ * Updated by all the threads of the stage, hence the counters are adders.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class LoadStageStats {
+
+    private final String name;
+    private final int threads;
+
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder inputWaitNanos = new LongAdder();
+    private final LongAdder outputWaitNanos = new LongAdder();
+
+    /**
+     * @param name    Name of the stage
+     * @param threads Number of threads running the stage
+     */
+    LoadStageStats(final String name, final int threads) {
+        this.name = name;
+        this.threads = threads;
+    }
+
+    /**
+     * @param blockBytes Data file bytes(decompressed) of the block processed
+     * @param nanos      Time taken to process the block
+     */
+    void addBlock(final long blockBytes, final long nanos) {
+        blocks.increment();
+        bytes.add(blockBytes);
+        busyNanos.add(nanos);
+    }
+
+    void addInputWait(final long nanos) {
+        inputWaitNanos.add(nanos);
+    }
+
+    void addOutputWait(final long nanos) {
+        outputWaitNanos.add(nanos);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return Bytes per second the stage can process with all its threads, if it never waits
+     */
+    long getThroughputBytesPerSecond() {
+        final long busy = busyNanos.sum();
+        return (busy == 0) ? 0 : (long) (bytes.sum() * (double) TimeUnit.SECONDS.toNanos(1) * threads / busy);
+    }
+
+    long getBusyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(busyNanos.sum());
+    }
+
+    long getInputWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(inputWaitNanos.sum());
+    }
+
+    long getOutputWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(outputWaitNanos.sum());
+    }
+
+    /**
+     * @return Current state of all the counters, in a stable order
+     */
+    Map<String, Object> toMap() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("blocks", blocks.sum());
+        stats.put("bytes", bytes.sum());
+        stats.put("throughputBytesPerSecond", getThroughputBytesPerSecond());
+        stats.put("busyMillis", getBusyMillis());
+        stats.put("inputWaitMillis", getInputWaitMillis());
+        stats.put("outputWaitMillis", getOutputWaitMillis());
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(threads=%d, blocks=%d, %.1f MB/s, busy=%dms, input wait=%dms, output wait=%dms)",
+                name, threads, blocks.sum(), getThroughputBytesPerSecond() / (1024.0 * 1024.0),
+                getBusyMillis(), getInputWaitMillis(), getOutputWaitMillis());
+    }
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Intersection kernel of the sorted posting lists(ascending, non-negative and unique Route Ordinals).
+ *
+ * The common elements are found one at a time, so that the caller can stop at the first route which satisfies it
+ * (e.g. the direction check) without intersecting the remaining lists. Two strategies are used depending on the sizes:
+ *      - Branch-free merge for the lists of similar sizes. Both cursors are advanced with the sign bit of the difference
+ *        instead of a data dependent branch, which the CPU can't predict for the interleaved lists.
+ *      - Galloping(exponential + binary search) of the longer list for each element of the shorter list,
+ *        when the longer list is at least GALLOP_RATIO times longer(e.g. a local station against a hub station).
+ *        O(S * log(L / S)) instead of O(S + L).
+ *
+ * The position of a common element is returned as a packed long(index in the first list, index in the second list),
+ * so that no object is allocated per lookup.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class PostingLists {
+
+    public static final long NOT_FOUND = -1;
+
+    /* Size ratio above which the galloping beats the merge, measured with @see com.goeuro.hiring.devtest.busroute.perf.PostingListIntersectionBenchmark.
+     * The merge costs a few nanoseconds per element(load-compare dependency chain), hence the crossover is low */
+    static final int GALLOP_RATIO = 2;
+
+    private PostingLists() {
+    }
+
+    /**
+     * Find the first element present in both the given ranges, with the strategy chosen by the range sizes.
+     *
+     * @param first
+     * @param firstFrom  Start of the first range(inclusive)
+     * @param firstTo    End of the first range(exclusive)
+     * @param second
+     * @param secondFrom Start of the second range(inclusive)
+     * @param secondTo   End of the second range(exclusive)
+     * @return Packed positions of the common element or NOT_FOUND
+     */
+    public static long findFirstCommon(final int[] first, final int firstFrom, final int firstTo,
+                                       final int[] second, final int secondFrom, final int secondTo) {
+
+        final long firstSize = firstTo - firstFrom;
+        final long secondSize = secondTo - secondFrom;
+
+        if (firstSize <= 0 || secondSize <= 0) {
+            return NOT_FOUND;
+        }
+        if (secondSize >= firstSize * GALLOP_RATIO || firstSize >= secondSize * GALLOP_RATIO) {
+            return gallopFirstCommon(first, firstFrom, firstTo, second, secondFrom, secondTo);
+        }
+        return mergeFirstCommon(first, firstFrom, firstTo, second, secondFrom, secondTo);
+    }
+
+    /**
+     * Branch-free merge. The elements are non-negative, hence the difference never overflows
+     * and its sign bit tells which cursor holds the smaller element.
+     *
+     * @see #findFirstCommon(int[], int, int, int[], int, int)
+     */
+    public static long mergeFirstCommon(final int[] first, final int firstFrom, final int firstTo,
+                                        final int[] second, final int secondFrom, final int secondTo) {
+        int firstIndex = firstFrom;
+        int secondIndex = secondFrom;
+
+        while (firstIndex < firstTo && secondIndex < secondTo) {
+            final int firstElement = first[firstIndex];
+            final int secondElement = second[secondIndex];
+
+            if (firstElement == secondElement) {
+                return pack(firstIndex, secondIndex);
+            }
+
+            firstIndex += (firstElement - secondElement) >>> 31;     /* 1 if the first element is smaller */
+            secondIndex += (secondElement - firstElement) >>> 31;   /* 1 if the second element is smaller */
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Galloping of the longer range for each element of the shorter range.
+     *
+     * @see #findFirstCommon(int[], int, int, int[], int, int)
+     */
+    public static long gallopFirstCommon(final int[] first, final int firstFrom, final int firstTo,
+                                         final int[] second, final int secondFrom, final int secondTo) {
+
+        if (firstTo - firstFrom > secondTo - secondFrom) {
+            final long positions = gallopFirstCommon(second, secondFrom, secondTo, first, firstFrom, firstTo);
+            return (positions == NOT_FOUND) ? NOT_FOUND : pack(getSecondIndex(positions), getFirstIndex(positions));
+        }
+
+        int secondIndex = secondFrom;
+
+        for (int firstIndex = firstFrom; firstIndex < firstTo; firstIndex++) {
+            final int element = first[firstIndex];
+
+            secondIndex = gallop(second, secondIndex, secondTo, element);
+            if (secondIndex == secondTo) {
+                return NOT_FOUND;   /* All the remaining elements of the first range are greater */
+            }
+            if (second[secondIndex] == element) {
+                return pack(firstIndex, secondIndex);
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Exponential search from the start of the range for the bracket of the given key, then binary search in it.
+     * Cheaper than a plain binary search when the key is close to the start, which is the case while walking forward.
+     *
+     * @param elements
+     * @param from
+     * @param to
+     * @param key
+     * @return Index of the first element which is not less than the key or the end of the range
+     */
+    static int gallop(final int[] elements, final int from, final int to, final int key) {
+        if (from >= to || elements[from] >= key) {
+            return from;
+        }
+
+        /* elements[low] < key always holds */
+        int low = from;
+        int step = 1;
+        while (low + step < to && elements[low + step] < key) {
+            low += step;
+            step <<= 1;
+        }
+
+        int high = Math.min(low + step, to);    /* elements[high] >= key or the end of the range */
+        while (high - low > 1) {
+            final int middle = (low + high) >>> 1;
+            if (elements[middle] < key) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * @param positions Packed positions returned by the intersection
+     * @return Index of the common element in the first list
+     */
+    public static int getFirstIndex(final long positions) {
+        return (int) (positions >>> 32);
+    }
+
+    /**
+     * @param positions Packed positions returned by the intersection
+     * @return Index of the common element in the second list
+     */
+    public static int getSecondIndex(final long positions) {
+        return (int) positions;
+    }
+
+    private static long pack(final int firstIndex, final int secondIndex) {
+        return ((long) firstIndex << 32) | (secondIndex & 0xFFFFFFFFL);
+    }
+
+}
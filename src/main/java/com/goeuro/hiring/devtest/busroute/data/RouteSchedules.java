@@ -0,0 +1,143 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import com.goeuro.hiring.devtest.busroute.utils.Constants;
+
+/**
+ * Immutable departure schedules of the routes, given in the extended data file format(@see DataLoadPipeline).
+ *
+ * The departure times are minutes of the week(0 = Monday 00:00, @see Constants#MINUTES_PER_WEEK) and the schedule repeats
+ * every week. The departure times of all the routes are stored one after the other in a single array, sorted and unique
+ * per route, hence the next departure of a route is a binary search within its range. The week wraps around, i.e. the
+ * first departure of the week follows the last one.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class RouteSchedules {
+
+    static final RouteSchedules EMPTY = new RouteSchedules(null, new int[0]);
+
+    private final int[] routeDepartureOffsets;  /* Route Ordinal -> Start of its departure times, null if none of the routes has a schedule */
+
+    private final int[] departureTimes;         /* Departure times of all the routes, sorted per route */
+
+    /**
+     * @param routeDepartureOffsets Start of the departure times of each route, followed by the end of the last route
+     * @param departureTimes
+     */
+    RouteSchedules(final int[] routeDepartureOffsets, final int[] departureTimes) {
+        this.routeDepartureOffsets = routeDepartureOffsets;
+        this.departureTimes = departureTimes;
+    }
+
+    /**
+     * @return true if none of the routes has a schedule
+     */
+    boolean isEmpty() {
+        return routeDepartureOffsets == null;
+    }
+
+    /**
+     * Add the next departures of the given route, from the given time of the week, to the list of the next departures
+     * sorted by the wait. The list is bounded, the departures which wait longer than its last one are dropped.
+     *
+     * @param routeOrdinal
+     * @param routeId
+     * @param minuteOfWeek         Time to depart at or after
+     * @param nextDepartureTimes   Departure times of the list, in the order of the wait
+     * @param nextDepartureRoutes  Route IDs of the list(aligned with the departure times)
+     * @param nextDeparturesCount  Number of departures in the list so far
+     * @return Number of departures in the list
+     */
+    int addNextDepartures(final int routeOrdinal,
+                          final int routeId,
+                          final int minuteOfWeek,
+                          final int[] nextDepartureTimes,
+                          final int[] nextDepartureRoutes,
+                          final int nextDeparturesCount) {
+
+        if (routeDepartureOffsets == null) {
+            return nextDeparturesCount;
+        }
+
+        final int from = routeDepartureOffsets[routeOrdinal];
+        final int to = routeDepartureOffsets[routeOrdinal + 1];
+        final int routeDeparturesCount = to - from;
+        final int first = findFirstAtOrAfter(from, to, minuteOfWeek);
+        int count = nextDeparturesCount;
+
+        /* From the first departure at or after the given time, wrapped around to the beginning of the week */
+        for (int departure = 0; departure < Math.min(routeDeparturesCount, nextDepartureTimes.length); departure++) {
+            final int departureTime = departureTimes[from + (first - from + departure) % routeDeparturesCount];
+            final int wait = getWait(minuteOfWeek, departureTime);
+
+            if (count == nextDepartureTimes.length) {
+                if (wait >= getWait(minuteOfWeek, nextDepartureTimes[count - 1])) {
+                    break;  /* The next departures of this route wait even longer */
+                }
+                count--;    /* Drop the last one to make room */
+            }
+
+            /* Insertion into the sorted list, after the departures with the same wait(earlier routes first) */
+            int index = count;
+            while (index > 0 && getWait(minuteOfWeek, nextDepartureTimes[index - 1]) > wait) {
+                nextDepartureTimes[index] = nextDepartureTimes[index - 1];
+                nextDepartureRoutes[index] = nextDepartureRoutes[index - 1];
+                index--;
+            }
+            nextDepartureTimes[index] = departureTime;
+            nextDepartureRoutes[index] = routeId;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * @param from
+     * @param to
+     * @param minuteOfWeek
+     * @return Index of the first departure time at or after the given time, from if there is none(wraps around)
+     */
+    private int findFirstAtOrAfter(final int from, final int to, final int minuteOfWeek) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (departureTimes[middle] < minuteOfWeek) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (low == to) ? from : low;
+    }
+
+    /**
+     * @param minuteOfWeek
+     * @param departureTime
+     * @return Minutes from the given time till the departure, within a week
+     */
+    private static int getWait(final int minuteOfWeek, final int departureTime) {
+        final int wait = departureTime - minuteOfWeek;
+        return (wait < 0) ? wait + Constants.MINUTES_PER_WEEK : wait;
+    }
+
+    /**
+     * @return Number of departure times across all the routes
+     */
+    int getDepartureTimesCount() {
+        return departureTimes.length;
+    }
+
+    /**
+     * @return Size of the schedules in bytes(array payloads only)
+     */
+    long getSizeInBytes() {
+        return ((routeDepartureOffsets == null) ? 0L : (long) routeDepartureOffsets.length * Integer.BYTES)
+                + (long) departureTimes.length * Integer.BYTES;
+    }
+
+}
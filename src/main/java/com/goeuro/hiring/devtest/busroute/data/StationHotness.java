@@ -0,0 +1,149 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampled lookup frequency of each station of a data cache, to find the hub stations the traffic is skewed to.
+ *
+ * One out of N lookups is counted, for both its departure and arrival station. The counters are plain atomic
+ * increments(no locks), the unsampled lookups only draw a thread local random number.
+ * The counters are halved each time the hottest stations are selected, hence they follow the recent traffic.
+ *
+ * The sampled lookups answered by the hot tier(@see com.goeuro.hiring.devtest.busroute.data.HotStationTier)
+ * are counted as well, to report the share of the traffic served by it.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class StationHotness {
+
+    private final int samplingInterval;                 /* Count 1 out of N lookups */
+    private final AtomicIntegerArray lookupCounts;      /* Station Ordinal -> Sampled lookups(decayed) */
+
+    private final LongAdder sampledLookups = new LongAdder();
+    private final LongAdder hotTierLookups = new LongAdder();
+
+    /* Counters at the last selection, to compute the hot tier share of the last interval. Updated by the selecting thread only */
+    private volatile long lastSampledLookups;
+    private volatile long lastHotTierLookups;
+    private volatile double lastIntervalHotTierShare;
+
+    /**
+     * @param stationsCount
+     * @param samplingInterval
+     */
+    StationHotness(final int stationsCount, final int samplingInterval) {
+        this.samplingInterval = Math.max(1, samplingInterval);
+        this.lookupCounts = new AtomicIntegerArray(stationsCount);
+    }
+
+    /**
+     * Count the given lookup if it is selected by the sampling.
+     *
+     * @param departureStationOrdinal
+     * @param arrivalStationOrdinal
+     * @param servedByHotTier         true if the lookup is answered by the hot tier
+     */
+    void sample(final int departureStationOrdinal,
+                final int arrivalStationOrdinal,
+                final boolean servedByHotTier) {
+        if (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0) {
+            return;
+        }
+
+        lookupCounts.incrementAndGet(departureStationOrdinal);
+        lookupCounts.incrementAndGet(arrivalStationOrdinal);
+
+        sampledLookups.increment();
+        if (servedByHotTier) {
+            hotTierLookups.increment();
+        }
+    }
+
+    /**
+     * Select the most looked up stations since the last selection(along with the decayed history) and
+     * halve all the counters afterwards.
+     *
+     * @param limit Maximum number of stations to be selected
+     * @return Station Ordinals of the hottest stations, the hottest first. Stations without any lookup are never selected
+     */
+    int[] selectHottest(final int limit) {
+        /* Count and Station Ordinal packed together, hence a primitive sort orders them by the count */
+        long[] candidates = new long[64];
+        int candidatesCount = 0;
+
+        for (int stationOrdinal = 0; stationOrdinal < lookupCounts.length(); stationOrdinal++) {
+            final int lookupCount = lookupCounts.getAndUpdate(stationOrdinal, count -> count >>> 1);
+            if (lookupCount == 0) {
+                continue;
+            }
+
+            if (candidatesCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, candidatesCount * 2);
+            }
+            candidates[candidatesCount++] = ((long) lookupCount << 32) | stationOrdinal;
+        }
+
+        Arrays.sort(candidates, 0, candidatesCount);
+
+        final int[] hottestStationOrdinals = new int[Math.min(Math.max(0, limit), candidatesCount)];
+        for (int index = 0; index < hottestStationOrdinals.length; index++) {
+            hottestStationOrdinals[index] = (int) candidates[candidatesCount - 1 - index];
+        }
+
+        final long sampled = sampledLookups.sum();
+        final long hotTier = hotTierLookups.sum();
+        lastIntervalHotTierShare = (sampled == lastSampledLookups)
+                ? 0 : (double) (hotTier - lastHotTierLookups) / (sampled - lastSampledLookups);
+        lastSampledLookups = sampled;
+        lastHotTierLookups = hotTier;
+
+        return hottestStationOrdinals;
+    }
+
+    int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * @return Number of sampled lookups since the start
+     */
+    long getSampledLookups() {
+        return sampledLookups.sum();
+    }
+
+    /**
+     * @return Number of sampled lookups answered by the hot tier since the start
+     */
+    long getHotTierLookups() {
+        return hotTierLookups.sum();
+    }
+
+    /**
+     * @return Share(0 to 1) of the sampled lookups answered by the hot tier since the start
+     */
+    double getHotTierShare() {
+        final long sampled = sampledLookups.sum();
+        return (sampled == 0) ? 0 : (double) hotTierLookups.sum() / sampled;
+    }
+
+    /**
+     * @return Share(0 to 1) of the sampled lookups answered by the hot tier between the last two selections
+     */
+    double getLastIntervalHotTierShare() {
+        return lastIntervalHotTierShare;
+    }
+
+    /**
+     * @return Approximate heap retained by the counters
+     */
+    long getSizeInBytes() {
+        return (long) lookupCounts.length() * Integer.BYTES;
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Immutable set of Station IDs as a bit per ID between the lowest and the highest Station ID.
+ *
+ * The Station IDs are usually dense(assigned sequentially), hence the bitmap answers if a station exists with a single
+ * bit test, without hashing or probing the station index. It is built only if it takes at most
+ * MAX_BITS_PER_STATION bits per station, otherwise the station index is used for the existence checks as well.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class StationIdBitmap {
+
+    static final int MAX_BITS_PER_STATION = 64;     /* Same as a station index slot(ID and ordinal at the load factor of 0.5) */
+
+    private final long minStationId;
+    private final long span;
+    private final long[] words;
+
+    private StationIdBitmap(final long minStationId, final long span) {
+        this.minStationId = minStationId;
+        this.span = span;
+        this.words = new long[(int) ((span + 63) >>> 6)];
+    }
+
+    /**
+     * @param stationIds    Station Ordinal -> Station ID
+     * @param stationsToAdd Bit set of the Station Ordinals to be added or null to add all the stations
+     * @return Bitmap of the stations or null if the Station IDs are too sparse(or there are no stations)
+     */
+    static StationIdBitmap build(final int[] stationIds, final long[] stationsToAdd) {
+        if (stationIds.length == 0) {
+            return null;
+        }
+
+        /* The span covers all the stations, even if only some of them are added, so that all the bitmaps of a data cache
+         * are built(or not) together */
+        long minStationId = Integer.MAX_VALUE;
+        long maxStationId = Integer.MIN_VALUE;
+        for (int stationId : stationIds) {
+            minStationId = Math.min(minStationId, stationId);
+            maxStationId = Math.max(maxStationId, stationId);
+        }
+
+        final long span = maxStationId - minStationId + 1;
+        if (span > (long) stationIds.length * MAX_BITS_PER_STATION) {
+            return null;
+        }
+
+        final StationIdBitmap stationIdBitmap = new StationIdBitmap(minStationId, span);
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            if (stationsToAdd == null
+                    || ((stationOrdinal >>> 6) < stationsToAdd.length && (stationsToAdd[stationOrdinal >>> 6] & (1L << stationOrdinal)) != 0)) {
+                final long offset = stationIds[stationOrdinal] - minStationId;
+                stationIdBitmap.words[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+
+        return stationIdBitmap;
+    }
+
+    /**
+     * @param stationId
+     * @return true if the station is in the set
+     */
+    boolean contains(final int stationId) {
+        final long offset = stationId - minStationId;
+        return offset >= 0 && offset < span && (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /**
+     * @return Approximate heap retained by the bitmap(array payload only)
+     */
+    long getSizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+}
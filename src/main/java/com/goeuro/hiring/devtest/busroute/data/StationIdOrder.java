@@ -0,0 +1,80 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+
+/**
+ * Immutable ascending order of the Station IDs. The ordinals follow the order in which the stations are seen first,
+ * the rank of a station is its position in the order of the IDs. A bit set over the ranks lists its stations sorted
+ * by the ID without sorting them, hence the station lists can be paged with a bit set walk.
+ * Two ints per station, bounded by the stations and not by the routes.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class StationIdOrder {
+
+    private final int[] stationRanks;       /* Station Ordinal -> Rank */
+
+    private final int[] sortedStationIds;   /* Rank -> Station ID */
+
+    /**
+     * @param stationIds Station Ordinal -> Station ID
+     */
+    StationIdOrder(final int[] stationIds) {
+        /* Station ID in the high bits, the sign is kept as the signed long order is the same as the int order */
+        final long[] stations = new long[stationIds.length];
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            stations[stationOrdinal] = ((long) stationIds[stationOrdinal] << 32) | stationOrdinal;
+        }
+        Arrays.sort(stations);
+
+        stationRanks = new int[stationIds.length];
+        sortedStationIds = new int[stationIds.length];
+        for (int rank = 0; rank < stations.length; rank++) {
+            stationRanks[(int) stations[rank]] = rank;
+            sortedStationIds[rank] = (int) (stations[rank] >> 32);
+        }
+    }
+
+    /**
+     * @param stationOrdinal
+     * @return Position of the station in the order of the IDs
+     */
+    int getRank(final int stationOrdinal) {
+        return stationRanks[stationOrdinal];
+    }
+
+    /**
+     * @param rank
+     * @return Station ID
+     */
+    int getStationId(final int rank) {
+        return sortedStationIds[rank];
+    }
+
+    /**
+     * @param stationId Any ID, not necessarily one of the stations
+     * @return Rank of the first station with a greater ID(number of stations if there is none)
+     */
+    int getRankAfter(final long stationId) {
+        if (stationId >= Integer.MAX_VALUE) {
+            return sortedStationIds.length;
+        }
+        if (stationId < Integer.MIN_VALUE) {
+            return 0;
+        }
+
+        final int index = Arrays.binarySearch(sortedStationIds, (int) stationId);
+        return (index >= 0) ? index + 1 : -index - 1;   /* The IDs are unique */
+    }
+
+    /**
+     * @return Approximate heap retained by the order(array payloads only)
+     */
+    long getSizeInBytes() {
+        return (long) stationRanks.length * Integer.BYTES * 2;
+    }
+
+}
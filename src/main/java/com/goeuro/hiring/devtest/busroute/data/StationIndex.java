@@ -0,0 +1,135 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Station ID to Station Ordinal lookup table.
+ * Open addressing(linear probing) hash table on primitive arrays, no boxing or allocation per lookup.
+ * The tables built from the station IDs are immutable, the loader grows an empty one(@see #getOrAddOrdinal) instead.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class StationIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private int[] keys;             /* Station IDs */
+    private int[] values;           /* Station Ordinal + 1, 0 marks an empty slot */
+    private int mask;
+    private int size;
+
+    /**
+     * Build the index where the position of each station ID in the given array is its ordinal.
+     *
+     * @param stationIds Unique station IDs
+     */
+    public StationIndex(final int[] stationIds) {
+        this(stationIds.length);
+
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            insert(stationIds[stationOrdinal], stationOrdinal);
+        }
+        size = stationIds.length;
+    }
+
+    /**
+     * Build an empty index to be filled with @see #getOrAddOrdinal.
+     *
+     * @param expectedStations Number of stations it holds without growing
+     */
+    StationIndex(final int expectedStations) {
+        /* Load factor of 0.5 keeps the probe sequences short */
+        final int capacity = Integer.highestOneBit(Math.max(expectedStations, 1) * 2 - 1) << 1;
+
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @param stationId
+     * @return Station Ordinal or NOT_FOUND
+     */
+    public int getOrdinal(final int stationId) {
+        for (int slot = hash(stationId) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == stationId) {
+                return values[slot] - 1;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Fetch the ordinal of the given station ID or assign the next ordinal(number of stations so far) to it.
+     * The table doubles once it is half full.
+     *
+     * @param stationId
+     * @return Station Ordinal
+     */
+    int getOrAddOrdinal(final int stationId) {
+        int slot = hash(stationId) & mask;
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == stationId) {
+                return values[slot] - 1;
+            }
+        }
+
+        keys[slot] = stationId;
+        values[slot] = size + 1;
+
+        if (++size * 2 > keys.length) {
+            final int[] oldKeys = keys;
+            final int[] oldValues = values;
+
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            mask = keys.length - 1;
+            for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+                if (oldValues[oldSlot] != 0) {
+                    insert(oldKeys[oldSlot], oldValues[oldSlot] - 1);
+                }
+            }
+        }
+
+        return size - 1;
+    }
+
+    /**
+     * @return Number of slots in the table
+     */
+    int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return Approximate heap retained by the table(array payloads only)
+     */
+    public long getSizeInBytes() {
+        return (long) keys.length * Integer.BYTES * 2;
+    }
+
+    private void insert(final int stationId, final int stationOrdinal) {
+        int slot = hash(stationId) & mask;
+        while (values[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = stationId;
+        values[slot] = stationOrdinal + 1;
+    }
+
+    /**
+     * Finalization mix of MurmurHash3 to spread the sequential station IDs across the table.
+     */
+    private static int hash(final int stationId) {
+        int hash = stationId;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable Station ID to Station Ordinal lookup built as a minimal perfect hash function(BBHash) over all the
+ * Station IDs of a data cache.
+ *
+ * The stations are hashed into a bit array of GAMMA bits per station. The stations which take a bit alone are placed
+ * at that level, the colliding ones are carried over to the next(smaller) level with a different hash seed. The rank of
+ * a set bit(number of set bits before it, across all the levels) is the slot of the station, hence the slots are
+ * dense(one per station, no empty slots as in a hash table).
+ *
+ * A lookup is a hash and a bit test per level(most stations are placed in the first level), where the rank is stored
+ * next to each bit word(same cache line), and a single read of the slot, which holds both the Station ID(exact
+ * fingerprint, hence the unknown Station IDs are reported as NOT_FOUND) and the Station Ordinal.
+ * About 9 bytes per station, against the 16 bytes(two slots of ID and ordinal at the load factor of 0.5) of @see StationIndex.
+ *
+ * Each level is built in parallel(lock-free bit sets), the levels one after the other.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class StationPerfectHash {
+
+    public static final int NOT_FOUND = StationIndex.NOT_FOUND;
+
+    static final double GAMMA = 2.0;                /* Bits per remaining station in each level, trades memory for fewer levels */
+    static final int MAX_LEVELS = 24;               /* The stations still colliding after the last level go to the fallback index */
+    static final int PARALLEL_THRESHOLD = 1 << 14;  /* Smaller levels are built in the calling thread */
+
+    private final int[] levelWordOffsets;           /* Level -> First word of the level, the last one is the total */
+    private final long[] rankedWords;               /* Word -> (Set bits before the word, bits of the word), all the levels one after the other */
+    private final long[] slots;                     /* Slot -> Station ID(upper 32 bits) and Station Ordinal(lower 32 bits) */
+
+    private final int[] fallbackOrdinals;           /* Station Ordinals which couldn't be placed in any level(usually none) */
+    private final StationIndex fallbackIndex;       /* Station ID -> Index in fallbackOrdinals */
+
+    /**
+     * Build the hash function in parallel, where the position of each station ID in the given array is its ordinal.
+     *
+     * @param stationIds Unique station IDs
+     */
+    public StationPerfectHash(final int[] stationIds) {
+        this(stationIds, true);
+    }
+
+    /**
+     * @param stationIds Unique station IDs
+     * @param parallel   true to build the large levels with the common fork join pool
+     */
+    public StationPerfectHash(final int[] stationIds, final boolean parallel) {
+        int[] remainingOrdinals = IntStream.range(0, stationIds.length).toArray();
+        long[][] levels = new long[MAX_LEVELS][];
+        int levelsCount = 0;
+        while (remainingOrdinals.length > 0 && levelsCount < MAX_LEVELS) {
+            final int level = levelsCount;
+            final int words = Math.max(1, (int) Math.ceil(remainingOrdinals.length * GAMMA / Long.SIZE));
+            final AtomicLongArray seen = new AtomicLongArray(words);
+            final AtomicLongArray collided = new AtomicLongArray(words);
+
+            stream(remainingOrdinals, parallel).forEach(stationOrdinal -> {
+                final long hash = hash(stationIds[stationOrdinal], level);
+                final int word = getWord(hash, words);
+                if (!setBit(seen, word, 1L << hash)) {
+                    setBit(collided, word, 1L << hash);
+                }
+            });
+
+            /* The bits taken by a single station only */
+            final long[] levelBits = new long[words];
+            for (int word = 0; word < words; word++) {
+                levelBits[word] = seen.get(word) & ~collided.get(word);
+            }
+            levels[levelsCount++] = levelBits;
+
+            remainingOrdinals = stream(remainingOrdinals, parallel)
+                    .filter(stationOrdinal -> {
+                        final long hash = hash(stationIds[stationOrdinal], level);
+                        return (collided.get(getWord(hash, words)) & (1L << hash)) != 0;
+                    })
+                    .toArray();
+        }
+
+        /* Levels are concatenated, hence the rank of a bit is its slot across all the levels */
+        levelWordOffsets = new int[levelsCount + 1];
+        for (int level = 0; level < levelsCount; level++) {
+            levelWordOffsets[level + 1] = levelWordOffsets[level] + levels[level].length;
+        }
+        rankedWords = new long[levelWordOffsets[levelsCount] * 2];
+        int rank = 0;
+        for (int level = 0; level < levelsCount; level++) {
+            for (int word = 0; word < levels[level].length; word++) {
+                final int index = (levelWordOffsets[level] + word) * 2;
+                rankedWords[index] = rank;
+                rankedWords[index + 1] = levels[level][word];
+                rank += Long.bitCount(levels[level][word]);
+            }
+        }
+
+        /* Each placed station has its own slot, hence the slots are filled without any coordination */
+        slots = new long[rank];
+        stream(IntStream.range(0, stationIds.length).toArray(), parallel).forEach(stationOrdinal -> {
+            final int slot = getSlot(stationIds[stationOrdinal]);
+            if (slot != NOT_FOUND) {
+                slots[slot] = ((long) stationIds[stationOrdinal] << 32) | stationOrdinal;
+            }
+        });
+
+        fallbackOrdinals = remainingOrdinals;
+        fallbackIndex = new StationIndex(Arrays.stream(remainingOrdinals).map(stationOrdinal -> stationIds[stationOrdinal]).toArray());
+    }
+
+    /**
+     * @param stationId
+     * @return Station Ordinal or NOT_FOUND
+     */
+    public int getOrdinal(final int stationId) {
+        final int slot = getSlot(stationId);
+        if (slot != NOT_FOUND) {
+            final long stationSlot = slots[slot];
+            return ((int) (stationSlot >>> 32) == stationId) ? (int) stationSlot : NOT_FOUND;
+        }
+
+        if (fallbackOrdinals.length == 0) {
+            return NOT_FOUND;
+        }
+        final int fallbackIndexOrdinal = fallbackIndex.getOrdinal(stationId);
+        return (fallbackIndexOrdinal == StationIndex.NOT_FOUND) ? NOT_FOUND : fallbackOrdinals[fallbackIndexOrdinal];
+    }
+
+    /**
+     * A station placed in a level has the only set bit of its hash in that level, and cleared(collided) bits in all the
+     * levels before it. Hence the first set bit decides, even for an unknown Station ID(checked by the caller).
+     *
+     * @param stationId
+     * @return Slot of the first set bit of the station across the levels or NOT_FOUND
+     */
+    private int getSlot(final int stationId) {
+        for (int level = 0; level < levelWordOffsets.length - 1; level++) {
+            final long hash = hash(stationId, level);
+            final int index = (levelWordOffsets[level] + getWord(hash, levelWordOffsets[level + 1] - levelWordOffsets[level])) * 2;
+            final long bits = rankedWords[index + 1];
+            final long bit = 1L << hash;
+            if ((bits & bit) != 0) {
+                return (int) rankedWords[index] + Long.bitCount(bits & (bit - 1));
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return Number of levels
+     */
+    int getLevelsCount() {
+        return levelWordOffsets.length - 1;
+    }
+
+    /**
+     * @return Number of stations in the fallback index
+     */
+    int getFallbackStationsCount() {
+        return fallbackOrdinals.length;
+    }
+
+    /**
+     * @return Approximate heap retained by the hash function(array payloads only)
+     */
+    public long getSizeInBytes() {
+        return (long) rankedWords.length * Long.BYTES
+                + (long) slots.length * Long.BYTES
+                + (long) levelWordOffsets.length * Integer.BYTES
+                + (long) fallbackOrdinals.length * Integer.BYTES
+                + fallbackIndex.getSizeInBytes();
+    }
+
+    private static IntStream stream(final int[] stationOrdinals, final boolean parallel) {
+        final IntStream stream = Arrays.stream(stationOrdinals);
+        return (parallel && stationOrdinals.length >= PARALLEL_THRESHOLD) ? stream.parallel() : stream;
+    }
+
+    /**
+     * @return true if the bit was clear and set by this call
+     */
+    private static boolean setBit(final AtomicLongArray bitSet, final int word, final long bit) {
+        long current;
+        do {
+            current = bitSet.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!bitSet.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    /**
+     * Upper 32 bits of the hash select the word(multiply-shift range reduction), the lowest 6 bits the bit in the word.
+     */
+    private static int getWord(final long hash, final int words) {
+        return (int) (((hash >>> 32) * words) >>> 32);
+    }
+
+    /**
+     * Finalization mix of SplitMix64, seeded per level.
+     */
+    private static long hash(final int stationId, final int level) {
+        long hash = (stationId & 0xFFFFFFFFL) + (level + 1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+/**
+ * Page of the stations from which an arrival station can be reached directly, sorted by the Station ID.
+ * The next page starts after the last Station ID of this page(keyset cursor), hence it doesn't depend on the offset.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class UpstreamStationsPage {
+
+    static final UpstreamStationsPage EMPTY = new UpstreamStationsPage(new int[0], 0, false);
+
+    private final int[] stationIds;
+    private final int total;
+    private final boolean more;
+
+    /**
+     * @param stationIds Upstream Station IDs of the page in the ascending order
+     * @param total      Number of all the upstream stations
+     * @param more       true if there are upstream stations after the page
+     */
+    UpstreamStationsPage(final int[] stationIds, final int total, final boolean more) {
+        this.stationIds = stationIds;
+        this.total = total;
+        this.more = more;
+    }
+
+    /**
+     * @return Upstream Station IDs of the page in the ascending order
+     */
+    public int[] getStationIds() {
+        return stationIds;
+    }
+
+    /**
+     * @return Number of all the upstream stations(not only the ones of the page)
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return true if there are upstream stations after the page
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+}
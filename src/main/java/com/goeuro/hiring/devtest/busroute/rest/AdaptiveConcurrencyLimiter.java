@@ -0,0 +1,192 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limiter which adapts the number of allowed in-flight requests to the observed latency(gradient limit).
+ *
+ * The latency samples are aggregated over a short window. At the end of each window:
+ *      - gradient = clamp(rttTolerance * longRtt / shortRtt, 0.5, 1.0)
+ *        where shortRtt is the average latency of the window and longRtt is its exponential moving average.
+ *      - newLimit = limit * gradient + sqrt(limit)
+ *        sqrt(limit) is the allowed queue, which lets the limit grow while the latency stays flat.
+ *      - limit    = limit * (1 - smoothing) + newLimit * smoothing, bounded by [minLimit, maxLimit]
+ * When the latency rises above the long term average(queueing), the gradient drops below 1 and the limit shrinks.
+ * The limit doesn't grow if less than half of it was used in the window, since the latency says nothing about a higher limit then.
+ *
+ * Acquire and release are lock-free. The window is closed by the one request thread which wins the race.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+    private final AtomicLong windowEndTime;
+
+    private volatile double limit;                  /* Updated only by the thread which closes the window */
+    private volatile double longRttNanos;           /* Updated only by the thread which closes the window */
+    private volatile double shortRttNanos;          /* Updated only by the thread which closes the window */
+
+    /**
+     * @param initialLimit
+     * @param minLimit
+     * @param maxLimit
+     * @param smoothing        Weight(0 to 1] of the new limit in each update
+     * @param rttTolerance     Allowed ratio of the short term latency to the long term latency before the limit is reduced
+     * @param windowMillis     Minimum duration of a sampling window
+     * @param minWindowSamples Minimum number of samples in a sampling window
+     */
+    public AdaptiveConcurrencyLimiter(final int initialLimit,
+                                      final int minLimit,
+                                      final int maxLimit,
+                                      final double smoothing,
+                                      final double rttTolerance,
+                                      final long windowMillis,
+                                      final int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowEndTime = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Admit a request if the number of in-flight requests is below the current limit.
+     * Every admitted request should call {@link #release(long)}(or {@link #releaseWithoutSample()}) once it is completed.
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire() {
+        final int currentLimit = (int) limit;
+
+        for (int current = inFlight.get(); current < currentLimit; current = inFlight.get()) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulate(current + 1);
+                acceptedCount.increment();
+                return true;
+            }
+        }
+
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * Complete an admitted request without recording its latency, for the requests whose latency depends on their size
+     * rather than the load(e.g. the bulk API), which would otherwise shrink the limit.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Complete an admitted request and record its latency.
+     *
+     * @param rttNanos Latency of the request
+     */
+    public void release(final long rttNanos) {
+        inFlight.decrementAndGet();
+
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+
+        final long now = System.nanoTime();
+        final long windowEnd = windowEndTime.get();
+
+        if (now - windowEnd >= 0
+                && windowSamples.sum() >= minWindowSamples
+                && windowEndTime.compareAndSet(windowEnd, now + windowNanos)) {
+            updateLimit(windowRttSum.sumThenReset(), windowSamples.sumThenReset(), windowMaxInFlight.getThenReset());
+        }
+    }
+
+    /**
+     * @param rttSum
+     * @param samples
+     * @param maxInFlight
+     */
+    private void updateLimit(final long rttSum, final long samples, final long maxInFlight) {
+        if (samples == 0) {
+            return; /* Samples are taken by a concurrent update */
+        }
+
+        final double shortRtt = (double) rttSum / samples;
+        double longRtt = (longRttNanos == 0) ? shortRtt : longRttNanos * 0.95 + shortRtt * 0.05;
+
+        /* Recover quickly from a latency drop(e.g. after the JIT warmup), otherwise the limit stays high for long */
+        if (longRtt / shortRtt > 2) {
+            longRtt = shortRtt * 2;
+        }
+
+        final double currentLimit = limit;
+        final double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+
+        if (newLimit > currentLimit && maxInFlight < currentLimit / 2) {
+            newLimit = currentLimit; /* Limit is not the bottleneck */
+        }
+
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+
+        longRttNanos = longRtt;
+        shortRttNanos = shortRtt;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * @return Current number of allowed in-flight requests
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return Average latency of the last window in nanoseconds
+     */
+    public double getShortRttNanos() {
+        return shortRttNanos;
+    }
+
+    /**
+     * @return Long term average latency in nanoseconds
+     */
+    public double getLongRttNanos() {
+        return longRttNanos;
+    }
+
+}
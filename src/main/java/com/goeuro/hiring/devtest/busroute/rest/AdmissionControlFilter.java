@@ -0,0 +1,200 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+
+/**
+ * Admission control in front of the search APIs(/api/*).
+ * The requests above the adaptive concurrency limit (@see com.goeuro.hiring.devtest.busroute.rest.AdaptiveConcurrencyLimiter)
+ * are rejected right away with 503 Service Unavailable and Retry-After, instead of waiting in the server queues
+ * and slowing down all the other requests.
+ *
+ * The requests which arrive before the instance is ready(data load and warmup) are rejected the same way.
+ *
+ * The limiter state is exported in the actuator metrics end point under "bus-route.admission.*".
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class AdmissionControlFilter extends OncePerRequestFilter implements PublicMetrics {
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    private static final String BULK_API_PATH = "/api/bulk";
+
+    @Value("${bus-route.admission.enabled:true}")
+    private boolean admissionControlEnabled;
+
+    @Value("${bus-route.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${bus-route.admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${bus-route.admission.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${bus-route.admission.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${bus-route.admission.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${bus-route.admission.window-millis:100}")
+    private long windowMillis;
+
+    @Value("${bus-route.admission.min-window-samples:10}")
+    private int minWindowSamples;
+
+    @Value("${bus-route.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private BusRouteDataCacheManager cacheManager;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @PostConstruct
+    public void createLimiter() {
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                smoothing, rttTolerance, windowMillis, minWindowSamples);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        if (!cacheManager.getLoadProgress().isReady()) {
+            reject(response);
+            return;
+        }
+
+        if (!admissionControlEnabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        boolean releasedOnAsyncCompletion = false;
+
+        try {
+            filterChain.doFilter(request, response);
+
+            /* Streamed responses are written after the request thread returns, hence released once they are completed */
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LimiterReleasingListener(startTime));
+                releasedOnAsyncCompletion = true;
+            }
+        } finally {
+            if (!releasedOnAsyncCompletion && BULK_API_PATH.equals(request.getRequestURI())) {
+                /* Takes as long as its request body, not a sign of the overload */
+                concurrencyLimiter.releaseWithoutSample();
+            } else if (!releasedOnAsyncCompletion) {
+                concurrencyLimiter.release(System.nanoTime() - startTime);
+            }
+        }
+    }
+
+    /**
+     * Reject without a body, the client is expected to back off and retry.
+     *
+     * @param response
+     */
+    private void reject(final HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+
+        if (concurrencyLimiter != null) {
+            metrics.add(new Metric<>("bus-route.admission.limit", concurrencyLimiter.getLimit()));
+            metrics.add(new Metric<>("bus-route.admission.in-flight", concurrencyLimiter.getInFlight()));
+            metrics.add(new Metric<>("bus-route.admission.accepted", concurrencyLimiter.getAcceptedCount()));
+            metrics.add(new Metric<>("bus-route.admission.rejected", concurrencyLimiter.getRejectedCount()));
+            metrics.add(new Metric<>("bus-route.admission.short-rtt-micros", concurrencyLimiter.getShortRttNanos() / 1000));
+            metrics.add(new Metric<>("bus-route.admission.long-rtt-micros", concurrencyLimiter.getLongRttNanos() / 1000));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Releases the limiter once an asynchronous(streamed) request is completed.
+     * Only one of the completion callbacks is called for a request.
+     */
+    private final class LimiterReleasingListener implements AsyncListener {
+
+        private final long startTime;
+
+        private boolean released;
+
+        private LimiterReleasingListener(final long startTime) {
+            this.startTime = startTime;
+        }
+
+        @Override
+        public synchronized void onComplete(final AsyncEvent event) {
+            if (!released) {
+                released = true;
+                concurrencyLimiter.release(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            /* Not applicable */
+        }
+    }
+
+}
@@ -0,0 +1,432 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+
+/**
+ * Checks a stream of (Departure Station ID, Arrival Station ID) pairs against the data cache and writes a result line
+ * per pair, in the same order, for the bulk API(/api/bulk).
+ *
+ * The input is read into a fixed buffer and parsed line by line in place(no String/object per line), the results are
+ * encoded into another fixed buffer which is written out whenever it is full or the input has to be waited for. Hence
+ * the memory doesn't depend on the number of pairs and the results are sent while the input is still being received.
+ *
+ * Input lines(blank lines are ignored, a line longer than the buffer is an invalid line):
+ *      NDJSON  {"dep_sid":3,"arr_sid":6}       Other fields are skipped, as long as they aren't objects or arrays
+ *      CSV     3,6                             The first line can be a header(dep_sid,arr_sid)
+ *
+ * Result lines(the CSV result starts with the header dep_sid,arr_sid,direct_bus_route):
+ *      NDJSON  {"dep_sid":3,"arr_sid":6,"direct_bus_route":true}   or {"error":"invalid pair"}
+ *      CSV     3,6,true                                           or ,,invalid
+ *
+ * An instance is used for a single stream, by a single thread.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class BulkPairChecker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkPairChecker.class.getName());
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+    public static final MediaType CSV = MediaType.valueOf(CSV_VALUE);
+
+    static final String CSV_HEADER = "dep_sid,arr_sid,direct_bus_route";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RESULT_LENGTH = 80;    /* Longest NDJSON result(both station IDs of 11 characters) is 71 bytes */
+
+    private static final byte[] DEPARTURE_KEY = "dep_sid".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARRIVAL_KEY = "arr_sid".getBytes(StandardCharsets.US_ASCII);
+
+    private final BusRouteDataCache dataCache;
+    private final boolean csv;
+
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private final byte[] output = new byte[BUFFER_SIZE];
+    private int outputLength = 0;
+
+    private int cursor;                 /* Parsing position in the input buffer */
+    private int parsedStationId;
+    private long parsedPair;            /* Departure Station ID in the high 32 bits, Arrival Station ID in the low 32 bits */
+
+    private long linesCount = 0;        /* Non blank lines, including the CSV header */
+    private long pairsCount = 0;
+    private long connectedCount = 0;
+    private long invalidCount = 0;
+
+    /**
+     * @param dataCache Data cache of the data set acquired for the request
+     * @param csv       true for CSV, false for NDJSON(both the input and the result)
+     */
+    public BulkPairChecker(final BusRouteDataCache dataCache, final boolean csv) {
+        this.dataCache = dataCache;
+        this.csv = csv;
+    }
+
+    /**
+     * Check all the pairs of the input stream and write the results to the output stream.
+     * Neither of the streams is closed.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @return Number of the pairs checked(the invalid lines excluded)
+     * @throws IOException
+     */
+    public long check(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final long startTime = System.nanoTime();
+
+        if (csv) {
+            outputLength = DirectBusRouteSearchResponseWriter.writeAscii(output, outputLength, CSV_HEADER);
+            output[outputLength++] = '\n';
+        }
+
+        int length = 0;                 /* Bytes in the input buffer */
+        int scanned = 0;                /* Bytes scanned for the line ends */
+        boolean skippingLine = false;   /* Rest of a line longer than the buffer */
+
+        while (true) {
+            /* Send the results so far before waiting for more input */
+            if (outputLength > 0 && inputStream.available() == 0) {
+                flush(outputStream);
+                outputStream.flush();
+            }
+
+            final int read = inputStream.read(input, length, input.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+
+            int lineStart = 0;
+            for (; scanned < length; scanned++) {
+                if (input[scanned] == '\n') {
+                    if (skippingLine) {
+                        skippingLine = false;
+                    } else {
+                        checkLine(lineStart, scanned, outputStream);
+                    }
+                    lineStart = scanned + 1;
+                }
+            }
+
+            if (lineStart == 0 && length == input.length) {
+                /* No line end in the whole buffer */
+                if (!skippingLine) {
+                    linesCount++;
+                    writeInvalid(outputStream);
+                    skippingLine = true;
+                }
+                length = 0;
+                scanned = 0;
+            } else {
+                /* Keep the incomplete last line at the beginning of the buffer */
+                System.arraycopy(input, lineStart, input, 0, length - lineStart);
+                length -= lineStart;
+                scanned -= lineStart;
+            }
+        }
+
+        /* Last line without a line end */
+        if (length > 0 && !skippingLine) {
+            checkLine(0, length, outputStream);
+        }
+
+        flush(outputStream);
+        outputStream.flush();
+
+        LOGGER.info("{} pairs are checked in bulk({} connected, {} invalid lines) in {} ms.",
+                pairsCount,
+                connectedCount,
+                invalidCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        return pairsCount;
+    }
+
+    /**
+     * @param start        Start of the line in the input buffer
+     * @param end          End of the line(excluding the line end)
+     * @param outputStream
+     * @throws IOException
+     */
+    private void checkLine(final int start, final int end, final OutputStream outputStream) throws IOException {
+        final int lineEnd = (end > start && input[end - 1] == '\r') ? end - 1 : end;
+        if (skipWhitespace(start, lineEnd) == lineEnd) {
+            return;
+        }
+
+        linesCount++;
+        if (csv && linesCount == 1 && isCsvHeader(start, lineEnd)) {
+            return;
+        }
+
+        final boolean parsed = csv ? parseCsvLine(start, lineEnd) : parseJsonLine(start, lineEnd);
+        if (!parsed) {
+            writeInvalid(outputStream);
+            return;
+        }
+
+        final int departureStationId = (int) (parsedPair >> 32);
+        final int arrivalStationId = (int) parsedPair;
+        final boolean directBusRouteExists = dataCache.isDepartureStationIdExists(departureStationId)
+                && dataCache.isArrivalStationIdConnected(departureStationId, arrivalStationId);
+
+        pairsCount++;
+        if (directBusRouteExists) {
+            connectedCount++;
+        }
+
+        ensureCapacity(outputStream);
+        if (csv) {
+            outputLength = DirectBusRouteSearchResponseWriter.writeInt(output, outputLength, departureStationId);
+            output[outputLength++] = ',';
+            outputLength = DirectBusRouteSearchResponseWriter.writeInt(output, outputLength, arrivalStationId);
+            outputLength = DirectBusRouteSearchResponseWriter.writeAscii(output, outputLength, directBusRouteExists ? ",true" : ",false");
+        } else {
+            outputLength = DirectBusRouteSearchResponseWriter.write(output, outputLength,
+                    departureStationId, arrivalStationId, directBusRouteExists, null);
+        }
+        output[outputLength++] = '\n';
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return true if the line is a station pair(parsedPair is set)
+     */
+    private boolean parseCsvLine(final int start, final int end) {
+        cursor = skipWhitespace(start, end);
+        if (!parseStationId(end)) {
+            return false;
+        }
+        final int departureStationId = parsedStationId;
+
+        cursor = skipWhitespace(cursor, end);
+        if (cursor == end || input[cursor++] != ',') {
+            return false;
+        }
+
+        cursor = skipWhitespace(cursor, end);
+        if (!parseStationId(end) || skipWhitespace(cursor, end) != end) {
+            return false;
+        }
+
+        parsedPair = ((long) departureStationId << 32) | (parsedStationId & 0xFFFFFFFFL);
+        return true;
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return true if the line is a JSON object with both the station IDs(parsedPair is set)
+     */
+    private boolean parseJsonLine(final int start, final int end) {
+        boolean departureFound = false;
+        boolean arrivalFound = false;
+        int departureStationId = 0;
+        int arrivalStationId = 0;
+
+        cursor = skipWhitespace(start, end);
+        if (cursor == end || input[cursor++] != '{') {
+            return false;
+        }
+
+        while (true) {
+            cursor = skipWhitespace(cursor, end);
+            if (cursor == end || input[cursor] != '"') {
+                return false;
+            }
+
+            final int keyStart = cursor + 1;
+            if (!skipString(end)) {
+                return false;
+            }
+            final int keyEnd = cursor - 1;
+
+            cursor = skipWhitespace(cursor, end);
+            if (cursor == end || input[cursor++] != ':') {
+                return false;
+            }
+            cursor = skipWhitespace(cursor, end);
+
+            if (isKey(keyStart, keyEnd, DEPARTURE_KEY)) {
+                if (!parseStationId(end)) {
+                    return false;
+                }
+                departureStationId = parsedStationId;
+                departureFound = true;
+            } else if (isKey(keyStart, keyEnd, ARRIVAL_KEY)) {
+                if (!parseStationId(end)) {
+                    return false;
+                }
+                arrivalStationId = parsedStationId;
+                arrivalFound = true;
+            } else if (!skipValue(end)) {
+                return false;
+            }
+
+            cursor = skipWhitespace(cursor, end);
+            if (cursor == end) {
+                return false;
+            }
+
+            final byte separator = input[cursor++];
+            if (separator == '}') {
+                break;
+            }
+            if (separator != ',') {
+                return false;
+            }
+        }
+
+        parsedPair = ((long) departureStationId << 32) | (arrivalStationId & 0xFFFFFFFFL);
+        return departureFound && arrivalFound && skipWhitespace(cursor, end) == end;
+    }
+
+    /**
+     * Parse a station ID(an integer without the exponent/fraction) at the cursor, and move the cursor after it.
+     *
+     * @param end
+     * @return true if a station ID is parsed(parsedStationId is set)
+     */
+    private boolean parseStationId(final int end) {
+        final boolean negative = cursor < end && input[cursor] == '-';
+        if (negative) {
+            cursor++;
+        }
+
+        final int digitsStart = cursor;
+        long stationId = 0;
+        while (cursor < end && input[cursor] >= '0' && input[cursor] <= '9') {
+            stationId = stationId * 10 + (input[cursor++] - '0');
+            if (cursor - digitsStart > 10) {
+                return false;
+            }
+        }
+
+        stationId = negative ? -stationId : stationId;
+        if (cursor == digitsStart || stationId < Integer.MIN_VALUE || stationId > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        parsedStationId = (int) stationId;
+        return true;
+    }
+
+    /**
+     * Move the cursor after the JSON string starting at the cursor.
+     *
+     * @param end
+     * @return false if the string isn't closed
+     */
+    private boolean skipString(final int end) {
+        cursor++;
+        while (cursor < end) {
+            final byte character = input[cursor];
+            if (character == '"') {
+                cursor++;
+                return true;
+            }
+            cursor += (character == '\\') ? 2 : 1;
+        }
+        return false;
+    }
+
+    /**
+     * Move the cursor after the JSON value starting at the cursor, a string or a literal(number, true, false, null).
+     *
+     * @param end
+     * @return false if the value is missing, an object or an array
+     */
+    private boolean skipValue(final int end) {
+        if (cursor == end || input[cursor] == '{' || input[cursor] == '[') {
+            return false;
+        }
+        if (input[cursor] == '"') {
+            return skipString(end);
+        }
+
+        final int valueStart = cursor;
+        while (cursor < end && input[cursor] != ',' && input[cursor] != '}' && !isWhitespace(input[cursor])) {
+            cursor++;
+        }
+        return cursor > valueStart;
+    }
+
+    private boolean isKey(final int keyStart, final int keyEnd, final byte[] key) {
+        if (keyEnd - keyStart != key.length) {
+            return false;
+        }
+        for (int index = 0; index < key.length; index++) {
+            if (input[keyStart + index] != key[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCsvHeader(final int start, final int end) {
+        final byte first = input[skipWhitespace(start, end)];
+        return first != '-' && (first < '0' || first > '9');
+    }
+
+    private int skipWhitespace(final int start, final int end) {
+        int position = start;
+        while (position < end && isWhitespace(input[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isWhitespace(final byte character) {
+        return character == ' ' || character == '\t';
+    }
+
+    private void writeInvalid(final OutputStream outputStream) throws IOException {
+        invalidCount++;
+        ensureCapacity(outputStream);
+        outputLength = DirectBusRouteSearchResponseWriter.writeAscii(output, outputLength, csv ? ",,invalid" : "{\"error\":\"invalid pair\"}");
+        output[outputLength++] = '\n';
+    }
+
+    private void ensureCapacity(final OutputStream outputStream) throws IOException {
+        if (outputLength + MAX_RESULT_LENGTH > output.length) {
+            flush(outputStream);
+        }
+    }
+
+    private void flush(final OutputStream outputStream) throws IOException {
+        if (outputLength > 0) {
+            outputStream.write(output, 0, outputLength);
+            outputLength = 0;
+        }
+    }
+
+    /**
+     * @return Number of the pairs which are directly connected
+     */
+    public long getConnectedCount() {
+        return connectedCount;
+    }
+
+    /**
+     * @return Number of the invalid lines
+     */
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+}
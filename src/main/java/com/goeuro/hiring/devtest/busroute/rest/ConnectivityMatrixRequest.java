@@ -0,0 +1,28 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Class representation of JSON request to compute the connectivity matrix.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class ConnectivityMatrixRequest {
+
+    @JsonProperty("dep_sids")
+    private int[] departureStationIds;
+
+    @JsonProperty("arr_sids")
+    private int[] arrivalStationIds;
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Class representation of JSON response to be sent for the connectivity matrix.
+ * The matrix is a packed bit set(Base64 encoded), one row per departure station and one bit per arrival station
+ * (@see com.goeuro.hiring.devtest.busroute.data.ConnectivityMatrix#toByteArray()).
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@AllArgsConstructor
+@Getter
+public class ConnectivityMatrixResponse {
+
+    @JsonProperty("dep_sids")
+    private final int[] departureStationIds;
+
+    @JsonProperty("arr_sids")
+    private final int[] arrivalStationIds;
+
+    @JsonProperty("connections")
+    private final Integer connectionsCount;
+
+    @JsonProperty("row_size_in_bytes")
+    private final Integer rowSizeInBytes;
+
+    @JsonProperty("matrix")
+    private final byte[] matrix;
+
+}
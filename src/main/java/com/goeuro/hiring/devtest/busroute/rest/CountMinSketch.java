@@ -0,0 +1,91 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate count per key in a fixed amount of memory, whatever the number of distinct keys.
+ *
+ * Each key is counted in one counter per row, picked by a different hash per row. A counter can be shared by the other
+ * keys, hence the smallest counter of the key is the estimate: never below the actual count and above it by at most
+ * e/width of all the counts(e = 2.718...), with the probability 1 - e^-depth.
+ *
+ * The counters are plain atomic increments(no locks), safe to be updated and read by any number of threads.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;                     /* Width - 1, the width is a power of two */
+    private final AtomicLongArray counters;     /* Row after row */
+
+    /**
+     * @param depth             Number of rows(hashes)
+     * @param widthPowerOfTwo   Counters per row, as a power of two
+     */
+    CountMinSketch(final int depth, final int widthPowerOfTwo) {
+        this.depth = Math.max(1, depth);
+        this.mask = (1 << widthPowerOfTwo) - 1;
+        this.counters = new AtomicLongArray(this.depth << widthPowerOfTwo);
+    }
+
+    /**
+     * Count the given key once.
+     *
+     * @param key
+     * @return Estimated count of the key, including this one
+     */
+    long add(final long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(getIndex(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param key
+     * @return Estimated count of the key(0 if it is never added)
+     */
+    long estimate(final long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(getIndex(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param key
+     * @param row
+     * @return Index of the counter of the key in the given row
+     */
+    private int getIndex(final long key, final int row) {
+        return (row * (mask + 1)) + ((int) hash(key, row) & mask);
+    }
+
+    /**
+     * SplitMix64 finalizer, seeded per row.
+     *
+     * @param key
+     * @param seed
+     * @return
+     */
+    static long hash(final long key, final int seed) {
+        long hash = key + (seed + 1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * @return Size of the counters in bytes
+     */
+    long getSizeInBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet;
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.DataSetNotFoundException;
+
+/**
+ * Pins each search API request(/api/*) to one generation of the selected data set(dataset parameter, default otherwise),
+ * so that all the lookups of the request read the same data even if the data set is reloaded meanwhile.
+ *
+ * The request can select a retained generation with the version parameter, which lets a client read the same data
+ * across a multi-call workflow. The version being read is returned in the Bus-Route-Data-Version header of every response.
+ *
+ * The generation is acquired before the request is handled and released once the response is completed
+ * (including the streamed responses), see @see com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class DataSetSnapshotFilter extends OncePerRequestFilter {
+
+    public static final String DATA_SET_ATTRIBUTE = "com.goeuro.hiring.devtest.busroute.rest.DataSetSnapshotFilter.DATA_SET";
+
+    public static final String DATA_VERSION_HEADER = "Bus-Route-Data-Version";
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    @Autowired
+    private BusRouteDataCacheManager cacheManager;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        final String dataSetName = request.getParameter("dataset");
+        final String version = request.getParameter("version");
+
+        final BusRouteDataSet dataSet;
+        try {
+            dataSet = cacheManager.acquireDataSet((dataSetName == null) ? BusRouteDataCacheManager.DEFAULT_DATA_SET : dataSetName,
+                    (version == null) ? null : Long.valueOf(version));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), String.format("Version '%s' is not valid.", version));
+            return;
+        } catch (DataSetNotFoundException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        }
+
+        boolean releasedOnAsyncCompletion = false;
+
+        try {
+            request.setAttribute(DATA_SET_ATTRIBUTE, dataSet);
+            response.setHeader(DATA_VERSION_HEADER, String.valueOf(dataSet.getVersion()));
+
+            filterChain.doFilter(request, response);
+
+            /* Streamed responses read the data set after the request thread returns, hence released once they are completed */
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new DataSetReleasingListener(dataSet));
+                releasedOnAsyncCompletion = true;
+            }
+        } finally {
+            if (!releasedOnAsyncCompletion) {
+                dataSet.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the data set once an asynchronous(streamed) request is completed.
+     * Only one of the completion callbacks is called for a request.
+     */
+    private static final class DataSetReleasingListener implements AsyncListener {
+
+        private final BusRouteDataSet dataSet;
+
+        private boolean released;
+
+        private DataSetReleasingListener(final BusRouteDataSet dataSet) {
+            this.dataSet = dataSet;
+        }
+
+        @Override
+        public synchronized void onComplete(final AsyncEvent event) {
+            if (!released) {
+                released = true;
+                dataSet.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            /* Not applicable */
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Class representation of a departure in the JSON response of the time aware direct route search.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@AllArgsConstructor
+@Getter
+public class DirectBusRouteDeparture {
+
+    @JsonProperty("route_id")
+    private final Integer routeId;
+
+    /* Minute of the week(0 = Monday 00:00) */
+    @JsonProperty("dep_time")
+    private final Integer departureTime;
+
+}
@@ -3,18 +3,39 @@
  */
 package com.goeuro.hiring.devtest.busroute.rest;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet;
+import com.goeuro.hiring.devtest.busroute.data.ConnectedStationVisitor;
+import com.goeuro.hiring.devtest.busroute.data.ConnectivityMatrix;
+import com.goeuro.hiring.devtest.busroute.data.UpstreamStationsPage;
 import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchService;
+import com.goeuro.hiring.devtest.busroute.utils.Constants;
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.InvalidRequestParameterException;
 
 /**
  * REST End Point for Bus Route Search API.
+ * Each request reads one generation of the selected data set, acquired by @see com.goeuro.hiring.devtest.busroute.rest.DataSetSnapshotFilter.
  *
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
@@ -25,23 +46,306 @@ public class DirectBusRouteSearchEndPoint {
     @Autowired
     private DirectBusRouteSearchService searchService;
 
+    @Autowired
+    private QueryCaptureSink queryCaptureSink;
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bus-route.api.max-page-size:10000}")
+    private int maxPageSize;
+
+    @Value("${bus-route.api.max-matrix-cells:16777216}")
+    private long maxMatrixCells;
+
+    @Value("${bus-route.api.max-departures:20}")
+    private int maxDepartures;
+
     /**
      * API to check if the given Departure Station ID and Arrival Station ID are directly connected.
      * It will accepts only GET/HEAD HTTP methods and 
      * It will return 200 OK if the input validation succeeds else 400 Bad Request will be sent.
+     * The optional data set selects one of the loaded data sets(404 Not Found if it is not loaded), the default data set is used otherwise.
+     * With the optional departure time, the next departures(up to the limit) of the connecting routes are sent as well,
+     * if the data file has the route schedules.
      *
      * @param departureStationId
      * @param arrivalStationId
+     * @param dataSetName
+     * @param departureTime      Minute of the week(0 = Monday 00:00) to depart at or after
+     * @param limit              Maximum number of the next departures
+     * @param dataSet            Generation of the data set acquired for the request
      * @return JSON response with the given Departure Station ID, Arrival Station ID and a flag to indicate if they are connected.
      */
     @RequestMapping(value = "/direct", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     public @ResponseBody DirectBusRouteSearchResponse isDirectBusRouteExists(
             @RequestParam(value = "dep_sid", required = true) final int departureStationId,
-            @RequestParam(value = "arr_sid", required = true) final int arrivalStationId) {
+            @RequestParam(value = "arr_sid", required = true) final int arrivalStationId,
+            @RequestParam(value = "dataset", required = false) final String dataSetName,
+            @RequestParam(value = "dep_time", required = false) final Integer departureTime,
+            @RequestParam(value = "limit", required = false, defaultValue = "3") final int limit,
+            @RequestAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE) final BusRouteDataSet dataSet) {
+
+        /* Count the query per pair and per station (if the statistics are enabled) */
+        queryStatistics.record(departureStationId, arrivalStationId);
+
+        if (departureTime != null) {
+            return findNextDepartures(departureStationId, arrivalStationId, dataSetName, departureTime, limit, dataSet);
+        }
+
+        /* The captured queries are replayed against the default data set, hence the other data sets are not captured */
+        if (dataSetName != null) {
+            final boolean directBusRouteExists = searchService.isDirectBusRouteExists(dataSet, departureStationId, arrivalStationId);
+            return new DirectBusRouteSearchResponse(departureStationId, arrivalStationId, directBusRouteExists, dataSetName);
+        }
+
+        /* Record the query for the offline replay (if the capture is enabled) */
+        queryCaptureSink.capture(departureStationId, arrivalStationId);
 
         /* Call the Search Service to check if the stations are connected */
-        final boolean directBusRouteExists = searchService.isDirectBusRouteExists(departureStationId, arrivalStationId);
+        final boolean directBusRouteExists = searchService.isDirectBusRouteExists(dataSet, departureStationId, arrivalStationId);
 
         return new DirectBusRouteSearchResponse(departureStationId, arrivalStationId, directBusRouteExists);
     }
+
+    /**
+     * Direct route search along with the next departures of the connecting routes.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param dataSetName
+     * @param departureTime
+     * @param limit
+     * @param dataSet
+     * @return JSON response with the next departures in the order of the wait
+     */
+    private DirectBusRouteSearchResponse findNextDepartures(final int departureStationId,
+                                                            final int arrivalStationId,
+                                                            final String dataSetName,
+                                                            final int departureTime,
+                                                            final int limit,
+                                                            final BusRouteDataSet dataSet) {
+
+        if (departureTime < 0 || departureTime >= Constants.MINUTES_PER_WEEK || limit <= 0 || limit > maxDepartures) {
+            throw new InvalidRequestParameterException(
+                    String.format("Departure time should be between 0 and %s and limit should be between 1 and %s.",
+                            Constants.MINUTES_PER_WEEK - 1, maxDepartures));
+        }
+
+        final boolean directBusRouteExists = searchService.isDirectBusRouteExists(dataSet, departureStationId, arrivalStationId);
+
+        final int[] departureTimes = new int[limit];
+        final int[] departureRouteIds = new int[limit];
+        final int departuresCount = directBusRouteExists
+                ? searchService.findNextDepartures(dataSet, departureStationId, arrivalStationId, departureTime, departureTimes, departureRouteIds)
+                : 0;
+
+        final List<DirectBusRouteDeparture> nextDepartures = new ArrayList<>(departuresCount);
+        for (int index = 0; index < departuresCount; index++) {
+            nextDepartures.add(new DirectBusRouteDeparture(departureRouteIds[index], departureTimes[index]));
+        }
+
+        return new DirectBusRouteSearchResponse(departureStationId, arrivalStationId, directBusRouteExists, dataSetName, nextDepartures);
+    }
+
+    /**
+     * API to list the stations from which the given Arrival Station ID can be reached directly(upstream stations).
+     * The stations are sorted by the ID and paginated with the given offset and limit. The next page is better fetched
+     * with the next_after cursor(last Station ID of the page, given while there are more stations) than with the offset,
+     * it doesn't depend on the stations before the page.
+     * The page is written to the response as it is generated, without building the response object.
+     *
+     * @param arrivalStationId
+     * @param afterStationId   Only the stations with a greater ID are paged(optional)
+     * @param offset           Number of stations to be skipped(after the cursor, if given)
+     * @param limit            Maximum number of stations in the page
+     * @param dataSet          Generation of the data set acquired for the request
+     * @return JSON response with the given Arrival Station ID, total number of upstream stations and the requested page.
+     */
+    @RequestMapping(value = "/upstream", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getUpstreamStations(
+            @RequestParam(value = "arr_sid", required = true) final int arrivalStationId,
+            @RequestParam(value = "after", required = false) final Integer afterStationId,
+            @RequestParam(value = "offset", required = false, defaultValue = "0") final int offset,
+            @RequestParam(value = "limit", required = false, defaultValue = "1000") final int limit,
+            @RequestAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE) final BusRouteDataSet dataSet) {
+
+        if (offset < 0 || limit <= 0 || limit > maxPageSize) {
+            throw new InvalidRequestParameterException(
+                    String.format("Offset should be positive and limit should be between 1 and %s.", maxPageSize));
+        }
+
+        final UpstreamStationsPage page = searchService.findUpstreamStations(dataSet, arrivalStationId,
+                (afterStationId == null) ? Long.MIN_VALUE : afterStationId, offset, limit);
+        final int[] upstreamStationIds = page.getStationIds();
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeNumberField("arr_sid", arrivalStationId);
+                generator.writeNumberField("offset", offset);
+                generator.writeNumberField("limit", limit);
+                generator.writeNumberField("total", page.getTotal());
+
+                generator.writeArrayFieldStart("dep_sids");
+                for (int upstreamStationId : upstreamStationIds) {
+                    generator.writeNumber(upstreamStationId);
+                }
+                generator.writeEndArray();
+
+                if (page.hasMore()) {
+                    generator.writeNumberField("next_after", upstreamStationIds[upstreamStationIds.length - 1]);
+                }
+
+                generator.writeEndObject();
+            }
+        });
+    }
+
+    /**
+     * API to list all the stations which can be reached directly from the given Departure Station ID(one-to-many).
+     * By default each reachable station is listed once. With the routes, the stations are grouped by the routes
+     * which connect them, in the travel order.
+     * The stations are written to the response while walking through the routes, so the memory usage doesn't grow
+     * with the number of reachable stations of a hub station.
+     *
+     * @param departureStationId
+     * @param withRoutes
+     * @param dataSet            Generation of the data set acquired for the request
+     * @return JSON response with the given Departure Station ID and the reachable stations(optionally per route).
+     */
+    @RequestMapping(value = "/reachable", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getReachableStations(
+            @RequestParam(value = "dep_sid", required = true) final int departureStationId,
+            @RequestParam(value = "with_routes", required = false, defaultValue = "false") final boolean withRoutes,
+            @RequestAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE) final BusRouteDataSet dataSet) {
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeNumberField("dep_sid", departureStationId);
+
+                if (withRoutes) {
+                    generator.writeArrayFieldStart("routes");
+                    final RouteGroupingWriter routeGroupingWriter = new RouteGroupingWriter(generator);
+                    searchService.visitReachableStations(dataSet, departureStationId, true, routeGroupingWriter);
+                    routeGroupingWriter.finish();
+                    generator.writeEndArray();
+                } else {
+                    generator.writeArrayFieldStart("arr_sids");
+                    searchService.visitReachableStations(dataSet, departureStationId, false,
+                            (routeId, stationId) -> generator.writeNumber(stationId));
+                    generator.writeEndArray();
+                }
+
+                generator.writeEndObject();
+            }
+        });
+    }
+
+    /**
+     * API to check the direct connectivity of N Departure Station IDs with M Arrival Station IDs in one request(many-to-many).
+     * It will accepts only POST HTTP method with the station IDs in the JSON request body and
+     * It will return 200 OK if the input validation succeeds else 400 Bad Request will be sent.
+     *
+     * @param matrixRequest
+     * @param dataSet       Generation of the data set acquired for the request
+     * @return JSON response with the given Station IDs and the connectivity matrix as a packed bit set.
+     */
+    @RequestMapping(value = "/matrix", method = RequestMethod.POST,
+                    consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ConnectivityMatrixResponse getConnectivityMatrix(
+            @RequestBody final ConnectivityMatrixRequest matrixRequest,
+            @RequestAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE) final BusRouteDataSet dataSet) {
+
+        final int[] departureStationIds = matrixRequest.getDepartureStationIds();
+        final int[] arrivalStationIds = matrixRequest.getArrivalStationIds();
+
+        if (departureStationIds == null || departureStationIds.length == 0
+                || arrivalStationIds == null || arrivalStationIds.length == 0
+                || (long) departureStationIds.length * arrivalStationIds.length > maxMatrixCells) {
+            throw new InvalidRequestParameterException(
+                    String.format("Both dep_sids and arr_sids should be provided and the matrix can't exceed %s pairs.", maxMatrixCells));
+        }
+
+        final ConnectivityMatrix connectivityMatrix = searchService.computeConnectivityMatrix(dataSet, departureStationIds, arrivalStationIds);
+
+        return new ConnectivityMatrixResponse(departureStationIds,
+                arrivalStationIds,
+                connectivityMatrix.getConnectionsCount(),
+                connectivityMatrix.getRowSizeInBytes(),
+                connectivityMatrix.toByteArray());
+    }
+
+    /**
+     * API to check the direct connectivity of any number of (Departure Station ID, Arrival Station ID) pairs in one request,
+     * for the offline jobs.
+     * It will accepts only POST HTTP method with the pairs in the request body as NDJSON or CSV(one pair per line) and
+     * writes the results in the same format and order, while the request body is still being received
+     * (@see com.goeuro.hiring.devtest.busroute.rest.BulkPairChecker). The invalid lines are reported in their result line,
+     * since the response is already started by then. The client should read the response while sending the request body.
+     *
+     * @param request
+     * @param response
+     * @param dataSet  Generation of the data set acquired for the request
+     * @throws IOException
+     */
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST, consumes = {BulkPairChecker.NDJSON_VALUE, BulkPairChecker.CSV_VALUE})
+    public void checkPairs(final HttpServletRequest request,
+                           final HttpServletResponse response,
+                           @RequestAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE) final BusRouteDataSet dataSet) throws IOException {
+
+        final boolean csv = BulkPairChecker.CSV.includes(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(csv ? BulkPairChecker.CSV_VALUE : BulkPairChecker.NDJSON_VALUE);
+
+        new BulkPairChecker(dataSet.getDataCache(), csv).check(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * Writes the stations visited route by route as one JSON object per route.
+     * Stations of a route are always visited one after the other, so a new object is started when the route changes.
+     */
+    private static final class RouteGroupingWriter implements ConnectedStationVisitor {
+
+        private final JsonGenerator generator;
+
+        private boolean routeStarted;
+        private int currentRouteId;
+
+        private RouteGroupingWriter(final JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void visit(final int routeId, final int stationId) throws IOException {
+            if (!routeStarted || routeId != currentRouteId) {
+                finish();
+
+                generator.writeStartObject();
+                generator.writeNumberField("route_id", routeId);
+                generator.writeArrayFieldStart("arr_sids");
+
+                routeStarted = true;
+                currentRouteId = routeId;
+            }
+
+            generator.writeNumber(stationId);
+        }
+
+        /**
+         * Close the object of the current route, if any.
+         *
+         * @throws IOException
+         */
+        private void finish() throws IOException {
+            if (routeStarted) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                routeStarted = false;
+            }
+        }
+    }
 }
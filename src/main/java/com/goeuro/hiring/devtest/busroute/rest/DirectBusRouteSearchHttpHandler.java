@@ -0,0 +1,139 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet;
+import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchService;
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.DataSetNotFoundException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Direct route search(/api/direct) on the JDK HTTP server, for the lean launch mode(@see com.goeuro.hiring.devtest.busroute.LeanApplicationLoader).
+ * Same base parameters(dep_sid, arr_sid, dataset, version), response and Bus-Route-Data-Version header as
+ * @see com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchEndPoint, without the Spring MVC dispatcher and Jackson.
+ * The next departures(dep_time, limit) aren't supported yet, a request with the departure time is rejected with 400 Bad Request
+ * instead of being answered without the departures.
+ * The errors are reported as {"status":N,"message":"..."} with 400 Bad Request, 404 Not Found or 405 Method Not Allowed.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class DirectBusRouteSearchHttpHandler implements HttpHandler {
+
+    private final BusRouteDataCacheManager cacheManager;
+    private final DirectBusRouteSearchService searchService;
+
+    /**
+     * @param cacheManager
+     * @param searchService
+     */
+    public DirectBusRouteSearchHttpHandler(final BusRouteDataCacheManager cacheManager,
+                                           final DirectBusRouteSearchService searchService) {
+        this.cacheManager = cacheManager;
+        this.searchService = searchService;
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                writeError(exchange, 405, "Request method '" + exchange.getRequestMethod() + "' not supported");
+                return;
+            }
+
+            final String query = exchange.getRequestURI().getRawQuery();
+            final long departureStationId = DirectBusRouteSearchResponseWriter.parseStationId(getParameter(query, "dep_sid"));
+            final long arrivalStationId = DirectBusRouteSearchResponseWriter.parseStationId(getParameter(query, "arr_sid"));
+            if (departureStationId == DirectBusRouteSearchResponseWriter.INVALID_STATION_ID
+                    || arrivalStationId == DirectBusRouteSearchResponseWriter.INVALID_STATION_ID) {
+                writeError(exchange, 400, "Parameters 'dep_sid' and 'arr_sid' should be given as integers.");
+                return;
+            }
+
+            if (getParameter(query, "dep_time") != null) {
+                writeError(exchange, 400, "Parameter 'dep_time' is not supported in the lean mode.");
+                return;
+            }
+
+            final String dataSetName = getParameter(query, "dataset");
+            final String version = getParameter(query, "version");
+            final BusRouteDataSet dataSet;
+            try {
+                dataSet = cacheManager.acquireDataSet((dataSetName == null) ? BusRouteDataCacheManager.DEFAULT_DATA_SET : dataSetName,
+                        (version == null) ? null : Long.valueOf(version));
+            } catch (NumberFormatException e) {
+                writeError(exchange, 400, "Version is not valid.");
+                return;
+            } catch (DataSetNotFoundException e) {
+                writeError(exchange, 404, e.getMessage());
+                return;
+            }
+
+            try {
+                final boolean directBusRouteExists = searchService.isDirectBusRouteExists(dataSet,
+                        (int) departureStationId, (int) arrivalStationId);
+
+                final byte[] buffer = DirectBusRouteSearchResponseWriter.getBuffer(dataSetName);
+                final int length = DirectBusRouteSearchResponseWriter.write(buffer,
+                        (int) departureStationId, (int) arrivalStationId, directBusRouteExists, dataSetName);
+
+                exchange.getResponseHeaders().set(DataSetSnapshotFilter.DATA_VERSION_HEADER, String.valueOf(dataSet.getVersion()));
+                write(exchange, 200, buffer, length);
+            } finally {
+                dataSet.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param query Raw query string or null
+     * @param name
+     * @return Value of the first parameter with the given name(not decoded, the parameters are plain integers and names) or null
+     */
+    static String getParameter(final String query, final String name) {
+        if (query == null) {
+            return null;
+        }
+
+        int start = 0;
+        while (start < query.length()) {
+            int end = query.indexOf('&', start);
+            end = (end < 0) ? query.length() : end;
+
+            if (end - start > name.length() && query.charAt(start + name.length()) == '=' && query.startsWith(name, start)) {
+                return query.substring(start + name.length() + 1, end);
+            }
+            start = end + 1;
+        }
+
+        return null;
+    }
+
+    private static void writeError(final HttpExchange exchange, final int status, final String message) throws IOException {
+        final String escapedMessage = message.replace("\\", "\\\\").replace("\"", "\\\"");
+        final byte[] body = ("{\"status\":" + status + ",\"message\":\"" + escapedMessage + "\"}").getBytes(StandardCharsets.UTF_8);
+        write(exchange, status, body, body.length);
+    }
+
+    private static void write(final HttpExchange exchange, final int status, final byte[] body, final int length) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", DirectBusRouteSearchResponseWriter.CONTENT_TYPE);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body, 0, length);
+        }
+    }
+
+}
@@ -3,6 +3,9 @@
  */
 package com.goeuro.hiring.devtest.busroute.rest;
 
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -26,4 +29,42 @@ public class DirectBusRouteSearchResponse {
     @JsonProperty("direct_bus_route")
     private final Boolean directBusRouteExists;
 
+    /* Sent only if the data set is selected in the request, so the default response stays as per the specification */
+    @JsonProperty("dataset")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String dataSetName;
+
+    /* Sent only if the departure time is given in the request, in the order of the wait */
+    @JsonProperty("next_departures")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final List<DirectBusRouteDeparture> nextDepartures;
+
+    /**
+     * Response without the departures.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param directBusRouteExists
+     * @param dataSetName          Data set selected in the request or null
+     */
+    public DirectBusRouteSearchResponse(final Integer departureStationId,
+                                        final Integer arrivalStationId,
+                                        final Boolean directBusRouteExists,
+                                        final String dataSetName) {
+        this(departureStationId, arrivalStationId, directBusRouteExists, dataSetName, null);
+    }
+
+    /**
+     * Response for the default data set.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param directBusRouteExists
+     */
+    public DirectBusRouteSearchResponse(final Integer departureStationId,
+                                        final Integer arrivalStationId,
+                                        final Boolean directBusRouteExists) {
+        this(departureStationId, arrivalStationId, directBusRouteExists, null, null);
+    }
+
 }
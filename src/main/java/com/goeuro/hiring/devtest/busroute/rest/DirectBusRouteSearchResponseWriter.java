@@ -0,0 +1,148 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Allocation free parsing of the direct route search(/api/direct) parameters and encoding of its response, for the
+ * request paths served without the Spring MVC dispatcher(@see UnknownStationFilter, @see DirectBusRouteSearchHttpHandler).
+ * The JSON is the same as the one of @see com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchResponse.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class DirectBusRouteSearchResponseWriter {
+
+    static final String CONTENT_TYPE = MediaType.APPLICATION_JSON_UTF8_VALUE;  /* Same as the end point(Jackson) */
+
+    static final long INVALID_STATION_ID = Long.MIN_VALUE;
+
+    /* Response body buffer per request thread, grown for the long data set names */
+    private static final ThreadLocal<byte[]> RESPONSE_BUFFERS = ThreadLocal.withInitial(() -> new byte[128]);
+
+    private DirectBusRouteSearchResponseWriter() {
+    }
+
+    /**
+     * @param parameter
+     * @return Station ID or INVALID_STATION_ID if it isn't a plain integer(left to the end point to report or convert)
+     */
+    static long parseStationId(final String parameter) {
+        if (parameter == null || parameter.isEmpty() || parameter.length() > 11) {
+            return INVALID_STATION_ID;
+        }
+
+        final boolean negative = parameter.charAt(0) == '-';
+        final int start = (negative || parameter.charAt(0) == '+') ? 1 : 0;
+        if (start == parameter.length()) {
+            return INVALID_STATION_ID;
+        }
+
+        long stationId = 0;
+        for (int index = start; index < parameter.length(); index++) {
+            final char digit = parameter.charAt(index);
+            if (digit < '0' || digit > '9') {
+                return INVALID_STATION_ID;
+            }
+            stationId = stationId * 10 + (digit - '0');
+        }
+
+        stationId = negative ? -stationId : stationId;
+        return (stationId < Integer.MIN_VALUE || stationId > Integer.MAX_VALUE) ? INVALID_STATION_ID : stationId;
+    }
+
+    /**
+     * @param dataSetName Data set selected in the request or null
+     * @return Buffer of the calling thread, large enough for the response
+     */
+    static byte[] getBuffer(final String dataSetName) {
+        final int maxLength = 80 + ((dataSetName == null) ? 0 : dataSetName.length() + 16);
+        byte[] buffer = RESPONSE_BUFFERS.get();
+        if (buffer.length < maxLength) {
+            buffer = new byte[maxLength];
+            RESPONSE_BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param buffer               Buffer returned by @see #getBuffer(String) for the same data set
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param directBusRouteExists
+     * @param dataSetName          Data set selected in the request or null
+     * @return Length of the response
+     */
+    static int write(final byte[] buffer,
+                     final int departureStationId,
+                     final int arrivalStationId,
+                     final boolean directBusRouteExists,
+                     final String dataSetName) {
+        return write(buffer, 0, departureStationId, arrivalStationId, directBusRouteExists, dataSetName);
+    }
+
+    /**
+     * Same as @see #write(byte[], int, int, boolean, String), at the given offset of a larger buffer(@see BulkPairChecker).
+     *
+     * @param buffer
+     * @param offset
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param directBusRouteExists
+     * @param dataSetName          Data set selected in the request or null
+     * @return End of the response in the buffer
+     */
+    static int write(final byte[] buffer,
+                     final int offset,
+                     final int departureStationId,
+                     final int arrivalStationId,
+                     final boolean directBusRouteExists,
+                     final String dataSetName) {
+
+        int length = writeAscii(buffer, offset, "{\"dep_sid\":");
+        length = writeInt(buffer, length, departureStationId);
+        length = writeAscii(buffer, length, ",\"arr_sid\":");
+        length = writeInt(buffer, length, arrivalStationId);
+        length = writeAscii(buffer, length, directBusRouteExists ? ",\"direct_bus_route\":true" : ",\"direct_bus_route\":false");
+        if (dataSetName != null) {
+            /* Data set names are letters, digits, '_' and '-' only(it is acquired by the name), hence nothing to escape */
+            length = writeAscii(buffer, length, ",\"dataset\":\"");
+            length = writeAscii(buffer, length, dataSetName);
+            length = writeAscii(buffer, length, "\"");
+        }
+        return writeAscii(buffer, length, "}");
+    }
+
+    static int writeAscii(final byte[] buffer, final int offset, final String value) {
+        for (int index = 0; index < value.length(); index++) {
+            buffer[offset + index] = (byte) value.charAt(index);
+        }
+        return offset + value.length();
+    }
+
+    static int writeInt(final byte[] buffer, final int offset, final int value) {
+        long remaining = value;
+        int position = offset;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+
+        final int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        /* Digits are written from the lowest one, reverse them */
+        for (int left = start, right = position - 1; left < right; left++, right--) {
+            final byte digit = buffer[left];
+            buffer[left] = buffer[right];
+            buffer[right] = digit;
+        }
+
+        return position;
+    }
+
+}
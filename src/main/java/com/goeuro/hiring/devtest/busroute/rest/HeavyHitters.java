@@ -0,0 +1,138 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the most frequent keys counted by a @see CountMinSketch, in a fixed size table of candidate keys.
+ *
+ * A key is offered along with its estimated count. It takes an empty slot of its probe window or replaces the candidate
+ * with the lowest estimate in it, if the key is counted more. Once the top keys are selected, only the keys counted
+ * more than the last of them are offered, so the frequent keys already in the table cost a single probe and the rare
+ * keys cost nothing. The slots are updated with compare-and-set(no locks). A lost race only drops a candidate, it is
+ * offered again on its next count.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class HeavyHitters {
+
+    static final long EMPTY = Long.MIN_VALUE;      /* Not a valid key, packed (Integer.MIN_VALUE, 0) pair is never tracked */
+
+    private static final int PROBES = 8;            /* Slots a key can take, starting from its hash */
+    private static final int SLOTS_PER_KEY = 4;     /* Table size relative to the number of top keys */
+
+    private final CountMinSketch sketch;
+    private final int limit;
+    private final AtomicLongArray keys;
+    private final int mask;
+
+    /* Estimate of the last top key at the last selection(0 till the top is full), the keys below it are not offered */
+    private volatile long minimumEstimate = 0;
+
+    /**
+     * @param sketch Counts of the keys
+     * @param limit  Number of top keys to be tracked
+     */
+    HeavyHitters(final CountMinSketch sketch, final int limit) {
+        this.sketch = sketch;
+        this.limit = Math.max(1, limit);
+        this.keys = new AtomicLongArray(Math.max(PROBES, Integer.highestOneBit(this.limit * SLOTS_PER_KEY - 1) << 1));
+        this.mask = keys.length() - 1;
+
+        for (int slot = 0; slot < keys.length(); slot++) {
+            keys.set(slot, EMPTY);
+        }
+    }
+
+    /**
+     * @param key
+     * @param estimate Estimated count of the key(@see CountMinSketch#add(long))
+     */
+    void offer(final long key, final long estimate) {
+        if (estimate <= minimumEstimate || key == EMPTY) {
+            return;
+        }
+
+        final int start = (int) CountMinSketch.hash(key, -1) & mask;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = (start + probe) & mask;
+            final long candidate = keys.get(slot);
+
+            if (candidate == key) {
+                return;
+            }
+            if (candidate == EMPTY && keys.compareAndSet(slot, EMPTY, key)) {
+                return;
+            }
+        }
+
+        /* Probe window is full, replace the least counted candidate */
+        int victimSlot = -1;
+        long victimKey = EMPTY;
+        long victimEstimate = estimate;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = (start + probe) & mask;
+            final long candidate = keys.get(slot);
+            final long candidateEstimate = sketch.estimate(candidate);
+
+            if (candidate == key) {
+                return;
+            }
+            if (candidateEstimate < victimEstimate) {
+                victimSlot = slot;
+                victimKey = candidate;
+                victimEstimate = candidateEstimate;
+            }
+        }
+
+        if (victimSlot >= 0) {
+            keys.compareAndSet(victimSlot, victimKey, key);
+        }
+    }
+
+    /**
+     * Select the most counted keys among the candidates. Called by a single thread at a time.
+     *
+     * @return Keys and their estimated counts packed as (key, count) pairs, the most counted first
+     */
+    long[] selectTop() {
+        /* The keys take all the 64 bits(no room to pack the estimate along), hence they are sorted through an index */
+        final long[] candidates = new long[keys.length()];
+        final long[] estimates = new long[keys.length()];
+        int candidatesCount = 0;
+
+        for (int slot = 0; slot < keys.length(); slot++) {
+            final long candidate = keys.get(slot);
+            if (candidate != EMPTY) {
+                candidates[candidatesCount] = candidate;
+                estimates[candidatesCount++] = sketch.estimate(candidate);
+            }
+        }
+
+        final Integer[] order = new Integer[candidatesCount];
+        for (int index = 0; index < candidatesCount; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(estimates[second], estimates[first]));
+
+        final long[] top = new long[2 * Math.min(limit, candidatesCount)];
+        for (int index = 0; index < top.length / 2; index++) {
+            top[2 * index] = candidates[order[index]];
+            top[2 * index + 1] = estimates[order[index]];
+        }
+
+        minimumEstimate = (top.length / 2 == limit) ? top[top.length - 1] : 0;
+        return top;
+    }
+
+    /**
+     * @return Size of the candidate table in bytes
+     */
+    long getSizeInBytes() {
+        return (long) keys.length() * Long.BYTES;
+    }
+
+}
@@ -0,0 +1,181 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.embedded.ConfigurableEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.jetty.JettyEmbeddedServletContainerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * High throughput Jetty connector profile for the clients sending a lot of small search requests
+ * over a few long lived connections(enabled with bus-route.server.high-throughput.enabled or the
+ * 'high-throughput' Spring profile). Compared to the defaults of the embedded Jetty:
+ *
+ * 1. h2c(HTTP/2 cleartext, prior knowledge or HTTP/1.1 upgrade) along with HTTP/1.1 on the same port,
+ *    hence a client can multiplex its concurrent requests over a single connection.
+ * 2. One acceptor and selectors sized to the cores. The connections are kept alive(longer idle timeout),
+ *    hence the accepts are rare and most of the selector work is reading the requests.
+ * 3. Bounded queued thread pool sized to the cores(fixed size, the searches are CPU bound) instead of the
+ *    200 threads with an unbounded queue. The jobs over the queue capacity are rejected right away.
+ * 4. Dedicated pool of the response buffers, large enough to keep a whole search response in the
+ *    aggregation buffer. Jetty allocates these buffers as direct buffers for the socket channels,
+ *    hence a response is written from the pooled direct buffer without any copy or allocation.
+ *
+ * The thread pool state is exported in the actuator metrics end point under "bus-route.server.*".
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+public class HighThroughputServerCustomizer implements EmbeddedServletContainerCustomizer, PublicMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HighThroughputServerCustomizer.class.getName());
+
+    private static final int MIN_POOLED_BUFFER_SIZE = 0;
+    private static final int POOLED_BUFFER_SIZE_INCREMENT = 1024;
+
+    @Value("${bus-route.server.high-throughput.enabled:false}")
+    private boolean highThroughputEnabled;
+
+    /**
+     * 0 uses a single acceptor
+     */
+    @Value("${bus-route.server.high-throughput.acceptors:1}")
+    private int acceptors = 1;
+
+    /**
+     * 0 uses one selector per two cores
+     */
+    @Value("${bus-route.server.high-throughput.selectors:0}")
+    private int selectors;
+
+    @Value("${bus-route.server.high-throughput.worker-threads-per-core:2}")
+    private int workerThreadsPerCore = 2;
+
+    @Value("${bus-route.server.high-throughput.queue-capacity:1024}")
+    private int queueCapacity = 1024;
+
+    @Value("${bus-route.server.high-throughput.accept-queue-size:1024}")
+    private int acceptQueueSize = 1024;
+
+    @Value("${bus-route.server.high-throughput.idle-timeout-millis:120000}")
+    private int idleTimeoutMillis = 120000;
+
+    @Value("${bus-route.server.high-throughput.max-concurrent-streams:256}")
+    private int maxConcurrentStreams = 256;
+
+    @Value("${bus-route.server.high-throughput.output-buffer-size:65536}")
+    private int outputBufferSize = 65536;
+
+    private QueuedThreadPool threadPool;
+
+    @Override
+    public void customize(final ConfigurableEmbeddedServletContainer container) {
+        if (!highThroughputEnabled || !(container instanceof JettyEmbeddedServletContainerFactory)) {
+            return;
+        }
+
+        final JettyEmbeddedServletContainerFactory jettyFactory = (JettyEmbeddedServletContainerFactory) container;
+        threadPool = createThreadPool();
+        jettyFactory.setThreadPool(threadPool);
+        jettyFactory.addServerCustomizers(this::replaceConnectors);
+
+        LOGGER.info("High throughput server profile: h2c + HTTP/1.1, {} acceptor(s), {} selector(s), {} threads, "
+                        + "queue capacity {}, idle timeout {} ms, output buffer {} bytes.",
+                getAcceptors(), getSelectors(), threadPool.getMaxThreads(), queueCapacity, idleTimeoutMillis, outputBufferSize);
+    }
+
+    /**
+     * @return Fixed size pool, the acceptor and selector threads along with the worker threads per core
+     */
+    QueuedThreadPool createThreadPool() {
+        final int threads = getAcceptors() + getSelectors()
+                + Runtime.getRuntime().availableProcessors() * Math.max(1, workerThreadsPerCore);
+        final QueuedThreadPool queuedThreadPool =
+                new QueuedThreadPool(threads, threads, idleTimeoutMillis, new BlockingArrayQueue<>(queueCapacity));
+        queuedThreadPool.setName("bus-route-server");
+        return queuedThreadPool;
+    }
+
+    /**
+     * Replace the HTTP/1.1 connector created by Spring Boot with the h2c + HTTP/1.1 connector on the same host/port.
+     * The HTTP configuration(e.g. forwarded headers) of the original connector is retained.
+     *
+     * @param server
+     */
+    void replaceConnectors(final Server server) {
+        final Collection<Connector> connectors = new ArrayList<>();
+
+        for (Connector connector : server.getConnectors()) {
+            final HttpConnectionFactory httpConnectionFactory = connector.getConnectionFactory(HttpConnectionFactory.class);
+            if (!(connector instanceof ServerConnector) || httpConnectionFactory == null) {
+                connectors.add(connector);
+                continue;
+            }
+
+            final HttpConfiguration httpConfiguration = new HttpConfiguration(httpConnectionFactory.getHttpConfiguration());
+            httpConfiguration.setOutputBufferSize(outputBufferSize);
+            httpConfiguration.setOutputAggregationSize(outputBufferSize);
+
+            final HTTP2CServerConnectionFactory h2cConnectionFactory = new HTTP2CServerConnectionFactory(httpConfiguration);
+            h2cConnectionFactory.setMaxConcurrentStreams(maxConcurrentStreams);
+
+            /* Buffers up to the output buffer size are pooled(and reused) instead of allocated per response */
+            final ArrayByteBufferPool byteBufferPool =
+                    new ArrayByteBufferPool(MIN_POOLED_BUFFER_SIZE, POOLED_BUFFER_SIZE_INCREMENT, outputBufferSize);
+
+            final ServerConnector serverConnector = new ServerConnector(server, null, null, byteBufferPool,
+                    getAcceptors(), getSelectors(), new HttpConnectionFactory(httpConfiguration), h2cConnectionFactory);
+            serverConnector.setHost(((ServerConnector) connector).getHost());
+            serverConnector.setPort(((ServerConnector) connector).getPort());
+            serverConnector.setIdleTimeout(idleTimeoutMillis);
+            serverConnector.setAcceptQueueSize(acceptQueueSize);
+            connectors.add(serverConnector);
+        }
+
+        server.setConnectors(connectors.toArray(new Connector[connectors.size()]));
+    }
+
+    int getAcceptors() {
+        return (acceptors > 0) ? acceptors : 1;
+    }
+
+    int getSelectors() {
+        return (selectors > 0) ? selectors : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Collection<Metric<?>> metrics = new ArrayList<>();
+        final QueuedThreadPool serverThreadPool = threadPool;
+        if (serverThreadPool == null) {
+            return metrics;
+        }
+
+        metrics.add(new Metric<>("bus-route.server.threads", serverThreadPool.getThreads()));
+        metrics.add(new Metric<>("bus-route.server.threads.busy", serverThreadPool.getBusyThreads()));
+        metrics.add(new Metric<>("bus-route.server.threads.idle", serverThreadPool.getIdleThreads()));
+        metrics.add(new Metric<>("bus-route.server.queue-size", serverThreadPool.getQueueSize()));
+        metrics.add(new Metric<>("bus-route.server.queue-capacity", queueCapacity));
+        return metrics;
+    }
+
+}
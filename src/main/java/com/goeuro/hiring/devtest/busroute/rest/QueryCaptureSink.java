@@ -0,0 +1,205 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.goeuro.hiring.devtest.busroute.utils.QueryCaptureFile;
+
+/**
+ * Captures a sample of the (Departure Station ID, Arrival Station ID) queries served by the REST end point,
+ * so that the production workload can be replayed offline.
+ *
+ * The request threads only claim a slot in a fixed size ring buffer and publish the query into it (lock-free).
+ * A background thread periodically drains the ring buffer and appends the queries to the capture file
+ * (@see com.goeuro.hiring.devtest.busroute.utils.QueryCaptureFile). If the drain falls behind,
+ * the oldest queries are overwritten and counted as dropped rather than slowing down the requests.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+public class QueryCaptureSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryCaptureSink.class.getName());
+
+    private static final long UNPUBLISHED = 0;
+
+    @Value("${bus-route.query-capture.enabled:false}")
+    private boolean captureEnabled;
+
+    @Value("${bus-route.query-capture.file-path:bus-route-queries.bin}")
+    private String captureFilePath;
+
+    @Value("${bus-route.query-capture.sampling-interval:100}")
+    private int samplingInterval;                          /* Capture 1 out of N queries */
+
+    @Value("${bus-route.query-capture.ring-buffer-size-power-of-two:16}")
+    private int ringBufferSizePowerOfTwo;
+
+    @Value("${bus-route.query-capture.flush-interval-millis:1000}")
+    private long flushIntervalMillis;
+
+    private AtomicLongArray queries;                        /* Packed (Departure Station ID, Arrival Station ID) */
+    private AtomicLongArray publishedSequences;             /* Sequence + 1 of the query present in each slot, negated while it is written */
+    private int mask;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+    private long drainedSequence = 0;                       /* Accessed only by the drain thread */
+    private long droppedCount = 0;                          /* Accessed only by the drain thread */
+    private long unclaimedSequence = -1;                    /* Sequence the last drain stopped at, not claimed yet. Drain thread only */
+
+    private ScheduledExecutorService drainExecutor;
+    private DataOutputStream captureOutputStream;
+
+    /**
+     * @throws IOException
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!captureEnabled) {
+            return;
+        }
+
+        final int ringBufferSize = 1 << ringBufferSizePowerOfTwo;
+        queries = new AtomicLongArray(ringBufferSize);
+        publishedSequences = new AtomicLongArray(ringBufferSize);
+        mask = ringBufferSize - 1;
+
+        final File captureFile = new File(captureFilePath);
+        final boolean newCaptureFile = !captureFile.exists() || captureFile.length() == 0;
+        captureOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(captureFile, true)));
+        if (newCaptureFile) {
+            QueryCaptureFile.writeHeader(captureOutputStream);
+        }
+
+        drainExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "query-capture-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainExecutor.scheduleWithFixedDelay(this::drain, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Capturing 1 out of {} queries into '{}'.", samplingInterval, captureFile.getCanonicalPath());
+    }
+
+    /**
+     * Capture the given query if it is selected by the sampling.
+     * Lock-free and allocation free, safe to be called from any number of request threads.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     */
+    public void capture(final int departureStationId, final int arrivalStationId) {
+        if (!captureEnabled
+                || (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0)) {
+            return;
+        }
+
+        final long sequence = nextSequence.getAndIncrement();
+        final int slot = (int) (sequence & mask);
+
+        /* Claim the slot from its last published lap. A writer of another lap still writing(claimed) or already
+         * published a newer lap(this writer was stalled), the sample is dropped instead of writing the slot along */
+        final long slotSequence = publishedSequences.get(slot);
+        if (slotSequence < UNPUBLISHED
+                || slotSequence > sequence
+                || !publishedSequences.compareAndSet(slot, slotSequence, -(sequence + 1))) {
+            return;
+        }
+
+        /* The lazySet is ordered after the query write, so the drain thread never sees a partially updated slot as published */
+        queries.lazySet(slot, ((long) departureStationId << 32) | (arrivalStationId & 0xFFFFFFFFL));
+        publishedSequences.lazySet(slot, sequence + 1);
+    }
+
+    /**
+     * Append the published queries to the capture file.
+     */
+    synchronized void drain() {
+        try {
+            final long currentSequence = nextSequence.get();
+
+            /* Skip the queries which were already overwritten by the request threads */
+            if (currentSequence - drainedSequence > queries.length()) {
+                droppedCount += currentSequence - drainedSequence - queries.length();
+                drainedSequence = currentSequence - queries.length();
+            }
+
+            while (drainedSequence < currentSequence) {
+                final int slot = (int) (drainedSequence & mask);
+                final long publishedSequence = publishedSequences.get(slot);
+
+                if (publishedSequence == -(drainedSequence + 1)) {
+                    break;  /* Being written, will be drained in the next run */
+                }
+                if (publishedSequence < -(drainedSequence + 1)) {
+                    droppedCount++; /* Claimed by a newer lap, overwritten */
+                    drainedSequence++;
+                    continue;
+                }
+                if (publishedSequence <= drainedSequence) {
+                    /* Still holds an older lap. The writer either lost the claim(the sample is dropped, its sequence is never
+                     * published) or didn't try yet, hence it gets till the next run before the sample is counted as dropped */
+                    if (unclaimedSequence != drainedSequence) {
+                        unclaimedSequence = drainedSequence;
+                        break;
+                    }
+                    droppedCount++;
+                    drainedSequence++;
+                    continue;
+                }
+
+                final long query = queries.get(slot);
+                if (publishedSequence == drainedSequence + 1 && publishedSequences.get(slot) == publishedSequence) {
+                    captureOutputStream.writeInt((int) (query >>> 32));
+                    captureOutputStream.writeInt((int) query);
+                } else {
+                    droppedCount++; /* Overwritten while draining */
+                }
+                drainedSequence++;
+            }
+
+            captureOutputStream.flush();
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the captured queries into '{}'.", captureFilePath, e);
+        }
+    }
+
+    /**
+     * Flush the remaining queries and release the capture file.
+     *
+     * @throws IOException
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (!captureEnabled) {
+            return;
+        }
+
+        drainExecutor.shutdown();
+        drain();
+        captureOutputStream.close();
+
+        LOGGER.info("Query capture stopped. {} queries captured, {} dropped.", drainedSequence - droppedCount, droppedCount);
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aggregate query counts per (Departure Station ID, Arrival Station ID) pair and per station, for the capacity planning
+ * and the cache tuning.
+ *
+ * The request threads count each(sampled) query in two count-min sketches(@see CountMinSketch), one for the pairs and one
+ * for the stations(both the departure and the arrival station), and offer it to the heavy hitters tracker of each
+ * (@see HeavyHitters). Both are lock-free and of a fixed size, hence the memory doesn't grow with the number of distinct
+ * pairs or stations and nothing is allocated on the request path.
+ *
+ * A background thread periodically appends a snapshot to a CSV file: the number of queries and the estimated counts of
+ * the most queried pairs and stations since the start, scaled up by the sampling interval. The counts are upper bounds
+ * (the sketch never undercounts). Each snapshot is a set of rows with the same timestamp:
+ *
+ *      timestamp,type,dep_sid,arr_sid,count
+ *      2026-10-19T10:15:30Z,queries,,,1048576
+ *      2026-10-19T10:15:30Z,pair,3,6,20480
+ *      2026-10-19T10:15:30Z,station,3,,40960
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+public class QueryStatistics implements PublicMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryStatistics.class.getName());
+
+    static final String CSV_HEADER = "timestamp,type,dep_sid,arr_sid,count";
+
+    @Value("${bus-route.query-stats.enabled:false}")
+    private boolean statisticsEnabled;
+
+    @Value("${bus-route.query-stats.file-path:bus-route-query-stats.csv}")
+    private String statisticsFilePath;
+
+    @Value("${bus-route.query-stats.sampling-interval:1}")
+    private int samplingInterval;                          /* Count 1 out of N queries */
+
+    @Value("${bus-route.query-stats.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${bus-route.query-stats.sketch-width-power-of-two:16}")
+    private int sketchWidthPowerOfTwo;
+
+    @Value("${bus-route.query-stats.heavy-hitters:100}")
+    private int heavyHittersLimit;
+
+    @Value("${bus-route.query-stats.flush-interval-millis:60000}")
+    private long flushIntervalMillis;
+
+    private CountMinSketch pairCounts;                      /* Packed (Departure Station ID, Arrival Station ID) -> Count */
+    private CountMinSketch stationCounts;                   /* Station ID -> Count */
+    private HeavyHitters heavyPairs;
+    private HeavyHitters heavyStations;
+
+    private final LongAdder sampledQueries = new LongAdder();
+    private long flushesCount = 0;                          /* Accessed only by the flushing thread */
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void start() {
+        if (!statisticsEnabled) {
+            return;
+        }
+
+        samplingInterval = Math.max(1, samplingInterval);
+        pairCounts = new CountMinSketch(sketchDepth, sketchWidthPowerOfTwo);
+        stationCounts = new CountMinSketch(sketchDepth, sketchWidthPowerOfTwo);
+        heavyPairs = new HeavyHitters(pairCounts, heavyHittersLimit);
+        heavyStations = new HeavyHitters(stationCounts, heavyHittersLimit);
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "query-stats-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Counting 1 out of {} queries into {} bytes of sketches, flushed into '{}' every {} ms.",
+                samplingInterval, getSizeInBytes(), new File(statisticsFilePath).getAbsolutePath(), flushIntervalMillis);
+    }
+
+    /**
+     * Count the given query if it is selected by the sampling.
+     * Lock-free and allocation free, safe to be called from any number of request threads.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     */
+    public void record(final int departureStationId, final int arrivalStationId) {
+        if (!statisticsEnabled
+                || (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0)) {
+            return;
+        }
+
+        final long pair = ((long) departureStationId << 32) | (arrivalStationId & 0xFFFFFFFFL);
+        heavyPairs.offer(pair, pairCounts.add(pair));
+        heavyStations.offer(departureStationId, stationCounts.add(departureStationId));
+        heavyStations.offer(arrivalStationId, stationCounts.add(arrivalStationId));
+
+        sampledQueries.increment();
+    }
+
+    /**
+     * Append a snapshot of the statistics to the statistics file, with the header if the file is new.
+     */
+    synchronized void flush() {
+        final File statisticsFile = new File(statisticsFilePath);
+        final boolean newStatisticsFile = !statisticsFile.exists() || statisticsFile.length() == 0;
+        final String timestamp = Instant.now().toString();
+
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(statisticsFile, true), StandardCharsets.US_ASCII))) {
+            if (newStatisticsFile) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+            }
+
+            writer.write(timestamp + ",queries,,," + sampledQueries.sum() * samplingInterval);
+            writer.newLine();
+
+            final long[] topPairs = heavyPairs.selectTop();
+            for (int index = 0; index < topPairs.length; index += 2) {
+                writer.write(timestamp + ",pair," + (int) (topPairs[index] >>> 32) + "," + (int) topPairs[index]
+                        + "," + topPairs[index + 1] * samplingInterval);
+                writer.newLine();
+            }
+
+            final long[] topStations = heavyStations.selectTop();
+            for (int index = 0; index < topStations.length; index += 2) {
+                writer.write(timestamp + ",station," + topStations[index] + ",," + topStations[index + 1] * samplingInterval);
+                writer.newLine();
+            }
+
+            flushesCount++;
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the query statistics into '{}'.", statisticsFilePath, e);
+        }
+    }
+
+    /**
+     * Write the last snapshot and stop the flushing thread.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!statisticsEnabled) {
+            return;
+        }
+
+        flushExecutor.shutdown();
+        flush();
+
+        LOGGER.info("Query statistics stopped. {} queries counted, {} snapshots written.", sampledQueries.sum(), flushesCount);
+    }
+
+    /**
+     * @return Size of the sketches and the heavy hitters tables in bytes(0 if the statistics are disabled)
+     */
+    long getSizeInBytes() {
+        return statisticsEnabled
+                ? pairCounts.getSizeInBytes() + stationCounts.getSizeInBytes() + heavyPairs.getSizeInBytes() + heavyStations.getSizeInBytes()
+                : 0;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+        if (statisticsEnabled) {
+            metrics.add(new Metric<>("bus-route.query-stats.sampled-queries", sampledQueries.sum()));
+            metrics.add(new Metric<>("bus-route.query-stats.memory-bytes", getSizeInBytes()));
+        }
+        return metrics;
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.mvc.AbstractMvcEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+
+/**
+ * Actuator end point(/readiness) for the readiness probes, separate from the health end point(liveness).
+ * It returns 200 OK once the data is loaded and the search service is warmed up, else 503 Service Unavailable.
+ * In both cases, the body contains the data file load progress
+ * (@see com.goeuro.hiring.devtest.busroute.data.DataLoadProgress).
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+public class ReadinessMvcEndpoint extends AbstractMvcEndpoint {
+
+    @Autowired
+    private BusRouteDataCacheManager cacheManager;
+
+    public ReadinessMvcEndpoint() {
+        super("/readiness", false);
+    }
+
+    /**
+     * @return Load progress with 200 OK if the instance is ready, else 503 Service Unavailable
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<Map<String, Object>> readiness() {
+        final boolean ready = cacheManager.getLoadProgress().isReady();
+
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(cacheManager.getLoadProgress().toMap());
+    }
+
+}
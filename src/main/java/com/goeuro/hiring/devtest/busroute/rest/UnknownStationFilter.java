@@ -0,0 +1,127 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet;
+
+/**
+ * Answers the direct route search(/api/direct) right away if any of the given stations is unknown to the data set
+ * acquired for the request(@see com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache#areStationsKnown(int, int)),
+ * i.e. before the request reaches the Spring MVC dispatcher. The response is the same as the one of the end point
+ * (200 OK, not connected), written from a per thread buffer without the controller, the search service or any response object.
+ *
+ * The requests with the missing/invalid parameters are passed on as they are, so the end point reports them as usual.
+ * So are the requests with a departure time, whose response carries the next departures as well.
+ * Runs after @see com.goeuro.hiring.devtest.busroute.rest.DataSetSnapshotFilter, which acquires the data set.
+ * The number of fast responses is exported in the actuator metrics end point under "bus-route.api.unknown-station.*".
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class UnknownStationFilter extends OncePerRequestFilter implements PublicMetrics {
+
+    private static final String DIRECT_API_PATH = "/api/direct";
+
+    @Value("${bus-route.api.unknown-station-fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    @Autowired
+    private QueryCaptureSink queryCaptureSink;
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    private final LongAdder fastResponses = new LongAdder();
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !fastPathEnabled
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !DIRECT_API_PATH.equals(request.getRequestURI())
+                || request.getParameter("dep_time") != null;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        final Object dataSet = request.getAttribute(DataSetSnapshotFilter.DATA_SET_ATTRIBUTE);
+        final long departureStationId = DirectBusRouteSearchResponseWriter.parseStationId(request.getParameter("dep_sid"));
+        final long arrivalStationId = DirectBusRouteSearchResponseWriter.parseStationId(request.getParameter("arr_sid"));
+
+        if (!(dataSet instanceof BusRouteDataSet)
+                || departureStationId == DirectBusRouteSearchResponseWriter.INVALID_STATION_ID
+                || arrivalStationId == DirectBusRouteSearchResponseWriter.INVALID_STATION_ID
+                || ((BusRouteDataSet) dataSet).getDataCache().areStationsKnown((int) departureStationId, (int) arrivalStationId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        queryStatistics.record((int) departureStationId, (int) arrivalStationId);
+
+        /* Captured the same way as the end point does, so the replayed traffic has the unknown stations as well */
+        final String dataSetName = request.getParameter("dataset");
+        if (dataSetName == null) {
+            queryCaptureSink.capture((int) departureStationId, (int) arrivalStationId);
+        }
+
+        fastResponses.increment();
+        writeNotConnectedResponse(response, (int) departureStationId, (int) arrivalStationId, dataSetName);
+    }
+
+    /**
+     * Same JSON as @see com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchResponse for the stations which are not connected.
+     *
+     * @param response
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param dataSetName        Data set selected in the request or null
+     * @throws IOException
+     */
+    private static void writeNotConnectedResponse(final HttpServletResponse response,
+                                                  final int departureStationId,
+                                                  final int arrivalStationId,
+                                                  final String dataSetName) throws IOException {
+
+        final byte[] buffer = DirectBusRouteSearchResponseWriter.getBuffer(dataSetName);
+        final int length = DirectBusRouteSearchResponseWriter.write(buffer, departureStationId, arrivalStationId, false, dataSetName);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(DirectBusRouteSearchResponseWriter.CONTENT_TYPE);
+        response.setContentLength(length);
+        response.getOutputStream().write(buffer, 0, length);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("bus-route.api.unknown-station.fast-responses", fastResponses.sum()));
+        return metrics;
+    }
+
+}
@@ -3,6 +3,9 @@
  */
 package com.goeuro.hiring.devtest.busroute.service;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +13,10 @@ import org.springframework.stereotype.Service;
 
 import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
 import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataSet;
+import com.goeuro.hiring.devtest.busroute.data.ConnectedStationVisitor;
+import com.goeuro.hiring.devtest.busroute.data.ConnectivityMatrix;
+import com.goeuro.hiring.devtest.busroute.data.UpstreamStationsPage;
 
 /**
  * Service implementation to check if the two given stations are directly connected or not.
@@ -25,6 +32,21 @@ public class DirectBusRouteSearchService {
     @Autowired
     private BusRouteDataCacheManager cacheManager;
 
+    /**
+     * Used by Spring, the cache manager is injected afterwards.
+     */
+    public DirectBusRouteSearchService() {
+    }
+
+    /**
+     * Used by the lean launch mode(@see com.goeuro.hiring.devtest.busroute.LeanApplicationLoader), which wires the beans explicitly.
+     *
+     * @param cacheManager
+     */
+    public DirectBusRouteSearchService(final BusRouteDataCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
     /**
      * Checks if the given Departure Station and Arrival Station are directly connected.
      * If it is connected, it will log the route IDs which connects these two stations(Not provided in the requirement.
@@ -36,23 +58,44 @@ public class DirectBusRouteSearchService {
      */
     public boolean isDirectBusRouteExists(final Integer departureStationId,
                                           final Integer arrivalStationId) {
+        return isDirectBusRouteExistsAndLog(cacheManager.getDataCache(), departureStationId, arrivalStationId);
+    }
 
-        final BusRouteDataCache dataCache = cacheManager.getDataCache();
+    /**
+     * Same as {@link #isDirectBusRouteExists(Integer, Integer)}, but searches in the given data set generation.
+     *
+     * @param dataSet            Generation of the data set acquired for the request
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if the stations are directly connected in the given data set.
+     */
+    public boolean isDirectBusRouteExists(final BusRouteDataSet dataSet,
+                                          final Integer departureStationId,
+                                          final Integer arrivalStationId) {
+        return isDirectBusRouteExistsAndLog(dataSet.getDataCache(), departureStationId, arrivalStationId);
+    }
 
-        /* Check if the Departure Station is available */
-        if (dataCache.isDepartureStationIdExists(departureStationId)) {
+    /**
+     * @param dataCache
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if the stations are directly connected.
+     */
+    private static boolean isDirectBusRouteExistsAndLog(final BusRouteDataCache dataCache,
+                                                        final Integer departureStationId,
+                                                        final Integer arrivalStationId) {
 
-            /* Check if both Departure and Arrival Stations are directly connected in at lease one of the routes */
-            if (dataCache.isArrivalStationIdConnected(departureStationId, arrivalStationId)) {
+        if (isDirectBusRouteExists(dataCache, departureStationId, arrivalStationId)) {
 
-                /* log the route IDs which connects these two stations */
+            /* log the route IDs which connects these two stations(collected only if it is logged) */
+            if (LOGGER.isInfoEnabled()) {
                 LOGGER.info("Departure Station ID {} is connected to the Arrival Station ID {} in {} Routes.",
                         departureStationId,
                         arrivalStationId,
                         dataCache.getConnectedRoutedIds(departureStationId, arrivalStationId));
-
-                return true;
             }
+
+            return true;
         }
 
         LOGGER.info("None of the routes directly connect Departure Station ID {} with Arrival Station ID {}.",
@@ -62,4 +105,138 @@ public class DirectBusRouteSearchService {
         return false; /* Given Stations either doesn't exists of not directly connected */
     }
 
+    /**
+     * Finds the next departures from the given Departure Station to the given Arrival Station, at or after the given time
+     * of the week, across all the routes which directly connect them and have a departure schedule.
+     *
+     * @param dataSet            Generation of the data set acquired for the request
+     * @param departureStationId
+     * @param arrivalStationId
+     * @param minuteOfWeek       Time to depart at or after(0 = Monday 00:00)
+     * @param departureTimes     Filled with the departure times in the order of the wait, its length is the maximum number of departures
+     * @param departureRouteIds  Filled with the route IDs of the departures
+     * @return Number of the next departures found
+     */
+    public int findNextDepartures(final BusRouteDataSet dataSet,
+                                  final int departureStationId,
+                                  final int arrivalStationId,
+                                  final int minuteOfWeek,
+                                  final int[] departureTimes,
+                                  final int[] departureRouteIds) {
+
+        final int departuresCount = dataSet.getDataCache().findNextDepartures(departureStationId, arrivalStationId,
+                minuteOfWeek, departureTimes, departureRouteIds);
+
+        LOGGER.info("{} next departures from Departure Station ID {} to Arrival Station ID {} at or after minute {} of the week.",
+                departuresCount,
+                departureStationId,
+                arrivalStationId,
+                minuteOfWeek);
+
+        return departuresCount;
+    }
+
+    /**
+     * Finds a page of the stations from which the given Arrival Station can be reached directly.
+     *
+     * @param dataSet          Generation of the data set acquired for the request
+     * @param arrivalStationId
+     * @param afterStationId   Only the stations with a greater ID are paged(Long.MIN_VALUE from the first one)
+     * @param offset           Number of stations to be skipped after the cursor
+     * @param limit            Maximum number of stations in the page
+     * @return Page of the unique Departure Station IDs in the ascending order, along with the total
+     */
+    public UpstreamStationsPage findUpstreamStations(final BusRouteDataSet dataSet,
+                                                     final int arrivalStationId,
+                                                     final long afterStationId,
+                                                     final int offset,
+                                                     final int limit) {
+        final UpstreamStationsPage page = dataSet.getDataCache().getUpstreamStations(arrivalStationId, afterStationId, offset, limit);
+
+        LOGGER.info("Arrival Station ID {} can be reached directly from {} Stations, {} of them in the page.",
+                arrivalStationId, page.getTotal(), page.getStationIds().length);
+
+        return page;
+    }
+
+    /**
+     * Visits all the stations which can be reached directly from the given Departure Station.
+     * The stations are handed over to the visitor as they are found, nothing is collected in between.
+     *
+     * @param dataSet            Generation of the data set acquired for the request
+     * @param departureStationId
+     * @param withRoutes         Visit the stations route by route(a station is visited once per route which connects it)
+     *                           instead of visiting each station once
+     * @param visitor
+     * @throws IOException if the visitor fails
+     */
+    public void visitReachableStations(final BusRouteDataSet dataSet,
+                                       final int departureStationId,
+                                       final boolean withRoutes,
+                                       final ConnectedStationVisitor visitor) throws IOException {
+
+        LOGGER.info("Listing the Stations which can be reached directly from Departure Station ID {}.", departureStationId);
+
+        final BusRouteDataCache dataCache = dataSet.getDataCache();
+
+        if (withRoutes) {
+            dataCache.forEachConnectedStation(departureStationId, visitor);
+        } else {
+            dataCache.forEachDistinctConnectedStation(departureStationId, visitor);
+        }
+    }
+
+    /**
+     * Checks the direct connectivity of all the given Departure Stations with all the given Arrival Stations at once.
+     *
+     * @param dataSet             Generation of the data set acquired for the request
+     * @param departureStationIds
+     * @param arrivalStationIds
+     * @return Matrix with a row per Departure Station and a column per Arrival Station
+     */
+    public ConnectivityMatrix computeConnectivityMatrix(final BusRouteDataSet dataSet,
+                                                        final int[] departureStationIds,
+                                                        final int[] arrivalStationIds) {
+
+        final long startTime = System.nanoTime();
+        final ConnectivityMatrix connectivityMatrix = dataSet.getDataCache().getConnectivityMatrix(departureStationIds, arrivalStationIds);
+
+        LOGGER.info("{} x {} connectivity matrix with {} connected pairs is computed in {} ms.",
+                departureStationIds.length,
+                arrivalStationIds.length,
+                connectivityMatrix.getConnectionsCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        return connectivityMatrix;
+    }
+
+    /**
+     * Same lookup as {@link #isDirectBusRouteExists(Integer, Integer)} without logging the result.
+     * Used by the warmer to replay a large number of queries during the application/server start.
+     *
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if the stations are directly connected.
+     */
+    boolean isDirectBusRouteExistsQuietly(final Integer departureStationId,
+                                          final Integer arrivalStationId) {
+        return isDirectBusRouteExists(cacheManager.getDataCache(), departureStationId, arrivalStationId);
+    }
+
+    /**
+     * @param dataCache
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if the stations are directly connected.
+     */
+    private static boolean isDirectBusRouteExists(final BusRouteDataCache dataCache,
+                                                  final Integer departureStationId,
+                                                  final Integer arrivalStationId) {
+
+        /* Check if the Departure Station is available and
+         * if both Departure and Arrival Stations are directly connected in at lease one of the routes */
+        return dataCache.isDepartureStationIdExists(departureStationId)
+                && dataCache.isArrivalStationIdConnected(departureStationId, arrivalStationId);
+    }
+
 }
@@ -0,0 +1,260 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.service;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.utils.QueryCaptureFile;
+
+/**
+ * Replays a recorded (@see com.goeuro.hiring.devtest.busroute.rest.QueryCaptureSink) or synthesized query workload against the search service once the data cache is loaded,
+ * so that the hot methods are JIT compiled before the first real request arrives.
+ * The readiness end point (@see com.goeuro.hiring.devtest.busroute.rest.ReadinessMvcEndpoint) reports not ready
+ * until the warmup is completed, which keeps the load balancers from routing traffic to a cold instance.
+ * The health end point(liveness) only shows the warmup state, so that a long warmup doesn't get the instance restarted.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@Component
+public class DirectBusRouteSearchWarmer implements HealthIndicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectBusRouteSearchWarmer.class.getName());
+
+    @Autowired
+    private DirectBusRouteSearchService searchService;
+
+    @Autowired
+    private BusRouteDataCacheManager cacheManager;
+
+    @Value("${bus-route.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${bus-route.warmup.workload-size:1024}")
+    private int workloadSize;
+
+    @Value("${bus-route.warmup.query-capture-file-path:}")
+    private String queryCaptureFilePath;                /* Recorded workload to be replayed instead of the synthesized one */
+
+    @Value("${bus-route.warmup.queries-per-round:10000}")
+    private int queriesPerRound;
+
+    @Value("${bus-route.warmup.max-rounds:20}")
+    private int maxRounds;
+
+    @Value("${bus-route.warmup.settled-rounds:3}")
+    private int settledRounds;                          /* Consecutive rounds without any further compilation */
+
+    private volatile boolean warmedUp = false;
+
+    /**
+     * Runs the warmup rounds until the JIT compiler stops compiling new code
+     * (or the maximum number of rounds is reached) and marks the instance as ready.
+     * The total compilation time is in milliseconds and the compilation is asynchronous, hence a single round without
+     * any change doesn't mean the compiler is done. It has to stay the same for a few consecutive rounds.
+     *
+     * @throws IOException if the recorded workload is not readable
+     */
+    public void warmUp() throws IOException {
+        if (!warmupEnabled) {
+            LOGGER.info("Search service warmup is disabled.");
+            warmedUp = true;
+            return;
+        }
+
+        final int[][] workload = StringUtils.isEmpty(queryCaptureFilePath)
+                ? synthesizeWorkload(cacheManager.getDataCache())
+                : readRecordedWorkload(queryCaptureFilePath);
+        if (workload.length == 0) {
+            LOGGER.info("No queries are available to replay. Skipping the search service warmup.");
+            warmedUp = true;
+            return;
+        }
+
+        final CompilationMXBean compilationMXBean = ManagementFactory.getCompilationMXBean();
+        final boolean compilationTimeMonitored = compilationMXBean != null && compilationMXBean.isCompilationTimeMonitoringSupported();
+
+        final long startTime = System.nanoTime();
+        long previousCompilationTime = compilationTimeMonitored ? compilationMXBean.getTotalCompilationTime() : 0;
+        int round = 0;
+        int unchangedRounds = 0;
+        int connectedCount = 0;
+
+        while (round < maxRounds) {
+            connectedCount += replayWorkload(workload, queriesPerRound);
+            round++;
+
+            if (compilationTimeMonitored) {
+                /* Stop once a few consecutive rounds did not trigger any further compilation */
+                final long currentCompilationTime = compilationMXBean.getTotalCompilationTime();
+                unchangedRounds = (currentCompilationTime == previousCompilationTime) ? unchangedRounds + 1 : 0;
+                if (unchangedRounds >= settledRounds) {
+                    break;
+                }
+                previousCompilationTime = currentCompilationTime;
+            }
+        }
+
+        warmedUp = true;
+
+        if (compilationTimeMonitored && unchangedRounds < settledRounds) {
+            LOGGER.warn("Search service warmup reached the maximum of {} rounds before the JIT compilation settled "
+                    + "({} of {} rounds without compilation).", maxRounds, unchangedRounds, settledRounds);
+        }
+
+        LOGGER.info("Search service warmup completed with {} queries ({} connected) in {} rounds and {} ms.",
+                (long) round * queriesPerRound,
+                connectedCount,
+                round,
+                (System.nanoTime() - startTime) / 1000000);
+    }
+
+    /**
+     * Replays the given workload in a cyclic manner for the given number of queries.
+     *
+     * @param workload
+     * @param queriesCount
+     * @return Number of queries which found a direct connection
+     */
+    private int replayWorkload(final int[][] workload, final int queriesCount) {
+        int connectedCount = 0;
+
+        for (int index = 0; index < queriesCount; index++) {
+            final int[] query = workload[index % workload.length];
+            if (searchService.isDirectBusRouteExistsQuietly(query[0], query[1])) {
+                connectedCount++;
+            }
+        }
+
+        return connectedCount;
+    }
+
+    /**
+     * Read the first queries(up to the workload size) from the given query capture file.
+     *
+     * @param captureFilePath
+     * @return Array of (Departure Station ID, Arrival Station ID) pairs
+     * @throws IOException
+     */
+    private int[][] readRecordedWorkload(final String captureFilePath) throws IOException {
+        final int[] queries = QueryCaptureFile.readQueries(captureFilePath, workloadSize);
+        final int[][] workload = new int[queries.length / 2][];
+
+        for (int index = 0; index < workload.length; index++) {
+            workload[index] = new int[] {queries[2 * index], queries[2 * index + 1]};
+        }
+
+        LOGGER.info("Replaying {} recorded queries from '{}' for the search service warmup.", workload.length, captureFilePath);
+        return workload;
+    }
+
+    /**
+     * Synthesize a mix of connected, not connected and unknown station queries from the data cache
+     * so that all the branches of the search path are exercised.
+     *
+     * @param dataCache
+     * @return Array of (Departure Station ID, Arrival Station ID) pairs
+     */
+    private int[][] synthesizeWorkload(final BusRouteDataCache dataCache) {
+        final Integer[] departureStationIds = dataCache.getDepartureStationIds().toArray(new Integer[0]);
+        if (departureStationIds.length == 0) {
+            return new int[0][];
+        }
+
+        final Random random = new Random(departureStationIds.length); /* Deterministic for a given data set */
+        final int unknownStationId = findUnknownStationId(dataCache, departureStationIds[0]);
+        final int[][] workload = new int[workloadSize][];
+
+        for (int index = 0; index < workloadSize; index++) {
+            final int departureStationId = departureStationIds[random.nextInt(departureStationIds.length)];
+
+            switch (index % 4) {
+                case 0:
+                case 1:
+                    workload[index] = new int[] {departureStationId,
+                            pickConnectedStationId(dataCache, departureStationId, unknownStationId, random)};
+                    break;
+                case 2:
+                    workload[index] = new int[] {departureStationId, departureStationIds[random.nextInt(departureStationIds.length)]};
+                    break;
+                default:
+                    workload[index] = new int[] {unknownStationId, departureStationId};
+                    break;
+            }
+        }
+
+        return workload;
+    }
+
+    /**
+     * Any station ID can be given in the data file(negative ones as well), hence the unknown station is probed
+     * downwards from -1 till an ID which is not a station of the data cache is found.
+     *
+     * @param dataCache
+     * @param departureStationId Any departure station of the data cache, the probe is for the arrival station
+     * @return Station ID which is not present in the data cache
+     */
+    static int findUnknownStationId(final BusRouteDataCache dataCache, final int departureStationId) {
+        int unknownStationId = -1;
+        while (dataCache.areStationsKnown(departureStationId, unknownStationId)) {
+            unknownStationId--;     /* At most as many probes as the stations */
+        }
+        return unknownStationId;
+    }
+
+    /**
+     * @param dataCache
+     * @param departureStationId
+     * @param unknownStationId   Returned if the departure station isn't connected to any station
+     * @param random
+     * @return One of the first few stations directly connected from the given departure station (if any)
+     */
+    private static int pickConnectedStationId(final BusRouteDataCache dataCache,
+                                              final int departureStationId,
+                                              final int unknownStationId,
+                                              final Random random) {
+
+        final Set<Integer> connectedStationIds = dataCache.getConnectedStationIds(departureStationId);
+        if (connectedStationIds.isEmpty()) {
+            return unknownStationId; /* Last station of the routes are not connected to any other station */
+        }
+
+        final Iterator<Integer> iterator = connectedStationIds.iterator();
+
+        int connectedStationId = iterator.next();
+        for (int skip = random.nextInt(Math.min(connectedStationIds.size(), 64)); skip > 0; skip--) {
+            connectedStationId = iterator.next();
+        }
+
+        return connectedStationId;
+    }
+
+    /**
+     * @return true once the warmup is completed
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up().withDetail("warmup", warmedUp ? "completed" : "pending").build();
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.goeuro.hiring.devtest.busroute.utils.QueryCaptureFile;
+
+/**
+ * Replays the captured queries (@see com.goeuro.hiring.devtest.busroute.rest.QueryCaptureSink)
+ * against a running instance and reports the throughput and latency percentiles.
+ *
+ * Usage: QueryReplayTool --file=QUERY_CAPTURE_FILE [--url=http://localhost:8088] [--rate=0] [--concurrency=8] [--max-queries=N]
+ *   --rate        Requests per second across all the workers. 0 sends the requests as fast as possible.
+ *                 When the rate is given, the latency is measured from the scheduled send time of each request
+ *                 so that a stalled server is not hidden by the workers sending less requests(coordinated omission).
+ *   --concurrency Number of concurrent connections/workers.
+ *
+ * It uses the JDK only, so that it can be run from the packaged application jar.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class QueryReplayTool {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String baseUrl;
+    private final int[] queries;
+    private final long requestsPerSecond;
+    private final int concurrency;
+
+    private final long[] latenciesInNanos;
+    private final AtomicInteger nextQuery = new AtomicInteger();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    /**
+     * @param baseUrl
+     * @param queries           Packed (Departure Station ID, Arrival Station ID) pairs
+     * @param requestsPerSecond 0 for no rate limit
+     * @param concurrency
+     */
+    public QueryReplayTool(final String baseUrl,
+                           final int[] queries,
+                           final long requestsPerSecond,
+                           final int concurrency) {
+        this.baseUrl = baseUrl;
+        this.queries = queries;
+        this.requestsPerSecond = requestsPerSecond;
+        this.concurrency = concurrency;
+        this.latenciesInNanos = new long[queries.length / 2];
+    }
+
+    /**
+     * @param args
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = parseOptions(args);
+
+        if (!options.containsKey("file")) {
+            System.err.println("Usage: QueryReplayTool --file=QUERY_CAPTURE_FILE [--url=http://localhost:8088] [--rate=0] [--concurrency=8] [--max-queries=N]");
+            System.exit(1);
+        }
+
+        final int[] queries = QueryCaptureFile.readQueries(options.get("file"),
+                Integer.parseInt(options.getOrDefault("max-queries", String.valueOf(Integer.MAX_VALUE / 2))));
+
+        final QueryReplayTool replayTool = new QueryReplayTool(
+                options.getOrDefault("url", "http://localhost:8088"),
+                queries,
+                Long.parseLong(options.getOrDefault("rate", "0")),
+                Integer.parseInt(options.getOrDefault("concurrency", "8")));
+
+        System.out.println(replayTool.replay());
+    }
+
+    /**
+     * Replay all the queries and wait for the completion.
+     *
+     * @return Human readable report
+     * @throws InterruptedException
+     */
+    public String replay() throws InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        final long startTime = System.nanoTime();
+
+        for (int worker = 0; worker < concurrency; worker++) {
+            workers.execute(() -> runWorker(startTime));
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        return buildReport(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Keep sending the next available query till all the queries are sent.
+     *
+     * @param startTime
+     */
+    private void runWorker(final long startTime) {
+        for (int index = nextQuery.getAndIncrement(); index < latenciesInNanos.length; index = nextQuery.getAndIncrement()) {
+
+            long sendTime = System.nanoTime();
+            if (requestsPerSecond > 0) {
+                final long scheduledTime = startTime + (index * TimeUnit.SECONDS.toNanos(1)) / requestsPerSecond;
+                while (sendTime < scheduledTime) {
+                    LockSupport.parkNanos(scheduledTime - sendTime);
+                    sendTime = System.nanoTime();
+                }
+                sendTime = scheduledTime;
+            }
+
+            if (!sendQuery(queries[2 * index], queries[2 * index + 1])) {
+                failedCount.incrementAndGet();
+            }
+            latenciesInNanos[index] = System.nanoTime() - sendTime;
+        }
+    }
+
+    /**
+     * @param departureStationId
+     * @param arrivalStationId
+     * @return true if the server responded with 200 OK
+     */
+    private boolean sendQuery(final int departureStationId, final int arrivalStationId) {
+        try {
+            final URL url = new URL(String.format("%s/api/direct?dep_sid=%d&arr_sid=%d", baseUrl, departureStationId, arrivalStationId));
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            final int statusCode = connection.getResponseCode();
+
+            /* Consume and close the body(not disconnect) to keep the connection alive for the next request */
+            try (InputStream body = statusCode < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    final byte[] buffer = new byte[512];
+                    while (body.read(buffer) != -1) {
+                        /* Discard */
+                    }
+                }
+            }
+
+            return statusCode == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param elapsedTimeInNanos
+     * @return Throughput and latency percentiles
+     */
+    private String buildReport(final long elapsedTimeInNanos) {
+        final long[] sortedLatencies = latenciesInNanos.clone();
+        Arrays.sort(sortedLatencies);
+
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("Queries     : %d (%d failed)%n", sortedLatencies.length, failedCount.get()));
+        report.append(String.format("Concurrency : %d%n", concurrency));
+        report.append(String.format("Target rate : %s%n", requestsPerSecond > 0 ? requestsPerSecond + " req/s" : "unlimited"));
+        report.append(String.format("Elapsed     : %.3f s%n", elapsedTimeInNanos / 1e9));
+        report.append(String.format("Throughput  : %.1f req/s%n", sortedLatencies.length / (elapsedTimeInNanos / 1e9)));
+
+        if (sortedLatencies.length > 0) {
+            for (double percentile : PERCENTILES) {
+                final int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile / 100 * sortedLatencies.length) - 1);
+                final String label = (percentile == Math.rint(percentile)) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+                report.append(String.format("p%-10s : %.3f ms%n", label, sortedLatencies[Math.max(index, 0)] / 1e6));
+            }
+            report.append(String.format("max         : %.3f ms%n", sortedLatencies[sortedLatencies.length - 1] / 1e6));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * @param args --key=value pairs
+     * @return
+     */
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        return options;
+    }
+
+}
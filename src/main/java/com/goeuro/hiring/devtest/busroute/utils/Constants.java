@@ -4,10 +4,13 @@
 package com.goeuro.hiring.devtest.busroute.utils;
 
 /**
+ * Default values of the data file limits. They can be overridden with the "bus-route.limits.*" properties.
+ *
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
 public final class Constants {
     public final static int MAX_ROUTES = 100000;                    /* Maximum number of routes allowed in the data file */
     public final static int MAX_STATIONS_PER_ROUTE = 1000;          /* Maximum number of stations allowed per route */
     public final static int MAX_OVERALL_UNIQUE_STATIONS = 1000000;  /* Maximum number of unique stations allowed across all given routes */
+    public final static int MINUTES_PER_WEEK = 7 * 24 * 60;         /* Departure times are minutes of the week(0 = Monday 00:00), below this */
 }
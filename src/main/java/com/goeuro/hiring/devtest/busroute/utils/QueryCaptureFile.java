@@ -0,0 +1,80 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Binary file format of the captured (Departure Station ID, Arrival Station ID) queries.
+ * ----------------------------
+ * 4 bytes  : Magic "BRQC"
+ * 4 bytes  : Format version
+ * 8 bytes  : (Departure Station ID, Arrival Station ID) per query, big-endian, repeated till the end of the file
+ * ----------------------------
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public final class QueryCaptureFile {
+
+    public static final int MAGIC = 0x42525143;     /* "BRQC" */
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE_IN_BYTES = 8;
+    public static final int QUERY_SIZE_IN_BYTES = 8;
+
+    private QueryCaptureFile() {
+    }
+
+    /**
+     * @param outputStream
+     * @throws IOException
+     */
+    public static void writeHeader(final DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(VERSION);
+    }
+
+    /**
+     * Read the captured queries from the given file.
+     *
+     * @param captureFilePath
+     * @param maxQueries      Maximum number of queries to be read
+     * @return Packed queries, departure station ID at the even and arrival station ID at the odd indices
+     * @throws IOException
+     */
+    public static int[] readQueries(final String captureFilePath, final int maxQueries) throws IOException {
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(captureFilePath)))) {
+
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) {
+                throw new IOException(String.format("Provided query capture file '%s' is not in the expected format.", captureFilePath));
+            }
+
+            int[] queries = new int[1024];
+            int size = 0;
+
+            try {
+                while (size / 2 < maxQueries) {
+                    final int departureStationId = inputStream.readInt();
+                    final int arrivalStationId = inputStream.readInt();
+
+                    if (size == queries.length) {
+                        queries = Arrays.copyOf(queries, queries.length * 2);
+                    }
+                    queries[size++] = departureStationId;
+                    queries[size++] = arrivalStationId;
+                }
+            } catch (EOFException e) {
+                /* End of the captured queries */
+            }
+
+            return Arrays.copyOf(queries, size);
+        }
+    }
+
+}
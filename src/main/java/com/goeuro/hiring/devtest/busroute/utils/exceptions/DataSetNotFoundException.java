@@ -0,0 +1,35 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.utils.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom Exception for the requests which select a data set(or a version of it) that is not loaded or no longer retained.
+ * It will be sent as 404 Not Found.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class DataSetNotFoundException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = -2719386630421554127L;
+
+    /**
+     * @param dataSetName
+     */
+    public DataSetNotFoundException(final String dataSetName) {
+        super(String.format("Data set '%s' is not loaded.", dataSetName));
+    }
+
+    /**
+     * @param dataSetName
+     * @param version
+     */
+    public DataSetNotFoundException(final String dataSetName, final long version) {
+        super(String.format("Version %d of data set '%s' is not available.", version, dataSetName));
+    }
+
+}
@@ -3,14 +3,13 @@
  */
 package com.goeuro.hiring.devtest.busroute.utils.exceptions;
 
-import com.goeuro.hiring.devtest.busroute.utils.Constants;
-
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 /**
  * Custom validation error codes, error messages and potential corrective actions 
  * to be used while validating the Bus Route Data File Format.
+ * The corrective actions of the configurable limits are formatted with the limit in effect.
  *
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
@@ -32,13 +31,13 @@ public enum FileContentInvalidErrorType {
     MAX_ROUTES_EXCEEDED(
             1002,
             "Maximum number of routes exceeded the allowed limit.",
-            String.format("Make sure that maximum number of shouldn't exceeds %s.", Constants.MAX_ROUTES)),
+            "Make sure that maximum number of shouldn't exceeds %s."),
 
     /** Station Specific Validation Scenario Messages */
     MAX_UNIQUE_STATIONS_OVERALL_EXCEEDED(
             1003,
             "Maximum number of overall unique stations exceeded the allowed limit.",
-            String.format("Make sure that maximum number of unique stations overall shouldn't exceeds %s.", Constants.MAX_OVERALL_UNIQUE_STATIONS)),
+            "Make sure that maximum number of unique stations overall shouldn't exceeds %s."),
 
     /** Routes with Station Validation Scenario Messages */
     INSUFFICIENT_STATIONS_PER_ROUTE(
@@ -54,20 +53,27 @@ public enum FileContentInvalidErrorType {
     MAX_STATIONS_PER_ROUTE_EXCEEDED(
             1006,
             "Maximum number of stations per route exceeded the allowed limit.",
-            String.format("Make sure that maximum number of stations per route shouldn't exceeds %s.", Constants.MAX_STATIONS_PER_ROUTE));
+            "Make sure that maximum number of stations per route shouldn't exceeds %s."),
+
+    /** Route Schedule Validation Scenario Messages */
+    INVALID_DEPARTURE_TIME(
+            1007,
+            "Invalid departure time provided in the route schedule of the data file.",
+            "Make sure that the departure times are minutes of the week between 0 and %s, given after the '|' separator.");
 
     private final Integer errorCode;
     private final String errorMessage;
     private final String correctiveAction;
 
     /**
+     * @param correctiveActionArguments Values(e.g. the limit in effect) to be formatted into the corrective action
      * @return
      */
-    public String getConsolidatedMessage() {
+    public String getConsolidatedMessage(final Object... correctiveActionArguments) {
         return String.format("Error Code: %s, Message: %s, Corrective Action: %s.",
                 this.errorCode,
                 this.errorMessage,
-                this.correctiveAction);
+                String.format(this.correctiveAction, correctiveActionArguments));
     }
 
 }
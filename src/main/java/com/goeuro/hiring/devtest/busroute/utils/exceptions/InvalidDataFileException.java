@@ -23,13 +23,15 @@ public class InvalidDataFileException extends IllegalArgumentException {
      * The consolidated message with Error Code, Error Message and Corrective Action will be printed if getMessage() is accessed.
      *
      * @param invalidType
+     * @param correctiveActionArguments Values(e.g. the limit in effect) to be formatted into the corrective action
      */
-    public InvalidDataFileException(final FileContentInvalidErrorType errorType) {
-        super(errorType.getConsolidatedMessage());
+    public InvalidDataFileException(final FileContentInvalidErrorType errorType,
+                                    final Object... correctiveActionArguments) {
+        super(errorType.getConsolidatedMessage(correctiveActionArguments));
 
         this.errorType = errorType;
 
-        LOGGER.debug(errorType.getConsolidatedMessage());
+        LOGGER.debug(getMessage());
     }
 
     /**
@@ -0,0 +1,27 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.utils.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom Exception for the REST API request parameters which are well formed but not acceptable.
+ * It will be sent as 400 Bad Request, similar to the malformed request parameters.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestParameterException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 4113522316930418815L;
+
+    /**
+     * @param message
+     */
+    public InvalidRequestParameterException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.BoundedRingBuffer
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class BoundedRingBufferTests {
+
+    /**
+     * Scenario: Single thread, the buffer should be FIFO and bounded by its capacity(rounded up to a power of two).
+     */
+    @Test
+    public void testBoundedFifo() {
+        final BoundedRingBuffer<Integer> ringBuffer = new BoundedRingBuffer<>(3);
+        assertThat(ringBuffer.capacity()).isEqualTo(4);
+
+        for (int element = 0; element < 4; element++) {
+            assertThat(ringBuffer.offer(element)).isTrue();
+        }
+        assertThat(ringBuffer.offer(4)).isFalse();
+
+        assertThat(ringBuffer.poll()).isEqualTo(0);
+        assertThat(ringBuffer.offer(4)).isTrue();
+        for (int element = 1; element <= 4; element++) {
+            assertThat(ringBuffer.poll()).isEqualTo(element);
+        }
+        assertThat(ringBuffer.poll()).isNull();
+    }
+
+    /**
+     * Scenario: Several producers and consumers over a small buffer.
+     * Every element should be consumed exactly once.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        final int producersCount = 4;
+        final int consumersCount = 4;
+        final int elementsPerProducer = 100_000;
+
+        final BoundedRingBuffer<Long> ringBuffer = new BoundedRingBuffer<>(8);
+        final AtomicLong consumedSum = new AtomicLong();
+        final AtomicLong consumedCount = new AtomicLong();
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int producer = 0; producer < producersCount; producer++) {
+            final long first = (long) producer * elementsPerProducer + 1;
+            threads.add(new Thread(() -> {
+                for (long element = first; element < first + elementsPerProducer; element++) {
+                    while (!ringBuffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int consumer = 0; consumer < consumersCount; consumer++) {
+            threads.add(new Thread(() -> {
+                while (consumedCount.get() < (long) producersCount * elementsPerProducer) {
+                    final Long element = ringBuffer.poll();
+                    if (element == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    consumedSum.addAndGet(element);
+                    consumedCount.incrementAndGet();
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final long total = (long) producersCount * elementsPerProducer;
+        assertThat(consumedCount.get()).isEqualTo(total);
+        assertThat(consumedSum.get()).isEqualTo(total * (total + 1) / 2);
+        assertThat(ringBuffer.poll()).isNull();
+    }
+
+}
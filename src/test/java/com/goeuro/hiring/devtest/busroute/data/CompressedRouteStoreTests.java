@@ -0,0 +1,60 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.CompressedRouteStore method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class CompressedRouteStoreTests {
+
+    private CompressedRouteStoreBuilder routeStoreBuilder;
+
+    @Before
+    public void setUp() {
+        routeStoreBuilder = new CompressedRouteStoreBuilder();
+    }
+
+    /**
+     * Scenario: Routes with ascending, descending and far away station ordinals are decoded as they are added.
+     */
+    @Test
+    public void testRoutesAreDecodedAsAdded() {
+        final int[] firstRoute = {0, 1, 2, 3};
+        final int[] secondRoute = {3, 1, 1000000, 0, Integer.MAX_VALUE};
+
+        assertThat(routeStoreBuilder.append(firstRoute)).isEqualTo(0);
+        assertThat(routeStoreBuilder.append(secondRoute)).isEqualTo(1);
+
+        final CompressedRouteStore routeStore = routeStoreBuilder.build();
+
+        assertThat(routeStore.getRoutesCount()).isEqualTo(2);
+        assertThat(routeStore.decode(0)).containsExactly(firstRoute);
+        assertThat(routeStore.decode(1)).containsExactly(secondRoute);
+        assertThat(routeStore.getRouteLength(1)).isEqualTo(5);
+    }
+
+    /**
+     * Scenario: Consecutive station ordinals take a single byte per station.
+     */
+    @Test
+    public void testConsecutiveStationsAreCompressed() {
+        final int[] route = new int[1000];
+        for (int index = 0; index < route.length; index++) {
+            route[index] = 5000 + index;
+        }
+
+        routeStoreBuilder.append(route);
+        final CompressedRouteStore routeStore = routeStoreBuilder.build();
+
+        assertThat(routeStore.getDataSizeInBytes()).isEqualTo(2 + 999);
+    }
+
+}
@@ -4,20 +4,28 @@
 package com.goeuro.hiring.devtest.busroute.data;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Matchers.anyObject;
+import static org.assertj.core.api.Assertions.fail;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.Mockito;
-import org.mockito.MockitoAnnotations;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.DataSetNotFoundException;
 import com.goeuro.hiring.devtest.busroute.utils.exceptions.InvalidDataFileException;
 
+import com.github.luben.zstd.ZstdOutputStream;
+
 /**
  * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager method APIs
  *
@@ -27,15 +35,14 @@ public class DataCacheManagerTests {
 
     final String TEST_DATA_FILE_DIR = "src/test/resources/bus-route-data/"; /* Base directory where all the test bus route data files are present */
 
-    @InjectMocks
     private BusRouteDataCacheManager dataCacheManager;
 
-    @Mock
-    private BusRouteDataCache dataCache;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     @Before
     public void setUp() {
-        MockitoAnnotations.initMocks(this);
+        dataCacheManager = new BusRouteDataCacheManager();
     }
 
     /**
@@ -108,16 +115,20 @@ public class DataCacheManagerTests {
 
     /**
      * Scenario: Total number of given unique stations across all the routes exceed the allowed limit.
-     * Test the error code for this scenario along with the expected Exception Type.
+     * The limit is lowered(configurable) to keep the data file small.
+     * Test the error code and the limit in the message for this scenario along with the expected Exception Type.
      *
      * @throws IOException
      */
     @Test(expected = InvalidDataFileException.class)
     public void testDataFileWithMaxUniqueStationsOverallExceeded() throws IOException {
+        ReflectionTestUtils.setField(dataCacheManager, "maxOverallUniqueStations", 7);
+
         try {
             dataCacheManager.validateDataFileAndInitializeCache(TEST_DATA_FILE_DIR + "04.above-maximum-unique-stations");
         } catch (InvalidDataFileException e) {
             assertThat(e.getErrorType().getErrorCode()).isEqualTo(1003);
+            assertThat(e.getMessage()).contains("shouldn't exceeds 7.");
             throw e;
         }
     }
@@ -170,6 +181,37 @@ public class DataCacheManagerTests {
         }
     }
 
+    /**
+     * Scenario: Departure time which is not a minute of the week in a route schedule(extended format).
+     * Test the error code for this scenario along with the expected Exception Type.
+     *
+     * @throws IOException
+     */
+    @Test(expected = InvalidDataFileException.class)
+    public void testDataFileWithInvalidDepartureTime() throws IOException {
+        try {
+            dataCacheManager.validateDataFileAndInitializeCache(TEST_DATA_FILE_DIR + "08.invalid-departure-time");
+        } catch (InvalidDataFileException e) {
+            assertThat(e.getErrorType().getErrorCode()).isEqualTo(1007);
+            throw e;
+        }
+    }
+
+    /**
+     * Scenario: Valid input data file with the route schedules(extended format), along with a route without a schedule.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testScheduledData() throws IOException {
+        dataCacheManager.validateDataFileAndInitializeCache(TEST_DATA_FILE_DIR + "scheduled-data");
+
+        assertThat(dataCacheManager.getDataCache().getRoutesCount()).isEqualTo(3);
+        assertThat(dataCacheManager.getDataCache().getStationsCount()).isEqualTo(5);
+        assertThat(dataCacheManager.getDataCache().getDepartureTimesCount()).isEqualTo(5);
+        assertThat(dataCacheManager.getDataCache().isArrivalStationIdConnected(2, 3)).isTrue();
+    }
+
     /**
      * Scenario: Valid input data file. No validation related issues to be thrown.
      *
@@ -177,8 +219,174 @@ public class DataCacheManagerTests {
      */
     @Test
     public void testCorrectReferenceData() throws IOException {
-        Mockito.doNothing().when(dataCache).updateCache(anyObject(), anyObject(), anyObject());
         dataCacheManager.validateDataFileAndInitializeCache("src/test/resources/bus-route-data/reference-data");
+
+        /* Header line shouldn't be added as a route */
+        assertThat(dataCacheManager.getDataCache().getRoutesCount()).isEqualTo(3);
+        assertThat(dataCacheManager.getDataCache().getStationsCount()).isEqualTo(7);
+        assertThat(dataCacheManager.getDataCache().isArrivalStationIdConnected(6, 4)).isTrue();
+    }
+
+    /**
+     * Scenario: Load progress of a valid input data file and an invalid input data file.
+     * The progress should be complete for the valid file and failed at the validation step for the invalid file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLoadProgress() throws IOException {
+        final String dataFilePath = TEST_DATA_FILE_DIR + "reference-data";
+        dataCacheManager.validateDataFileAndInitializeCache(dataFilePath);
+
+        final Map<String, Object> progress = dataCacheManager.getLoadProgress().toMap();
+        assertThat(progress.get("phase")).isEqualTo(DataLoadProgress.Phase.INDEXING);
+        assertThat(progress.get("bytesRead")).isEqualTo(Files.size(Paths.get(dataFilePath)));
+        assertThat(progress.get("routesParsed")).isEqualTo(3L);
+        assertThat(progress.get("totalRoutes")).isEqualTo(3L);
+        assertThat(progress.get("indexBuildPercentage")).isEqualTo(100);
+        assertThat(dataCacheManager.getLoadProgress().isReady()).isFalse();
+
+        try {
+            dataCacheManager.validateDataFileAndInitializeCache(TEST_DATA_FILE_DIR + "02.duplicate-route-ids");
+        } catch (InvalidDataFileException e) {
+            assertThat(dataCacheManager.getLoadProgress().getPhase()).isEqualTo(DataLoadProgress.Phase.FAILED);
+            assertThat(dataCacheManager.getLoadProgress().toMap().get("validationStep")).isEqualTo("duplicate route IDs");
+        }
+    }
+
+    /**
+     * Scenario: Two data sets loaded side by side. Each of them should have its own data cache and version,
+     * and a failed load should keep the previous version of the data set.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDataSets() throws IOException {
+        dataCacheManager.validateDataFileAndInitializeCache(TEST_DATA_FILE_DIR + "reference-data");
+        dataCacheManager.validateDataFileAndInitializeCache("regional", TEST_DATA_FILE_DIR + "regional-data");
+        dataCacheManager.validateDataFileAndInitializeCache("regional", TEST_DATA_FILE_DIR + "regional-data");
+
+        assertThat(dataCacheManager.getDataSet(BusRouteDataCacheManager.DEFAULT_DATA_SET).getVersion()).isEqualTo(1);
+        assertThat(dataCacheManager.getDataSet("regional").getVersion()).isEqualTo(2);
+        assertThat(dataCacheManager.getDataCache().isArrivalStationIdConnected(7, 8)).isFalse();
+        assertThat(dataCacheManager.getDataCache("regional").isArrivalStationIdConnected(7, 8)).isTrue();
+        assertThat(dataCacheManager.getDataCache("regional").getSizeInBytes()).isGreaterThan(0);
+        assertThat(dataCacheManager.getDataSets()).extracting(BusRouteDataSet::getName).containsExactly("default", "regional");
+
+        try {
+            dataCacheManager.validateDataFileAndInitializeCache("regional", TEST_DATA_FILE_DIR + "02.duplicate-route-ids");
+            fail("Invalid data file should be rejected.");
+        } catch (InvalidDataFileException e) {
+            assertThat(dataCacheManager.getDataSet("regional").getVersion()).isEqualTo(2);
+        }
+
+        try {
+            dataCacheManager.getDataCache("unknown");
+            fail("Data set which is not loaded should be rejected.");
+        } catch (DataSetNotFoundException e) {
+            assertThat(e.getMessage()).isEqualTo("Data set 'unknown' is not loaded.");
+        }
+    }
+
+    /**
+     * Scenario: Data set reloaded while a request is reading an old generation.
+     * The pinned generation should stay readable till it is released, the previous generations should be retained
+     * as configured and the older ones should be reclaimed once their readers are drained.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRetainedGenerations() throws IOException {
+        ReflectionTestUtils.setField(dataCacheManager, "retainedGenerations", 1);
+        final String dataFilePath = TEST_DATA_FILE_DIR + "regional-data";
+
+        dataCacheManager.validateDataFileAndInitializeCache("regional", dataFilePath);
+        final BusRouteDataSet firstGeneration = dataCacheManager.acquireDataSet("regional", null);
+        assertThat(firstGeneration.getVersion()).isEqualTo(1);
+        assertThat(firstGeneration.getReadersCount()).isEqualTo(1);
+
+        /* Previous generation is retained and can still be pinned */
+        dataCacheManager.validateDataFileAndInitializeCache("regional", dataFilePath);
+        assertThat(dataCacheManager.getRetainedGenerations("regional")).extracting(BusRouteDataSet::getVersion).containsExactly(2L, 1L);
+        dataCacheManager.acquireDataSet("regional", 1L).release();
+
+        /* Retired, but not reclaimed till the reader is drained */
+        dataCacheManager.validateDataFileAndInitializeCache("regional", dataFilePath);
+        assertThat(dataCacheManager.getRetainedGenerations("regional")).extracting(BusRouteDataSet::getVersion).containsExactly(3L, 2L);
+        assertThat(firstGeneration.isReclaimed()).isFalse();
+        assertThat(firstGeneration.getDataCache().isArrivalStationIdConnected(7, 8)).isTrue();
+
+        try {
+            dataCacheManager.acquireDataSet("regional", 1L);
+            fail("Retired generation shouldn't be acquired.");
+        } catch (DataSetNotFoundException e) {
+            assertThat(e.getMessage()).isEqualTo("Version 1 of data set 'regional' is not available.");
+        }
+
+        firstGeneration.release();
+        assertThat(firstGeneration.isReclaimed()).isTrue();
+        assertThat(firstGeneration.getReadersCount()).isEqualTo(0);
+    }
+
+    /**
+     * Scenario: Valid input data file compressed with gzip and zstd, large enough to be decompressed in several blocks.
+     * Both should be detected by the magic bytes and loaded the same as the uncompressed file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressedData() throws IOException {
+        final StringBuilder content = new StringBuilder("2000\n");
+        for (int routeId = 0; routeId < 2000; routeId++) {
+            content.append(routeId);
+            for (int position = 0; position < 100; position++) {
+                content.append(' ').append(routeId + position * 2000);
+            }
+            content.append('\n');
+        }
+        final byte[] contentBytes = content.toString().getBytes("US-ASCII");
+
+        final File gzipFile = temporaryFolder.newFile("routes.gz");
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(gzipFile.toPath()))) {
+            outputStream.write(contentBytes);
+        }
+        final File zstdFile = temporaryFolder.newFile("routes.zst");
+        try (OutputStream outputStream = new ZstdOutputStream(Files.newOutputStream(zstdFile.toPath()))) {
+            outputStream.write(contentBytes);
+        }
+
+        assertThat(DataFileReader.detectCompression(gzipFile.toPath())).isEqualTo(DataFileReader.Compression.GZIP);
+        assertThat(DataFileReader.detectCompression(zstdFile.toPath())).isEqualTo(DataFileReader.Compression.ZSTD);
+        assertThat(DataFileReader.detectCompression(Paths.get(TEST_DATA_FILE_DIR + "reference-data"))).isEqualTo(DataFileReader.Compression.NONE);
+
+        for (File dataFile : new File[] {gzipFile, zstdFile}) {
+            dataCacheManager.validateDataFileAndInitializeCache(dataFile.getPath());
+
+            assertThat(dataCacheManager.getDataCache().getRoutesCount()).isEqualTo(2000);
+            assertThat(dataCacheManager.getDataCache().getStationsCount()).isEqualTo(200000);
+            assertThat(dataCacheManager.getDataCache().isArrivalStationIdConnected(1999, 1999 + 99 * 2000)).isTrue();
+            assertThat(dataCacheManager.getDataCache().isArrivalStationIdConnected(1999 + 99 * 2000, 1999)).isFalse();
+            assertThat(dataCacheManager.getLoadProgress().toMap().get("bytesRead")).isEqualTo(dataFile.length());
+        }
+    }
+
+    /**
+     * Scenario: Data file with the gzip magic bytes, but corrupted content.
+     * The decompression failure should be thrown to the loading thread and the load should be failed.
+     *
+     * @throws IOException
+     */
+    @Test(expected = IOException.class)
+    public void testCorruptedCompressedData() throws IOException {
+        final File dataFile = temporaryFolder.newFile("corrupted.gz");
+        Files.write(dataFile.toPath(), new byte[] {(byte) 0x1F, (byte) 0x8B, 0x08, 0x00, 0x01, 0x02, 0x03});
+
+        try {
+            dataCacheManager.validateDataFileAndInitializeCache(dataFile.getPath());
+        } catch (IOException e) {
+            assertThat(dataCacheManager.getLoadProgress().getPhase()).isEqualTo(DataLoadProgress.Phase.FAILED);
+            throw e;
+        }
     }
 
 }
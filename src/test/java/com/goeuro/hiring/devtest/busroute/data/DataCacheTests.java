@@ -5,7 +5,10 @@ package com.goeuro.hiring.devtest.busroute.data;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -17,11 +20,11 @@ import org.junit.Test;
  */
 public class DataCacheTests {
 
-    private BusRouteDataCache dataCache;
+    private BusRouteDataCacheBuilder dataCacheBuilder;
 
     @Before
     public void setUp() {
-        dataCache = new BusRouteDataCache();
+        dataCacheBuilder = new BusRouteDataCacheBuilder();
     }
 
     /**
@@ -29,6 +32,8 @@ public class DataCacheTests {
      */
     @Test
     public void testUpdateCacheWithNoData() {
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
         assertThat(dataCache.isDepartureStationIdExists(1)).isFalse();
         assertThat(dataCache.isArrivalStationIdConnected(1, 2)).isFalse();
         assertThat(dataCache.getConnectedRoutedIds(1, 2).size()).isEqualTo(0);
@@ -45,7 +50,9 @@ public class DataCacheTests {
          * 1
          * 0 1 2
          */
-        dataCache.updateCache(0, 1, Arrays.asList(2));
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
 
         assertThat(dataCache.isDepartureStationIdExists(1)).isTrue();
         assertThat(dataCache.isDepartureStationIdExists(2)).isFalse();
@@ -64,8 +71,9 @@ public class DataCacheTests {
          * 1
          * 0 1 2 3
          */
-        dataCache.updateCache(0, 1, Arrays.asList(2, 3));
-        dataCache.updateCache(0, 2, Arrays.asList(3));
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
 
         /* Departure Station should exists for all stations except the last station because it is not connected */
         assertThat(dataCache.isDepartureStationIdExists(1)).isTrue();
@@ -102,8 +110,10 @@ public class DataCacheTests {
          * 0 1 2
          * 1 3 4
          */
-        dataCache.updateCache(0, 1, Arrays.asList(2));
-        dataCache.updateCache(1, 3, Arrays.asList(4));
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2));
+        dataCacheBuilder.addRoute(1, Arrays.asList(3, 4));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
 
         /* Departure Station should exists for all stations except the last station because it is not connected */
         assertThat(dataCache.isDepartureStationIdExists(1)).isTrue();
@@ -139,20 +149,11 @@ public class DataCacheTests {
          * 1 4 5 6 7
          * 2 6 5 1 7
          */
-        /* First Route */
-        dataCache.updateCache(0, 1, Arrays.asList(2, 3, 4));
-        dataCache.updateCache(0, 2, Arrays.asList(3, 4));
-        dataCache.updateCache(0, 3, Arrays.asList(4));
-
-        /* Second Route */
-        dataCache.updateCache(1, 4, Arrays.asList(5, 6, 7));
-        dataCache.updateCache(1, 5, Arrays.asList(6, 7));
-        dataCache.updateCache(1, 6, Arrays.asList(7));
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3, 4));  /* First Route */
+        dataCacheBuilder.addRoute(1, Arrays.asList(4, 5, 6, 7));  /* Second Route */
+        dataCacheBuilder.addRoute(2, Arrays.asList(6, 5, 1, 7));  /* Third Route */
 
-        /* Third Route */
-        dataCache.updateCache(2, 6, Arrays.asList(5, 1, 7));
-        dataCache.updateCache(2, 5, Arrays.asList(1, 7));
-        dataCache.updateCache(2, 1, Arrays.asList(7));
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
 
         /* Same departure and arrival stations  are connected in different route */
         assertThat(dataCache.isArrivalStationIdConnected(5, 7)).isTrue();
@@ -166,4 +167,340 @@ public class DataCacheTests {
         assertThat(dataCache.getConnectedRoutedIds(6, 5)).isEqualTo(Arrays.asList(2));
     }
 
+    /**
+     * Scenario: Connected stations of a departure station across multiple routes
+     */
+    @Test
+    public void testConnectedStationIdsAcrossRoutes() {
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3, 4));
+        dataCacheBuilder.addRoute(1, Arrays.asList(4, 5, 6, 7));
+        dataCacheBuilder.addRoute(2, Arrays.asList(6, 5, 1, 7));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        assertThat(dataCache.getConnectedStationIds(5)).containsOnly(6, 7, 1);
+        assertThat(dataCache.getConnectedStationIds(7)).isEmpty();
+        assertThat(dataCache.getConnectedStationIds(8)).isEmpty();
+
+        /* Last station of all its routes is not a departure station */
+        assertThat(dataCache.isDepartureStationIdExists(7)).isFalse();
+        assertThat(dataCache.getDepartureStationIds()).containsOnly(1, 2, 3, 4, 5, 6);
+    }
+
+    /**
+     * Scenario: Routes added to the builder after the data cache is built shouldn't be visible in the built data cache.
+     */
+    @Test
+    public void testBuiltCacheIsNotModifiedByBuilder() {
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2));
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        dataCacheBuilder.addRoute(1, Arrays.asList(2, 3));
+
+        assertThat(dataCache.getRoutesCount()).isEqualTo(1);
+        assertThat(dataCache.isDepartureStationIdExists(2)).isFalse();
+        assertThat(dataCache.isArrivalStationIdConnected(2, 3)).isFalse();
+        assertThat(dataCacheBuilder.build().isArrivalStationIdConnected(2, 3)).isTrue();
+    }
+
+    /**
+     * Scenario: Upstream stations of an arrival station across multiple routes
+     */
+    @Test
+    public void testUpstreamStationIdsAcrossRoutes() {
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3, 4));
+        dataCacheBuilder.addRoute(1, Arrays.asList(4, 5, 6, 7));
+        dataCacheBuilder.addRoute(2, Arrays.asList(6, 5, 1, 7));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        assertThat(dataCache.getUpstreamStationIds(7)).containsExactly(1, 4, 5, 6);
+        assertThat(dataCache.getUpstreamStationIds(6)).containsExactly(4, 5);
+        assertThat(dataCache.getUpstreamStationIds(1)).containsExactly(5, 6);
+        assertThat(dataCache.getUpstreamStationIds(8)).isEmpty();
+    }
+
+    /**
+     * Scenario: Pages of the upstream stations by the offset and by the cursor(including the ones past the end,
+     * negative IDs and the unknown stations).
+     * The pages should be the slices of the whole sorted list and the total should be its size.
+     */
+    @Test
+    public void testUpstreamStationsPages() {
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3, 4));
+        dataCacheBuilder.addRoute(1, Arrays.asList(4, 5, 6, 7));
+        dataCacheBuilder.addRoute(2, Arrays.asList(6, 5, 1, -3, 7));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        UpstreamStationsPage page = dataCache.getUpstreamStations(7, Long.MIN_VALUE, 1, 2);
+        assertThat(page.getStationIds()).containsExactly(1, 4);
+        assertThat(page.getTotal()).isEqualTo(5);
+        assertThat(page.hasMore()).isTrue();
+
+        page = dataCache.getUpstreamStations(7, 4, 0, 10);
+        assertThat(page.getStationIds()).containsExactly(5, 6);
+        assertThat(page.hasMore()).isFalse();
+
+        assertThat(dataCache.getUpstreamStations(7, 3, 1, 1).getStationIds()).containsExactly(5);
+        assertThat(dataCache.getUpstreamStations(7, Long.MIN_VALUE, 0, 1).getStationIds()).containsExactly(-3);
+        assertThat(dataCache.getUpstreamStations(7, 6, 0, 10).getStationIds()).isEmpty();
+        assertThat(dataCache.getUpstreamStations(7, Long.MIN_VALUE, 5, 10).getStationIds()).isEmpty();
+        assertThat(dataCache.getUpstreamStations(8, Long.MIN_VALUE, 0, 10).getTotal()).isZero();
+    }
+
+    /**
+     * Scenario: Stations reachable from a departure station across multiple routes,
+     * visited once per route and once overall.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testVisitConnectedStations() throws IOException {
+        dataCacheBuilder.addRoute(10, Arrays.asList(1, 2, 3, 4));
+        dataCacheBuilder.addRoute(11, Arrays.asList(4, 5, 6, 7));
+        dataCacheBuilder.addRoute(12, Arrays.asList(6, 2, 4, 3));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        final List<String> visitedStations = new ArrayList<>();
+        dataCache.forEachConnectedStation(2, (routeId, stationId) -> visitedStations.add(routeId + ":" + stationId));
+        assertThat(visitedStations).containsExactly("10:3", "10:4", "12:4", "12:3");
+
+        final List<Integer> distinctStations = new ArrayList<>();
+        dataCache.forEachDistinctConnectedStation(2, (routeId, stationId) -> distinctStations.add(stationId));
+        assertThat(distinctStations).containsExactly(3, 4);
+
+        dataCache.forEachConnectedStation(7, (routeId, stationId) -> visitedStations.add("last"));
+        dataCache.forEachConnectedStation(8, (routeId, stationId) -> visitedStations.add("unknown"));
+        assertThat(visitedStations).hasSize(4);
+    }
+
+    /**
+     * Scenario: Connectivity of multiple departure stations with multiple arrival stations,
+     * including unknown stations and the same arrival station in more than one column.
+     */
+    @Test
+    public void testConnectivityMatrix() {
+        dataCacheBuilder.addRoute(0, Arrays.asList(1, 2, 3, 4));
+        dataCacheBuilder.addRoute(1, Arrays.asList(4, 5, 6, 7));
+        dataCacheBuilder.addRoute(2, Arrays.asList(6, 5, 1, 7));
+
+        final BusRouteDataCache dataCache = dataCacheBuilder.build();
+
+        final int[] departureStationIds = {1, 6, 7, 9};
+        final int[] arrivalStationIds = {7, 4, 5, 9, 7, 1};
+        final ConnectivityMatrix connectivityMatrix = dataCache.getConnectivityMatrix(departureStationIds, arrivalStationIds);
+
+        assertThat(connectivityMatrix.getRows()).isEqualTo(4);
+        assertThat(connectivityMatrix.getColumns()).isEqualTo(6);
+        for (int row = 0; row < departureStationIds.length; row++) {
+            for (int column = 0; column < arrivalStationIds.length; column++) {
+                assertThat(connectivityMatrix.isConnected(row, column))
+                        .isEqualTo(dataCache.isArrivalStationIdConnected(departureStationIds[row], arrivalStationIds[column]));
+            }
+        }
+        assertThat(connectivityMatrix.getConnectionsCount()).isEqualTo(7);
+
+        assertThat(connectivityMatrix.getRowSizeInBytes()).isEqualTo(8);
+        assertThat(connectivityMatrix.toByteArray()[0]).isEqualTo((byte) 0b010011);
+    }
+
+    /**
+     * Scenario: Builder is sized for fewer routes and stations than added(inaccurate pre-scan).
+     * All the routes should still be added.
+     */
+    @Test
+    public void testUndersizedBuilder() {
+        final BusRouteDataCache dataCache = new BusRouteDataCacheBuilder(1, 1, 1)
+                .addRoute(0, Arrays.asList(1, 2, 3, 4))
+                .addRoute(1, Arrays.asList(4, 200, 6, 1))
+                .addRoute(2, Arrays.asList(6, 5, 100000, 7))
+                .build();
+
+        assertThat(dataCache.getRoutesCount()).isEqualTo(3);
+        assertThat(dataCache.getStationsCount()).isEqualTo(9);
+        assertThat(dataCache.getConnectedRoutedIds(4, 1)).containsExactly(1);
+        assertThat(dataCache.getConnectedRoutedIds(6, 7)).containsExactly(2);
+        assertThat(dataCache.isArrivalStationIdConnected(100000, 7)).isTrue();
+    }
+
+    /**
+     * Scenario: Stations which are connected in one direction of a route and the opposite direction of another route.
+     * The direction is decided by the positions of the stations in each common route.
+     */
+    @Test
+    public void testTravelDirection() {
+        final BusRouteDataCache dataCache = dataCacheBuilder
+                .addRoute(0, Arrays.asList(1, 2, 3, 4))
+                .addRoute(1, Arrays.asList(5, 3, 6))
+                .addRoute(2, Arrays.asList(6, 3, 7, 1))
+                .build();
+
+        assertThat(dataCache.isArrivalStationIdConnected(1, 4)).isTrue();
+        assertThat(dataCache.isArrivalStationIdConnected(4, 1)).isFalse();
+        assertThat(dataCache.isArrivalStationIdConnectedInReverse(4, 1)).isTrue();
+        assertThat(dataCache.isArrivalStationIdConnectedInReverse(1, 4)).isFalse();
+
+        /* Connected in both the directions through different routes */
+        assertThat(dataCache.isArrivalStationIdConnected(3, 6)).isTrue();
+        assertThat(dataCache.isArrivalStationIdConnected(6, 3)).isTrue();
+        assertThat(dataCache.getConnectedRoutedIds(3, 1)).containsExactly(2);
+        assertThat(dataCache.getConnectedRoutedIds(1, 3)).containsExactly(0);
+
+        assertThat(dataCache.isArrivalStationIdConnected(5, 7)).isFalse();
+        assertThat(dataCache.isArrivalStationIdConnectedInReverse(5, 7)).isFalse();
+        assertThat(dataCache.getUpstreamStationIds(3)).containsExactly(1, 2, 5, 6);
+    }
+
+    /**
+     * Scenario: Lookups skewed to a few hub stations, counted for every lookup(sampling interval 1).
+     * The hub stations should be promoted to the hot tier, which should answer the same as the posting lists
+     * and serve the lookups among them.
+     */
+    @Test
+    public void testHotTier() {
+        final BusRouteDataCache dataCache = dataCacheBuilder
+                .addRoute(0, Arrays.asList(1, 2, 3, 4))
+                .addRoute(1, Arrays.asList(5, 3, 6))
+                .addRoute(2, Arrays.asList(6, 3, 7, 1))
+                .addRoute(3, Arrays.asList(8, 9))
+                .build();
+        dataCache.trackHotness(1);
+
+        final boolean[][] expected = new boolean[10][10];
+        for (int departureStationId = 0; departureStationId < 10; departureStationId++) {
+            for (int arrivalStationId = 0; arrivalStationId < 10; arrivalStationId++) {
+                expected[departureStationId][arrivalStationId] = dataCache.isArrivalStationIdConnected(departureStationId, arrivalStationId);
+            }
+        }
+
+        /* Hub stations 1, 3 and 6 */
+        for (int round = 0; round < 100; round++) {
+            dataCache.isArrivalStationIdConnected(3, 6);
+            dataCache.isArrivalStationIdConnected(6, 1);
+            dataCache.isArrivalStationIdConnected(1, 3);
+        }
+
+        assertThat(dataCache.refreshHotTier(3)).isEqualTo(3);
+        assertThat(dataCache.getHotTier().getStationsCount()).isEqualTo(3);
+        assertThat(dataCache.getStationHotness().getHotTierLookups()).isZero();
+
+        for (int departureStationId = 0; departureStationId < 10; departureStationId++) {
+            for (int arrivalStationId = 0; arrivalStationId < 10; arrivalStationId++) {
+                assertThat(dataCache.isArrivalStationIdConnected(departureStationId, arrivalStationId))
+                        .as("%d -> %d", departureStationId, arrivalStationId)
+                        .isEqualTo(expected[departureStationId][arrivalStationId]);
+            }
+        }
+
+        /* Lookups among the hub stations(3 -> 6, 6 -> 3, 6 -> 1, 3 -> 1, 1 -> 3 and the reverse ones) are served by the hot tier */
+        assertThat(dataCache.getStationHotness().getHotTierLookups()).isEqualTo(6);
+        assertThat(dataCache.isArrivalStationIdConnectedInReverse(1, 6)).isTrue();
+        assertThat(dataCache.getStationHotness().getHotTierLookups()).isEqualTo(7);
+        assertThat(dataCache.getStationHotness().getHotTierShare()).isGreaterThan(0);
+
+        /* Cold lookups since the last refresh, the counters are halved at each refresh */
+        for (int round = 0; round < 1000; round++) {
+            dataCache.isArrivalStationIdConnected(8, 9);
+        }
+        assertThat(dataCache.refreshHotTier(1)).isEqualTo(1);
+        assertThat(dataCache.isArrivalStationIdConnected(8, 9)).isTrue();
+        assertThat(dataCache.getStationHotness().getLastIntervalHotTierShare()).isLessThan(0.01);
+    }
+
+    /**
+     * Scenario: Hotness reset after the lookups of the warmup.
+     * The counted lookups and the hot tier selected from them should be dropped, the new lookups counted afresh.
+     */
+    @Test
+    public void testHotnessReset() {
+        final BusRouteDataCache dataCache = dataCacheBuilder
+                .addRoute(0, Arrays.asList(1, 2, 3))
+                .addRoute(1, Arrays.asList(4, 5))
+                .build();
+        dataCache.trackHotness(1);
+
+        for (int round = 0; round < 100; round++) {
+            dataCache.isArrivalStationIdConnected(1, 3);
+        }
+        assertThat(dataCache.refreshHotTier(2)).isEqualTo(2);
+
+        dataCache.resetHotness();
+        assertThat(dataCache.getHotTier().getStationsCount()).isZero();
+        assertThat(dataCache.getStationHotness().getSampledLookups()).isZero();
+
+        dataCache.isArrivalStationIdConnected(4, 5);
+        assertThat(dataCache.refreshHotTier(2)).isEqualTo(2);
+        assertThat(dataCache.isArrivalStationIdConnected(1, 3)).isTrue();
+        assertThat(dataCache.getStationHotness().getHotTierLookups()).isZero();
+    }
+
+    /**
+     * Scenario: Quick check of the station IDs, dense(bitmap) and sparse(station index) IDs.
+     * Only the last station of all its routes isn't a departure station.
+     */
+    @Test
+    public void testStationsKnown() {
+        final BusRouteDataCache denseDataCache = dataCacheBuilder
+                .addRoute(0, Arrays.asList(-2, 0, 1))
+                .addRoute(1, Arrays.asList(3, 1, 5))
+                .build();
+        final BusRouteDataCache sparseDataCache = new BusRouteDataCacheBuilder()
+                .addRoute(0, Arrays.asList(-2, 0, 1))
+                .addRoute(1, Arrays.asList(3, 1, Integer.MAX_VALUE))
+                .build();
+
+        for (BusRouteDataCache dataCache : Arrays.asList(denseDataCache, sparseDataCache)) {
+            assertThat(dataCache.areStationsKnown(-2, 1)).isTrue();
+            assertThat(dataCache.areStationsKnown(1, 3)).isTrue();      /* Known, not connected */
+            assertThat(dataCache.areStationsKnown(2, 1)).isFalse();     /* Unknown departure station */
+            assertThat(dataCache.areStationsKnown(0, 4)).isFalse();     /* Unknown arrival station */
+            assertThat(dataCache.areStationsKnown(0, Integer.MIN_VALUE)).isFalse();
+        }
+
+        assertThat(denseDataCache.areStationsKnown(5, 0)).isFalse();    /* Last station of its route */
+        assertThat(sparseDataCache.areStationsKnown(Integer.MAX_VALUE, 0)).isFalse();
+        assertThat(sparseDataCache.areStationsKnown(3, Integer.MAX_VALUE)).isTrue();
+        assertThat(new BusRouteDataCacheBuilder().build().areStationsKnown(0, 0)).isFalse();
+    }
+
+    /**
+     * Scenario: Next departures of the connecting routes at or after the given time of the week.
+     * The departures are in the order of the wait, the week wraps around and the routes without a schedule are skipped.
+     */
+    @Test
+    public void testNextDepartures() {
+        final int[] stationIds = {1, 2, 3, 4, 2, 3, 3, 2};
+        final int[] departureTimes = {1920, 480, 540, 480, 10000, 60};
+        final BusRouteDataCache dataCache = dataCacheBuilder
+                .addRoute(0, stationIds, 0, 3, departureTimes, 0, 4)    /* 1 -> 2 -> 3, 480 repeated */
+                .addRoute(1, stationIds, 3, 6, departureTimes, 4, 6)    /* 4 -> 2 -> 3 */
+                .addRoute(2, stationIds, 6, 8, departureTimes, 6, 6)    /* 3 -> 2, no schedule */
+                .addRoute(3, Arrays.asList(2, 3))                       /* No schedule */
+                .build();
+        assertThat(dataCache.getDepartureTimesCount()).isEqualTo(5);
+
+        final int[] nextDepartureTimes = new int[3];
+        final int[] nextDepartureRouteIds = new int[3];
+        assertThat(dataCache.findNextDepartures(2, 3, 9990, nextDepartureTimes, nextDepartureRouteIds)).isEqualTo(3);
+        assertThat(nextDepartureTimes).containsExactly(10000, 60, 480);
+        assertThat(nextDepartureRouteIds).containsExactly(1, 1, 0);
+
+        assertThat(dataCache.findNextDepartures(1, 3, 480, nextDepartureTimes, nextDepartureRouteIds)).isEqualTo(3);
+        assertThat(nextDepartureTimes).containsExactly(480, 540, 1920);
+        assertThat(nextDepartureRouteIds).containsExactly(0, 0, 0);
+
+        final int[] nextDepartureTime = new int[1];
+        final int[] nextDepartureRouteId = new int[1];
+        assertThat(dataCache.findNextDepartures(2, 3, 500, nextDepartureTime, nextDepartureRouteId)).isEqualTo(1);
+        assertThat(nextDepartureTime).containsExactly(540);
+
+        assertThat(dataCache.findNextDepartures(3, 2, 0, nextDepartureTimes, nextDepartureRouteIds)).isZero();   /* No schedule */
+        assertThat(dataCache.findNextDepartures(3, 1, 0, nextDepartureTimes, nextDepartureRouteIds)).isZero();   /* Not connected */
+        assertThat(dataCache.findNextDepartures(9, 3, 0, nextDepartureTimes, nextDepartureRouteIds)).isZero();   /* Unknown */
+        assertThat(new BusRouteDataCacheBuilder().addRoute(0, Arrays.asList(1, 2)).build()
+                .findNextDepartures(1, 2, 0, nextDepartureTimes, nextDepartureRouteIds)).isZero();
+    }
+
 }
@@ -0,0 +1,156 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.FileContentInvalidErrorType;
+import com.goeuro.hiring.devtest.busroute.utils.exceptions.InvalidDataFileException;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.DataLoadPipeline through the data cache manager
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class DataLoadPipelineTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Scenario: Data file split into many tiny blocks(lines longer than a block, \r\n and \r line breaks,
+     * blank lines and extra whitespace) and parsed by several threads.
+     * The loaded data should be the same as with a single parser and a single block.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testTinyBlocksAndParallelParsers() throws IOException {
+        final StringBuilder content = new StringBuilder("300\r\n");
+        for (int routeId = 0; routeId < 300; routeId++) {
+            content.append((routeId % 7 == 0) ? "  " : "").append(routeId);
+            for (int position = 0; position < 2 + routeId % 40; position++) {
+                content.append((position % 5 == 0) ? " \t " : " ").append((routeId * 13 + position * 31) % 500);
+            }
+            content.append((routeId % 3 == 0) ? "\r\n" : (routeId % 3 == 1) ? "\n\n" : "\r");
+        }
+        final File dataFile = temporaryFolder.newFile("routes");
+        Files.write(dataFile.toPath(), content.toString().getBytes(StandardCharsets.US_ASCII));
+
+        final BusRouteDataCacheManager singleBlockManager = createCacheManager(1, 1024 * 1024);
+        singleBlockManager.validateDataFileAndInitializeCache(dataFile.getPath());
+        final BusRouteDataCacheManager tinyBlocksManager = createCacheManager(4, 16);
+        tinyBlocksManager.validateDataFileAndInitializeCache(dataFile.getPath());
+
+        final BusRouteDataCache expected = singleBlockManager.getDataCache();
+        final BusRouteDataCache actual = tinyBlocksManager.getDataCache();
+        assertThat(actual.getRoutesCount()).isEqualTo(300);
+        assertThat(actual.getStationsCount()).isEqualTo(expected.getStationsCount());
+        for (int departureStationId = 0; departureStationId < 500; departureStationId += 7) {
+            for (int arrivalStationId = 0; arrivalStationId < 500; arrivalStationId += 11) {
+                assertThat(actual.getConnectedRoutedIds(departureStationId, arrivalStationId))
+                        .isEqualTo(expected.getConnectedRoutedIds(departureStationId, arrivalStationId));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        final Map<String, Map<String, Object>> stages =
+                (Map<String, Map<String, Object>>) tinyBlocksManager.getLoadProgress().toMap().get("stages");
+        assertThat(stages).containsOnlyKeys("reader", "parser", "indexer");
+        assertThat(stages.get("parser").get("threads")).isEqualTo(4);
+        assertThat((Long) stages.get("reader").get("blocks")).isGreaterThan(1);
+        assertThat(stages.get("indexer").get("bytes")).isEqualTo((long) content.length());
+    }
+
+    /**
+     * Scenario: Route/Station IDs which are not integers, along with the other issues.
+     * The issue found first in the validation order should be reported, same as parsing the lines one by one.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMalformedIds() throws IOException {
+        assertInvalid("2\n0 1 x\n", FileContentInvalidErrorType.ROUTES_COUNT_MISMATCH);
+        assertInvalid("2\n0 1 x\n0 1 2\n", FileContentInvalidErrorType.DUPLICATE_ROUTE_IDS_FOUND);
+        assertInvalid("2\n0 1 2\n1 1 99999999999\n", null);
+        assertInvalid("2\n0 1 2\n- 1 3\n", null);
+        assertInvalid("2\n0 1 2\n1 1\n", FileContentInvalidErrorType.INSUFFICIENT_STATIONS_PER_ROUTE);
+
+        final BusRouteDataCacheManager cacheManager = createCacheManager(2, 16);
+        cacheManager.validateDataFileAndInitializeCache(writeDataFile("2\n+0 1 -2\n1 -2 +3\n").getPath());
+        assertThat(cacheManager.getDataCache().isArrivalStationIdConnected(1, -2)).isTrue();
+        assertThat(cacheManager.getDataCache().isArrivalStationIdConnected(-2, 3)).isTrue();
+
+        try {
+            cacheManager.validateDataFileAndInitializeCache(writeDataFile("").getPath());
+            fail("Empty data file should be rejected.");
+        } catch (NoSuchElementException e) {
+            assertThat(cacheManager.getLoadProgress().getPhase()).isEqualTo(DataLoadProgress.Phase.FAILED);
+        }
+    }
+
+    /**
+     * Scenario: Routes which fit in the first block.
+     * The builder should be sized for the exact routes, unique stations and station occurrences, so that nothing grows.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBuilderPresizedFromFirstBlock() throws IOException {
+        final DataLoadPipeline loadPipeline = new DataLoadPipeline(
+                Paths.get("src/test/resources/bus-route-data/reference-data"), new DataLoadProgress(), 2, 1024 * 1024, 100, 100);
+        loadPipeline.run();
+
+        final BusRouteDataCacheBuilder dataCacheBuilder = loadPipeline.getDataCacheBuilder();
+        assertThat((int[]) ReflectionTestUtils.getField(dataCacheBuilder, "routeIds")).hasSize(3);
+        assertThat((int[]) ReflectionTestUtils.getField(dataCacheBuilder, "stationIds")).hasSize(7);
+        assertThat((byte[]) ReflectionTestUtils.getField(ReflectionTestUtils.getField(dataCacheBuilder, "routeStations"), "data"))
+                .hasSize(12);
+        assertThat(loadPipeline.getUniqueStationsCount()).isEqualTo(7);
+    }
+
+    /**
+     * @param content       Data file content
+     * @param expectedError Expected validation error or null for NumberFormatException
+     * @throws IOException
+     */
+    private void assertInvalid(final String content, final FileContentInvalidErrorType expectedError) throws IOException {
+        try {
+            createCacheManager(2, 16).validateDataFileAndInitializeCache(writeDataFile(content).getPath());
+            fail("Invalid data file should be rejected.");
+        } catch (InvalidDataFileException e) {
+            assertThat(e.getErrorType()).isEqualTo(expectedError);
+        } catch (NumberFormatException e) {
+            assertThat(expectedError).isNull();
+        }
+    }
+
+    private File writeDataFile(final String content) throws IOException {
+        final File dataFile = temporaryFolder.newFile();
+        Files.write(dataFile.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return dataFile;
+    }
+
+    private static BusRouteDataCacheManager createCacheManager(final int parserThreads, final int blockSizeBytes) {
+        final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+        ReflectionTestUtils.setField(cacheManager, "parserThreads", parserThreads);
+        ReflectionTestUtils.setField(cacheManager, "blockSizeBytes", blockSizeBytes);
+        return cacheManager;
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.PostingLists method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class PostingListsTests {
+
+    /**
+     * Scenario: Merge, galloping and the adaptive intersection find the same common elements as a plain set intersection,
+     * for the lists of similar sizes and the skewed sizes.
+     */
+    @Test
+    public void testAllStrategiesFindAllCommonElements() {
+        final Random random = new Random(7);
+
+        for (int sizeRatio : new int[] {1, 4, PostingLists.GALLOP_RATIO, 500}) {
+            final int[] shortList = generateSortedList(random, 40, 100000);
+            final int[] longList = generateSortedList(random, 40 * sizeRatio, 100000);
+            final List<Integer> expected = intersect(shortList, longList);
+
+            assertThat(collectCommon(shortList, longList, 0)).isEqualTo(expected);
+            assertThat(collectCommon(shortList, longList, 1)).isEqualTo(expected);
+            assertThat(collectCommon(shortList, longList, 2)).isEqualTo(expected);
+            assertThat(collectCommon(longList, shortList, 1)).isEqualTo(expected);
+            assertThat(collectCommon(longList, shortList, 2)).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Scenario: Ranges without common elements, empty ranges and ranges of a shared array.
+     */
+    @Test
+    public void testNoCommonElements() {
+        final int[] postingLists = {1, 3, 5, 7, 2, 4, 6, 8};
+
+        assertThat(PostingLists.findFirstCommon(postingLists, 0, 4, postingLists, 4, 8)).isEqualTo(PostingLists.NOT_FOUND);
+        assertThat(PostingLists.gallopFirstCommon(postingLists, 0, 4, postingLists, 4, 8)).isEqualTo(PostingLists.NOT_FOUND);
+        assertThat(PostingLists.findFirstCommon(postingLists, 0, 0, postingLists, 4, 8)).isEqualTo(PostingLists.NOT_FOUND);
+
+        final long positions = PostingLists.findFirstCommon(postingLists, 1, 4, postingLists, 0, 2);
+        assertThat(PostingLists.getFirstIndex(positions)).isEqualTo(1);
+        assertThat(PostingLists.getSecondIndex(positions)).isEqualTo(1);
+    }
+
+    /**
+     * Scenario: Galloping returns the first element which is not less than the key, at any distance from the start.
+     */
+    @Test
+    public void testGallop() {
+        final int[] elements = {0, 2, 4, 6, 8, 10, 12, 14, 16};
+
+        assertThat(PostingLists.gallop(elements, 0, elements.length, -1)).isEqualTo(0);
+        assertThat(PostingLists.gallop(elements, 0, elements.length, 4)).isEqualTo(2);
+        assertThat(PostingLists.gallop(elements, 0, elements.length, 13)).isEqualTo(7);
+        assertThat(PostingLists.gallop(elements, 3, elements.length, 16)).isEqualTo(8);
+        assertThat(PostingLists.gallop(elements, 0, elements.length, 17)).isEqualTo(elements.length);
+        assertThat(PostingLists.gallop(elements, 0, 5, 17)).isEqualTo(5);
+    }
+
+    /**
+     * @param first
+     * @param second
+     * @param strategy 0 - merge, 1 - galloping, 2 - adaptive
+     * @return Common elements found one after the other
+     */
+    private static List<Integer> collectCommon(final int[] first, final int[] second, final int strategy) {
+        final List<Integer> common = new ArrayList<>();
+        int firstFrom = 0;
+        int secondFrom = 0;
+
+        while (true) {
+            final long positions;
+            if (strategy == 0) {
+                positions = PostingLists.mergeFirstCommon(first, firstFrom, first.length, second, secondFrom, second.length);
+            } else if (strategy == 1) {
+                positions = PostingLists.gallopFirstCommon(first, firstFrom, first.length, second, secondFrom, second.length);
+            } else {
+                positions = PostingLists.findFirstCommon(first, firstFrom, first.length, second, secondFrom, second.length);
+            }
+
+            if (positions == PostingLists.NOT_FOUND) {
+                return common;
+            }
+
+            assertThat(first[PostingLists.getFirstIndex(positions)]).isEqualTo(second[PostingLists.getSecondIndex(positions)]);
+            common.add(first[PostingLists.getFirstIndex(positions)]);
+            firstFrom = PostingLists.getFirstIndex(positions) + 1;
+            secondFrom = PostingLists.getSecondIndex(positions) + 1;
+        }
+    }
+
+    private static List<Integer> intersect(final int[] first, final int[] second) {
+        final List<Integer> common = new ArrayList<>();
+        for (int element : first) {
+            if (Arrays.binarySearch(second, element) >= 0) {
+                common.add(element);
+            }
+        }
+        return common;
+    }
+
+    private static int[] generateSortedList(final Random random, final int size, final int bound) {
+        return random.ints(0, bound).distinct().limit(size).sorted().toArray();
+    }
+
+}
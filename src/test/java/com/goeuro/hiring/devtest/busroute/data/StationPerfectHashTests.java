@@ -0,0 +1,109 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.data.StationPerfectHash
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class StationPerfectHashTests {
+
+    /**
+     * Scenario: Every station resolves to its own ordinal, built sequentially and in parallel(above the parallel threshold),
+     * for the dense and the random(sparse, negative) Station IDs.
+     */
+    @Test
+    public void testAllStationsResolveToTheirOrdinals() {
+        final int stationsCount = StationPerfectHash.PARALLEL_THRESHOLD * 4;
+        final int[] denseStationIds = new int[stationsCount];
+        for (int stationOrdinal = 0; stationOrdinal < stationsCount; stationOrdinal++) {
+            denseStationIds[stationOrdinal] = stationsCount - stationOrdinal;
+        }
+        final int[] randomStationIds = new Random(11).ints().distinct().limit(stationsCount).toArray();
+
+        for (int[] stationIds : new int[][] {denseStationIds, randomStationIds}) {
+            for (boolean parallel : new boolean[] {false, true}) {
+                final StationPerfectHash perfectHash = new StationPerfectHash(stationIds, parallel);
+                for (int stationOrdinal = 0; stationOrdinal < stationsCount; stationOrdinal++) {
+                    assertThat(perfectHash.getOrdinal(stationIds[stationOrdinal])).isEqualTo(stationOrdinal);
+                }
+                assertThat(perfectHash.getLevelsCount()).isLessThan(StationPerfectHash.MAX_LEVELS);
+                assertThat(perfectHash.getFallbackStationsCount()).isZero();
+            }
+        }
+    }
+
+    /**
+     * Scenario: Unknown Station IDs(which land on the bits of the other stations as well) are not found.
+     */
+    @Test
+    public void testUnknownStationsAreNotFound() {
+        final int[] stationIds = new Random(13).ints(0, 1000000).distinct().limit(10000).toArray();
+        final StationPerfectHash perfectHash = new StationPerfectHash(stationIds);
+
+        for (int stationId : new int[] {-1, 1000000, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertThat(perfectHash.getOrdinal(stationId)).isEqualTo(StationPerfectHash.NOT_FOUND);
+        }
+
+        final StationIndex stationIndex = new StationIndex(stationIds);
+        for (int stationId = 0; stationId < 1000000; stationId++) {
+            assertThat(perfectHash.getOrdinal(stationId)).isEqualTo(stationIndex.getOrdinal(stationId));
+        }
+    }
+
+    /**
+     * Scenario: No stations and the extreme Station IDs.
+     */
+    @Test
+    public void testEdgeCases() {
+        assertThat(new StationPerfectHash(new int[0]).getOrdinal(0)).isEqualTo(StationPerfectHash.NOT_FOUND);
+
+        final StationPerfectHash perfectHash = new StationPerfectHash(new int[] {Integer.MIN_VALUE, 0, Integer.MAX_VALUE});
+        assertThat(perfectHash.getOrdinal(Integer.MIN_VALUE)).isEqualTo(0);
+        assertThat(perfectHash.getOrdinal(0)).isEqualTo(1);
+        assertThat(perfectHash.getOrdinal(Integer.MAX_VALUE)).isEqualTo(2);
+        assertThat(perfectHash.getOrdinal(1)).isEqualTo(StationPerfectHash.NOT_FOUND);
+    }
+
+    /**
+     * Scenario: Hash function takes less memory than the station index.
+     */
+    @Test
+    public void testMemoryFootprint() {
+        final int[] stationIds = new Random(17).ints().distinct().limit(100000).toArray();
+
+        final long perfectHashBytes = new StationPerfectHash(stationIds).getSizeInBytes();
+        assertThat(perfectHashBytes).isLessThan(new StationIndex(stationIds).getSizeInBytes());
+        /* Slot(8 bytes) and the bit arrays with their ranks(about 7 bits) per station */
+        assertThat(perfectHashBytes).isLessThan(stationIds.length * 10L);
+    }
+
+    /**
+     * Scenario: Stations added one by one(with repeats) to an index sized for a few of them, as the loader does.
+     * The ordinals should follow the first occurrence and stay the same as the table grows.
+     */
+    @Test
+    public void testGrowingStationIndex() {
+        final int[] stationIds = new Random(19).ints().distinct().limit(10000).toArray();
+        final StationIndex stationIndex = new StationIndex(2);
+
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            assertThat(stationIndex.getOrAddOrdinal(stationIds[stationOrdinal])).isEqualTo(stationOrdinal);
+            assertThat(stationIndex.getOrAddOrdinal(stationIds[stationOrdinal / 2])).isEqualTo(stationOrdinal / 2);
+        }
+
+        for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+            assertThat(stationIndex.getOrdinal(stationIds[stationOrdinal])).isEqualTo(stationOrdinal);
+        }
+        assertThat(stationIndex.getCapacity()).isEqualTo(32768);
+    }
+
+}
@@ -5,6 +5,12 @@ package com.goeuro.hiring.devtest.busroute.integration;
 
 import static org.assertj.core.api.BDDAssertions.then;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -16,6 +22,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -33,7 +41,9 @@ import org.springframework.test.context.junit4.SpringRunner;
  * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
  */
 @RunWith(SpringRunner.class)
-@SpringBootTest(properties = {"bus-route-data-file-path=src/test/resources/bus-route-data/reference-data"},
+@SpringBootTest(properties = {"bus-route-data-file-path=src/test/resources/bus-route-data/reference-data",
+                              "bus-route.datasets=scheduled=src/test/resources/bus-route-data/scheduled-data,"
+                                      + "regional=src/test/resources/bus-route-data/regional-data"},
                 webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class DirectBusRouteSearchEndPointTests {
 
@@ -123,6 +133,30 @@ public class DirectBusRouteSearchEndPointTests {
         then(response.getBody().get("direct_bus_route")).isEqualTo(false);
     }
 
+    /**
+     * Scenario: Unknown stations are answered by the servlet filter(before the dispatcher).
+     * The response should be the same as the one of the end point, for the default and the selected data set.
+     */
+    @Test
+    public void testUnknownStationsFastResponse() {
+        final ResponseEntity<String> response = testRestTemplate.getForEntity(
+                String.format("http://localhost:%s/api/direct?dep_sid=-7&arr_sid=+6", port), String.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getHeaders().getContentType().toString()).isEqualTo("application/json;charset=UTF-8");
+        then(response.getHeaders().getFirst("Bus-Route-Data-Version")).isEqualTo("1");
+        then(response.getBody()).isEqualTo("{\"dep_sid\":-7,\"arr_sid\":6,\"direct_bus_route\":false}");
+
+        final ResponseEntity<String> dataSetResponse = testRestTemplate.getForEntity(
+                String.format("http://localhost:%s/api/direct?dep_sid=8&arr_sid=7&dataset=regional", port), String.class);
+
+        then(dataSetResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(dataSetResponse.getBody()).isEqualTo("{\"dep_sid\":8,\"arr_sid\":7,\"direct_bus_route\":false,\"dataset\":\"regional\"}");
+
+        final ResponseEntity<Map> metrics = testRestTemplate.getForEntity(String.format("http://localhost:%s/metrics", port), Map.class);
+        then(((Number) metrics.getBody().get("bus-route.api.unknown-station.fast-responses")).longValue()).isGreaterThanOrEqualTo(1);
+    }
+
     /**
      * Scenario: Only HTTP GET and HEAD should be allowed on the implemented REST end point
      * Test the HTTP Status Methods.
@@ -176,4 +210,341 @@ public class DirectBusRouteSearchEndPointTests {
         then(testRestTemplate.getForEntity(apiUrl, Map.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Scenario: Stations from which the given Arrival Station can be reached directly in any of the routes.
+     * Test the complete response body structure along with the HTTP Status Code.
+     */
+    @Test
+    public void testUpstreamStations() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=4", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("arr_sid")).isEqualTo(4);
+        then(response.getBody().get("total")).isEqualTo(5);
+        then(response.getBody().get("dep_sids")).isEqualTo(Arrays.asList(0, 1, 2, 3, 6));
+    }
+
+    /**
+     * Scenario: Upstream stations are paginated.
+     * Test the requested page along with the total number of upstream stations.
+     */
+    @Test
+    public void testUpstreamStationsPagination() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=4&offset=1&limit=2", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("offset")).isEqualTo(1);
+        then(response.getBody().get("limit")).isEqualTo(2);
+        then(response.getBody().get("total")).isEqualTo(5);
+        then(response.getBody().get("dep_sids")).isEqualTo(Arrays.asList(1, 2));
+        then(response.getBody().get("next_after")).isEqualTo(2);
+    }
+
+    /**
+     * Scenario: Upstream stations are paged with the cursor of the previous page.
+     * Test the page after the cursor and that the last page has no cursor.
+     */
+    @Test
+    public void testUpstreamStationsCursor() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=4&after=2&limit=2", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("total")).isEqualTo(5);
+        then(response.getBody().get("dep_sids")).isEqualTo(Arrays.asList(3, 6));
+        then(response.getBody()).doesNotContainKey("next_after");
+    }
+
+    /**
+     * Scenario: First station of all its routes and unknown stations doesn't have any upstream stations.
+     */
+    @Test
+    public void testUpstreamStationsNotExists() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=0", port);
+        then(testRestTemplate.getForEntity(apiUrl, Map.class).getBody().get("dep_sids")).isEqualTo(Collections.emptyList());
+
+        final String unknownStationApiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=8", port);
+        then(testRestTemplate.getForEntity(unknownStationApiUrl, Map.class).getBody().get("total")).isEqualTo(0);
+    }
+
+    /**
+     * Scenario: Page limit exceeds the allowed maximum.
+     * Test the HTTP Status Code.
+     */
+    @Test
+    public void testUpstreamStationsWithInvalidLimit() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=4&limit=0", port);
+        then(testRestTemplate.getForEntity(apiUrl, Map.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Scenario: Stations which can be reached directly from the given Departure Station, each listed once.
+     * Test the complete response body structure along with the HTTP Status Code.
+     */
+    @Test
+    public void testReachableStations() {
+        final String apiUrl = String.format("http://localhost:%s/api/reachable?dep_sid=0", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("dep_sid")).isEqualTo(0);
+        then(response.getBody().get("arr_sids")).isEqualTo(Arrays.asList(1, 2, 3, 4, 6));
+
+        final String unknownStationApiUrl = String.format("http://localhost:%s/api/reachable?dep_sid=8", port);
+        then(testRestTemplate.getForEntity(unknownStationApiUrl, Map.class).getBody().get("arr_sids")).isEqualTo(Collections.emptyList());
+    }
+
+    /**
+     * Scenario: Reachable stations are grouped by the routes which connect them, in the travel order.
+     */
+    @Test
+    public void testReachableStationsWithRoutes() {
+        final String apiUrl = String.format("http://localhost:%s/api/reachable?dep_sid=0&with_routes=true", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        final List<Map<String, Object>> routes = (List<Map<String, Object>>) response.getBody().get("routes");
+        then(routes).hasSize(2);
+        then(routes.get(0).get("route_id")).isEqualTo(0);
+        then(routes.get(0).get("arr_sids")).isEqualTo(Arrays.asList(1, 2, 3, 4));
+        then(routes.get(1).get("route_id")).isEqualTo(2);
+        then(routes.get(1).get("arr_sids")).isEqualTo(Arrays.asList(6, 4));
+    }
+
+    /**
+     * Scenario: Connectivity matrix of multiple Departure and Arrival Stations in one request.
+     * Test the complete response body structure along with the HTTP Status Code.
+     */
+    @Test
+    public void testConnectivityMatrix() {
+        final String apiUrl = String.format("http://localhost:%s/api/matrix", port);
+        final Map<String, Object> request = new HashMap<>();
+        request.put("dep_sids", Arrays.asList(0, 6, 5, 9));
+        request.put("arr_sids", Arrays.asList(4, 5, 6, 4, 8));
+
+        final ResponseEntity<Map> response = testRestTemplate.postForEntity(apiUrl, request, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("dep_sids")).isEqualTo(Arrays.asList(0, 6, 5, 9));
+        then(response.getBody().get("arr_sids")).isEqualTo(Arrays.asList(4, 5, 6, 4, 8));
+        then(response.getBody().get("connections")).isEqualTo(6);
+        then(response.getBody().get("row_size_in_bytes")).isEqualTo(8);
+
+        final byte[] matrix = Base64.getDecoder().decode((String) response.getBody().get("matrix"));
+        then(matrix).hasSize(32);
+        then(matrix[0]).isEqualTo((byte) 0b01101);  /* 0 -> 4, 6, 4 */
+        then(matrix[8]).isEqualTo((byte) 0b01011);  /* 6 -> 4, 5, 4 */
+        then(matrix[16]).isEqualTo((byte) 0);       /* Last station */
+        then(matrix[24]).isEqualTo((byte) 0);       /* Unknown station */
+    }
+
+    /**
+     * Scenario: Connectivity matrix request without the Arrival Stations.
+     */
+    @Test
+    public void testConnectivityMatrixWithoutArrivalStations() {
+        final String apiUrl = String.format("http://localhost:%s/api/matrix", port);
+        final ResponseEntity<Map> response = testRestTemplate.postForEntity(apiUrl,
+                Collections.singletonMap("dep_sids", Arrays.asList(0, 6)), Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Scenario: Station pairs checked in bulk, given as NDJSON.
+     * The result lines should be in the same order, with an error line for the invalid pair.
+     */
+    @Test
+    public void testBulkPairCheck() {
+        final String apiUrl = String.format("http://localhost:%s/api/bulk", port);
+        final String pairs = "{\"dep_sid\":0,\"arr_sid\":4}\n{\"arr_sid\":0,\"dep_sid\":4}\n{\"dep_sid\":3}\n{\"dep_sid\":3,\"arr_sid\":6}\n";
+        final RequestEntity<String> request = RequestEntity.post(URI.create(apiUrl))
+                .contentType(MediaType.valueOf("application/x-ndjson")).body(pairs);
+
+        final ResponseEntity<String> response = testRestTemplate.exchange(request, String.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        then(response.getBody()).isEqualTo("{\"dep_sid\":0,\"arr_sid\":4,\"direct_bus_route\":true}\n"
+                + "{\"dep_sid\":4,\"arr_sid\":0,\"direct_bus_route\":false}\n"
+                + "{\"error\":\"invalid pair\"}\n"
+                + "{\"dep_sid\":3,\"arr_sid\":6,\"direct_bus_route\":true}\n");
+    }
+
+    /**
+     * Scenario: Station pairs checked in bulk, given as CSV with a header, and in an unsupported format.
+     */
+    @Test
+    public void testBulkPairCheckWithCsv() {
+        final String apiUrl = String.format("http://localhost:%s/api/bulk", port);
+        final RequestEntity<String> request = RequestEntity.post(URI.create(apiUrl))
+                .contentType(MediaType.valueOf("text/csv")).body("dep_sid,arr_sid\r\n6,4\r\n6,3\r\n");
+
+        final ResponseEntity<String> response = testRestTemplate.exchange(request, String.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody()).isEqualTo("dep_sid,arr_sid,direct_bus_route\n6,4,true\n6,3,false\n");
+
+        final RequestEntity<String> plainTextRequest = RequestEntity.post(URI.create(apiUrl))
+                .contentType(MediaType.TEXT_PLAIN).body("6,4\n");
+        then(testRestTemplate.exchange(plainTextRequest, String.class).getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    /**
+     * Scenario: Stations connected in an additional data set only, searched in that data set.
+     * Test the complete response body structure along with the HTTP Status Code.
+     */
+    @Test
+    public void testDirectlyConnectedInDataSet() {
+        final String apiUrl = String.format("http://localhost:%s/api/direct?dep_sid=7&arr_sid=8&dataset=regional", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        then(response.getBody().get("dep_sid")).isEqualTo(7);
+        then(response.getBody().get("arr_sid")).isEqualTo(8);
+        then(response.getBody().get("direct_bus_route")).isEqualTo(true);
+        then(response.getBody().get("dataset")).isEqualTo("regional");
+    }
+
+    /**
+     * Scenario: Next departures at the weekend, in a data set with the route schedules. The week wraps around.
+     * Test the complete response body structure along with the HTTP Status Code.
+     */
+    @Test
+    public void testNextDepartures() {
+        final String apiUrl = String.format("http://localhost:%s/api/direct?dep_sid=2&arr_sid=3&dataset=scheduled&dep_time=9990", port);
+        final ResponseEntity<String> response = testRestTemplate.getForEntity(apiUrl, String.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody()).isEqualTo("{\"dep_sid\":2,\"arr_sid\":3,\"direct_bus_route\":true,\"dataset\":\"scheduled\","
+                + "\"next_departures\":[{\"route_id\":1,\"dep_time\":10000},{\"route_id\":1,\"dep_time\":60},"
+                + "{\"route_id\":0,\"dep_time\":480}]}");
+
+        /* Unknown station isn't answered by the fast path, the departures are sent(none) */
+        final ResponseEntity<Map> unknownStationResponse = testRestTemplate.getForEntity(
+                String.format("http://localhost:%s/api/direct?dep_sid=99&arr_sid=3&dataset=scheduled&dep_time=0&limit=1", port), Map.class);
+        then(unknownStationResponse.getBody().get("direct_bus_route")).isEqualTo(false);
+        then(unknownStationResponse.getBody().get("next_departures")).isEqualTo(Collections.emptyList());
+    }
+
+    /**
+     * Scenario: Departure time which is not a minute of the week and the limit above the maximum.
+     * Test the HTTP Status Code alone.
+     */
+    @Test
+    public void testNextDeparturesWithInvalidParameters() {
+        for (String parameters : Arrays.asList("dep_time=10080", "dep_time=-1", "dep_time=0&limit=0", "dep_time=0&limit=21")) {
+            final String apiUrl = String.format("http://localhost:%s/api/direct?dep_sid=2&arr_sid=3&dataset=scheduled&%s", port, parameters);
+            then(testRestTemplate.getForEntity(apiUrl, Map.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Scenario: Data set which is not loaded.
+     * Test the HTTP Status Code alone.
+     */
+    @Test
+    public void testDataSetNotExists() {
+        final String apiUrl = String.format("http://localhost:%s/api/direct?dep_sid=7&arr_sid=8&dataset=unknown", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Scenario: Data set version is returned in the response and the request can be pinned to it.
+     * Test the HTTP Status Code and the version header.
+     */
+    @Test
+    public void testDataSetVersion() {
+        final String apiUrl = String.format("http://localhost:%s/api/direct?dep_sid=6&arr_sid=4", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        final String version = response.getHeaders().getFirst("Bus-Route-Data-Version");
+        then(version).isEqualTo("1");
+
+        final ResponseEntity<Map> pinnedResponse = testRestTemplate.getForEntity(apiUrl + "&version=" + version, Map.class);
+        then(pinnedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(pinnedResponse.getHeaders().getFirst("Bus-Route-Data-Version")).isEqualTo(version);
+        then(pinnedResponse.getBody().get("direct_bus_route")).isEqualTo(true);
+    }
+
+    /**
+     * Scenario: Data set version which is not retained.
+     * Test the HTTP Status Code alone.
+     */
+    @Test
+    public void testDataSetVersionNotExists() {
+        final String apiUrl = String.format("http://localhost:%s/api/upstream?arr_sid=4&version=99", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Scenario: Size of each data set is exported in the metrics end point.
+     */
+    @Test
+    public void testDataSetMetrics() {
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(String.format("http://localhost:%s/metrics", port), Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody().get("bus-route.dataset.default.routes")).isEqualTo(3);
+        then(response.getBody().get("bus-route.dataset.regional.routes")).isEqualTo(1);
+        then(((Number) response.getBody().get("bus-route.dataset.regional.memory-bytes")).longValue()).isGreaterThan(0);
+    }
+
+    /**
+     * Scenario: Admission control state is exported in the metrics end point.
+     */
+    @Test
+    public void testAdmissionControlMetrics() {
+        testRestTemplate.getForEntity(String.format("http://localhost:%s/api/direct?dep_sid=6&arr_sid=4", port), Map.class);
+
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(String.format("http://localhost:%s/metrics", port), Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody()).containsKeys("bus-route.admission.limit", "bus-route.admission.in-flight", "bus-route.admission.rejected");
+        then(((Number) response.getBody().get("bus-route.admission.accepted")).longValue()).isGreaterThan(0);
+    }
+
+    /**
+     * Scenario: Health end point reports UP once the data is loaded and the search service is warmed up.
+     * Test the HTTP Status Code and the status.
+     */
+    @Test
+    public void testHealthIsUpAfterWarmup() {
+        final String apiUrl = String.format("http://localhost:%s/health", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody().get("status")).isEqualTo("UP");
+    }
+
+    /**
+     * Scenario: Readiness end point reports ready once the data is loaded and the search service is warmed up.
+     * Test the HTTP Status Code and the load progress.
+     */
+    @Test
+    public void testReadinessAfterLoad() {
+        final String apiUrl = String.format("http://localhost:%s/readiness", port);
+        final ResponseEntity<Map> response = testRestTemplate.getForEntity(apiUrl, Map.class);
+
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody().get("phase")).isEqualTo("READY");
+        then(response.getBody().get("dataSet")).isEqualTo("regional");     /* Last data set loaded */
+        then(response.getBody().get("routesParsed")).isEqualTo(1);
+        then(response.getBody().get("indexBuildPercentage")).isEqualTo(100);
+    }
+
 }
@@ -0,0 +1,170 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.data.DataLoadProgress;
+
+/**
+ * Allocation budgets of the query and load paths, measured with JMH and its GC profiler(gc.alloc.rate.norm).
+ * A budget is exceeded only by a code change, hence any failure is an allocation regression.
+ * Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The per phase allocation report of the data file load is written to target/allocation-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class AllocationBudgetTests {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    /* Bytes per operation */
+    private static final double DIRECT_LOOKUP_BUDGET = 0;
+    private static final double SEARCH_SERVICE_BUDGET = 32;        /* Boxed station IDs, the route IDs are collected only if they are logged */
+    private static final double NEXT_DEPARTURES_BUDGET = 0;         /* Written into the arrays of the caller */
+    private static final double LOAD_PER_ROUTE_BUDGET = 4 * 1024;   /* ~3 KB/route, the route records of the load pipeline and the index */
+
+    private static final double MEASUREMENT_NOISE = 0.5;           /* Normalized allocation of JMH itself */
+
+    private static final double NEXT_DEPARTURES_MAX_SLOWDOWN = 3;   /* Latency of the next departures lookup vs the direct lookup */
+
+    private static Collection<RunResult> runResults;
+
+    @BeforeClass
+    public static void runBenchmarks() throws RunnerException {
+        runResults = new Runner(new OptionsBuilder()
+                .include(SearchAllocationBenchmark.class.getSimpleName())
+                .include(LoadAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(0)   /* The forked JVM can't see the classpath of the surefire JVM */
+                .warmupIterations(3)
+                .warmupTime(TimeValue.milliseconds(500))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.milliseconds(500))
+                .build()).run();
+    }
+
+    /**
+     * Scenario: Primitive data cache lookup shouldn't allocate at all.
+     */
+    @Test
+    public void testDirectLookupAllocationBudget() {
+        assertThat(getAllocatedBytesPerOperation("directLookup")).isLessThanOrEqualTo(DIRECT_LOOKUP_BUDGET + MEASUREMENT_NOISE);
+    }
+
+    /**
+     * Scenario: Search service adds a fixed and small allocation on top of the lookup.
+     */
+    @Test
+    public void testSearchServiceAllocationBudget() {
+        assertThat(getAllocatedBytesPerOperation("searchService")).isLessThanOrEqualTo(SEARCH_SERVICE_BUDGET + MEASUREMENT_NOISE);
+    }
+
+    /**
+     * Scenario: Next departures lookup(binary search per connecting route) shouldn't allocate and
+     * should take about the same time as the direct lookup.
+     */
+    @Test
+    public void testNextDeparturesBudget() {
+        assertThat(getAllocatedBytesPerOperation("nextDepartures")).isLessThanOrEqualTo(NEXT_DEPARTURES_BUDGET + MEASUREMENT_NOISE);
+        assertThat(getNanosPerOperation("nextDepartures")).isLessThanOrEqualTo(getNanosPerOperation("directLookup") * NEXT_DEPARTURES_MAX_SLOWDOWN);
+    }
+
+    /**
+     * Scenario: Data file load allocation per route, including the file content and the validations.
+     */
+    @Test
+    public void testLoadAllocationBudget() {
+        assertThat(getAllocatedBytesPerOperation("load")).isLessThanOrEqualTo(LOAD_PER_ROUTE_BUDGET);
+    }
+
+    /**
+     * Scenario: Per phase allocation report of a data file load.
+     * Every phase of a successful load should be accounted.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLoadAllocationReport() throws IOException {
+        final Path dataFile = Files.createTempFile("bus-route-data", ".txt");
+
+        try {
+            PerfDataSets.writeDataFile(PerfDataSets.generateRoutes(1), dataFile);
+
+            final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+            cacheManager.validateDataFileAndInitializeCache(dataFile.toString());
+
+            final Map<DataLoadProgress.Phase, Long> allocatedBytesPerPhase = cacheManager.getLoadProgress().getAllocatedBytesPerPhase();
+            assertThat(allocatedBytesPerPhase).containsKeys(
+                    DataLoadProgress.Phase.READING, DataLoadProgress.Phase.VALIDATING, DataLoadProgress.Phase.INDEXING);
+
+            final StringBuilder report = new StringBuilder();
+            report.append(String.format("%-12s %15s %15s%n", "Phase", "Bytes", "Bytes/Route"));
+            allocatedBytesPerPhase.forEach((phase, bytes) ->
+                    report.append(String.format("%-12s %15d %15d%n", phase, bytes, bytes / PerfDataSets.ROUTES)));
+            for (RunResult runResult : runResults) {
+                report.append(String.format("%-40s %10.1f B/op %12.3f %s%n",
+                        runResult.getParams().getBenchmark(),
+                        getAllocatedBytesPerOperation(runResult),
+                        runResult.getPrimaryResult().getScore(),
+                        runResult.getPrimaryResult().getScoreUnit()));
+            }
+
+            Files.write(Paths.get("target", "allocation-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+            System.out.print(report);
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    /**
+     * @param benchmarkMethod
+     * @return Normalized allocation of the given benchmark
+     */
+    private static double getAllocatedBytesPerOperation(final String benchmarkMethod) {
+        return runResults.stream()
+                .filter(runResult -> runResult.getParams().getBenchmark().endsWith("." + benchmarkMethod))
+                .findFirst()
+                .map(AllocationBudgetTests::getAllocatedBytesPerOperation)
+                .orElseThrow(() -> new AssertionError("Benchmark " + benchmarkMethod + " is not run."));
+    }
+
+    /**
+     * @param benchmarkMethod Query path benchmark(measured in nanoseconds)
+     * @return Average time of the given benchmark
+     */
+    private static double getNanosPerOperation(final String benchmarkMethod) {
+        return runResults.stream()
+                .filter(runResult -> runResult.getParams().getBenchmark().endsWith("." + benchmarkMethod))
+                .findFirst()
+                .map(runResult -> runResult.getPrimaryResult().getScore())
+                .orElseThrow(() -> new AssertionError("Benchmark " + benchmarkMethod + " is not run."));
+    }
+
+    private static double getAllocatedBytesPerOperation(final RunResult runResult) {
+        final Result<?> allocationResult = runResult.getSecondaryResults().get(ALLOCATION_METRIC);
+        return (allocationResult == null) ? Double.NaN : allocationResult.getScore();
+    }
+
+}
@@ -0,0 +1,348 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.OutputStreamContentProvider;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.goeuro.hiring.devtest.busroute.ApplicationLoader;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.rest.BulkPairChecker;
+
+/**
+ * Throughput of the bulk API(/api/bulk) in pairs per second: end to end over HTTP(the client streams the request body
+ * and reads the results at the same time) for both the formats, against the checker alone over an in-memory stream,
+ * which is the parsing bound. Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The throughput table is written to target/bulk-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class BulkPairCheckThroughputTests {
+
+    private static final int BATCH_PAIRS = 1 << 16;             /* Distinct pairs, repeated to the total */
+    private static final int BATCH_REPETITIONS = 64;            /* 4M pairs per run */
+    private static final long PAIRS = (long) BATCH_PAIRS * BATCH_REPETITIONS;
+    private static final long MAX_ALLOCATED_BYTES = 1 << 20;    /* Whatever the number of pairs, the buffers are 128 KB */
+
+    private static Path dataFile;
+    private static BusRouteDataCache dataCache;
+    private static byte[] ndjsonBatch;
+    private static byte[] csvBatch;
+    private static long expectedConnectedPairs;
+
+    /* Scenario -> Result */
+    private static final Map<String, ThroughputResult> results = new LinkedHashMap<>();
+    private static long inMemoryAllocatedBytes;
+
+    @BeforeClass
+    public static void runBulkChecks() throws Exception {
+        final int[][] routes = PerfDataSets.generateRoutes(1);
+        dataFile = Files.createTempFile("bus-route-data", ".txt");
+        PerfDataSets.writeDataFile(routes, dataFile);
+        dataCache = PerfDataSets.buildDataCache(routes);
+
+        final int[] queries = PerfDataSets.generateQueries(routes, BATCH_PAIRS, 3);
+        ndjsonBatch = encodeBatch(queries, false);
+        csvBatch = encodeBatch(queries, true);
+
+        final BulkPairChecker batchChecker = new BulkPairChecker(dataCache, true);
+        batchChecker.check(new RepeatingInputStream(csvBatch, 1), new DiscardingOutputStream());
+        expectedConnectedPairs = batchChecker.getConnectedCount() * BATCH_REPETITIONS;
+
+        /* Warmup, then the measurement */
+        checkInMemory(false);
+        inMemoryAllocatedBytes = 0;
+        results.put("in-memory, NDJSON", checkInMemory(false));
+        results.put("in-memory, CSV", checkInMemory(true));
+
+        try (ConfigurableApplicationContext server = startServer()) {
+            final int port = ((EmbeddedWebApplicationContext) server).getEmbeddedServletContainer().getPort();
+            final HttpClient httpClient = new HttpClient();
+            httpClient.start();
+
+            try {
+                checkOverHttp(httpClient, port, false);
+                results.put("HTTP, NDJSON", checkOverHttp(httpClient, port, false));
+                results.put("HTTP, CSV", checkOverHttp(httpClient, port, true));
+            } finally {
+                httpClient.stop();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    /**
+     * Scenario: A result line per pair, with the same connected pairs, in all the scenarios.
+     */
+    @Test
+    public void testAllPairsAreChecked() {
+        assertThat(results).hasSize(4);
+        results.forEach((scenario, result) -> {
+            assertThat(result.resultLines).as("Result lines of %s", scenario).isEqualTo(PAIRS);
+            assertThat(result.connectedPairs).as("Connected pairs of %s", scenario).isEqualTo(expectedConnectedPairs);
+        });
+    }
+
+    /**
+     * Scenario: Checking millions of pairs allocates a constant amount of memory(the buffers of the checker).
+     */
+    @Test
+    public void testMemoryDoesNotGrowWithPairs() {
+        assertThat(inMemoryAllocatedBytes).isLessThan(MAX_ALLOCATED_BYTES);
+    }
+
+    /**
+     * Scenario: Throughput report of the bulk checks.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBulkReport() throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %12s %10s %12s %10s   (%d pairs, %d bytes allocated in memory)%n",
+                "Scenario", "Pairs", "Millis", "Pairs/s", "Input MB/s", PAIRS, inMemoryAllocatedBytes));
+        results.forEach((scenario, result) ->
+                report.append(String.format("%-20s %12d %10d %12.0f %10.1f%n", scenario, result.resultLines,
+                        TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos), result.getPairsPerSecond(), result.getInputMegabytesPerSecond())));
+
+        Files.write(Paths.get("target", "bulk-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+    private static ConfigurableApplicationContext startServer() {
+        /* Command line arguments, the default properties of the builder can't override application.properties */
+        return new SpringApplicationBuilder(ApplicationLoader.class)
+                .run("--bus-route-data-file-path=" + dataFile,
+                     "--server.port=0",
+                     "--bus-route.warmup.enabled=false",
+                     "--logging.level.root=WARN");
+    }
+
+    private static ThroughputResult checkInMemory(final boolean csv) throws IOException {
+        final byte[] batch = csv ? csvBatch : ndjsonBatch;
+        final BulkPairChecker checker = new BulkPairChecker(dataCache, csv);
+        final ResultCountingOutputStream resultStream = new ResultCountingOutputStream(csv);
+
+        final long allocatedBytes = getAllocatedBytes();
+        final long startNanos = System.nanoTime();
+        checker.check(new RepeatingInputStream(batch, BATCH_REPETITIONS), resultStream);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        inMemoryAllocatedBytes = Math.max(inMemoryAllocatedBytes, getAllocatedBytes() - allocatedBytes);
+
+        return new ThroughputResult(resultStream.getResultLines(csv), resultStream.connectedPairs, (long) batch.length * BATCH_REPETITIONS, elapsedNanos);
+    }
+
+    /**
+     * Stream the pairs to the bulk API from another thread while reading the results.
+     *
+     * @param httpClient
+     * @param port
+     * @param csv
+     * @return Result lines, connected pairs and the elapsed time from the first byte sent to the last byte received
+     * @throws Exception
+     */
+    private static ThroughputResult checkOverHttp(final HttpClient httpClient, final int port, final boolean csv) throws Exception {
+        final byte[] batch = csv ? csvBatch : ndjsonBatch;
+        final OutputStreamContentProvider requestBody = new OutputStreamContentProvider();
+        final InputStreamResponseListener responseListener = new InputStreamResponseListener();
+        final ResultCountingOutputStream resultStream = new ResultCountingOutputStream(csv);
+
+        final long startNanos = System.nanoTime();
+        httpClient.POST(String.format("http://localhost:%d/api/bulk", port))
+                .content(requestBody, csv ? BulkPairChecker.CSV_VALUE : BulkPairChecker.NDJSON_VALUE)
+                .send(responseListener);
+
+        final Thread sender = new Thread(() -> {
+            try (OutputStream outputStream = requestBody.getOutputStream()) {
+                for (int repetition = 0; repetition < BATCH_REPETITIONS; repetition++) {
+                    outputStream.write(batch);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "bulk-sender");
+        sender.start();
+
+        final Response response = responseListener.get(30, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(200);
+
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = responseListener.getInputStream()) {
+            for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+                resultStream.write(buffer, 0, read);
+            }
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        sender.join();
+
+        return new ThroughputResult(resultStream.getResultLines(csv), resultStream.connectedPairs, (long) batch.length * BATCH_REPETITIONS, elapsedNanos);
+    }
+
+    private static byte[] encodeBatch(final int[] queries, final boolean csv) {
+        final StringBuilder batch = new StringBuilder();
+        for (int index = 0; index < queries.length; index += 2) {
+            if (csv) {
+                batch.append(queries[index]).append(',').append(queries[index + 1]).append('\n');
+            } else {
+                batch.append("{\"dep_sid\":").append(queries[index]).append(",\"arr_sid\":").append(queries[index + 1]).append("}\n");
+            }
+        }
+        return batch.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The same bytes the given number of times, without holding more than one copy.
+     */
+    private static final class RepeatingInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private long remaining;
+        private int position;
+
+        private RepeatingInputStream(final byte[] bytes, final int repetitions) {
+            this.bytes = bytes;
+            this.remaining = (long) bytes.length * repetitions;
+        }
+
+        @Override
+        public int read() {
+            final byte[] single = new byte[1];
+            return (read(single, 0, 1) < 0) ? -1 : single[0];
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            final int count = (int) Math.min(Math.min(length, bytes.length - position), remaining);
+            System.arraycopy(bytes, position, buffer, offset, count);
+            position = (position + count) % bytes.length;
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+    }
+
+    /**
+     * Counts the result lines and the connected pairs, without keeping the results.
+     * The result is "true" if the line ends with "true\n"(CSV) or "true}\n"(NDJSON), i.e. 'u' before "e\n" or "e}\n".
+     */
+    private static final class ResultCountingOutputStream extends OutputStream {
+
+        private final int distance;     /* Bytes from the 'u'/'s' of true/false to the line end */
+        private final byte[] lastBytes = new byte[4];
+        private long position = 0;
+
+        private long lines = 0;
+        private long connectedPairs = 0;
+
+        private ResultCountingOutputStream(final boolean csv) {
+            this.distance = csv ? 2 : 3;
+        }
+
+        @Override
+        public void write(final int character) {
+            write(new byte[] {(byte) character}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] buffer, final int offset, final int length) {
+            for (int index = offset; index < offset + length; index++) {
+                if (buffer[index] == '\n') {
+                    lines++;
+                    /* Within the buffer or, near its start, in the last bytes of the previous one */
+                    final long bytePosition = position + (index - offset) - distance;
+                    final byte resultByte = (bytePosition >= position) ? buffer[index - distance] : lastBytes[(int) (bytePosition & 3)];
+                    if (resultByte == 'u') {
+                        connectedPairs++;
+                    }
+                }
+            }
+
+            for (int index = Math.max(offset, offset + length - 4); index < offset + length; index++) {
+                lastBytes[(int) ((position + (index - offset)) & 3)] = buffer[index];
+            }
+            position += length;
+        }
+
+        /**
+         * @param csv
+         * @return Result lines, the CSV header excluded
+         */
+        private long getResultLines(final boolean csv) {
+            return csv ? lines - 1 : lines;
+        }
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int character) {
+        }
+
+        @Override
+        public void write(final byte[] buffer, final int offset, final int length) {
+        }
+    }
+
+    private static final class ThroughputResult {
+
+        private final long resultLines;
+        private final long connectedPairs;
+        private final long inputBytes;
+        private final long elapsedNanos;
+
+        private ThroughputResult(final long resultLines, final long connectedPairs, final long inputBytes, final long elapsedNanos) {
+            this.resultLines = resultLines;
+            this.connectedPairs = connectedPairs;
+            this.inputBytes = inputBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private double getPairsPerSecond() {
+            return resultLines * 1e9 / elapsedNanos;
+        }
+
+        private double getInputMegabytesPerSecond() {
+            return inputBytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+    }
+
+}
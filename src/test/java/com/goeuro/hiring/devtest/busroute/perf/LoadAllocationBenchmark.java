@@ -0,0 +1,62 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Data file load benchmark(verification, validation and indexing), normalized per loaded route.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoadAllocationBenchmark {
+
+    private Path dataFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataFile = Files.createTempFile("bus-route-data", ".txt");
+        PerfDataSets.writeDataFile(PerfDataSets.generateRoutes(1), dataFile);
+
+        /* Load summary log lines are not part of the measured path */
+        ((Logger) LoggerFactory.getLogger(BusRouteDataCacheManager.class.getName())).setLevel(Level.WARN);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PerfDataSets.ROUTES)
+    public BusRouteDataCache load() throws IOException {
+        final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+        cacheManager.validateDataFileAndInitializeCache(dataFile.toString());
+        return cacheManager.getDataCache();
+    }
+
+}
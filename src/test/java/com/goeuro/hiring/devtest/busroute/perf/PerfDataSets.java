@@ -0,0 +1,160 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheBuilder;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.utils.Constants;
+
+/**
+ * Deterministic synthetic data sets for the performance tests and benchmarks.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+final class PerfDataSets {
+
+    static final int ROUTES = 2000;
+    static final int STATIONS = 20000;
+    static final int STATIONS_PER_ROUTE = 50;
+    static final int DEPARTURES_PER_ROUTE = 140;   /* 20 a day */
+
+    private PerfDataSets() {
+    }
+
+    /**
+     * @param seed
+     * @return Station IDs of each route(Route ID is the index)
+     */
+    static int[][] generateRoutes(final long seed) {
+        final Random random = new Random(seed);
+        final int[][] routes = new int[ROUTES][];
+
+        for (int routeId = 0; routeId < ROUTES; routeId++) {
+            /* Unique stations per route, as required by the data file specification */
+            routes[routeId] = random.ints(0, STATIONS).distinct().limit(STATIONS_PER_ROUTE).toArray();
+        }
+
+        return routes;
+    }
+
+    /**
+     * @param routes
+     * @return Data cache with the given routes
+     */
+    static BusRouteDataCache buildDataCache(final int[][] routes) {
+        final BusRouteDataCacheBuilder dataCacheBuilder = new BusRouteDataCacheBuilder();
+
+        for (int routeId = 0; routeId < routes.length; routeId++) {
+            final List<Integer> stationIds = new ArrayList<>();
+            Arrays.stream(routes[routeId]).forEach(stationIds::add);
+            dataCacheBuilder.addRoute(routeId, stationIds);
+        }
+
+        return dataCacheBuilder.build();
+    }
+
+    /**
+     * @param routes
+     * @param seed
+     * @return Data cache with the given routes and a departure schedule per route(random minutes of the week)
+     */
+    static BusRouteDataCache buildScheduledDataCache(final int[][] routes, final long seed) {
+        final Random random = new Random(seed);
+        final BusRouteDataCacheBuilder dataCacheBuilder = new BusRouteDataCacheBuilder();
+
+        for (int routeId = 0; routeId < routes.length; routeId++) {
+            final int[] departureTimes = random.ints(DEPARTURES_PER_ROUTE, 0, Constants.MINUTES_PER_WEEK).toArray();
+            dataCacheBuilder.addRoute(routeId, routes[routeId], 0, routes[routeId].length, departureTimes, 0, departureTimes.length);
+        }
+
+        return dataCacheBuilder.build();
+    }
+
+    /**
+     * @param routes
+     * @return Cache manager which serves the given routes as its default data set
+     * @throws IOException
+     */
+    static BusRouteDataCacheManager createCacheManager(final int[][] routes) throws IOException {
+        final Path dataFile = Files.createTempFile("bus-route-data", ".txt");
+
+        try {
+            writeDataFile(routes, dataFile);
+
+            final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+            cacheManager.validateDataFileAndInitializeCache(dataFile.toString());
+            return cacheManager;
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    /**
+     * Mix of connected, not connected and unknown station pairs.
+     *
+     * @param routes
+     * @param count
+     * @param seed
+     * @return Packed (Departure Station ID, Arrival Station ID) pairs
+     */
+    static int[] generateQueries(final int[][] routes, final int count, final long seed) {
+        final Random random = new Random(seed);
+        final int[] queries = new int[count * 2];
+
+        for (int index = 0; index < count; index++) {
+            final int[] route = routes[random.nextInt(routes.length)];
+            final int departureIndex = random.nextInt(route.length - 1);
+
+            queries[2 * index] = route[departureIndex];
+            switch (index % 3) {
+                case 0:
+                    queries[2 * index + 1] = route[departureIndex + 1 + random.nextInt(route.length - departureIndex - 1)];
+                    break;
+                case 1:
+                    queries[2 * index + 1] = random.nextInt(STATIONS);
+                    break;
+                default:
+                    queries[2 * index + 1] = STATIONS + random.nextInt(STATIONS); /* Unknown station */
+                    break;
+            }
+        }
+
+        return queries;
+    }
+
+    /**
+     * Write the given routes as a data file as per the specification.
+     *
+     * @param routes
+     * @param dataFile
+     * @throws IOException
+     */
+    static void writeDataFile(final int[][] routes, final Path dataFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(dataFile, StandardCharsets.US_ASCII)) {
+            writer.write(String.valueOf(routes.length));
+            writer.newLine();
+
+            for (int routeId = 0; routeId < routes.length; routeId++) {
+                writer.write(String.valueOf(routeId));
+                for (int stationId : routes[routeId]) {
+                    writer.write(' ');
+                    writer.write(String.valueOf(stationId));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+}
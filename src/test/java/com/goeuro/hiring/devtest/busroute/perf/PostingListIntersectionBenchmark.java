@@ -0,0 +1,83 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.goeuro.hiring.devtest.busroute.data.PostingLists;
+
+/**
+ * Posting list intersection kernel across the size ratios of the two lists, from hub-to-hub(1) to local-to-hub.
+ * Each operation walks through all the common elements, which is the worst case of a lookup(no route in the right direction).
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PostingListIntersectionBenchmark {
+
+    static final int HUB_ROUTES = 20000;        /* Routes of a hub station */
+    static final int ROUTES = 100000;           /* Maximum routes as per the specification */
+
+    @Param({"1", "2", "3", "4", "8", "32", "256", "2000"})
+    public int sizeRatio;
+
+    private int[] hubRoutes;
+    private int[] otherRoutes;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(sizeRatio);
+        hubRoutes = random.ints(0, ROUTES).distinct().limit(HUB_ROUTES).sorted().toArray();
+        otherRoutes = random.ints(0, ROUTES).distinct().limit(HUB_ROUTES / sizeRatio).sorted().toArray();
+    }
+
+    @Benchmark
+    public int merge() {
+        int common = 0;
+        long positions = PostingLists.mergeFirstCommon(otherRoutes, 0, otherRoutes.length, hubRoutes, 0, hubRoutes.length);
+        while (positions != PostingLists.NOT_FOUND) {
+            common++;
+            positions = PostingLists.mergeFirstCommon(otherRoutes, PostingLists.getFirstIndex(positions) + 1, otherRoutes.length,
+                    hubRoutes, PostingLists.getSecondIndex(positions) + 1, hubRoutes.length);
+        }
+        return common;
+    }
+
+    @Benchmark
+    public int gallop() {
+        int common = 0;
+        long positions = PostingLists.gallopFirstCommon(otherRoutes, 0, otherRoutes.length, hubRoutes, 0, hubRoutes.length);
+        while (positions != PostingLists.NOT_FOUND) {
+            common++;
+            positions = PostingLists.gallopFirstCommon(otherRoutes, PostingLists.getFirstIndex(positions) + 1, otherRoutes.length,
+                    hubRoutes, PostingLists.getSecondIndex(positions) + 1, hubRoutes.length);
+        }
+        return common;
+    }
+
+    @Benchmark
+    public int adaptive() {
+        int common = 0;
+        long positions = PostingLists.findFirstCommon(otherRoutes, 0, otherRoutes.length, hubRoutes, 0, hubRoutes.length);
+        while (positions != PostingLists.NOT_FOUND) {
+            common++;
+            positions = PostingLists.findFirstCommon(otherRoutes, PostingLists.getFirstIndex(positions) + 1, otherRoutes.length,
+                    hubRoutes, PostingLists.getSecondIndex(positions) + 1, hubRoutes.length);
+        }
+        return common;
+    }
+
+}
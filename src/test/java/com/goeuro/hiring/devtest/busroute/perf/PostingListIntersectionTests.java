@@ -0,0 +1,90 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Latency of the posting list intersection strategies across the size ratios, measured with JMH.
+ * The adaptive strategy should stay close to the better of the merge and the galloping at every ratio,
+ * which verifies the switch over ratio(PostingLists.GALLOP_RATIO).
+ * Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The latency table is written to target/intersection-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class PostingListIntersectionTests {
+
+    private static final double ADAPTIVE_TOLERANCE = 1.5;  /* Allowed slowdown against the better strategy, mostly the measurement noise */
+
+    /* Size Ratio -> Strategy -> Nanoseconds per intersection */
+    private static final Map<Integer, Map<String, Double>> latencies = new TreeMap<>();
+
+    @BeforeClass
+    public static void runBenchmarks() throws RunnerException {
+        final Collection<RunResult> runResults = new Runner(new OptionsBuilder()
+                .include(PostingListIntersectionBenchmark.class.getSimpleName())
+                .forks(0)   /* The forked JVM can't see the classpath of the surefire JVM */
+                .warmupIterations(3)
+                .warmupTime(TimeValue.milliseconds(300))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.milliseconds(300))
+                .build()).run();
+
+        for (RunResult runResult : runResults) {
+            final String benchmark = runResult.getParams().getBenchmark();
+            latencies.computeIfAbsent(Integer.valueOf(runResult.getParams().getParam("sizeRatio")), sizeRatio -> new TreeMap<>())
+                    .put(benchmark.substring(benchmark.lastIndexOf('.') + 1), runResult.getPrimaryResult().getScore());
+        }
+    }
+
+    /**
+     * Scenario: Adaptive intersection picks the faster strategy for the similar sizes and the skewed sizes.
+     */
+    @Test
+    public void testAdaptiveIntersectionFollowsTheBetterStrategy() {
+        assertThat(latencies).isNotEmpty();
+
+        latencies.forEach((sizeRatio, strategies) ->
+                assertThat(strategies.get("adaptive"))
+                        .as("Adaptive intersection at size ratio %d", sizeRatio)
+                        .isLessThanOrEqualTo(ADAPTIVE_TOLERANCE * Math.min(strategies.get("merge"), strategies.get("gallop"))));
+    }
+
+    /**
+     * Scenario: Latency report of all the strategies across the size ratios.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testIntersectionReport() throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%-12s %12s %12s %12s   (ns, %d routes of the hub station)%n",
+                "Size Ratio", "merge", "gallop", "adaptive", PostingListIntersectionBenchmark.HUB_ROUTES));
+        latencies.forEach((sizeRatio, strategies) ->
+                report.append(String.format("%-12d %12.1f %12.1f %12.1f%n",
+                        sizeRatio, strategies.get("merge"), strategies.get("gallop"), strategies.get("adaptive"))));
+
+        Files.write(Paths.get("target", "intersection-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchService;
+import com.goeuro.hiring.devtest.busroute.utils.Constants;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Query path benchmarks: the primitive data cache lookup, the search service on top of it and the next departures lookup
+ * (same queries, the data cache with the route schedules).
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchAllocationBenchmark {
+
+    private static final int QUERIES = 4096;   /* Power of two */
+    private static final int NEXT_DEPARTURES = 3;   /* Default limit of the end point */
+
+    private BusRouteDataCache dataCache;
+    private DirectBusRouteSearchService searchService;
+    private BusRouteDataCache scheduledDataCache;
+    private final int[] departureTimes = new int[NEXT_DEPARTURES];
+    private final int[] departureRouteIds = new int[NEXT_DEPARTURES];
+    private int[] queries;
+    private int nextQuery;
+
+    @Setup
+    public void setUp() throws IOException {
+        final int[][] routes = PerfDataSets.generateRoutes(1);
+        dataCache = PerfDataSets.buildDataCache(routes);
+        queries = PerfDataSets.generateQueries(routes, QUERIES, 2);
+        scheduledDataCache = PerfDataSets.buildScheduledDataCache(routes, 3);
+
+        searchService = new DirectBusRouteSearchService();
+        ReflectionTestUtils.setField(searchService, "cacheManager", PerfDataSets.createCacheManager(routes));
+
+        /* Per query log lines are not part of the measured path */
+        ((Logger) LoggerFactory.getLogger(DirectBusRouteSearchService.class.getName())).setLevel(Level.WARN);
+    }
+
+    @Benchmark
+    public boolean directLookup() {
+        final int index = 2 * (nextQuery++ & (QUERIES - 1));
+        return dataCache.isDepartureStationIdExists(queries[index])
+                && dataCache.isArrivalStationIdConnected(queries[index], queries[index + 1]);
+    }
+
+    @Benchmark
+    public boolean searchService() {
+        final int index = 2 * (nextQuery++ & (QUERIES - 1));
+        return searchService.isDirectBusRouteExists(queries[index], queries[index + 1]);
+    }
+
+    @Benchmark
+    public int nextDepartures() {
+        final int index = 2 * (nextQuery++ & (QUERIES - 1));
+        return scheduledDataCache.findNextDepartures(queries[index], queries[index + 1],
+                (index * 7) % Constants.MINUTES_PER_WEEK, departureTimes, departureRouteIds);
+    }
+
+}
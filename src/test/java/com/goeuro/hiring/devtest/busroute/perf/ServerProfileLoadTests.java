@@ -0,0 +1,220 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.goeuro.hiring.devtest.busroute.ApplicationLoader;
+
+/**
+ * Load test of the high throughput server profile(@see com.goeuro.hiring.devtest.busroute.rest.HighThroughputServerCustomizer)
+ * against the embedded Jetty defaults: the same search queries at the same client concurrency, over HTTP/1.1
+ * keep-alive connections(one per concurrent request) and over a single multiplexed h2c connection.
+ * Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The throughput/latency table is written to target/server-profile-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class ServerProfileLoadTests {
+
+    private static final int CONCURRENCY = 64;
+    private static final int QUERIES = 4096;
+    private static final long WARMUP_MILLIS = 2000;
+    private static final long MEASUREMENT_MILLIS = 5000;
+    private static final double THROUGHPUT_TOLERANCE = 0.75;  /* Allowed slowdown against the defaults, mostly the measurement noise */
+
+    private static Path dataFile;
+    private static int[] queries;
+
+    /* Scenario -> Result */
+    private static final Map<String, LoadResult> results = new LinkedHashMap<>();
+
+    @BeforeClass
+    public static void runLoad() throws Exception {
+        final int[][] routes = PerfDataSets.generateRoutes(1);
+        dataFile = Files.createTempFile("bus-route-data", ".txt");
+        PerfDataSets.writeDataFile(routes, dataFile);
+        queries = PerfDataSets.generateQueries(routes, QUERIES, 2);
+
+        try (ConfigurableApplicationContext defaultServer = startServer(false)) {
+            results.put("default, HTTP/1.1", runLoad(defaultServer, false));
+        }
+        try (ConfigurableApplicationContext highThroughputServer = startServer(true)) {
+            results.put("high-throughput, HTTP/1.1", runLoad(highThroughputServer, false));
+            results.put("high-throughput, h2c", runLoad(highThroughputServer, true));
+        }
+    }
+
+    @AfterClass
+    public static void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    /**
+     * Scenario: All the requests are served, in all the server profiles and protocols.
+     */
+    @Test
+    public void testNoFailedRequests() {
+        assertThat(results).hasSize(3);
+        results.forEach((scenario, result) -> {
+            assertThat(result.requests).as("Requests of %s", scenario).isGreaterThan(0);
+            assertThat(result.failures).as("Failed requests of %s", scenario).isZero();
+        });
+    }
+
+    /**
+     * Scenario: High throughput profile serves at least as many requests per second as the defaults.
+     */
+    @Test
+    public void testHighThroughputProfileIsNotSlower() {
+        final double defaultThroughput = results.get("default, HTTP/1.1").getRequestsPerSecond();
+
+        assertThat(results.get("high-throughput, HTTP/1.1").getRequestsPerSecond())
+                .isGreaterThanOrEqualTo(THROUGHPUT_TOLERANCE * defaultThroughput);
+        assertThat(results.get("high-throughput, h2c").getRequestsPerSecond())
+                .isGreaterThanOrEqualTo(THROUGHPUT_TOLERANCE * defaultThroughput);
+    }
+
+    /**
+     * Scenario: Throughput/latency report of the server profiles and protocols.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testServerProfileReport() throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%-28s %12s %10s %10s %10s   (%d concurrent requests, %d ms)%n",
+                "Profile, Protocol", "Requests/s", "p50 (us)", "p99 (us)", "Failures", CONCURRENCY, MEASUREMENT_MILLIS));
+        results.forEach((scenario, result) ->
+                report.append(String.format("%-28s %12.0f %10d %10d %10d%n", scenario, result.getRequestsPerSecond(),
+                        result.getPercentileMicros(0.50), result.getPercentileMicros(0.99), result.failures)));
+
+        Files.write(Paths.get("target", "server-profile-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+    private static ConfigurableApplicationContext startServer(final boolean highThroughput) {
+        /* Command line arguments, the default properties of the builder can't override application.properties */
+        return new SpringApplicationBuilder(ApplicationLoader.class)
+                .run("--bus-route-data-file-path=" + dataFile,
+                     "--server.port=0",
+                     "--bus-route.server.high-throughput.enabled=" + highThroughput,
+                     "--bus-route.warmup.enabled=false",    /* Both the profiles are warmed up by the load itself */
+                     "--bus-route.admission.enabled=false",
+                     "--logging.level.root=WARN");
+    }
+
+    /**
+     * Send the queries in a loop with the fixed number of requests in flight, warmup first and then the measurement.
+     *
+     * @param server
+     * @param h2c    true to multiplex all the requests over a single h2c connection
+     * @return Requests, failures and latencies of the measurement
+     * @throws Exception
+     */
+    private static LoadResult runLoad(final ConfigurableApplicationContext server, final boolean h2c) throws Exception {
+        final int port = ((EmbeddedWebApplicationContext) server).getEmbeddedServletContainer().getPort();
+        final HttpClient httpClient = h2c
+                ? new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), null)
+                : new HttpClient();
+        httpClient.setMaxConnectionsPerDestination(h2c ? 1 : CONCURRENCY);
+        httpClient.setMaxRequestsQueuedPerDestination(CONCURRENCY * 2);
+        httpClient.start();
+
+        try {
+            sendQueries(httpClient, port, WARMUP_MILLIS);
+            return sendQueries(httpClient, port, MEASUREMENT_MILLIS);
+        } finally {
+            httpClient.stop();
+        }
+    }
+
+    private static LoadResult sendQueries(final HttpClient httpClient, final int port, final long durationMillis)
+            throws InterruptedException {
+        final Semaphore inFlight = new Semaphore(CONCURRENCY);
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final long[] latencies = new long[1 << 20];
+        final AtomicLong latenciesCount = new AtomicLong();
+
+        final long startNanos = System.nanoTime();
+        final long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        for (int query = 0; System.nanoTime() < endNanos; query = (query + 1) % QUERIES) {
+            inFlight.acquire();
+            final long requestNanos = System.nanoTime();
+            httpClient.newRequest("localhost", port)
+                    .path(String.format("/api/direct?dep_sid=%d&arr_sid=%d", queries[2 * query], queries[2 * query + 1]))
+                    .send(result -> {
+                        if (result.isFailed() || result.getResponse().getStatus() != 200) {
+                            failures.incrementAndGet();
+                        } else {
+                            final long index = latenciesCount.getAndIncrement();
+                            if (index < latencies.length) {
+                                latencies[(int) index] = System.nanoTime() - requestNanos;
+                            }
+                            completed.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(CONCURRENCY);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        final long[] sortedLatencies = Arrays.copyOf(latencies, (int) Math.min(latencies.length, latenciesCount.get()));
+        Arrays.sort(sortedLatencies);
+        return new LoadResult(completed.get(), failures.get(), elapsedNanos, sortedLatencies);
+    }
+
+    private static final class LoadResult {
+
+        private final int requests;
+        private final int failures;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        private LoadResult(final int requests, final int failures, final long elapsedNanos, final long[] sortedLatencies) {
+            this.requests = requests;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        private double getRequestsPerSecond() {
+            return requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        private long getPercentileMicros(final double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            final int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile * sortedLatencies.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(0, index)]);
+        }
+    }
+
+}
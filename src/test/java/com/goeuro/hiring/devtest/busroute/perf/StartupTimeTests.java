@@ -0,0 +1,171 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.goeuro.hiring.devtest.busroute.ApplicationLoader;
+import com.goeuro.hiring.devtest.busroute.LeanApplicationLoader;
+
+/**
+ * Startup time of the Spring Boot mode(@see com.goeuro.hiring.devtest.busroute.ApplicationLoader) and the lean mode
+ * (@see com.goeuro.hiring.devtest.busroute.LeanApplicationLoader): from the launch of a new JVM till the first 200 OK
+ * response of /api/direct, with the same data file. Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The startup times are written to target/startup-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class StartupTimeTests {
+
+    private static final int RUNS = 3;
+    private static final long MAX_STARTUP_MILLIS = 120000;
+
+    private static Path dataFile;
+    private static String firstQuery;
+
+    /* Mode -> Startup time of each run in milliseconds */
+    private static final Map<String, long[]> startupMillis = new LinkedHashMap<>();
+
+    @BeforeClass
+    public static void measureStartups() throws Exception {
+        final int[][] routes = PerfDataSets.generateRoutes(1);
+        dataFile = Files.createTempFile("bus-route-data", ".txt");
+        PerfDataSets.writeDataFile(routes, dataFile);
+        final int[] queries = PerfDataSets.generateQueries(routes, 1, 2);
+        firstQuery = String.format("/api/direct?dep_sid=%d&arr_sid=%d", queries[0], queries[1]);
+
+        startupMillis.put("spring-boot", new long[RUNS]);
+        startupMillis.put("lean", new long[RUNS]);
+        for (int run = 0; run < RUNS; run++) {
+            startupMillis.get("spring-boot")[run] = measureStartup(false);
+            startupMillis.get("lean")[run] = measureStartup(true);
+        }
+    }
+
+    @AfterClass
+    public static void deleteDataFile() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    /**
+     * Scenario: Lean mode serves the first request sooner than the Spring Boot mode.
+     */
+    @Test
+    public void testLeanModeStartsFaster() {
+        assertThat(getMedian(startupMillis.get("lean"))).isLessThan(getMedian(startupMillis.get("spring-boot")));
+    }
+
+    /**
+     * Scenario: Startup time report of both the modes.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStartupReport() throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%-14s %12s %12s   (ms from the JVM launch till the first response, %d runs)%n",
+                "Mode", "Median", "Best", RUNS));
+        startupMillis.forEach((mode, millis) ->
+                report.append(String.format("%-14s %12d %12d%n", mode, getMedian(millis), Arrays.stream(millis).min().getAsLong())));
+
+        Files.write(Paths.get("target", "startup-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+    /**
+     * Launch the application in a new JVM(same classpath as the tests) and poll the search API till it responds.
+     *
+     * @param lean
+     * @return Milliseconds from the launch till the first 200 OK response
+     * @throws Exception
+     */
+    private static long measureStartup(final boolean lean) throws Exception {
+        final int port = findFreePort();
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        if (lean) {
+            command.add(LeanApplicationLoader.class.getName());
+            command.add(dataFile.toString());
+            command.add("--server.port=" + port);
+        } else {
+            /* The main method takes the data file only, the rest are given as the system properties */
+            command.add("-Dserver.port=" + port);
+            command.add("-Dbus-route.warmup.enabled=false");
+            command.add("-Dspring.devtools.restart.enabled=false");    /* Not packaged, only on the test classpath */
+            command.add(ApplicationLoader.class.getName());
+            command.add(dataFile.toString());
+        }
+
+        final long startNanos = System.nanoTime();
+        final Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target", lean ? "startup-lean.log" : "startup-spring-boot.log"))
+                .start();
+        try {
+            while (!isServing(port)) {
+                assertThat(process.isAlive()).as("Application process is alive").isTrue();
+                assertThat(System.nanoTime() - startNanos).isLessThan(TimeUnit.MILLISECONDS.toNanos(MAX_STARTUP_MILLIS));
+                Thread.sleep(5);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean isServing(final int port) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + firstQuery).openConnection();
+            connection.setConnectTimeout(100);
+            try (InputStream responseBody = connection.getInputStream()) {
+                while (responseBody.read() >= 0) {
+                    /* Drain the response */
+                }
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;  /* Not listening yet or not ready(503) */
+        }
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    private static long getMedian(final long[] millis) {
+        final long[] sortedMillis = millis.clone();
+        Arrays.sort(sortedMillis);
+        return sortedMillis[sortedMillis.length / 2];
+    }
+
+}
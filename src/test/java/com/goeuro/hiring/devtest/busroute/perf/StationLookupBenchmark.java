@@ -0,0 +1,101 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.goeuro.hiring.devtest.busroute.data.StationIndex;
+import com.goeuro.hiring.devtest.busroute.data.StationPerfectHash;
+
+/**
+ * Station ID to Station Ordinal lookup over 1M stations: the boxed map of the data cache builder, the open addressing
+ * station index and the minimal perfect hash of the data cache. One out of QUERIES_PER_UNKNOWN lookups is an unknown station.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StationLookupBenchmark {
+
+    static final int STATIONS = 1000000;
+    static final int QUERIES = 1 << 20;            /* Spread over the whole table, as the traffic over all the stations */
+    static final int QUERIES_PER_UNKNOWN = 8;
+
+    @Param({"hashMap", "stationIndex", "perfectHash"})
+    public String implementation;
+
+    private Map<Integer, Integer> stationMap;
+    private StationIndex stationIndex;
+    private StationPerfectHash perfectHash;
+    private int[] queries;
+
+    @Setup
+    public void setUp() {
+        final int[] stationIds = generateStationIds();
+        switch (implementation) {
+            case "hashMap":
+                stationMap = new HashMap<>(STATIONS * 4 / 3 + 1);
+                for (int stationOrdinal = 0; stationOrdinal < STATIONS; stationOrdinal++) {
+                    stationMap.put(stationIds[stationOrdinal], stationOrdinal);
+                }
+                break;
+            case "stationIndex":
+                stationIndex = new StationIndex(stationIds);
+                break;
+            default:
+                perfectHash = new StationPerfectHash(stationIds);
+        }
+
+        final Random random = new Random(3);
+        queries = new int[QUERIES];
+        for (int query = 0; query < QUERIES; query++) {
+            /* Generated IDs are even, an odd ID is unknown */
+            queries[query] = (query % QUERIES_PER_UNKNOWN == 0)
+                    ? stationIds[random.nextInt(STATIONS)] + 1 : stationIds[random.nextInt(STATIONS)];
+        }
+    }
+
+    /**
+     * @return Unique, even(@see #setUp()) and sparse Station IDs
+     */
+    static int[] generateStationIds() {
+        return new Random(1).ints(0, Integer.MAX_VALUE / 2).distinct().limit(STATIONS).map(stationId -> stationId * 2).toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int lookup() {
+        int found = 0;
+        if (stationMap != null) {
+            for (int stationId : queries) {
+                final Integer stationOrdinal = stationMap.get(stationId);
+                found += (stationOrdinal == null) ? 0 : 1;
+            }
+        } else if (stationIndex != null) {
+            for (int stationId : queries) {
+                found += (stationIndex.getOrdinal(stationId) == StationIndex.NOT_FOUND) ? 0 : 1;
+            }
+        } else {
+            for (int stationId : queries) {
+                found += (perfectHash.getOrdinal(stationId) == StationPerfectHash.NOT_FOUND) ? 0 : 1;
+            }
+        }
+        return found;
+    }
+
+}
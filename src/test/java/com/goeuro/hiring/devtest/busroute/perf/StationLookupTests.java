@@ -0,0 +1,134 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import com.goeuro.hiring.devtest.busroute.data.StationIndex;
+import com.goeuro.hiring.devtest.busroute.data.StationPerfectHash;
+
+/**
+ * Lookup latency(JMH), build time and memory of the Station ID lookups over 1M stations(@see StationLookupBenchmark).
+ * The minimal perfect hash of the data cache should take less memory than the station index(a fraction of the boxed map),
+ * without being slower than the boxed map. Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The table is written to target/station-lookup-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class StationLookupTests {
+
+    private static final int BUILD_RUNS = 3;
+    private static final long HASH_MAP_ENTRY_BYTES = 16 + 16 + 32 + 4;  /* Two boxed integers, the node and the table slot(compressed oops) */
+
+    /* Implementation -> Nanoseconds per lookup */
+    private static final Map<String, Double> lookupLatencies = new HashMap<>();
+
+    /* Implementation -> Best build time in milliseconds */
+    private static final Map<String, Long> buildMillis = new LinkedHashMap<>();
+
+    /* Implementation -> Bytes per station */
+    private static final Map<String, Double> bytesPerStation = new HashMap<>();
+
+    @BeforeClass
+    public static void runBenchmarks() throws RunnerException {
+        final Collection<RunResult> runResults = new Runner(new OptionsBuilder()
+                .include(StationLookupBenchmark.class.getSimpleName())
+                .forks(0)   /* The forked JVM can't see the classpath of the surefire JVM */
+                .warmupIterations(3)
+                .warmupTime(TimeValue.milliseconds(300))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.milliseconds(300))
+                .build()).run();
+
+        for (RunResult runResult : runResults) {
+            lookupLatencies.put(runResult.getParams().getParam("implementation"), runResult.getPrimaryResult().getScore());
+        }
+
+        final int[] stationIds = StationLookupBenchmark.generateStationIds();
+        buildMillis.put("hashMap", measureBuild(() -> {
+            final Map<Integer, Integer> stationMap = new HashMap<>(stationIds.length * 4 / 3 + 1);
+            for (int stationOrdinal = 0; stationOrdinal < stationIds.length; stationOrdinal++) {
+                stationMap.put(stationIds[stationOrdinal], stationOrdinal);
+            }
+            return stationMap;
+        }));
+        buildMillis.put("stationIndex", measureBuild(() -> new StationIndex(stationIds)));
+        buildMillis.put("perfectHash(sequential)", measureBuild(() -> new StationPerfectHash(stationIds, false)));
+        buildMillis.put("perfectHash", measureBuild(() -> new StationPerfectHash(stationIds)));
+
+        bytesPerStation.put("hashMap", (double) HASH_MAP_ENTRY_BYTES);
+        bytesPerStation.put("stationIndex", (double) new StationIndex(stationIds).getSizeInBytes() / stationIds.length);
+        bytesPerStation.put("perfectHash", (double) new StationPerfectHash(stationIds).getSizeInBytes() / stationIds.length);
+    }
+
+    /**
+     * Scenario: Minimal perfect hash takes less memory than the station index and a fraction of the boxed map memory.
+     */
+    @Test
+    public void testPerfectHashMemory() {
+        assertThat(bytesPerStation.get("perfectHash")).isLessThan(bytesPerStation.get("stationIndex"));
+        assertThat(bytesPerStation.get("perfectHash")).isLessThan(bytesPerStation.get("hashMap") / 4);
+    }
+
+    /**
+     * Scenario: Minimal perfect hash lookup is not slower than the boxed map lookup of the data cache builder.
+     */
+    @Test
+    public void testPerfectHashLookupIsNotSlowerThanHashMap() {
+        assertThat(lookupLatencies).containsKeys("hashMap", "stationIndex", "perfectHash");
+        assertThat(lookupLatencies.get("perfectHash")).isLessThanOrEqualTo(lookupLatencies.get("hashMap"));
+    }
+
+    /**
+     * Scenario: Lookup latency, build time and memory report.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStationLookupReport() throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%-26s %14s %12s %16s   (%d stations, %d available processors)%n",
+                "Implementation", "Lookup (ns)", "Build (ms)", "Bytes/Station",
+                StationLookupBenchmark.STATIONS, Runtime.getRuntime().availableProcessors()));
+        buildMillis.forEach((implementation, millis) -> {
+            final String name = implementation.replace("(sequential)", "");
+            report.append(String.format("%-26s %14.1f %12d %16.1f%n", implementation,
+                    lookupLatencies.getOrDefault(name, Double.NaN), millis, bytesPerStation.getOrDefault(name, Double.NaN)));
+        });
+
+        Files.write(Paths.get("target", "station-lookup-report.txt"), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+    private static long measureBuild(final Supplier<Object> builder) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < BUILD_RUNS; run++) {
+            final long startNanos = System.nanoTime();
+            builder.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(bestNanos);
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheBuilder;
+import com.goeuro.hiring.devtest.busroute.data.UpstreamStationsPage;
+
+/**
+ * Upstream stations(/api/upstream) at the limit scale: 20K routes of 500 stations each over a 1M Station ID space,
+ * with a hub station in every route. The upstream pairs(billions) can't be stored, hence the data cache should stay
+ * bounded by the station occurrences and a page should be served from the posting list of the arrival station.
+ * Runs with the perf profile only(mvn -Pperf test).
+ *
+ * The build time, memory and page latencies are written to target/upstream-report.txt.
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class UpstreamStationsScaleTests {
+
+    private static final int ROUTES = 20000;
+    private static final int STATIONS_PER_ROUTE = 500;
+    private static final int STATION_ID_SPACE = 1000000;
+    private static final int HUB_STATION_ID = STATION_ID_SPACE;     /* Outside of the random IDs */
+    private static final int PAGE_SIZE = 10000;                     /* bus-route.api.max-page-size */
+
+    private static final long MAX_BYTES_PER_OCCURRENCE = 16;        /* Posting list(route and position) and the encoded route */
+
+    private static BusRouteDataCache dataCache;
+    private static long buildMillis;
+
+    @BeforeClass
+    public static void buildDataCache() {
+        final Random random = new Random(29);
+        final BusRouteDataCacheBuilder dataCacheBuilder = new BusRouteDataCacheBuilder(ROUTES, STATION_ID_SPACE, (long) ROUTES * STATIONS_PER_ROUTE);
+
+        final long startNanos = System.nanoTime();
+        for (int routeId = 0; routeId < ROUTES; routeId++) {
+            final int[] stationIds = random.ints(0, STATION_ID_SPACE).distinct().limit(STATIONS_PER_ROUTE).toArray();
+            stationIds[random.nextInt(STATIONS_PER_ROUTE)] = HUB_STATION_ID;
+            dataCacheBuilder.addRoute(routeId, stationIds, 0, stationIds.length);
+        }
+        dataCache = dataCacheBuilder.build();
+        buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Scenario: Data cache of the limit scale data.
+     * Its size should be bounded by the station occurrences, not by the upstream pairs.
+     */
+    @Test
+    public void testMemoryIsBoundedByStationOccurrences() {
+        assertThat(dataCache.getRoutesCount()).isEqualTo(ROUTES);
+        assertThat(dataCache.getSizeInBytes()).isLessThan((long) ROUTES * STATIONS_PER_ROUTE * MAX_BYTES_PER_OCCURRENCE);
+    }
+
+    /**
+     * Scenario: All the upstream stations of the hub station, page by page with the cursor, and a report of the latencies.
+     * The pages should add up to the whole list, in the ascending order.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHubStationPagesAndReport() throws IOException {
+        final int[] allUpstreamStationIds = dataCache.getUpstreamStationIds(HUB_STATION_ID);
+        final int[] pagedUpstreamStationIds = new int[allUpstreamStationIds.length];
+        int pagedCount = 0;
+        int pages = 0;
+        long slowestPageNanos = 0;
+
+        long afterStationId = Long.MIN_VALUE;
+        UpstreamStationsPage page;
+        do {
+            final long startNanos = System.nanoTime();
+            page = dataCache.getUpstreamStations(HUB_STATION_ID, afterStationId, 0, PAGE_SIZE);
+            slowestPageNanos = Math.max(slowestPageNanos, System.nanoTime() - startNanos);
+
+            System.arraycopy(page.getStationIds(), 0, pagedUpstreamStationIds, pagedCount, page.getStationIds().length);
+            pagedCount += page.getStationIds().length;
+            pages++;
+            afterStationId = page.getStationIds()[page.getStationIds().length - 1];
+        } while (page.hasMore());
+
+        assertThat(page.getTotal()).isEqualTo(allUpstreamStationIds.length).isGreaterThan(PAGE_SIZE);
+        assertThat(pagedUpstreamStationIds).isEqualTo(allUpstreamStationIds);
+        final int[] sortedUpstreamStationIds = Arrays.copyOf(allUpstreamStationIds, allUpstreamStationIds.length);
+        Arrays.sort(sortedUpstreamStationIds);
+        assertThat(allUpstreamStationIds).isEqualTo(sortedUpstreamStationIds);
+
+        final String report = String.format("%d routes x %d stations, %d stations%n"
+                        + "Build (ms)               %12d%n"
+                        + "Data cache (MB)          %12.1f%n"
+                        + "Hub upstream stations    %12d%n"
+                        + "Pages of %-5d           %12d%n"
+                        + "Slowest page (ms)        %12.1f%n",
+                ROUTES, STATIONS_PER_ROUTE, dataCache.getStationsCount(), buildMillis,
+                dataCache.getSizeInBytes() / (1024.0 * 1024.0), page.getTotal(), PAGE_SIZE, pages, slowestPageNanos / 1e6);
+
+        Files.write(Paths.get("target", "upstream-report.txt"), report.getBytes(StandardCharsets.UTF_8));
+        System.out.print(report);
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.AdaptiveConcurrencyLimiter method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class AdaptiveConcurrencyLimiterTests {
+
+    private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Scenario: More concurrent requests than the limit.
+     * Requests above the limit should be rejected till an admitted request is released.
+     */
+    @Test
+    public void testRequestsAboveLimitAreRejected() {
+        final AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2, 1.5, 60000, 1);
+
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+        assertThat(concurrencyLimiter.tryAcquire()).isFalse();
+
+        concurrencyLimiter.release(RTT_NANOS);
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+
+        assertThat(concurrencyLimiter.getInFlight()).isEqualTo(2);
+        assertThat(concurrencyLimiter.getAcceptedCount()).isEqualTo(3);
+        assertThat(concurrencyLimiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    /**
+     * Scenario: Fully used limit with a steady latency.
+     * Limit should grow.
+     */
+    @Test
+    public void testLimitGrowsWithSteadyLatency() {
+        final AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, 1.5, 0, 1);
+
+        runWindows(concurrencyLimiter, 20, RTT_NANOS);
+
+        assertThat(concurrencyLimiter.getLimit()).isGreaterThan(10);
+    }
+
+    /**
+     * Scenario: Latency rises well above the long term average(queueing).
+     * Limit should shrink, but not below the minimum.
+     */
+    @Test
+    public void testLimitShrinksWhenLatencyRises() {
+        final AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(50, 5, 100, 0.5, 1.5, 0, 1);
+
+        runWindows(concurrencyLimiter, 5, RTT_NANOS);
+        final int limitBeforeLatencyRise = concurrencyLimiter.getLimit();
+
+        runWindows(concurrencyLimiter, 1, RTT_NANOS * 10);
+
+        assertThat(concurrencyLimiter.getLimit()).isLessThan(limitBeforeLatencyRise);
+        assertThat(concurrencyLimiter.getLimit()).isGreaterThanOrEqualTo(5);
+    }
+
+    /**
+     * Admit requests up to the limit and release them with the given latency, once per window.
+     *
+     * @param concurrencyLimiter
+     * @param windows
+     * @param rttNanos
+     */
+    private static void runWindows(final AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                   final int windows,
+                                   final long rttNanos) {
+        for (int window = 0; window < windows; window++) {
+            int admitted = 0;
+            while (concurrencyLimiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int request = 0; request < admitted; request++) {
+                concurrencyLimiter.release(rttNanos);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCache;
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.BulkPairChecker method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class BulkPairCheckerTests {
+
+    private static BusRouteDataCache dataCache;
+
+    @BeforeClass
+    public static void loadDataCache() throws IOException {
+        final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+        cacheManager.validateDataFileAndInitializeCache("src/test/resources/bus-route-data/reference-data");
+        dataCache = cacheManager.getDataCache();
+    }
+
+    /**
+     * Scenario: NDJSON pairs with the fields in any order, other fields, whitespace, CRLF and blank lines.
+     * A result line should be written for each non blank line, in the same order.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNdjsonPairs() throws IOException {
+        final String pairs = "{\"dep_sid\":0,\"arr_sid\":4}\n"
+                + "\n"
+                + " { \"arr_sid\" : 0 , \"dep_sid\" : 4 }\r\n"
+                + "{\"id\":\"a,\\\"b}\",\"dep_sid\":-3,\"score\":1.5e3,\"ok\":true,\"arr_sid\":2147483647}\n"
+                + "{\"dep_sid\":3,\"arr_sid\":6}";
+
+        final BulkPairChecker checker = new BulkPairChecker(dataCache, false);
+        final ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+        assertThat(checker.check(toStream(pairs), results)).isEqualTo(4);
+        assertThat(checker.getConnectedCount()).isEqualTo(2);
+        assertThat(checker.getInvalidCount()).isZero();
+        assertThat(results.toString("US-ASCII")).isEqualTo("{\"dep_sid\":0,\"arr_sid\":4,\"direct_bus_route\":true}\n"
+                + "{\"dep_sid\":4,\"arr_sid\":0,\"direct_bus_route\":false}\n"
+                + "{\"dep_sid\":-3,\"arr_sid\":2147483647,\"direct_bus_route\":false}\n"
+                + "{\"dep_sid\":3,\"arr_sid\":6,\"direct_bus_route\":true}\n");
+    }
+
+    /**
+     * Scenario: NDJSON lines which aren't valid pairs(missing/out of range/non integer station IDs, nested values,
+     * not closed objects, trailing data).
+     * An error line should be written for each of them.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testInvalidNdjsonPairs() throws IOException {
+        final String[] invalidPairs = {
+                "{\"dep_sid\":3}",
+                "{\"dep_sid\":3,\"arr_sid\":2147483648}",
+                "{\"dep_sid\":3,\"arr_sid\":\"6\"}",
+                "{\"dep_sid\":3,\"arr_sid\":6.5}",
+                "{\"dep_sid\":3,\"arr_sid\":6,\"via\":[1]}",
+                "{\"dep_sid\":3,\"arr_sid\":6",
+                "{\"dep_sid\":3,\"arr_sid\":6} {}",
+                "3,6"};
+
+        final BulkPairChecker checker = new BulkPairChecker(dataCache, false);
+        final ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+        assertThat(checker.check(toStream(String.join("\n", invalidPairs)), results)).isZero();
+        assertThat(checker.getInvalidCount()).isEqualTo(invalidPairs.length);
+        assertThat(results.toString("US-ASCII").split("\n")).hasSize(invalidPairs.length).containsOnly("{\"error\":\"invalid pair\"}");
+    }
+
+    /**
+     * Scenario: CSV pairs with a header, whitespace and an invalid line.
+     * The result should start with its own header.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCsvPairs() throws IOException {
+        final BulkPairChecker checker = new BulkPairChecker(dataCache, true);
+        final ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+        assertThat(checker.check(toStream("dep_sid,arr_sid\n6,4\n 6 , 3 \n6;4\n-1,-2\n"), results)).isEqualTo(3);
+        assertThat(results.toString("US-ASCII")).isEqualTo(BulkPairChecker.CSV_HEADER + "\n6,4,true\n6,3,false\n,,invalid\n-1,-2,false\n");
+    }
+
+    /**
+     * Scenario: Input delivered a few bytes at a time, with more pairs than the buffers hold and a line longer than the
+     * input buffer.
+     * The results should be the same as if the input is read at once, and the long line should be a single invalid line.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPairsAcrossBufferBoundaries() throws IOException {
+        final char[] longValue = new char[100 * 1024];
+        Arrays.fill(longValue, 'x');
+
+        final StringBuilder pairs = new StringBuilder();
+        final StringBuilder expectedResults = new StringBuilder(BulkPairChecker.CSV_HEADER).append('\n');
+        for (int pair = 0; pair < 20000; pair++) {
+            pairs.append(pair % 7).append(',').append(pair % 5).append('\n');
+            expectedResults.append(pair % 7).append(',').append(pair % 5).append(',')
+                    .append(dataCache.isDepartureStationIdExists(pair % 7) && dataCache.isArrivalStationIdConnected(pair % 7, pair % 5))
+                    .append('\n');
+
+            if (pair == 10000) {
+                pairs.append(longValue).append('\n');
+                expectedResults.append(",,invalid\n");
+            }
+        }
+
+        final byte[] input = pairs.toString().getBytes(StandardCharsets.US_ASCII);
+        final InputStream slowStream = new ByteArrayInputStream(input) {
+            @Override
+            public synchronized int read(final byte[] buffer, final int offset, final int length) {
+                return super.read(buffer, offset, Math.min(length, 7));
+            }
+        };
+
+        final BulkPairChecker checker = new BulkPairChecker(dataCache, true);
+        final ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+        assertThat(checker.check(slowStream, results)).isEqualTo(20000);
+        assertThat(checker.getInvalidCount()).isEqualTo(1);
+        assertThat(results.toString("US-ASCII")).isEqualTo(expectedResults.toString());
+    }
+
+    private static InputStream toStream(final String pairs) {
+        return new ByteArrayInputStream(pairs.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import com.goeuro.hiring.devtest.busroute.data.BusRouteDataCacheManager;
+import com.goeuro.hiring.devtest.busroute.service.DirectBusRouteSearchService;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.DirectBusRouteSearchHttpHandler(lean launch mode)
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class DirectBusRouteSearchHttpHandlerTests {
+
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        final BusRouteDataCacheManager cacheManager = new BusRouteDataCacheManager();
+        cacheManager.validateDataFileAndInitializeCache("src/test/resources/bus-route-data/reference-data");
+
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/api/direct", new DirectBusRouteSearchHttpHandler(cacheManager, new DirectBusRouteSearchService(cacheManager)));
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    /**
+     * Scenario: Connected, not connected(reverse direction) and unknown stations.
+     * The response should be the same as the one of the Spring MVC end point.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDirectSearch() throws IOException {
+        HttpURLConnection connection = send("GET", "dep_sid=3&arr_sid=6");
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(connection.getHeaderField(DataSetSnapshotFilter.DATA_VERSION_HEADER)).isEqualTo("1");
+        assertThat(readBody(connection)).isEqualTo("{\"dep_sid\":3,\"arr_sid\":6,\"direct_bus_route\":true}");
+
+        connection = send("GET", "arr_sid=3&dep_sid=6");
+        assertThat(readBody(connection)).isEqualTo("{\"dep_sid\":6,\"arr_sid\":3,\"direct_bus_route\":false}");
+
+        connection = send("GET", "dep_sid=-100&arr_sid=2147483647");
+        assertThat(readBody(connection)).isEqualTo("{\"dep_sid\":-100,\"arr_sid\":2147483647,\"direct_bus_route\":false}");
+    }
+
+    /**
+     * Scenario: Missing/invalid parameters, departure time(not supported in the lean mode), unknown data set and unsupported method.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testErrors() throws IOException {
+        assertThat(send("GET", "dep_sid=3").getResponseCode()).isEqualTo(400);
+        assertThat(send("GET", "dep_sid=3&arr_sid=six").getResponseCode()).isEqualTo(400);
+        assertThat(send("GET", "dep_sid=3&arr_sid=2147483648").getResponseCode()).isEqualTo(400);
+        assertThat(send("GET", "dep_sid=3&arr_sid=6&version=latest").getResponseCode()).isEqualTo(400);
+        assertThat(send("GET", "dep_sid=3&arr_sid=6&dep_time=480&limit=2").getResponseCode()).isEqualTo(400);
+        assertThat(send("GET", "dep_sid=3&arr_sid=6&dataset=eu").getResponseCode()).isEqualTo(404);
+        assertThat(send("GET", "dep_sid=3&arr_sid=6&version=5").getResponseCode()).isEqualTo(404);
+        assertThat(send("DELETE", "dep_sid=3&arr_sid=6").getResponseCode()).isEqualTo(405);
+    }
+
+    /**
+     * Scenario: Query parameters are matched by the whole name.
+     */
+    @Test
+    public void testGetParameter() {
+        assertThat(DirectBusRouteSearchHttpHandler.getParameter("xdep_sid=1&dep_sid=2", "dep_sid")).isEqualTo("2");
+        assertThat(DirectBusRouteSearchHttpHandler.getParameter("dep_sid=&arr_sid=3", "dep_sid")).isEmpty();
+        assertThat(DirectBusRouteSearchHttpHandler.getParameter("dep_sid", "dep_sid")).isNull();
+        assertThat(DirectBusRouteSearchHttpHandler.getParameter(null, "dep_sid")).isNull();
+    }
+
+    private HttpURLConnection send(final String method, final String query) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection)
+                new URL(String.format("http://localhost:%d/api/direct?%s", server.getAddress().getPort(), query)).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static String readBody(final HttpURLConnection connection) throws IOException {
+        try (InputStream responseBody = connection.getInputStream()) {
+            return StreamUtils.copyToString(responseBody, StandardCharsets.UTF_8);
+        }
+    }
+
+}
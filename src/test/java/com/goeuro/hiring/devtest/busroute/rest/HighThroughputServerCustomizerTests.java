@@ -0,0 +1,119 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.context.embedded.jetty.JettyEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.jetty.JettyEmbeddedServletContainerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.HighThroughputServerCustomizer
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class HighThroughputServerCustomizerTests {
+
+    private JettyEmbeddedServletContainer container;
+
+    @After
+    public void stopContainer() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    /**
+     * Scenario: High throughput profile is enabled.
+     * The same port should serve both HTTP/1.1 and h2c(prior knowledge), with the bounded thread pool.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testHttp11AndH2cOnTheSamePort() throws Exception {
+        final HighThroughputServerCustomizer customizer = createCustomizer(true);
+        final JettyEmbeddedServletContainerFactory containerFactory = new JettyEmbeddedServletContainerFactory(0);
+        customizer.customize(containerFactory);
+        startContainer(containerFactory);
+
+        final Connector[] connectors = container.getServer().getConnectors();
+        assertThat(connectors).hasSize(1);
+        assertThat(connectors[0].getProtocols()).startsWith("http/1.1", "h2c");
+
+        final QueuedThreadPool threadPool = (QueuedThreadPool) container.getServer().getThreadPool();
+        assertThat(threadPool.getMinThreads()).isEqualTo(threadPool.getMaxThreads());
+        assertThat(threadPool.getMaxThreads()).isEqualTo(customizer.getAcceptors() + customizer.getSelectors()
+                + Runtime.getRuntime().availableProcessors() * 2);
+        assertThat(customizer.metrics()).extracting("name").contains("bus-route.server.threads", "bus-route.server.queue-size");
+
+        final HttpClient http11Client = new HttpClient();
+        final HttpClient h2cClient = new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), null);
+        http11Client.start();
+        h2cClient.start();
+        try {
+            final String url = String.format("http://localhost:%d/ping", container.getPort());
+
+            final ContentResponse http11Response = http11Client.GET(url);
+            assertThat(http11Response.getVersion()).isEqualTo(HttpVersion.HTTP_1_1);
+            assertThat(http11Response.getContentAsString()).isEqualTo("HTTP/1.1");
+
+            final ContentResponse h2cResponse = h2cClient.GET(url);
+            assertThat(h2cResponse.getVersion()).isEqualTo(HttpVersion.HTTP_2);
+            assertThat(h2cResponse.getContentAsString()).isEqualTo("HTTP/2.0");
+        } finally {
+            h2cClient.stop();
+            http11Client.stop();
+        }
+    }
+
+    /**
+     * Scenario: High throughput profile is disabled(default).
+     * The embedded Jetty defaults should be left as they are.
+     */
+    @Test
+    public void testDisabledProfile() {
+        final HighThroughputServerCustomizer customizer = createCustomizer(false);
+        final JettyEmbeddedServletContainerFactory containerFactory = new JettyEmbeddedServletContainerFactory(0);
+        customizer.customize(containerFactory);
+
+        assertThat(containerFactory.getThreadPool()).isNull();
+        assertThat(containerFactory.getServerCustomizers()).isEmpty();
+        assertThat(customizer.metrics()).isEmpty();
+    }
+
+    private void startContainer(final JettyEmbeddedServletContainerFactory containerFactory) {
+        container = (JettyEmbeddedServletContainer) containerFactory.getEmbeddedServletContainer(servletContext ->
+                servletContext.addServlet("ping", new HttpServlet() {
+                    @Override
+                    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+                        response.getOutputStream().write(request.getProtocol().getBytes(StandardCharsets.US_ASCII));
+                    }
+                }).addMapping("/ping"));
+        container.start();
+    }
+
+    private static HighThroughputServerCustomizer createCustomizer(final boolean enabled) {
+        final HighThroughputServerCustomizer customizer = new HighThroughputServerCustomizer();
+        ReflectionTestUtils.setField(customizer, "highThroughputEnabled", enabled);
+        return customizer;
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.goeuro.hiring.devtest.busroute.utils.QueryCaptureFile;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.QueryCaptureSink method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class QueryCaptureSinkTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private QueryCaptureSink queryCaptureSink;
+
+    private File captureFile;
+
+    @Before
+    public void setUp() throws IOException {
+        captureFile = new File(temporaryFolder.getRoot(), "queries.bin");
+
+        queryCaptureSink = new QueryCaptureSink();
+        ReflectionTestUtils.setField(queryCaptureSink, "captureEnabled", true);
+        ReflectionTestUtils.setField(queryCaptureSink, "captureFilePath", captureFile.getPath());
+        ReflectionTestUtils.setField(queryCaptureSink, "samplingInterval", 1);
+        ReflectionTestUtils.setField(queryCaptureSink, "ringBufferSizePowerOfTwo", 2);
+        ReflectionTestUtils.setField(queryCaptureSink, "flushIntervalMillis", 60000L);
+    }
+
+    /**
+     * Scenario: All the captured queries fit into the ring buffer.
+     * All of them should be written to the capture file in the same order.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCapturedQueriesAreWrittenInOrder() throws IOException {
+        queryCaptureSink.start();
+        queryCaptureSink.capture(1, 2);
+        queryCaptureSink.capture(3, -4);
+        queryCaptureSink.stop();
+
+        assertThat(QueryCaptureFile.readQueries(captureFile.getPath(), 10)).containsExactly(1, 2, 3, -4);
+    }
+
+    /**
+     * Scenario: More queries are captured than the ring buffer size before the drain.
+     * Only the latest queries should be written to the capture file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOldestQueriesAreDroppedWhenRingBufferOverflows() throws IOException {
+        queryCaptureSink.start();
+        for (int stationId = 0; stationId < 6; stationId++) {
+            queryCaptureSink.capture(stationId, stationId + 100);
+        }
+        queryCaptureSink.stop();
+
+        assertThat(QueryCaptureFile.readQueries(captureFile.getPath(), 10)).containsExactly(2, 102, 3, 103, 4, 104, 5, 105);
+    }
+
+    /**
+     * Scenario: A writer stalls after claiming its slot and the ring buffer wraps around to the same slot meanwhile.
+     * The newer writer should drop its sample rather than share the slot, and the stalled writer's query should be
+     * published under its own sequence only(skipped as overwritten, never written in place of the newer one).
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStalledWriterDoesNotShareItsSlot() throws IOException {
+        queryCaptureSink.start();
+
+        /* Sequence 0 claimed slot 0 and stalled */
+        ((AtomicLong) ReflectionTestUtils.getField(queryCaptureSink, "nextSequence")).set(1);
+        final AtomicLongArray publishedSequences = (AtomicLongArray) ReflectionTestUtils.getField(queryCaptureSink, "publishedSequences");
+        publishedSequences.set(0, -1);
+
+        for (int stationId = 1; stationId <= 4; stationId++) {
+            queryCaptureSink.capture(stationId, stationId + 100);   /* Sequence 4 wraps around to slot 0 */
+        }
+        assertThat(publishedSequences.get(0)).isEqualTo(-1);
+
+        /* Stalled writer completes */
+        ((AtomicLongArray) ReflectionTestUtils.getField(queryCaptureSink, "queries")).set(0, 9);
+        publishedSequences.set(0, 1);
+        queryCaptureSink.stop();
+
+        assertThat(QueryCaptureFile.readQueries(captureFile.getPath(), 10)).containsExactly(1, 101, 2, 102, 3, 103);
+    }
+
+    /**
+     * Scenario: A writer loses the claim of its slot to a stalled writer of an older lap, which never completes.
+     * The lost sample should be counted as dropped by the next drain and the later queries should be drained
+     * without waiting for the ring buffer to wrap around.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLostClaimDoesNotStallTheDrain() throws IOException {
+        queryCaptureSink.start();
+
+        /* Sequence 1 of the previous lap claimed slot 1 and stalled */
+        ((AtomicLong) ReflectionTestUtils.getField(queryCaptureSink, "nextSequence")).set(4);
+        ReflectionTestUtils.setField(queryCaptureSink, "drainedSequence", 4L);
+        final AtomicLongArray publishedSequences = (AtomicLongArray) ReflectionTestUtils.getField(queryCaptureSink, "publishedSequences");
+        publishedSequences.set(1, -2);
+
+        for (int stationId = 4; stationId < 7; stationId++) {
+            queryCaptureSink.capture(stationId, stationId + 100);   /* Sequence 5 loses the claim of slot 1 */
+        }
+        queryCaptureSink.drain();
+        queryCaptureSink.capture(7, 107);
+        queryCaptureSink.drain();
+
+        assertThat(QueryCaptureFile.readQueries(captureFile.getPath(), 10)).containsExactly(4, 104, 6, 106, 7, 107);
+        assertThat(ReflectionTestUtils.getField(queryCaptureSink, "droppedCount")).isEqualTo(1L);
+        queryCaptureSink.stop();
+    }
+
+    /**
+     * Scenario: Captured queries are appended to an existing capture file across restarts.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCaptureFileIsAppended() throws IOException {
+        queryCaptureSink.start();
+        queryCaptureSink.capture(1, 2);
+        queryCaptureSink.stop();
+
+        queryCaptureSink.start();
+        queryCaptureSink.capture(5, 6);
+        queryCaptureSink.stop();
+
+        assertThat(QueryCaptureFile.readQueries(captureFile.getPath(), 10)).containsExactly(1, 2, 5, 6);
+    }
+
+}
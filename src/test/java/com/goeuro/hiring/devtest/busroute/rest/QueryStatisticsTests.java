@@ -0,0 +1,136 @@
+/**
+ * Created on 2026-10-19.
+ */
+package com.goeuro.hiring.devtest.busroute.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for @see com.goeuro.hiring.devtest.busroute.rest.QueryStatistics method APIs
+ *
+ * @author Sivasubramaniam Arunachalam (siva@sivaa.in)
+ */
+public class QueryStatisticsTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private QueryStatistics queryStatistics;
+
+    private File statisticsFile;
+
+    @Before
+    public void setUp() throws IOException {
+        statisticsFile = new File(temporaryFolder.getRoot(), "query-stats.csv");
+
+        queryStatistics = new QueryStatistics();
+        ReflectionTestUtils.setField(queryStatistics, "statisticsEnabled", true);
+        ReflectionTestUtils.setField(queryStatistics, "statisticsFilePath", statisticsFile.getPath());
+        ReflectionTestUtils.setField(queryStatistics, "samplingInterval", 1);
+        ReflectionTestUtils.setField(queryStatistics, "sketchDepth", 4);
+        ReflectionTestUtils.setField(queryStatistics, "sketchWidthPowerOfTwo", 10);
+        ReflectionTestUtils.setField(queryStatistics, "heavyHittersLimit", 2);
+        ReflectionTestUtils.setField(queryStatistics, "flushIntervalMillis", 60000L);
+    }
+
+    /**
+     * Scenario: Much more distinct keys than the counters per row.
+     * The estimates should never be below the actual counts.
+     */
+    @Test
+    public void testSketchNeverUndercounts() {
+        final CountMinSketch sketch = new CountMinSketch(4, 6);
+        for (long key = 0; key < 1000; key++) {
+            for (int count = 0; count <= key % 5; count++) {
+                sketch.add(key);
+            }
+        }
+
+        for (long key = 0; key < 1000; key++) {
+            assertThat(sketch.estimate(key)).isGreaterThanOrEqualTo(key % 5 + 1);
+        }
+        assertThat(sketch.estimate(-1)).isLessThanOrEqualTo(3000);
+        assertThat(sketch.getSizeInBytes()).isEqualTo(4 * 64 * Long.BYTES);
+    }
+
+    /**
+     * Scenario: Two frequent pairs among a long tail of pairs queried once.
+     * The frequent pairs and their stations should be the top ones, the pairs with their exact counts.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHeavyHittersAreWritten() throws IOException {
+        queryStatistics.start();
+        for (int query = 0; query < 500; query++) {
+            queryStatistics.record(3, 6);
+            queryStatistics.record(query, -query);
+            if (query % 2 == 0) {
+                queryStatistics.record(-7, 11);
+            }
+        }
+        queryStatistics.stop();
+
+        final List<String> rows = Files.readAllLines(statisticsFile.toPath(), StandardCharsets.US_ASCII);
+        assertThat(rows).hasSize(6);
+        assertThat(rows.get(0)).isEqualTo(QueryStatistics.CSV_HEADER);
+        assertThat(rows.get(1)).endsWith(",queries,,,1250");
+        assertThat(rows.get(2)).endsWith(",pair,3,6,500");
+        assertThat(rows.get(3)).endsWith(",pair,-7,11,250");
+        assertThat(withoutTimestamps(rows.subList(4, 6)).stream().map(row -> row.substring(0, row.lastIndexOf(',')))
+                .collect(Collectors.toList())).containsOnly("station,3,", "station,6,");
+    }
+
+    /**
+     * Scenario: Snapshots are appended to an existing statistics file.
+     * The header should be written only once and each snapshot should have the counts since the start.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSnapshotsAreAppended() throws IOException {
+        queryStatistics.start();
+        queryStatistics.record(1, 2);
+        queryStatistics.flush();
+        queryStatistics.record(1, 2);
+        queryStatistics.stop();
+
+        final List<String> rows = Files.readAllLines(statisticsFile.toPath(), StandardCharsets.US_ASCII);
+        assertThat(rows).hasSize(9).containsOnlyOnce(QueryStatistics.CSV_HEADER);
+        assertThat(withoutTimestamps(rows.subList(1, 5))).containsOnly("queries,,,1", "pair,1,2,1", "station,1,,1", "station,2,,1");
+        assertThat(withoutTimestamps(rows.subList(5, 9))).containsOnly("queries,,,2", "pair,1,2,2", "station,1,,2", "station,2,,2");
+    }
+
+    /**
+     * Scenario: Statistics are disabled.
+     * Nothing should be counted nor written.
+     */
+    @Test
+    public void testDisabledStatistics() {
+        ReflectionTestUtils.setField(queryStatistics, "statisticsEnabled", false);
+        queryStatistics.start();
+        queryStatistics.record(1, 2);
+        queryStatistics.stop();
+
+        assertThat(statisticsFile).doesNotExist();
+        assertThat(queryStatistics.metrics()).isEmpty();
+    }
+
+    private static List<String> withoutTimestamps(final List<String> rows) {
+        return rows.stream().map(row -> row.substring(row.indexOf(',') + 1)).collect(Collectors.toList());
+    }
+
+}
@@ -79,4 +79,16 @@ public class RouteSearchServiceTests {
         assertThat(searchService.isDirectBusRouteExists(1, 2)).isFalse();
     }
 
+    /**
+     * Scenario: Data file with the negative Station IDs -1 and -2.
+     * The unknown station of the warmup workload should skip them.
+     */
+    @Test
+    public void testWarmupUnknownStationIdIsNotInTheData() {
+        when(dataCache.areStationsKnown(0, -1)).thenReturn(true);
+        when(dataCache.areStationsKnown(0, -2)).thenReturn(true);
+
+        assertThat(DirectBusRouteSearchWarmer.findUnknownStationId(dataCache, 0)).isEqualTo(-3);
+    }
+
 }
@@ -0,0 +1,19 @@
+#!/bin/bash
+# Replays the captured queries(bus-route.query-capture.*) against a running instance
+# and prints the throughput and latency percentiles.
+#
+# Usage: bash replay_queries.sh QUERY_CAPTURE_FILE [--url=http://localhost:8088] [--rate=0] [--concurrency=8] [--max-queries=N]
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+JAR="$DIR/../../../../target/bus-route-challenge-0.0.1-SNAPSHOT.jar"
+
+if [ -z "$1" ]; then
+    echo "Usage: $0 QUERY_CAPTURE_FILE [--url=http://localhost:8088] [--rate=0] [--concurrency=8] [--max-queries=N]"
+    exit 1
+fi
+
+FILE=$1
+shift
+
+java -cp "$JAR" \
+     -Dloader.main=com.goeuro.hiring.devtest.busroute.tools.QueryReplayTool \
+     org.springframework.boot.loader.PropertiesLauncher --file="$FILE" "$@"
@@ -0,0 +1,32 @@
+#!/bin/bash
+# Starts the lean launch mode(LeanApplicationLoader, no Spring context) from the flat classpath built with 'mvn -Plean package'.
+# With CDS=1, the class-data sharing archive of the classes loaded during the start is created on the first run
+# (target/lean-cds.jsa, JDK 10 or later) and used by the following runs.
+#
+# Usage: [CDS=1] bash start_lean.sh DATA_FILE [--server.port=8088] [--bus-route.lean.worker-threads=0]
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+TARGET="$DIR/../../../../target"
+MAIN=com.goeuro.hiring.devtest.busroute.LeanApplicationLoader
+
+if [ -z "$1" ]; then
+    echo "Usage: [CDS=1] $0 DATA_FILE [--server.port=8088] [--bus-route.lean.worker-threads=0]"
+    exit 1
+fi
+
+# Explicit jar list in a fixed order, the archive is valid for the same classpath only
+CP="$TARGET/bus-route-challenge-0.0.1-SNAPSHOT-lean.jar"
+for JAR in $(ls "$TARGET"/lib/*.jar | sort); do
+    CP="$CP:$JAR"
+done
+
+JAVA_OPTS=""
+if [ "$CDS" = "1" ]; then
+    ARCHIVE="$TARGET/lean-cds.jsa"
+    if [ ! -f "$ARCHIVE" ]; then
+        java -XX:DumpLoadedClassList="$TARGET/lean-cds.classlist" -cp "$CP" $MAIN "$1" --bus-route.lean.exit-after-start=true --server.port=0
+        java -Xshare:dump -XX:SharedClassListFile="$TARGET/lean-cds.classlist" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CP"
+    fi
+    JAVA_OPTS="-Xshare:auto -XX:SharedArchiveFile=$ARCHIVE"
+fi
+
+exec java $JAVA_OPTS -cp "$CP" $MAIN "$@"